@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+
+/**
+ * The storage that a benchmark runs against. Benchmarks take the storage type as a JMH parameter, so the same suite can
+ * be run against an in-memory file system, which measures the code without any file system overhead, and against a
+ * tmpfs-backed directory, which adds the cost of real file channels without depending on the disks of the machine.
+ *
+ * The tmpfs directory is {@code /dev/shm} by default, and can be changed with the {@value #TMPFS_DIRECTORY_PROPERTY}
+ * system property. If it does not exist, the default temporary directory is used instead.
+ */
+public final class BenchmarkStorage implements AutoCloseable
+{
+    public static final String EPHEMERAL = "ephemeral";
+    public static final String TMPFS = "tmpfs";
+    public static final String TMPFS_DIRECTORY_PROPERTY = "neo4j.benchmarks.tmpfs";
+
+    private final FileSystemAbstraction fileSystem;
+    private final File directory;
+
+    private BenchmarkStorage( FileSystemAbstraction fileSystem, File directory )
+    {
+        this.fileSystem = fileSystem;
+        this.directory = directory;
+    }
+
+    public static BenchmarkStorage create( String type ) throws IOException
+    {
+        switch ( type )
+        {
+        case EPHEMERAL:
+            EphemeralFileSystemAbstraction ephemeral = new EphemeralFileSystemAbstraction();
+            File directory = new File( "/benchmark" ).getAbsoluteFile();
+            ephemeral.mkdirs( directory );
+            return new BenchmarkStorage( ephemeral, directory );
+        case TMPFS:
+            Path root = Path.of( System.getProperty( TMPFS_DIRECTORY_PROPERTY, "/dev/shm" ) );
+            Path tmpfsDirectory = Files.isDirectory( root ) ? Files.createTempDirectory( root, "neo4j-benchmark" )
+                                                            : Files.createTempDirectory( "neo4j-benchmark" );
+            return new BenchmarkStorage( new DefaultFileSystemAbstraction(), tmpfsDirectory.toFile() );
+        default:
+            throw new IllegalArgumentException( "Unknown benchmark storage '" + type + "', expected '" + EPHEMERAL + "' or '" + TMPFS + "'." );
+        }
+    }
+
+    public FileSystemAbstraction fileSystem()
+    {
+        return fileSystem;
+    }
+
+    public File directory()
+    {
+        return directory;
+    }
+
+    public File file( String name )
+    {
+        return new File( directory, name );
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            fileSystem.deleteRecursively( directory );
+        }
+        finally
+        {
+            fileSystem.close();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.bolt.packstream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.benchmarks.BenchmarkStorage;
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.impl.util.NodeEntityWrappingNodeValue;
+import org.neo4j.kernel.impl.util.ValueUtils;
+
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.graphdb.Label.label;
+
+/**
+ * Compares packing nodes for bolt straight from the store cursors with packing them after their labels and properties have been
+ * loaded into values, which is how every node was packed before. The auxiliary counter reports the packed bytes per second, and
+ * the allocation rate of the two is compared by running with the gc profiler, {@code -prof gc}.
+ */
+@State( Scope.Benchmark )
+@Fork( 1 )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class PackNodeBenchmark
+{
+    @Param( {"10000"} )
+    public int nodes;
+
+    @Param( {"2", "20"} )
+    public int properties;
+
+    private BenchmarkStorage benchmarkStorage;
+    private DatabaseManagementService managementService;
+    private GraphDatabaseService db;
+
+    @Setup( Level.Trial )
+    public void setUp() throws Exception
+    {
+        benchmarkStorage = BenchmarkStorage.create( BenchmarkStorage.TMPFS );
+        managementService = new DatabaseManagementServiceBuilder( benchmarkStorage.directory() ).build();
+        db = managementService.database( DEFAULT_DATABASE_NAME );
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < nodes; i++ )
+            {
+                Node node = tx.createNode( label( "Person" ), label( "Customer" ) );
+                for ( int p = 0; p < properties; p++ )
+                {
+                    node.setProperty( "key" + p, p % 2 == 0 ? "value " + i : (Object) (long) i );
+                }
+            }
+            tx.commit();
+        }
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() throws Exception
+    {
+        managementService.shutdown();
+        benchmarkStorage.close();
+    }
+
+    @State( Scope.Thread )
+    @AuxCounters( AuxCounters.Type.OPERATIONS )
+    public static class Output implements PackOutput
+    {
+        public long bytes;
+
+        Transaction transaction;
+        Neo4jPack.Packer packer;
+
+        @Setup( Level.Iteration )
+        public void setUp( PackNodeBenchmark benchmark )
+        {
+            transaction = benchmark.db.beginTx();
+            packer = new Neo4jPackV2().newPacker( this );
+        }
+
+        @TearDown( Level.Iteration )
+        public void tearDown()
+        {
+            transaction.close();
+        }
+
+        @Override
+        public void beginMessage()
+        {
+        }
+
+        @Override
+        public void messageSucceeded()
+        {
+        }
+
+        @Override
+        public void messageFailed()
+        {
+        }
+
+        @Override
+        public void messageReset()
+        {
+        }
+
+        @Override
+        public PackOutput flush()
+        {
+            return this;
+        }
+
+        @Override
+        public PackOutput writeByte( byte value )
+        {
+            bytes += Byte.BYTES;
+            return this;
+        }
+
+        @Override
+        public PackOutput writeBytes( ByteBuffer data )
+        {
+            bytes += data.remaining();
+            data.position( data.limit() );
+            return this;
+        }
+
+        @Override
+        public PackOutput writeBytes( byte[] data, int offset, int amountToWrite )
+        {
+            bytes += amountToWrite;
+            return this;
+        }
+
+        @Override
+        public PackOutput writeShort( short value )
+        {
+            bytes += Short.BYTES;
+            return this;
+        }
+
+        @Override
+        public PackOutput writeInt( int value )
+        {
+            bytes += Integer.BYTES;
+            return this;
+        }
+
+        @Override
+        public PackOutput writeLong( long value )
+        {
+            bytes += Long.BYTES;
+            return this;
+        }
+
+        @Override
+        public PackOutput writeDouble( double value )
+        {
+            bytes += Double.BYTES;
+            return this;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    @Benchmark
+    public void streamed( Output output ) throws IOException
+    {
+        output.packer.pack( ValueUtils.fromNodeEntity( randomNode( output ) ) );
+    }
+
+    @Benchmark
+    public void loaded( Output output ) throws IOException
+    {
+        NodeEntityWrappingNodeValue value = (NodeEntityWrappingNodeValue) ValueUtils.fromNodeEntity( randomNode( output ) );
+        value.populate();
+        output.packer.pack( value );
+    }
+
+    private Node randomNode( Output output )
+    {
+        return output.transaction.getNodeById( ThreadLocalRandom.current().nextInt( nodes ) );
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.benchmarks.BenchmarkStorage;
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.storageengine.api.StorageReader;
+import org.neo4j.storageengine.api.StorageRelationshipTraversalCursor;
+
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.storageengine.api.RelationshipSelection.ALL_RELATIONSHIPS;
+
+/**
+ * Measures node scans, single node reads and relationship traversals with the {@link RecordNodeCursor} and
+ * {@link RecordRelationshipTraversalCursor} of the record storage engine. With the default dense node threshold, the
+ * higher degree makes every node dense, so both the sparse and the relationship group based traversals are covered.
+ *
+ * The database is created in a tmpfs-backed directory, since a database management service cannot be given an
+ * ephemeral file system outside of the test support code.
+ */
+@State( Scope.Benchmark )
+@Fork( 1 )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class RecordCursorBenchmark
+{
+    private static final RelationshipType TYPE = RelationshipType.withName( "R" );
+
+    @Param( {"100000"} )
+    public int nodes;
+
+    @Param( {"10", "100"} )
+    public int degree;
+
+    private BenchmarkStorage benchmarkStorage;
+    private DatabaseManagementService managementService;
+    private StorageEngine storageEngine;
+
+    @Setup( Level.Trial )
+    public void setUp() throws Exception
+    {
+        benchmarkStorage = BenchmarkStorage.create( BenchmarkStorage.TMPFS );
+        managementService = new DatabaseManagementServiceBuilder( benchmarkStorage.directory() ).build();
+        GraphDatabaseAPI db = (GraphDatabaseAPI) managementService.database( DEFAULT_DATABASE_NAME );
+        createGraph( db );
+        storageEngine = db.getDependencyResolver().resolveDependency( StorageEngine.class );
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() throws Exception
+    {
+        managementService.shutdown();
+        benchmarkStorage.close();
+    }
+
+    private void createGraph( GraphDatabaseAPI db )
+    {
+        int batchSize = 10_000;
+        for ( int start = 0; start < nodes; start += batchSize )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                for ( int i = start; i < Math.min( start + batchSize, nodes ); i++ )
+                {
+                    tx.createNode();
+                }
+                tx.commit();
+            }
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int relationshipsPerNodeAndBatch = Math.max( 1, batchSize / degree );
+        for ( int start = 0; start < nodes; start += relationshipsPerNodeAndBatch )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                for ( int i = start; i < Math.min( start + relationshipsPerNodeAndBatch, nodes ); i++ )
+                {
+                    Node node = tx.getNodeById( i );
+                    // Every relationship is also counted in the degree of the other node, so create half of the degree here.
+                    for ( int r = 0; r < degree / 2; r++ )
+                    {
+                        node.createRelationshipTo( tx.getNodeById( random.nextInt( nodes ) ), TYPE );
+                    }
+                }
+                tx.commit();
+            }
+        }
+    }
+
+    @State( Scope.Thread )
+    public static class Cursors
+    {
+        StorageReader reader;
+        StorageNodeCursor nodeCursor;
+        StorageRelationshipTraversalCursor relationshipCursor;
+
+        @Setup( Level.Iteration )
+        public void setUp( RecordCursorBenchmark benchmark )
+        {
+            reader = benchmark.storageEngine.newReader();
+            nodeCursor = reader.allocateNodeCursor( NULL );
+            relationshipCursor = reader.allocateRelationshipTraversalCursor( NULL );
+        }
+
+        @TearDown( Level.Iteration )
+        public void tearDown()
+        {
+            relationshipCursor.close();
+            nodeCursor.close();
+            reader.close();
+        }
+    }
+
+    /**
+     * Scans all nodes, so the score is per node scan rather than per node.
+     */
+    @Benchmark
+    public long nodeScan( Cursors cursors )
+    {
+        StorageNodeCursor nodeCursor = cursors.nodeCursor;
+        nodeCursor.scan();
+        long count = 0;
+        while ( nodeCursor.next() )
+        {
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long singleNode( Cursors cursors )
+    {
+        StorageNodeCursor nodeCursor = cursors.nodeCursor;
+        nodeCursor.single( ThreadLocalRandom.current().nextInt( nodes ) );
+        return nodeCursor.next() ? nodeCursor.relationshipsReference() : -1;
+    }
+
+    @Benchmark
+    public long relationshipTraversal( Cursors cursors )
+    {
+        StorageNodeCursor nodeCursor = cursors.nodeCursor;
+        StorageRelationshipTraversalCursor relationshipCursor = cursors.relationshipCursor;
+        nodeCursor.single( ThreadLocalRandom.current().nextInt( nodes ) );
+        if ( !nodeCursor.next() )
+        {
+            return -1;
+        }
+        nodeCursor.relationships( relationshipCursor, ALL_RELATIONSHIPS );
+        long sum = 0;
+        while ( relationshipCursor.next() )
+        {
+            sum += relationshipCursor.neighbourNodeReference();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.eclipse.collections.api.factory.Sets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.benchmarks.BenchmarkStorage;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+/**
+ * Measures pinning and unpinning pages with {@link MuninnPageCursor#next(long)}, and scanning a file with
+ * {@link MuninnPageCursor#next()}. When the cache is smaller than the file, the benchmarks also include page faults and
+ * evictions.
+ */
+@State( Scope.Benchmark )
+@Fork( 1 )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class MuninnPageCursorBenchmark
+{
+    @Param( {BenchmarkStorage.EPHEMERAL, BenchmarkStorage.TMPFS} )
+    public String storage;
+
+    @Param( {"4096"} )
+    public int filePages;
+
+    @Param( {"8192", "1024"} )
+    public int cachePages;
+
+    private BenchmarkStorage benchmarkStorage;
+    private JobScheduler jobScheduler;
+    private MuninnPageCache pageCache;
+    private PagedFile pagedFile;
+
+    @Setup( Level.Trial )
+    public void setUp() throws IOException
+    {
+        benchmarkStorage = BenchmarkStorage.create( storage );
+        jobScheduler = JobSchedulerFactory.createInitialisedScheduler();
+        pageCache = new MuninnPageCache( new SingleFilePageSwapperFactory( benchmarkStorage.fileSystem() ), cachePages, PageCacheTracer.NULL,
+                EmptyVersionContextSupplier.EMPTY, jobScheduler );
+        pagedFile = pageCache.map( benchmarkStorage.file( "pages" ), PAGE_SIZE, Sets.immutable.of( CREATE ) );
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            for ( long pageId = 0; pageId < filePages; pageId++ )
+            {
+                cursor.next( pageId );
+                cursor.putLong( pageId );
+            }
+        }
+        pagedFile.flushAndForce();
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() throws Exception
+    {
+        pagedFile.close();
+        pageCache.close();
+        jobScheduler.close();
+        benchmarkStorage.close();
+    }
+
+    @State( Scope.Thread )
+    public static class ReadCursor
+    {
+        PageCursor cursor;
+
+        @Setup( Level.Iteration )
+        public void setUp( MuninnPageCursorBenchmark benchmark ) throws IOException
+        {
+            cursor = benchmark.pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL );
+        }
+
+        @TearDown( Level.Iteration )
+        public void tearDown()
+        {
+            cursor.close();
+        }
+    }
+
+    @State( Scope.Thread )
+    public static class WriteCursor
+    {
+        PageCursor cursor;
+
+        @Setup( Level.Iteration )
+        public void setUp( MuninnPageCursorBenchmark benchmark ) throws IOException
+        {
+            cursor = benchmark.pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL );
+        }
+
+        @TearDown( Level.Iteration )
+        public void tearDown()
+        {
+            cursor.close();
+        }
+    }
+
+    @Benchmark
+    @Threads( 1 )
+    public long pinUnpinRead( ReadCursor state ) throws IOException
+    {
+        return readRandomPage( state.cursor );
+    }
+
+    @Benchmark
+    @Threads( 4 )
+    public long pinUnpinReadConcurrent( ReadCursor state ) throws IOException
+    {
+        return readRandomPage( state.cursor );
+    }
+
+    @Benchmark
+    @Threads( 1 )
+    public void pinUnpinWrite( WriteCursor state ) throws IOException
+    {
+        PageCursor cursor = state.cursor;
+        long pageId = ThreadLocalRandom.current().nextInt( filePages );
+        cursor.next( pageId );
+        cursor.putLong( 8, pageId );
+    }
+
+    /**
+     * Scans the whole file, so the score is per file scan rather than per page.
+     */
+    @Benchmark
+    @Threads( 1 )
+    public long sequentialNext() throws IOException
+    {
+        long sum = 0;
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+        {
+            while ( cursor.next() )
+            {
+                long value;
+                do
+                {
+                    value = cursor.getLong( 0 );
+                }
+                while ( cursor.shouldRetry() );
+                sum += value;
+            }
+        }
+        return sum;
+    }
+
+    private long readRandomPage( PageCursor cursor ) throws IOException
+    {
+        cursor.next( ThreadLocalRandom.current().nextInt( filePages ) );
+        long value;
+        do
+        {
+            value = cursor.getLong( 0 );
+        }
+        while ( cursor.shouldRetry() );
+        return value;
+    }
+}
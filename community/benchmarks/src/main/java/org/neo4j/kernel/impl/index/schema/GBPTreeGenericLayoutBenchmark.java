@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.eclipse.collections.api.factory.Sets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.benchmarks.BenchmarkStorage;
+import org.neo4j.configuration.Config;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.index.internal.gbptree.Seeker;
+import org.neo4j.index.internal.gbptree.ValueMergers;
+import org.neo4j.index.internal.gbptree.Writer;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettings;
+import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.values.storable.Values;
+
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_READER;
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_WRITER;
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_MONITOR;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.Inclusion.NEUTRAL;
+
+/**
+ * Measures seeks, inserts and merges on a {@link GBPTree} with the {@link GenericLayout} that backs the native btree
+ * indexes, using single property keys with long values. The tree is populated with {@code initialKeys} keys before
+ * each trial, and writes are done in batches of {@value #BATCH_SIZE} per writer, like index updates are applied.
+ *
+ * This benchmark lives in the package of {@link GenericLayout}, because the layout is package-private.
+ */
+@State( Scope.Benchmark )
+@Fork( 1 )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class GBPTreeGenericLayoutBenchmark
+{
+    private static final int BATCH_SIZE = 1000;
+    private static final int CACHE_PAGES = 16384;
+
+    @Param( {BenchmarkStorage.EPHEMERAL, BenchmarkStorage.TMPFS} )
+    public String storage;
+
+    @Param( {"100000"} )
+    public int initialKeys;
+
+    @Param( {"100"} )
+    public int rangeSize;
+
+    private BenchmarkStorage benchmarkStorage;
+    private JobScheduler jobScheduler;
+    private MuninnPageCache pageCache;
+    private GenericLayout layout;
+    private GBPTree<GenericKey,NativeIndexValue> tree;
+    private long nextEntityId;
+
+    @Setup( Level.Trial )
+    public void setUp() throws IOException
+    {
+        benchmarkStorage = BenchmarkStorage.create( storage );
+        jobScheduler = JobSchedulerFactory.createInitialisedScheduler();
+        pageCache = new MuninnPageCache( new SingleFilePageSwapperFactory( benchmarkStorage.fileSystem() ), CACHE_PAGES, PageCacheTracer.NULL,
+                EmptyVersionContextSupplier.EMPTY, jobScheduler );
+        layout = new GenericLayout( 1, IndexSpecificSpaceFillingCurveSettings.fromConfig( Config.defaults() ) );
+        tree = new GBPTree<>( pageCache, benchmarkStorage.file( "index" ), layout, 0, NO_MONITOR, NO_HEADER_READER, NO_HEADER_WRITER,
+                RecoveryCleanupWorkCollector.immediate(), false, PageCacheTracer.NULL, Sets.immutable.empty() );
+        GenericKey key = layout.newKey();
+        try ( Writer<GenericKey,NativeIndexValue> writer = tree.writer( NULL ) )
+        {
+            for ( long value = 0; value < initialKeys; value++ )
+            {
+                writer.put( key( key, value, nextEntityId++ ), NativeIndexValue.INSTANCE );
+            }
+        }
+        tree.checkpoint( IOLimiter.UNLIMITED, NULL );
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() throws Exception
+    {
+        tree.close();
+        pageCache.close();
+        jobScheduler.close();
+        benchmarkStorage.close();
+    }
+
+    @State( Scope.Thread )
+    public static class Keys
+    {
+        GenericKey from;
+        GenericKey to;
+        GenericKey key;
+
+        @Setup
+        public void setUp( GBPTreeGenericLayoutBenchmark benchmark )
+        {
+            from = benchmark.layout.newKey();
+            to = benchmark.layout.newKey();
+            key = benchmark.layout.newKey();
+        }
+    }
+
+    @Benchmark
+    public boolean seekExact( Keys keys ) throws IOException
+    {
+        long value = ThreadLocalRandom.current().nextInt( initialKeys );
+        key( keys.from, value, Long.MIN_VALUE );
+        key( keys.to, value, Long.MAX_VALUE );
+        try ( Seeker<GenericKey,NativeIndexValue> seeker = tree.seek( keys.from, keys.to, NULL ) )
+        {
+            return seeker.next();
+        }
+    }
+
+    @Benchmark
+    public long seekRange( Keys keys ) throws IOException
+    {
+        long value = ThreadLocalRandom.current().nextInt( initialKeys );
+        key( keys.from, value, Long.MIN_VALUE );
+        key( keys.to, value + rangeSize, Long.MIN_VALUE );
+        long count = 0;
+        try ( Seeker<GenericKey,NativeIndexValue> seeker = tree.seek( keys.from, keys.to, NULL ) )
+        {
+            while ( seeker.next() )
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( BATCH_SIZE )
+    public void insert( Keys keys ) throws IOException
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try ( Writer<GenericKey,NativeIndexValue> writer = tree.writer( NULL ) )
+        {
+            for ( int i = 0; i < BATCH_SIZE; i++ )
+            {
+                writer.put( key( keys.key, random.nextInt( initialKeys ), nextEntityId++ ), NativeIndexValue.INSTANCE );
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( BATCH_SIZE )
+    public void merge( Keys keys ) throws IOException
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try ( Writer<GenericKey,NativeIndexValue> writer = tree.writer( NULL ) )
+        {
+            for ( int i = 0; i < BATCH_SIZE; i++ )
+            {
+                // The initial keys have the same value and entity id, so this mostly merges into existing keys.
+                long value = random.nextInt( initialKeys );
+                writer.merge( key( keys.key, value, value ), NativeIndexValue.INSTANCE, ValueMergers.overwrite() );
+            }
+        }
+    }
+
+    private static GenericKey key( GenericKey key, long value, long entityId )
+    {
+        key.initialize( entityId );
+        key.initFromValue( 0, Values.longValue( value ), NEUTRAL );
+        return key;
+    }
+}
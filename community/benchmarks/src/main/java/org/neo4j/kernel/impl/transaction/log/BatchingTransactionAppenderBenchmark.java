@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.benchmarks.BenchmarkStorage;
+import org.neo4j.internal.recordstorage.Command;
+import org.neo4j.internal.recordstorage.RecordStorageCommandReaderFactory;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
+import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.logging.NullLog;
+import org.neo4j.monitoring.DatabaseEventListeners;
+import org.neo4j.monitoring.DatabaseHealth;
+import org.neo4j.monitoring.DatabasePanicEventGenerator;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.storageengine.api.StoreId;
+
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.kernel.impl.transaction.log.rotation.LogRotation.NO_ROTATION;
+
+/**
+ * Measures appending and forcing transactions with the {@link BatchingTransactionAppender}, from a single committer
+ * and from concurrent committers. Each transaction consists of {@code commandsPerTransaction} node commands.
+ *
+ * Every iteration starts with a new, empty transaction log, so the log does not grow without bounds on the ephemeral
+ * file system.
+ */
+@State( Scope.Benchmark )
+@Fork( value = 1, jvmArgsAppend = "-Xmx4g" )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class BatchingTransactionAppenderBenchmark
+{
+    @Param( {BenchmarkStorage.EPHEMERAL, BenchmarkStorage.TMPFS} )
+    public String storage;
+
+    @Param( {"1", "100"} )
+    public int commandsPerTransaction;
+
+    private BenchmarkStorage benchmarkStorage;
+    private TransactionRepresentation transaction;
+    private File logDirectory;
+    private LifeSupport life;
+    private TransactionAppender appender;
+    private int iteration;
+
+    @Setup( Level.Trial )
+    public void setUp() throws IOException
+    {
+        benchmarkStorage = BenchmarkStorage.create( storage );
+        List<StorageCommand> commands = new ArrayList<>( commandsPerTransaction );
+        for ( int i = 0; i < commandsPerTransaction; i++ )
+        {
+            NodeRecord before = new NodeRecord( i );
+            NodeRecord after = new NodeRecord( i, false, -1, -1 );
+            after.setInUse( true );
+            commands.add( new Command.NodeCommand( before, after ) );
+        }
+        PhysicalTransactionRepresentation representation = new PhysicalTransactionRepresentation( commands );
+        representation.setHeader( new byte[0], 0, 0, 0, 0 );
+        transaction = representation;
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() throws IOException
+    {
+        benchmarkStorage.close();
+    }
+
+    @Setup( Level.Iteration )
+    public void startLog() throws IOException
+    {
+        logDirectory = benchmarkStorage.file( "log-" + iteration++ );
+        SimpleTransactionIdStore transactionIdStore = new SimpleTransactionIdStore();
+        LogFiles logFiles = LogFilesBuilder.builder( DatabaseLayout.ofFlat( logDirectory ), benchmarkStorage.fileSystem() )
+                .withLogVersionRepository( new SimpleLogVersionRepository() )
+                .withTransactionIdStore( transactionIdStore )
+                .withLogEntryReader( new VersionAwareLogEntryReader( RecordStorageCommandReaderFactory.INSTANCE ) )
+                .withStoreId( StoreId.UNKNOWN )
+                .build();
+        DatabaseHealth health = new DatabaseHealth(
+                new DatabasePanicEventGenerator( new DatabaseEventListeners( NullLog.getInstance() ), "benchmark" ), NullLog.getInstance() );
+        life = new LifeSupport();
+        life.add( logFiles );
+        appender = life.add( new BatchingTransactionAppender( logFiles, NO_ROTATION, new TransactionMetadataCache(), transactionIdStore, health ) );
+        life.start();
+    }
+
+    @TearDown( Level.Iteration )
+    public void stopLog() throws IOException
+    {
+        life.shutdown();
+        benchmarkStorage.fileSystem().deleteRecursively( logDirectory );
+    }
+
+    @Benchmark
+    @Threads( 1 )
+    public long commit() throws IOException
+    {
+        return appender.append( new TransactionToApply( transaction, NULL ), LogAppendEvent.NULL );
+    }
+
+    @Benchmark
+    @Threads( 8 )
+    public long concurrentCommit() throws IOException
+    {
+        return appender.append( new TransactionToApply( transaction, NULL ), LogAppendEvent.NULL );
+    }
+}
@@ -34,10 +34,19 @@ import org.neo4j.kernel.api.exceptions.Status;
 /**
  * A target output for {@link PackStream} which breaks the data into a continuous stream of chunks before pushing them into a netty
  * channel.
+ * <p>
+ * Complete messages are written to the channel once the buffer holds at least the flush threshold. The threshold adapts between the
+ * minimum and maximum buffer size to how fast the client consumes the output: it grows while the channel has room for more, so that
+ * large results are written in fewer, larger writes, and shrinks when the channel is not writable, so that less output is held in
+ * memory for a slow client.
  */
 public class ChunkedOutput implements PackOutput
 {
     private static final int DEFAULT_BUFFER_SIZE = 8192;
+    // The bolt write throttle sets the channel's high water mark to 512 KiB and its low water mark to 128 KiB by default. A buffer of the low
+    // water mark still leaves room for several flushes before the channel becomes unwritable. The threshold only grows while two more buffers
+    // fit below the high water mark, so a channel with a lower high water mark keeps it smaller.
+    private static final int DEFAULT_MAX_BUFFER_SIZE = 131072;
 
     public static final int CHUNK_HEADER_SIZE = 2;
     public static final int MESSAGE_BOUNDARY = 0;
@@ -46,11 +55,13 @@ public class ChunkedOutput implements PackOutput
     private static final int NO_MESSAGE = -1;
 
     private final Channel channel;
+    private final int minBufferSize;
     private final int maxBufferSize;
     private final int maxChunkSize;
     private final TransportThrottleGroup throttleGroup;
 
     private ByteBuf buffer;
+    private int flushThreshold;
     private int currentChunkStartIndex;
     private boolean closed;
 
@@ -60,7 +71,7 @@ public class ChunkedOutput implements PackOutput
 
     public ChunkedOutput( Channel ch, TransportThrottleGroup throttleGroup )
     {
-        this( ch, DEFAULT_BUFFER_SIZE, throttleGroup );
+        this( ch, DEFAULT_BUFFER_SIZE, DEFAULT_MAX_BUFFER_SIZE, MAX_CHUNK_SIZE, throttleGroup );
     }
 
     public ChunkedOutput( Channel ch, int bufferSize, TransportThrottleGroup throttleGroup )
@@ -69,10 +80,17 @@ public class ChunkedOutput implements PackOutput
     }
 
     public ChunkedOutput( Channel channel, int maxBufferSize, int maxChunkSize, TransportThrottleGroup throttleGroup )
+    {
+        this( channel, maxBufferSize, maxBufferSize, maxChunkSize, throttleGroup );
+    }
+
+    public ChunkedOutput( Channel channel, int minBufferSize, int maxBufferSize, int maxChunkSize, TransportThrottleGroup throttleGroup )
     {
         this.channel = Objects.requireNonNull( channel );
+        this.minBufferSize = minBufferSize;
         this.maxBufferSize = maxBufferSize;
         this.maxChunkSize = maxChunkSize;
+        this.flushThreshold = minBufferSize;
         this.buffer = allocateBuffer();
         this.throttleGroup = Objects.requireNonNull( throttleGroup );
     }
@@ -97,8 +115,9 @@ public class ChunkedOutput implements PackOutput
         closeChunkIfOpen();
         buffer.writeShort( MESSAGE_BOUNDARY );
 
-        if ( buffer.readableBytes() >= maxBufferSize )
+        if ( buffer.readableBytes() >= flushThreshold )
         {
+            adaptFlushThreshold();
             flush();
         }
         chunkOpen = false;
@@ -274,6 +293,27 @@ public class ChunkedOutput implements PackOutput
         }
     }
 
+    /**
+     * Doubles the flush threshold while the channel can take at least two more buffers of the current size before it becomes unwritable,
+     * and halves it when the channel is already unwritable, i.e. when the write throttle is about to wait for the client.
+     */
+    private void adaptFlushThreshold()
+    {
+        if ( !channel.isWritable() )
+        {
+            flushThreshold = Math.max( minBufferSize, flushThreshold / 2 );
+        }
+        else if ( channel.bytesBeforeUnwritable() > 2L * flushThreshold )
+        {
+            flushThreshold = Math.min( maxBufferSize, flushThreshold * 2 );
+        }
+    }
+
+    int flushThreshold()
+    {
+        return flushThreshold;
+    }
+
     private int availableBytesInCurrentChunk()
     {
         return maxChunkSize - currentChunkBodySize() - CHUNK_HEADER_SIZE;
@@ -286,7 +326,7 @@ public class ChunkedOutput implements PackOutput
 
     private ByteBuf allocateBuffer()
     {
-        return channel.alloc().buffer( maxBufferSize );
+        return channel.alloc().buffer( flushThreshold );
     }
 
     private void assertMessageStarted()
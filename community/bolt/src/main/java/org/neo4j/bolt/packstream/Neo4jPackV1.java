@@ -30,8 +30,8 @@ import org.neo4j.bolt.messaging.BoltIOException;
 import org.neo4j.bolt.messaging.StructType;
 import org.neo4j.bolt.messaging.util.PrimitiveLongIntKeyValueArray;
 import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.kernel.impl.util.EntityStreamingWriter;
 import org.neo4j.values.AnyValue;
-import org.neo4j.values.AnyValueWriter;
 import org.neo4j.values.storable.CoordinateReferenceSystem;
 import org.neo4j.values.storable.TextArray;
 import org.neo4j.values.storable.TextValue;
@@ -91,7 +91,7 @@ public class Neo4jPackV1 implements Neo4jPack
         return getClass().getSimpleName();
     }
 
-    protected static class PackerV1 extends PackStream.Packer implements AnyValueWriter<IOException>, Neo4jPack.Packer
+    protected static class PackerV1 extends PackStream.Packer implements EntityStreamingWriter<IOException>, Neo4jPack.Packer
     {
         private static final int INITIAL_PATH_CAPACITY = 500;
         private static final int NO_SUCH_ID = -1;
@@ -130,8 +130,7 @@ public class Neo4jPackV1 implements Neo4jPack
         @Override
         public void writeNode( long nodeId, TextArray labels, MapValue properties ) throws IOException
         {
-            packStructHeader( NODE_SIZE, NODE );
-            pack( nodeId );
+            beginNode( nodeId );
             packListHeader( labels.length() );
             for ( int i = 0; i < labels.length(); i++ )
             {
@@ -149,13 +148,26 @@ public class Neo4jPackV1 implements Neo4jPack
         @Override
         public void writeRelationship( long relationshipId, long startNodeId, long endNodeId, TextValue type, MapValue properties )
                 throws IOException
+        {
+            beginRelationship( relationshipId, startNodeId, endNodeId );
+            type.writeTo( this );
+            properties.writeTo( this );
+        }
+
+        @Override
+        public void beginNode( long nodeId ) throws IOException
+        {
+            packStructHeader( NODE_SIZE, NODE );
+            pack( nodeId );
+        }
+
+        @Override
+        public void beginRelationship( long relationshipId, long startNodeId, long endNodeId ) throws IOException
         {
             packStructHeader( RELATIONSHIP_SIZE, RELATIONSHIP );
             pack( relationshipId );
             pack( startNodeId );
             pack( endNodeId );
-            type.writeTo( this );
-            properties.writeTo( this );
         }
 
         @Override
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.bolt.runtime.scheduling;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.bolt.runtime.BoltConnection;
+import org.neo4j.bolt.runtime.Job;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.internal.LogService;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A {@link BoltScheduler} with a fixed number of workers, where each connection is pinned to one worker.
+ * <p>
+ * A connection with pending jobs is put on the lock-free run queue of its worker, which processes the next batch of the
+ * connection directly on the worker thread, without going through an executor or a completion stage. A worker that has
+ * nothing to do steals connections from the run queues of the other workers, so a connection pinned to a worker that is
+ * busy with a long running job is not kept waiting while other workers are idle.
+ * <p>
+ * The time jobs spend queued, including the scheduling, is reported per message by the connection, through
+ * {@link org.neo4j.bolt.runtime.BoltConnectionMetricsMonitor#messageProcessingStarted(long)}.
+ */
+public class AffinityBoltScheduler extends LifecycleAdapter implements BoltScheduler
+{
+    // Idle workers look for connections to steal at least this often, in case they missed a wake up from a busy peer
+    private static final long IDLE_PARK_NANOS = MILLISECONDS.toNanos( 10 );
+
+    private final String connector;
+    private final JobScheduler scheduler;
+    private final Log log;
+    private final int workerCount;
+    private final Duration shutdownWaitTime;
+    private final ConcurrentHashMap<String,ScheduledConnection> activeConnections = new ConcurrentHashMap<>();
+    private final AtomicInteger nextWorker = new AtomicInteger();
+
+    private Worker[] workers;
+    private volatile boolean stopped;
+
+    public AffinityBoltScheduler( String connector, JobScheduler scheduler, LogService logService, int workerCount, Duration shutdownWaitTime )
+    {
+        this.connector = connector;
+        this.scheduler = scheduler;
+        this.log = logService.getInternalLog( getClass() );
+        this.workerCount = workerCount;
+        this.shutdownWaitTime = shutdownWaitTime;
+    }
+
+    boolean isRegistered( BoltConnection connection )
+    {
+        return activeConnections.containsKey( connection.id() );
+    }
+
+    boolean isActive( BoltConnection connection )
+    {
+        ScheduledConnection scheduled = activeConnections.get( connection.id() );
+        return scheduled != null && scheduled.scheduled.get();
+    }
+
+    @Override
+    public String connector()
+    {
+        return connector;
+    }
+
+    @Override
+    public void init()
+    {
+        ThreadFactory threadFactory = new NameAppendingThreadFactory( connector, scheduler.threadFactory( Group.BOLT_WORKER ) );
+        workers = new Worker[workerCount];
+        for ( int i = 0; i < workerCount; i++ )
+        {
+            workers[i] = new Worker( i );
+        }
+        for ( Worker worker : workers )
+        {
+            worker.thread = threadFactory.newThread( worker );
+            worker.thread.start();
+        }
+        log.debug( "Initialized %d bolt workers", workerCount );
+    }
+
+    @Override
+    public void start()
+    {
+    }
+
+    @Override
+    public void stop()
+    {
+        // Close all idle connections
+        log.debug( "Stopping idle connections" );
+        activeConnections.values().stream().map( scheduled -> scheduled.connection ).filter( BoltConnection::idle ).forEach( this::stopConnection );
+        log.debug( "Idle connections stopped" );
+    }
+
+    @Override
+    public void shutdown()
+    {
+        // Close all connections
+        log.debug( "Stopping connections" );
+        activeConnections.values().forEach( scheduled -> stopConnection( scheduled.connection ) );
+        log.debug( "Connections stopped" );
+
+        if ( workers != null )
+        {
+            log.debug( "Shutting down bolt workers" );
+            stopped = true;
+            for ( Worker worker : workers )
+            {
+                LockSupport.unpark( worker.thread );
+            }
+            try
+            {
+                long deadline = System.nanoTime() + shutdownWaitTime.toNanos();
+                boolean terminatedCleanly = true;
+                for ( Worker worker : workers )
+                {
+                    worker.thread.join( Math.max( 1, NANOSECONDS.toMillis( deadline - System.nanoTime() ) ) );
+                    terminatedCleanly &= !worker.thread.isAlive();
+                }
+                if ( !terminatedCleanly )
+                {
+                    log.warn( "Waited %s for the bolt workers to shutdown cleanly, but timed out waiting for existing work to finish cleanly",
+                            shutdownWaitTime );
+                }
+                else
+                {
+                    log.debug( "Bolt workers shut down" );
+                }
+            }
+            catch ( InterruptedException ex )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void created( BoltConnection connection )
+    {
+        Worker home = workers[Math.floorMod( nextWorker.getAndIncrement(), workers.length )];
+        ScheduledConnection previous = activeConnections.put( connection.id(), new ScheduledConnection( connection, home ) );
+        // We do not expect the same (keyed) connection twice
+        assert previous == null;
+    }
+
+    @Override
+    public void closed( BoltConnection connection )
+    {
+        ScheduledConnection scheduled = activeConnections.remove( connection.id() );
+        if ( scheduled != null )
+        {
+            // A batch that is already running is completed, but a queued one is skipped
+            scheduled.closed = true;
+        }
+    }
+
+    @Override
+    public void enqueued( BoltConnection to, Job job )
+    {
+        ScheduledConnection scheduled = activeConnections.get( to.id() );
+        if ( scheduled != null )
+        {
+            scheduled.schedule();
+        }
+    }
+
+    @Override
+    public void drained( BoltConnection from, Collection<Job> batch )
+    {
+
+    }
+
+    private void stopConnection( BoltConnection connection )
+    {
+        try
+        {
+            connection.stop();
+        }
+        catch ( Throwable t )
+        {
+            log.warn( String.format( "An unexpected error occurred while stopping BoltConnection [%s]", connection.id() ), t );
+        }
+    }
+
+    private void wakeIdlePeer( Worker busy )
+    {
+        for ( Worker worker : workers )
+        {
+            if ( worker != busy && worker.idle )
+            {
+                LockSupport.unpark( worker.thread );
+                return;
+            }
+        }
+    }
+
+    private class ScheduledConnection
+    {
+        private final BoltConnection connection;
+        private final Worker home;
+        // Set while the connection is queued or being processed, so that only one worker at a time runs its jobs
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+
+        ScheduledConnection( BoltConnection connection, Worker home )
+        {
+            this.connection = connection;
+            this.home = home;
+        }
+
+        void schedule()
+        {
+            if ( !closed && scheduled.compareAndSet( false, true ) )
+            {
+                home.submit( this );
+            }
+        }
+    }
+
+    private class Worker implements Runnable
+    {
+        private final int index;
+        private final ConcurrentLinkedQueue<ScheduledConnection> runQueue = new ConcurrentLinkedQueue<>();
+        private volatile boolean idle;
+        private Thread thread;
+
+        Worker( int index )
+        {
+            this.index = index;
+        }
+
+        void submit( ScheduledConnection connection )
+        {
+            runQueue.offer( connection );
+            if ( idle )
+            {
+                LockSupport.unpark( thread );
+            }
+            else
+            {
+                wakeIdlePeer( this );
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            while ( !stopped )
+            {
+                ScheduledConnection next = nextConnection();
+                if ( next == null )
+                {
+                    // Publish that this worker is idle before looking again, so that a concurrent submit either is seen here or unparks us
+                    idle = true;
+                    next = nextConnection();
+                    if ( next == null && !stopped )
+                    {
+                        LockSupport.parkNanos( this, IDLE_PARK_NANOS );
+                    }
+                    idle = false;
+                }
+                if ( next != null )
+                {
+                    process( next );
+                }
+            }
+        }
+
+        private ScheduledConnection nextConnection()
+        {
+            ScheduledConnection next = runQueue.poll();
+            for ( int i = 1; next == null && i < workers.length; i++ )
+            {
+                next = workers[(index + i) % workers.length].runQueue.poll();
+            }
+            return next;
+        }
+
+        private void process( ScheduledConnection scheduled )
+        {
+            if ( scheduled.closed )
+            {
+                return;
+            }
+
+            BoltConnection connection = scheduled.connection;
+            boolean shouldContinueScheduling;
+            try
+            {
+                shouldContinueScheduling = ExecutorBoltScheduler.executeBatch( connection );
+            }
+            catch ( Throwable t )
+            {
+                log.error( String.format( "Unexpected error during job scheduling for session '%s'.", connection.id() ), t );
+                scheduled.scheduled.set( false );
+                stopConnection( connection );
+                return;
+            }
+
+            // Jobs enqueued while the batch was running did not schedule the connection, so look for them after releasing it
+            scheduled.scheduled.set( false );
+            if ( shouldContinueScheduling && connection.hasPendingJobs() )
+            {
+                scheduled.schedule();
+            }
+        }
+    }
+}
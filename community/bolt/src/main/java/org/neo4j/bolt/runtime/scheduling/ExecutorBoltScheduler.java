@@ -25,7 +25,6 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ThreadFactory;
 
 import org.neo4j.bolt.runtime.BoltConnection;
 import org.neo4j.bolt.runtime.Job;
@@ -200,7 +199,7 @@ public class ExecutorBoltScheduler extends LifecycleAdapter implements BoltSched
         }
     }
 
-    private static boolean executeBatch( BoltConnection connection )
+    static boolean executeBatch( BoltConnection connection )
     {
         Thread currentThread = Thread.currentThread();
         String originalName = currentThread.getName();
@@ -260,24 +259,4 @@ public class ExecutorBoltScheduler extends LifecycleAdapter implements BoltSched
             log.warn( String.format( "An unexpected error occurred while stopping BoltConnection [%s]", connection.id() ), t );
         }
     }
-
-    private static class NameAppendingThreadFactory implements ThreadFactory
-    {
-        private final String nameToAppend;
-        private final ThreadFactory factory;
-
-        private NameAppendingThreadFactory( String nameToAppend, ThreadFactory factory )
-        {
-            this.nameToAppend = nameToAppend;
-            this.factory = factory;
-        }
-
-        @Override
-        public Thread newThread( Runnable r )
-        {
-            Thread newThread = factory.newThread( r );
-            newThread.setName( String.format( "%s [%s]", newThread.getName(), nameToAppend ) );
-            return newThread;
-        }
-    }
 }
@@ -59,6 +59,15 @@ public class ExecutorBoltSchedulerProvider extends LifecycleAdapter implements B
         scheduler.setThreadFactory( Group.BOLT_WORKER, NettyThreadFactory::new );
         if ( config.get( BoltConnector.enabled ) )
         {
+            int affinityWorkers = config.get( BoltConnector.unsupported_affinity_scheduler_workers );
+            if ( affinityWorkers > 0 )
+            {
+                this.boltScheduler = new AffinityBoltScheduler( BoltConnector.NAME, scheduler, logService, affinityWorkers,
+                        config.get( BoltConnector.thread_pool_shutdown_wait_time ) );
+                this.boltScheduler.init();
+                return;
+            }
+
             checkState( forkJoinThreadPool == null, "ForkJoinPool already initialized, this should only be done once." );
             forkJoinThreadPool = new ForkJoinPool();
             this.boltScheduler =
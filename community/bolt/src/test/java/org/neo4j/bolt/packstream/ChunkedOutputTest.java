@@ -428,6 +428,40 @@ public class ChunkedOutputTest
         assertByteBufEqual( outboundMessages.get( 2 ), chunkContaining( (long) 5 ) + chunkContaining( (long) 6 ) + messageBoundary() );
     }
 
+    @Test
+    void shouldGrowFlushThresholdWhileChannelIsWritable() throws Exception
+    {
+        ChunkedOutput output = new ChunkedOutput( channel, 16, 64, 64, NO_THROTTLE );
+        try
+        {
+            writeMessages( output, 10 );
+
+            assertEquals( 64, output.flushThreshold() );
+        }
+        finally
+        {
+            output.close();
+        }
+    }
+
+    @Test
+    void shouldShrinkFlushThresholdWhenChannelIsNotWritable() throws Exception
+    {
+        ChunkedOutput output = new ChunkedOutput( channel, 16, 64, 64, NO_THROTTLE );
+        try
+        {
+            writeMessages( output, 10 );
+            channel.unsafe().outboundBuffer().setUserDefinedWritability( 1, false );
+            writeMessages( output, 10 );
+
+            assertEquals( 16, output.flushThreshold() );
+        }
+        finally
+        {
+            output.close();
+        }
+    }
+
     @Test
     void shouldFailToBeginMultipleMessages()
     {
@@ -540,6 +574,17 @@ public class ChunkedOutputTest
                                                          messageBoundary() );
     }
 
+    private static void writeMessages( ChunkedOutput output, int count ) throws IOException
+    {
+        for ( int i = 0; i < count; i++ )
+        {
+            output.beginMessage();
+            output.writeLong( i );
+            output.writeLong( i );
+            output.messageSucceeded();
+        }
+    }
+
     private ByteBuf peekSingleOutboundMessage()
     {
         List<ByteBuf> outboundMessages = peekAllOutboundMessages();
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.bolt.runtime.scheduling;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.bolt.runtime.BoltConnection;
+import org.neo4j.bolt.testing.Jobs;
+import org.neo4j.function.Predicates;
+import org.neo4j.logging.AssertableLogProvider;
+import org.neo4j.logging.internal.LogService;
+import org.neo4j.logging.internal.SimpleLogService;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.logging.AssertableLogProvider.Level.ERROR;
+import static org.neo4j.logging.LogAssertions.assertThat;
+
+class AffinityBoltSchedulerTest
+{
+    private static final String CONNECTOR_KEY = "connector-id";
+
+    private final AssertableLogProvider logProvider = new AssertableLogProvider();
+    private final LogService logService = new SimpleLogService( logProvider );
+    private final JobScheduler jobScheduler = mock( JobScheduler.class );
+    private final AffinityBoltScheduler boltScheduler = new AffinityBoltScheduler( CONNECTOR_KEY, jobScheduler, logService, 2, Duration.ofSeconds( 5 ) );
+
+    @BeforeEach
+    void setup()
+    {
+        when( jobScheduler.threadFactory( any() ) ).thenReturn( Executors.defaultThreadFactory() );
+        boltScheduler.init();
+        boltScheduler.start();
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        boltScheduler.stop();
+        boltScheduler.shutdown();
+    }
+
+    @Test
+    void initShouldCreateWorkersFromBoltWorkerThreadFactory()
+    {
+        verify( jobScheduler ).threadFactory( Group.BOLT_WORKER );
+    }
+
+    @Test
+    void createdAndClosedShouldRegisterAndUnregisterConnection()
+    {
+        BoltConnection connection = newConnection();
+
+        boltScheduler.created( connection );
+        assertTrue( boltScheduler.isRegistered( connection ) );
+
+        boltScheduler.closed( connection );
+        assertFalse( boltScheduler.isRegistered( connection ) );
+    }
+
+    @Test
+    void enqueuedShouldNotScheduleJobWhenConnectionIsActive() throws Exception
+    {
+        BoltConnection connection = newConnection();
+        AtomicBoolean exitCondition = new AtomicBoolean();
+        when( connection.processNextBatch() ).thenAnswer( inv -> awaitExit( exitCondition ) );
+
+        boltScheduler.created( connection );
+        boltScheduler.enqueued( connection, Jobs.noop() );
+
+        Predicates.await( () -> boltScheduler.isActive( connection ), 1, MINUTES );
+        boltScheduler.enqueued( connection, Jobs.noop() );
+        exitCondition.set( true );
+        Predicates.await( () -> !boltScheduler.isActive( connection ), 1, MINUTES );
+
+        verify( connection ).processNextBatch();
+    }
+
+    @Test
+    void successfulJobsShouldTriggerSchedulingOfPendingJobs() throws Exception
+    {
+        AtomicInteger counter = new AtomicInteger();
+        BoltConnection connection = newConnection();
+        when( connection.processNextBatch() ).thenAnswer( inv -> counter.incrementAndGet() > 0 );
+        when( connection.hasPendingJobs() ).thenReturn( true ).thenReturn( false );
+
+        boltScheduler.created( connection );
+        boltScheduler.enqueued( connection, Jobs.noop() );
+
+        Predicates.await( () -> counter.get() > 1, 1, MINUTES );
+        Predicates.await( () -> !boltScheduler.isActive( connection ), 1, MINUTES );
+
+        verify( connection, times( 2 ) ).processNextBatch();
+    }
+
+    @Test
+    void idleWorkerShouldTakeOverConnectionOfBusyWorker() throws Exception
+    {
+        AtomicBoolean exitCondition = new AtomicBoolean();
+        CountDownLatch processed = new CountDownLatch( 1 );
+        // Connections are assigned to the two workers in turn, so the first and the third share a worker
+        BoltConnection busy = newConnection();
+        BoltConnection other = newConnection();
+        BoltConnection sameWorker = newConnection();
+        when( busy.processNextBatch() ).thenAnswer( inv -> awaitExit( exitCondition ) );
+        when( sameWorker.processNextBatch() ).thenAnswer( inv ->
+        {
+            processed.countDown();
+            return true;
+        } );
+
+        boltScheduler.created( busy );
+        boltScheduler.created( other );
+        boltScheduler.created( sameWorker );
+        boltScheduler.enqueued( busy, Jobs.noop() );
+        Predicates.await( () -> boltScheduler.isActive( busy ), 1, MINUTES );
+        boltScheduler.enqueued( sameWorker, Jobs.noop() );
+
+        assertTrue( processed.await( 1, MINUTES ) );
+        exitCondition.set( true );
+    }
+
+    @Test
+    void failingJobShouldLogAndStopConnection() throws Exception
+    {
+        AtomicBoolean stopped = new AtomicBoolean();
+        BoltConnection connection = newConnection();
+        var unexpectedError = new RuntimeException( "some unexpected error" );
+        doThrow( unexpectedError ).when( connection ).processNextBatch();
+        doAnswer( inv -> stopped.getAndSet( true ) ).when( connection ).stop();
+
+        boltScheduler.created( connection );
+        boltScheduler.enqueued( connection, Jobs.noop() );
+
+        Predicates.await( stopped::get, 1, MINUTES );
+
+        assertFalse( boltScheduler.isActive( connection ) );
+        verify( connection ).processNextBatch();
+        assertThat( logProvider ).forClass( AffinityBoltScheduler.class ).forLevel( ERROR )
+                .assertExceptionForLogMessage( "Unexpected error during job scheduling for session" )
+                .hasCause( unexpectedError );
+    }
+
+    @Test
+    void shutdownShouldStopAllConnections()
+    {
+        BoltConnection idle = newConnection();
+        BoltConnection active = newConnection();
+        when( idle.idle() ).thenReturn( true );
+        boltScheduler.created( idle );
+        boltScheduler.created( active );
+
+        boltScheduler.shutdown();
+
+        verify( idle ).stop();
+        verify( active ).stop();
+    }
+
+    private static BoltConnection newConnection()
+    {
+        BoltConnection result = mock( BoltConnection.class );
+        when( result.id() ).thenReturn( UUID.randomUUID().toString() );
+        when( result.remoteAddress() ).thenReturn( new InetSocketAddress( "localhost", 32_000 ) );
+        return result;
+    }
+
+    private static boolean awaitExit( AtomicBoolean exitCondition )
+    {
+        Predicates.awaitForever( () -> Thread.currentThread().isInterrupted() || exitCondition.get(), 500, MILLISECONDS );
+        return true;
+    }
+}
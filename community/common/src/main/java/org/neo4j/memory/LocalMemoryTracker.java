@@ -135,15 +135,23 @@ public class LocalMemoryTracker implements MemoryTracker
             throw new MemoryLimitExceeded( bytes, localBytesLimit, allocatedBytesHeap + allocatedBytesNative );
         }
 
-        if ( allocatedBytesHeap > heapHighWaterMark )
+        if ( allocatedBytesHeap > localHeapPool )
         {
-            heapHighWaterMark = allocatedBytesHeap;
+            long grab = max( bytes, grabSize );
+            try
+            {
+                reserveHeapFromPool( grab );
+            }
+            catch ( MemoryLimitExceeded e )
+            {
+                allocatedBytesHeap -= bytes;
+                throw e;
+            }
         }
 
-        if ( allocatedBytesHeap > localHeapPool )
+        if ( allocatedBytesHeap > heapHighWaterMark )
         {
-            long grab = max( bytes, grabSize );
-            reserveHeapFromPool( grab );
+            heapHighWaterMark = allocatedBytesHeap;
         }
     }
 
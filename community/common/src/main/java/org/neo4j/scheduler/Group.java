@@ -34,6 +34,8 @@ public enum Group
     PAGE_CACHE_EVICTION( "PageCacheEviction" ),
     /* Page cache background eviction. */
     PAGE_CACHE_PRE_FETCHER( "PageCachePreFetcher", ExecutorServiceFactory.cachedWithDiscard() ),
+    /** Records page cache profiles, and warms up the page cache from them after a restart. */
+    PAGE_CACHE_WARMER( "PageCacheWarmer" ),
     /** Watch out for, and report, external manipulation of store files. */
     FILE_WATCHER( "FileWatcher" ),
     /** Monitor and report system-wide pauses, in case they lead to service interruption. */
@@ -42,6 +44,10 @@ public enum Group
     LOG_ROTATION( "LogRotation" ),
     /** Checkpoint and store flush. */
     CHECKPOINT( "CheckPoint" ),
+    /** Appends and forces committed transactions to the transaction log in groups. */
+    LOG_WRITER( "TransactionLogWriter" ),
+    /** Applies recovered transactions that do not conflict with each other concurrently. */
+    RECOVERY_APPLIER( "RecoveryApplier" ),
     /** Various little periodic tasks that need to be done on a regular basis to keep the store in good shape. */
     STORAGE_MAINTENANCE( "StorageMaintenance" ),
     /** Index recovery cleanup. */
@@ -71,6 +77,8 @@ public enum Group
     // CYPHER.
     /** Thread pool for parallel Cypher query execution. */
     CYPHER_WORKER( "CypherWorker", ExecutorServiceFactory.workStealing() ),
+    /** Plans the queries saved from the query cache of an earlier run. */
+    QUERY_CACHE_WARMER( "QueryCacheWarmer" ),
 
     // DATA COLLECTOR
     DATA_COLLECTOR( "DataCollector" ),
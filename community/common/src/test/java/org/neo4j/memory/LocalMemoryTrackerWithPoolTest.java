@@ -91,6 +91,20 @@ class LocalMemoryTrackerWithPoolTest
         assertThrows( MemoryLimitExceeded.class, () -> memoryTracker.allocateHeap( LOCAL_LIMIT + 1 ) );
     }
 
+    @Test
+    void doesNotTrackAllocationRejectedByPool()
+    {
+        MemoryPool smallPool = new MemoryPoolImpl( 4, true );
+        LocalMemoryTracker tracker = new LocalMemoryTracker( smallPool, LOCAL_LIMIT, GRAB_SIZE );
+        tracker.allocateHeap( 3 );
+
+        assertThrows( MemoryLimitExceeded.class, () -> tracker.allocateHeap( 3 ) );
+        assertEquals( 3, tracker.estimatedHeapMemory() );
+        assertEquals( 3, tracker.heapHighWaterMark() );
+
+        tracker.reset();
+    }
+
     @Test
     void reserveFromParentWhenLocalPoolIsEmpty()
     {
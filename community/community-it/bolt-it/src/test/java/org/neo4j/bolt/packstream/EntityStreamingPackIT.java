@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.bolt.packstream;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.impl.util.NodeEntityWrappingNodeValue;
+import org.neo4j.kernel.impl.util.ValueUtils;
+import org.neo4j.test.extension.ImpermanentDbmsExtension;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.values.AnyValue;
+import org.neo4j.values.virtual.RelationshipValue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.graphdb.Label.label;
+import static org.neo4j.graphdb.RelationshipType.withName;
+import static org.neo4j.values.storable.Values.longValue;
+
+@ImpermanentDbmsExtension
+class EntityStreamingPackIT
+{
+    @Inject
+    private GraphDatabaseService db;
+
+    private final Neo4jPack neo4jPack = new Neo4jPackV2();
+
+    @Test
+    void shouldPackNodeStreamedFromStoreAsLoadedNode() throws IOException
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = tx.createNode( label( "A" ), label( "B" ) );
+            // A single property, since the properties of a loaded node are not in store order
+            node.setProperty( "scores", new long[]{1, 2, 3} );
+
+            NodeEntityWrappingNodeValue loaded = (NodeEntityWrappingNodeValue) ValueUtils.fromNodeEntity( node );
+            loaded.populate();
+
+            assertThat( packed( ValueUtils.fromNodeEntity( node ) ) ).isEqualTo( packed( loaded ) );
+        }
+    }
+
+    @Test
+    void shouldPackRelationshipStreamedFromStoreAsLoadedRelationship() throws IOException
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            Relationship relationship = tx.createNode().createRelationshipTo( tx.createNode(), withName( "KNOWS" ) );
+            relationship.setProperty( "since", "2020" );
+
+            RelationshipValue loaded = ValueUtils.fromRelationshipEntity( relationship );
+            loaded.properties();
+
+            assertThat( packed( ValueUtils.fromRelationshipEntity( relationship ) ) ).isEqualTo( packed( loaded ) );
+        }
+    }
+
+    @Test
+    void shouldPackDeletedNodeWithoutLabelsAndProperties() throws IOException
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = tx.createNode( label( "A" ) );
+            AnyValue value = ValueUtils.fromNodeEntity( node );
+            node.delete();
+
+            PackedOutputArray expected = new PackedOutputArray();
+            Neo4jPack.Packer packer = neo4jPack.newPacker( expected );
+            packer.packStructHeader( Neo4jPackV1.NODE_SIZE, Neo4jPackV1.NODE );
+            packer.pack( longValue( node.getId() ) );
+            packer.packListHeader( 0 );
+            packer.packMapHeader( 0 );
+
+            assertThat( packed( value ) ).isEqualTo( expected.bytes() );
+        }
+    }
+
+    private byte[] packed( AnyValue value ) throws IOException
+    {
+        PackedOutputArray output = new PackedOutputArray();
+        neo4jPack.newPacker( output ).pack( value );
+        return output.bytes();
+    }
+}
@@ -106,4 +106,23 @@ class LatchMapTest
         latches.takeOrAwaitLatch( 42 ).release();
         latches.takeOrAwaitLatch( 42 ).release();
     }
+
+    @Test
+    void tryTakeLatchMustReturnLatchIfAvailable()
+    {
+        BinaryLatch latch = latches.tryTakeLatch( 42 );
+        assertThat( latch ).isNotNull();
+        latch.release();
+        latches.takeOrAwaitLatch( 42 ).release();
+    }
+
+    @Test
+    void tryTakeLatchMustReturnNullWithoutWaitingIfLatchIsTaken()
+    {
+        BinaryLatch latch = latches.takeOrAwaitLatch( 42 );
+        assertThat( latch ).isNotNull();
+        assertThat( latches.tryTakeLatch( 42 ) ).isNull();
+        latch.release();
+        latches.tryTakeLatch( 42 ).release();
+    }
 }
@@ -547,6 +547,50 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test
+    void faultAheadMustFaultInAdjacentPagesWithoutPinningThem() throws Exception
+    {
+        writePagesOfLongsTo( file( "a" ), 8 );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, tracer );
+                MuninnPagedFile pagedFile = (MuninnPagedFile) map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( var cursorTracer = tracer.createPageCursorTracer( "faultAhead" ) )
+            {
+                assertThat( pagedFile.faultAhead( 1, 1, 4, cursorTracer ) ).isEqualTo( 4 );
+            }
+            try ( var cursorTracer = tracer.createPageCursorTracer( "scan" );
+                    PageCursor cursor = pagedFile.io( 1, PF_SHARED_READ_LOCK, cursorTracer ) )
+            {
+                for ( long pageId = 1; pageId <= 4; pageId++ )
+                {
+                    assertTrue( cursor.next() );
+                    assertThat( cursor.getLong() ).isEqualTo( pageId );
+                }
+                assertThat( cursorTracer.faults() ).isZero();
+                assertThat( cursorTracer.hits() ).isEqualTo( 4 );
+            }
+        }
+    }
+
+    @Test
+    void faultAheadMustSkipMappedPagesAndStopAtEndOfFile() throws Exception
+    {
+        writePagesOfLongsTo( file( "a" ), 8 );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, PageCacheTracer.NULL );
+                MuninnPagedFile pagedFile = (MuninnPagedFile) map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 5, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+            }
+            assertThat( pagedFile.faultAhead( 3, 1, 10, NULL ) ).isEqualTo( 4 ); // Pages 3, 4, 6 and 7.
+            assertThat( pagedFile.faultAhead( 7, -2, 10, NULL ) ).isEqualTo( 1 ); // Pages 1; 7, 5 and 3 are mapped.
+            assertThat( pagedFile.faultAhead( 0, 1, 10, NULL ) ).isEqualTo( 2 ); // Pages 0 and 2.
+            assertThat( pagedFile.faultAhead( 0, 1, 10, NULL ) ).isZero();
+        }
+    }
+
     @Test
     void mustUnblockPageFaultersWhenEvictionGetsException()
     {
@@ -784,6 +828,20 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    private void writePagesOfLongsTo( File file, int pages ) throws IOException
+    {
+        try ( StoreChannel channel = fs.write( file ) )
+        {
+            ByteBuffer buf = ByteBuffers.allocate( pages * Long.BYTES );
+            for ( long pageId = 0; pageId < pages; pageId++ )
+            {
+                buf.putLong( pageId );
+            }
+            buf.flip();
+            channel.writeAll( buf );
+        }
+    }
+
     private ByteBuffer readIntoBuffer( String fileName ) throws IOException
     {
         ByteBuffer buffer = ByteBuffers.allocate( 16 );
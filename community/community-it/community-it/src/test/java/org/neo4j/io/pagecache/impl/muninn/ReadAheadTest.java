@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadAheadTest
+{
+    private final ReadAhead readAhead = new ReadAhead();
+
+    @Test
+    void mustNotReadAheadForRandomAccess()
+    {
+        for ( long pageId : new long[]{1000, 3, 7000, 420, 90_000, 12} )
+        {
+            assertThat( readAhead.pageFaulted( pageId, false ) ).isNull();
+        }
+    }
+
+    @Test
+    void mustReadAheadOnceSequentialStreamIsConfirmed()
+    {
+        assertThat( readAhead.pageFaulted( 10, false ) ).isNull();
+        assertThat( readAhead.pageFaulted( 11, false ) ).isNull();
+        ReadAhead.Window window = readAhead.pageFaulted( 12, false );
+        assertThat( window ).isNotNull();
+        assertThat( window.startFilePageId ).isEqualTo( 13 );
+        assertThat( window.stride ).isEqualTo( 1 );
+        assertThat( window.length ).isGreaterThan( 1 );
+    }
+
+    @Test
+    void mustReadAheadAsSoonAsDirectionIsKnownWhenHinted()
+    {
+        assertThat( readAhead.pageFaulted( 100, true ) ).isNull();
+        ReadAhead.Window window = readAhead.pageFaulted( 99, true );
+        assertThat( window ).isNotNull();
+        assertThat( window.startFilePageId ).isEqualTo( 98 );
+        assertThat( window.stride ).isEqualTo( -1 );
+    }
+
+    @Test
+    void mustDetectStridedAccess()
+    {
+        readAhead.pageFaulted( 0, false );
+        readAhead.pageFaulted( 3, false );
+        ReadAhead.Window window = readAhead.pageFaulted( 6, false );
+        assertThat( window ).isNotNull();
+        assertThat( window.startFilePageId ).isEqualTo( 9 );
+        assertThat( window.stride ).isEqualTo( 3 );
+    }
+
+    @Test
+    void mustNotReadAheadBeyondStartOfFile()
+    {
+        readAhead.pageFaulted( 3, true );
+        ReadAhead.Window window = readAhead.pageFaulted( 2, true );
+        assertThat( window ).isNotNull();
+        assertThat( window.startFilePageId ).isEqualTo( 1 );
+        assertThat( window.length ).isEqualTo( 2 );
+    }
+
+    @Test
+    void mustGrowWindowWhenReadAheadCoversTheStream()
+    {
+        readAhead.pageFaulted( 0, true );
+        ReadAhead.Window window = readAhead.pageFaulted( 1, true );
+        int previousLength = window.length;
+        for ( int i = 0; i < 3; i++ )
+        {
+            // The read-ahead covered the whole window, so the stream faults right after it.
+            window = readAhead.pageFaulted( window.startFilePageId + window.length, true );
+                assertThat( window.length ).isGreaterThan( previousLength );
+            previousLength = window.length;
+        }
+        assertThat( readAhead.hits() ).isEqualTo( 3 );
+        assertThat( readAhead.misses() ).isZero();
+    }
+
+    @Test
+    void mustBackOffWhenReadAheadPagesAreFaultedAgain()
+    {
+        readAhead.pageFaulted( 0, true );
+        ReadAhead.Window window = readAhead.pageFaulted( 1, true );
+        // The read-ahead pages got evicted before the stream got to them.
+        long pageId = window.startFilePageId;
+        while ( pageId < window.startFilePageId + window.length )
+        {
+            assertThat( readAhead.pageFaulted( pageId, true ) ).isNull();
+            pageId++;
+        }
+        assertThat( readAhead.misses() ).isEqualTo( window.length );
+        // The stream keeps going sequentially, but we have backed off from reading ahead of it.
+        assertThat( readAhead.pageFaulted( pageId, true ) ).isNull();
+        assertThat( readAhead.pageFaulted( pageId + 1, true ) ).isNull();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.DummyPageSwapper;
+import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.memory.EmptyMemoryTracker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.io.ByteUnit.MebiByte;
+
+class ScanResistantEvictionPolicyTest
+{
+    private static final int PAGE_COUNT = 64;
+    private static final int SWAPPER_ID = 1;
+    private static final DummyPageSwapper DUMMY_SWAPPER = new DummyPageSwapper( "", UnsafeUtil.pageSize() );
+
+    private MemoryAllocator mman;
+    private PageList pages;
+    private DefaultPageCacheTracer tracer;
+    private ScanResistantEvictionPolicy policy;
+
+    @BeforeEach
+    void setUp()
+    {
+        int pageSize = UnsafeUtil.pageSize();
+        mman = MemoryAllocator.createAllocator( MebiByte.toBytes( 1 ), EmptyMemoryTracker.INSTANCE );
+        pages = new PageList( PAGE_COUNT, pageSize, mman, new SwapperSet(), VictimPageReference.getVictimPage( pageSize ), 8 );
+        tracer = new DefaultPageCacheTracer();
+        policy = new ScanResistantEvictionPolicy( pages, tracer );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        mman.close();
+    }
+
+    @Test
+    void mustEvictColdPagesWithoutAgingHotPages()
+    {
+        long cold = pageWithUsage( 0, 1 );
+        long hot = pageWithUsage( 1, 4 );
+
+        assertThat( policy.shouldEvict( hot ) ).isFalse();
+        assertThat( policy.shouldEvict( cold ) ).isTrue();
+        assertThat( pages.getUsageCounter( hot ) ).isEqualTo( (byte) 4 );
+    }
+
+    @Test
+    void mustAgeHotPagesWhenThereIsNothingColdToEvict()
+    {
+        for ( int i = 0; i < PAGE_COUNT; i++ )
+        {
+            pageWithUsage( i, 4 );
+        }
+
+        int visits = 0;
+        boolean evicted = false;
+        while ( !evicted )
+        {
+            evicted = policy.shouldEvict( pages.deref( visits % PAGE_COUNT ) );
+            visits++;
+            assertThat( visits ).isLessThan( 5 * PAGE_COUNT );
+        }
+    }
+
+    @Test
+    void mustSlowlyAgeHotPagesWhileEvictingColdPages()
+    {
+        long hot = pageWithUsage( 0, 4 );
+        for ( int i = 1; i <= 8; i++ )
+        {
+            assertThat( policy.shouldEvict( pageWithUsage( i, 1 ) ) ).isTrue();
+        }
+
+        assertThat( policy.shouldEvict( hot ) ).isFalse();
+        assertThat( pages.getUsageCounter( hot ) ).isEqualTo( (byte) 3 );
+        assertThat( policy.shouldEvict( hot ) ).isFalse();
+        assertThat( pages.getUsageCounter( hot ) ).isEqualTo( (byte) 3 );
+    }
+
+    @Test
+    void pageThatIsFaultedBackInAfterEvictionMustStartOutHot() throws Exception
+    {
+        long evicted = boundPage( 0, 42 );
+        pages.incrementUsage( evicted );
+        assertThat( policy.shouldEvict( evicted ) ).isTrue();
+
+        long faulted = boundPage( 1, 42 );
+        policy.pageFaulted( faulted, SWAPPER_ID, 42 );
+        assertThat( pages.getUsageCounter( faulted ) ).isEqualTo( (byte) 1 );
+        assertThat( tracer.ghostHits() ).isEqualTo( 1 );
+
+        // The ghost is used up by the hit.
+        long faultedAgain = boundPage( 2, 42 );
+        policy.pageFaulted( faultedAgain, SWAPPER_ID, 42 );
+        assertThat( pages.getUsageCounter( faultedAgain ) ).isZero();
+        assertThat( tracer.ghostHits() ).isEqualTo( 1 );
+    }
+
+    @Test
+    void pageThatWasNeverEvictedMustNotBeGhostHit() throws Exception
+    {
+        long faulted = boundPage( 0, 42 );
+        policy.pageFaulted( faulted, SWAPPER_ID, 42 );
+        assertThat( pages.getUsageCounter( faulted ) ).isZero();
+        assertThat( tracer.ghostHits() ).isZero();
+    }
+
+    private long pageWithUsage( int pageId, int usage )
+    {
+        long pageRef = pages.deref( pageId );
+        for ( int i = 0; i < usage; i++ )
+        {
+            pages.incrementUsage( pageRef );
+        }
+        return pageRef;
+    }
+
+    private long boundPage( int pageId, long filePageId ) throws Exception
+    {
+        long pageRef = pages.deref( pageId );
+        pages.initBuffer( pageRef );
+        pages.fault( pageRef, DUMMY_SWAPPER, SWAPPER_ID, filePageId, PageFaultEvent.NULL );
+        return pageRef;
+    }
+}
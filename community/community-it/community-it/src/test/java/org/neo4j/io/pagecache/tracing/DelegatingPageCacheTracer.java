@@ -116,6 +116,12 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.evictionExceptions();
     }
 
+    @Override
+    public long ghostHits()
+    {
+        return delegate.ghostHits();
+    }
+
     @Override
     public double hitRatio()
     {
@@ -170,6 +176,12 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.evictionExceptions( evictionExceptions );
     }
 
+    @Override
+    public void ghostHits( long ghostHits )
+    {
+        delegate.ghostHits( ghostHits );
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -151,6 +151,12 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long ghostHits()
+    {
+        return 0;
+    }
+
     @Override
     public double hitRatio()
     {
@@ -198,6 +204,11 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     {
     }
 
+    @Override
+    public void ghostHits( long ghostHits )
+    {
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -156,6 +156,12 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return 0;
     }
 
+    @Override
+    public long ghostHits()
+    {
+        return 0;
+    }
+
     @Override
     public double hitRatio()
     {
@@ -206,6 +212,11 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
     {
     }
 
+    @Override
+    public void ghostHits( long ghostHits )
+    {
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
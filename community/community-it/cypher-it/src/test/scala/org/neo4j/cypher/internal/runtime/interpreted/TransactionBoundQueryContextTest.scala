@@ -34,11 +34,15 @@ import org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME
 import org.neo4j.cypher.internal.expressions.SemanticDirection
 import org.neo4j.cypher.internal.javacompat
 import org.neo4j.cypher.internal.javacompat.GraphDatabaseCypherService
+import org.neo4j.cypher.internal.runtime.KernelPredicate
 import org.neo4j.cypher.internal.runtime.interpreted.TransactionBoundQueryContext.IndexSearchMonitor
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expanders
 import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
 import org.neo4j.dbms.api.DatabaseManagementService
+import org.neo4j.graphdb.Entity
 import org.neo4j.graphdb.GraphDatabaseService
 import org.neo4j.graphdb.Node
+import org.neo4j.graphdb.Path
 import org.neo4j.graphdb.RelationshipType
 import org.neo4j.graphdb.config.Setting
 import org.neo4j.internal.kernel.api.AutoCloseablePlus
@@ -66,6 +70,7 @@ import org.neo4j.resources.CpuClock
 import org.neo4j.test.TestDatabaseManagementServiceBuilder
 import org.neo4j.values.virtual.VirtualValues.EMPTY_MAP
 
+import scala.collection.JavaConverters.iterableAsScalaIterableConverter
 import scala.collection.JavaConverters.mapAsJavaMapConverter
 
 class TransactionBoundQueryContextTest extends CypherFunSuite {
@@ -294,6 +299,74 @@ class TransactionBoundQueryContextTest extends CypherFunSuite {
     tx.close()
   }
 
+  test("should find all shortest paths") {
+    // GIVEN
+    val (start, end) = createDiamondGraph()
+    val tx = graph.beginTransaction(Type.EXPLICIT, AnonymousContext.read())
+    val transactionalContext = TransactionalContextWrapper(createTransactionContext(graph, tx))
+    val context = new TransactionBoundQueryContext(transactionalContext)(indexSearchMonitor)
+
+    // WHEN
+    val paths = context.allShortestPath(start.getId, end.getId, Int.MaxValue, Expanders.allTypes(SemanticDirection.OUTGOING),
+      acceptAll[Path], Seq.empty).toList
+
+    // THEN
+    paths should have size 2
+    paths.map(_.length()).distinct should equal(List(2))
+    paths.map(_.startNode().getId).distinct should equal(List(start.getId))
+    paths.map(_.endNode().getId).distinct should equal(List(end.getId))
+    paths.map(_.nodes().asScala.map(_.getId).toList).distinct should have size 2
+
+    transactionalContext.close()
+    tx.close()
+  }
+
+  test("should only expand accepted relationships when finding shortest paths") {
+    // GIVEN
+    val (start, end) = createDiamondGraph()
+    val tx = graph.beginTransaction(Type.EXPLICIT, AnonymousContext.read())
+    val transactionalContext = TransactionalContextWrapper(createTransactionContext(graph, tx))
+    val context = new TransactionBoundQueryContext(transactionalContext)(indexSearchMonitor)
+    val expander = Expanders.typeDir().add("SHORT", SemanticDirection.OUTGOING).add("LONG", SemanticDirection.OUTGOING)
+      .addRelationshipFilter(new KernelPredicate[Entity] {
+        override def test(t: Entity): Boolean = !t.hasProperty("blocked")
+      })
+
+    // WHEN
+    val paths = context.allShortestPath(start.getId, end.getId, Int.MaxValue, expander, acceptAll[Path], Seq.empty).toList
+
+    // THEN
+    paths should have size 1
+    paths.head.length() should equal(2)
+    paths.head.relationships().asScala.forall(!_.hasProperty("blocked")) shouldBe true
+
+    transactionalContext.close()
+    tx.close()
+  }
+
+  test("should find longer path when no shortest path is accepted") {
+    // GIVEN
+    val (start, end) = createDiamondGraph()
+    val tx = graph.beginTransaction(Type.EXPLICIT, AnonymousContext.read())
+    val transactionalContext = TransactionalContextWrapper(createTransactionContext(graph, tx))
+    val context = new TransactionBoundQueryContext(transactionalContext)(indexSearchMonitor)
+    val longerThanTwo = new KernelPredicate[Path] {
+      override def test(path: Path): Boolean = path.length() > 2
+    }
+
+    // WHEN
+    val path = context.singleShortestPath(start.getId, end.getId, Int.MaxValue, Expanders.allTypes(SemanticDirection.OUTGOING),
+      longerThanTwo, Seq.empty)
+
+    // THEN
+    path.map(_.length()) should equal(Some(3))
+    context.singleShortestPath(start.getId, end.getId, 2, Expanders.allTypes(SemanticDirection.OUTGOING),
+      longerThanTwo, Seq.empty) should equal(None)
+
+    transactionalContext.close()
+    tx.close()
+  }
+
   private def startGraph(config:(Setting[_], Object)) = {
     val configs = Map[Setting[_], Object](config)
     managementService = new TestDatabaseManagementServiceBuilder().impermanent().setConfig(configs.asJava).build()
@@ -323,4 +396,38 @@ class TransactionBoundQueryContextTest extends CypherFunSuite {
       tx.close()
     }
   }
+
+  /*
+   * start -> a -> end, start -> b -> end (blocked), start -> c -> d -> end
+   */
+  private def createDiamondGraph(): (Node, Node) = {
+    val short = RelationshipType.withName("SHORT")
+    val long = RelationshipType.withName("LONG")
+    val tx = graph.beginTransaction(Type.EXPLICIT, AnonymousContext.writeToken())
+    try {
+      val start = tx.createNode()
+      val end = tx.createNode()
+      val a = tx.createNode()
+      val b = tx.createNode()
+      val c = tx.createNode()
+      val d = tx.createNode()
+
+      start.createRelationshipTo(a, short)
+      a.createRelationshipTo(end, short)
+      start.createRelationshipTo(b, short)
+      b.createRelationshipTo(end, short).setProperty("blocked", true)
+      start.createRelationshipTo(c, long)
+      c.createRelationshipTo(d, long)
+      d.createRelationshipTo(end, long)
+      tx.commit()
+      (start, end)
+    }
+    finally {
+      tx.close()
+    }
+  }
+
+  private def acceptAll[T]: KernelPredicate[T] = new KernelPredicate[T] {
+    override def test(t: T): Boolean = true
+  }
 }
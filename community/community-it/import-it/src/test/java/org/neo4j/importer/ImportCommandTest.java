@@ -51,6 +51,7 @@ import java.util.function.Consumer;
 import java.util.function.IntPredicate;
 import java.util.function.Predicate;
 
+import org.neo4j.cli.CommandFailedException;
 import org.neo4j.cli.ExecutionContext;
 import org.neo4j.common.Validator;
 import org.neo4j.configuration.Config;
@@ -69,6 +70,7 @@ import org.neo4j.graphdb.Transaction;
 import org.neo4j.internal.batchimport.cache.idmapping.string.DuplicateInputIdException;
 import org.neo4j.internal.batchimport.input.InputException;
 import org.neo4j.internal.batchimport.input.csv.Type;
+import org.neo4j.internal.batchimport.store.DatabaseNotEmptyException;
 import org.neo4j.internal.helpers.collection.Iterables;
 import org.neo4j.internal.helpers.collection.Iterators;
 import org.neo4j.internal.helpers.collection.PrefetchingIterator;
@@ -169,6 +171,119 @@ class ImportCommandTest
         verifyData();
     }
 
+    @Test
+    void shouldLeaveExistingDatabaseUntouched() throws Exception
+    {
+        // GIVEN
+        List<String> nodeIds = nodeIds();
+        Configuration config = Configuration.COMMAS;
+        File dbConfig = prepareDefaultConfigFile();
+        runImport(
+                "--additional-config", dbConfig.getAbsolutePath(),
+                "--nodes", nodeData( true, config, nodeIds, TRUE ).getAbsolutePath(),
+                "--relationships", relationshipData( true, config, nodeIds, TRUE, true ).getAbsolutePath() );
+
+        // WHEN
+        assertThrows( DatabaseNotEmptyException.class, () -> runImport(
+                "--additional-config", dbConfig.getAbsolutePath(),
+                "--nodes", nodeData( true, config, nodeIds( 10 ), TRUE ).getAbsolutePath() ) );
+
+        // THEN
+        assertTrue( suppressOutput.getErrorVoice().containsMessage( "existing store files have been left untouched" ) );
+        assertFalse( suppressOutput.getErrorVoice().containsMessage( "WARNING Import failed" ) );
+        verifyData();
+    }
+
+    @Test
+    void shouldImportNodesIncrementallyIntoExistingDatabase() throws Exception
+    {
+        // GIVEN
+        List<String> nodeIds = nodeIds();
+        Configuration config = Configuration.COMMAS;
+        File dbConfig = prepareDefaultConfigFile();
+        runImport(
+                "--additional-config", dbConfig.getAbsolutePath(),
+                "--nodes", nodeData( true, config, nodeIds, TRUE ).getAbsolutePath(),
+                "--relationships", relationshipData( true, config, nodeIds, TRUE, true ).getAbsolutePath() );
+
+        // WHEN importing new nodes, together with some which already exist
+        List<String> newNodeIds = nodeIds( 10 );
+        List<String> incrementalNodeIds = new ArrayList<>( newNodeIds );
+        incrementalNodeIds.addAll( nodeIds.subList( 0, 5 ) );
+        runImport(
+                "--additional-config", dbConfig.getAbsolutePath(),
+                "--incremental",
+                "--skip-duplicate-nodes",
+                "--nodes", nodeData( true, config, incrementalNodeIds, TRUE ).getAbsolutePath() );
+
+        // THEN only the new nodes should have been added, next to the existing data
+        verifyData( NODE_COUNT + newNodeIds.size(), RELATIONSHIP_COUNT, Validators.emptyValidator(), Validators.emptyValidator() );
+        Set<String> expectedNodeIds = new HashSet<>( nodeIds );
+        expectedNodeIds.addAll( newNodeIds );
+        try ( Transaction tx = getDatabaseApi().beginTx() )
+        {
+            Set<String> foundNodeIds = new HashSet<>();
+            for ( Node node : tx.getAllNodes() )
+            {
+                String id = (String) node.getProperty( "id" );
+                assertTrue( foundNodeIds.add( id ), id + ", " + foundNodeIds );
+            }
+            assertEquals( expectedNodeIds, foundNodeIds );
+            tx.commit();
+        }
+    }
+
+    @Test
+    void shouldLeaveExistingDatabaseUntouchedIfIncrementalImportFails() throws Exception
+    {
+        // GIVEN
+        List<String> nodeIds = nodeIds();
+        Configuration config = Configuration.COMMAS;
+        File dbConfig = prepareDefaultConfigFile();
+        runImport(
+                "--additional-config", dbConfig.getAbsolutePath(),
+                "--nodes", nodeData( true, config, nodeIds, TRUE ).getAbsolutePath(),
+                "--relationships", relationshipData( true, config, nodeIds, TRUE, true ).getAbsolutePath() );
+
+        // WHEN importing nodes which already exist, which fails only after the new nodes have been imported
+        List<String> incrementalNodeIds = new ArrayList<>( nodeIds( 10 ) );
+        incrementalNodeIds.addAll( nodeIds.subList( 0, 5 ) );
+        Exception e = assertThrows( Exception.class, () -> runImport(
+                "--additional-config", dbConfig.getAbsolutePath(),
+                "--incremental",
+                "--nodes", nodeData( true, config, incrementalNodeIds, TRUE ).getAbsolutePath() ) );
+
+        // THEN
+        assertExceptionContains( e, "is defined more than once", DuplicateInputIdException.class );
+        assertFalse( suppressOutput.getErrorVoice().containsMessage( "WARNING Import failed" ) );
+        assertFalse( databaseLayout.file( "incremental-import" ).exists() );
+        verifyData();
+    }
+
+    @Test
+    void shouldNotImportRelationshipsIncrementally() throws Exception
+    {
+        // GIVEN
+        List<String> nodeIds = nodeIds();
+        Configuration config = Configuration.COMMAS;
+        File dbConfig = prepareDefaultConfigFile();
+        runImport(
+                "--additional-config", dbConfig.getAbsolutePath(),
+                "--nodes", nodeData( true, config, nodeIds, TRUE ).getAbsolutePath(),
+                "--relationships", relationshipData( true, config, nodeIds, TRUE, true ).getAbsolutePath() );
+
+        // WHEN
+        CommandFailedException e = assertThrows( CommandFailedException.class, () -> runImport(
+                "--additional-config", dbConfig.getAbsolutePath(),
+                "--incremental",
+                "--nodes", nodeData( true, config, nodeIds( 10 ), TRUE ).getAbsolutePath(),
+                "--relationships", relationshipData( true, config, nodeIds, TRUE, true ).getAbsolutePath() ) );
+
+        // THEN
+        assertThat( e.getMessage() ).contains( "relationships" );
+        verifyData();
+    }
+
     @Test
     void shouldImportWithHeadersBeingInSeparateFiles() throws Exception
     {
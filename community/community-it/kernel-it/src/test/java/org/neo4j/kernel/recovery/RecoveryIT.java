@@ -36,6 +36,7 @@ import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.schema.IndexType;
+import org.neo4j.internal.helpers.collection.Iterators;
 import org.neo4j.internal.kernel.api.RelationshipIndexCursor;
 import org.neo4j.internal.schema.IndexDescriptor;
 import org.neo4j.io.ByteUnit;
@@ -86,6 +87,8 @@ import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAM
 import static org.neo4j.configuration.GraphDatabaseSettings.fail_on_missing_files;
 import static org.neo4j.configuration.GraphDatabaseSettings.logical_log_rotation_threshold;
 import static org.neo4j.configuration.GraphDatabaseSettings.preallocate_logical_logs;
+import static org.neo4j.configuration.GraphDatabaseSettings.recovery_parallelism;
+import static org.neo4j.configuration.GraphDatabaseSettings.recovery_read_ahead;
 import static org.neo4j.graphdb.RelationshipType.withName;
 import static org.neo4j.internal.helpers.collection.Iterables.count;
 import static org.neo4j.internal.index.label.RelationshipTypeScanStoreSettings.enable_relationship_type_scan_store;
@@ -389,6 +392,99 @@ class RecoveryIT
         }
     }
 
+    @Test
+    void recoverDatabaseInParallel() throws Throwable
+    {
+        GraphDatabaseService database = createDatabase();
+
+        Label person = Label.label( "Person" );
+        Label user = Label.label( "User" );
+        RelationshipType knows = withName( "KNOWS" );
+        int numberOfPersons = 200;
+        try ( Transaction transaction = database.beginTx() )
+        {
+            transaction.schema().indexFor( person ).on( "name" ).create();
+            transaction.schema().constraintFor( user ).assertPropertyIsUnique( "id" ).create();
+            transaction.commit();
+        }
+        awaitIndexesOnline( database );
+        long hubId;
+        try ( Transaction transaction = database.beginTx() )
+        {
+            hubId = transaction.createNode().getId();
+            transaction.commit();
+        }
+        long[] personIds = new long[numberOfPersons];
+        for ( int i = 0; i < numberOfPersons; i++ )
+        {
+            try ( Transaction transaction = database.beginTx() )
+            {
+                Node node = transaction.createNode( person );
+                node.setProperty( "name", "p" + i );
+                node.setProperty( "payload", randomAlphanumeric( 100 ) );
+                if ( i % 4 == 0 )
+                {
+                    // Every fourth transaction conflicts with the others on the hub node, and every eighth also on a unique property
+                    transaction.getNodeById( hubId ).createRelationshipTo( node, knows );
+                }
+                if ( i % 8 == 0 )
+                {
+                    transaction.createNode( user ).setProperty( "id", i );
+                }
+                personIds[i] = node.getId();
+                transaction.commit();
+            }
+        }
+        for ( int i = 0; i < numberOfPersons; i += 2 )
+        {
+            try ( Transaction transaction = database.beginTx() )
+            {
+                transaction.getNodeById( personIds[i] ).setProperty( "name", "q" + i );
+                transaction.commit();
+            }
+        }
+        for ( int i = 1; i < numberOfPersons; i += 10 )
+        {
+            try ( Transaction transaction = database.beginTx() )
+            {
+                transaction.getNodeById( personIds[i] ).delete();
+                transaction.commit();
+            }
+        }
+        managementService.shutdown();
+        removeLastCheckpointRecordFromLastLogFile();
+
+        recoverDatabase( Config.newBuilder()
+                .set( enable_relationship_type_scan_store, enableRelationshipTypeScanStore() )
+                .set( recovery_parallelism, 4 )
+                .set( recovery_read_ahead, 16 )
+                .build() );
+
+        GraphDatabaseService recoveredDatabase = createDatabase();
+        try ( Transaction transaction = recoveredDatabase.beginTx() )
+        {
+            int deletedPersons = numberOfPersons / 10;
+            int users = numberOfPersons / 8;
+            assertEquals( numberOfPersons - deletedPersons + users + 1, count( transaction.getAllNodes() ) );
+            assertEquals( numberOfPersons / 4, transaction.getNodeById( hubId ).getDegree() );
+            for ( int i = 0; i < numberOfPersons; i++ )
+            {
+                boolean deleted = i % 10 == 1;
+                String name = (i % 2 == 0 ? "q" : "p") + i;
+                assertEquals( deleted ? 0 : 1, Iterators.count( transaction.findNodes( person, "name", name ) ), name );
+                if ( i % 8 == 0 )
+                {
+                    assertNotNull( transaction.findNode( user, "id", i ) );
+                }
+            }
+            assertEquals( 0, Iterators.count( transaction.findNodes( person, "name", "p0" ) ) );
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+    }
+
     @Test
     void recoverDatabaseWithFirstTransactionLogFileWithoutShutdownCheckpoint() throws Throwable
     {
@@ -701,6 +797,16 @@ class RecoveryIT
     private void recoverDatabase( DatabaseTracers databaseTracers ) throws Exception
     {
         Config config = Config.newBuilder().set( enable_relationship_type_scan_store, enableRelationshipTypeScanStore() ).build();
+        recoverDatabase( databaseTracers, config );
+    }
+
+    private void recoverDatabase( Config config ) throws Exception
+    {
+        recoverDatabase( EMPTY, config );
+    }
+
+    private void recoverDatabase( DatabaseTracers databaseTracers, Config config ) throws Exception
+    {
         assertTrue( isRecoveryRequired( databaseLayout, config ) );
         performRecovery( fileSystem, pageCache, databaseTracers, config, databaseLayout );
         assertFalse( isRecoveryRequired( databaseLayout, config ) );
@@ -268,6 +268,12 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     public static final Setting<Integer> query_cache_size =
             newBuilder( "dbms.query_cache_size", INT, 1000 ).addConstraint( min( 0 ) ).build();
 
+    @Description( "Directory where the query strings and parameter types in the query cache of each database are saved on shutdown. " +
+            "If set, the saved queries are planned again in the background on startup, to warm up the query cache." )
+    @Internal
+    public static final Setting<Path> cypher_query_cache_warmup_directory =
+            newBuilder( "unsupported.cypher.query_cache_warmup_directory", PATH, null ).setDependency( data_directory ).build();
+
     @Description( "The threshold when a plan is considered stale. If any of the underlying " +
             "statistics used to create the plan have changed more than this value, " +
             "the plan will be considered stale and will be replanned. Change is calculated as " +
@@ -347,6 +353,24 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     public static final Setting<CypherReplanAlgorithm> cypher_replan_algorithm =
             newBuilder( "unsupported.cypher.replan_algorithm", ofEnum( CypherReplanAlgorithm.class ), CypherReplanAlgorithm.DEFAULT ).build();
 
+    @Description( "The number of rows that scans, expands, filters and projections of the interpreted runtime pass to each other at a time " +
+            "in read only queries. Set to 0 to pass rows one at a time." )
+    @Internal
+    public static final Setting<Integer> cypher_interpreted_batch_size =
+            newBuilder( "unsupported.cypher.interpreted_batch_size", INT, 128 ).addConstraint( min( 0 ) ).build();
+
+    @Description( "Set this to read and parse the rows of LOAD CSV on a separate thread, ahead of the query. " +
+            "Local files are also read and decompressed ahead, on another thread." )
+    @Internal
+    public static final Setting<Boolean> cypher_load_csv_prefetch =
+            newBuilder( "unsupported.cypher.load_csv_prefetch", BOOL, false ).build();
+
+    @Description( "Directory where the interpreted runtime writes the rows of sorts and aggregations that don't fit in the transaction " +
+            "memory limit. The files are deleted when the query has read them, or at the latest when the query ends, also if it fails." )
+    @Internal
+    public static final Setting<Path> cypher_spill_directory =
+            newBuilder( "unsupported.cypher.spill_directory", PATH, Path.of( "cypher-spill" ) ).setDependency( data_directory ).build();
+
     @Description( "Set this to enable monitors in the Cypher runtime." )
     @Internal
     public static final Setting<Boolean> cypher_enable_runtime_monitors =
@@ -760,6 +784,22 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     @Description( "Specify if Neo4j should try to preallocate logical log file in advance." )
     public static final Setting<Boolean> preallocate_logical_logs = newBuilder( "dbms.tx_log.preallocate", BOOL, true ).dynamic().build();
 
+    @Description( "If `true`, committing transactions hand their log entries over to a dedicated log writer thread, which appends and " +
+            "forces them to the transaction log in groups, instead of each committer appending under the log file monitor itself." )
+    @Internal
+    public static final Setting<Boolean> group_commit_enabled = newBuilder( "unsupported.dbms.tx_log.group_commit.enabled", BOOL, false ).build();
+
+    @Description( "The maximum number of commit requests that the log writer thread appends before forcing the transaction log." )
+    @Internal
+    public static final Setting<Integer> group_commit_max_batch_size =
+            newBuilder( "unsupported.dbms.tx_log.group_commit.max_batch_size", INT, 1024 ).addConstraint( min( 1 ) ).build();
+
+    @Description( "The maximum amount of time the log writer thread waits for more commit requests to arrive before forcing the " +
+            "transaction log, once it has at least one request to write. Zero means that only the requests already queued are grouped." )
+    @Internal
+    public static final Setting<Duration> group_commit_max_latency =
+            newBuilder( "unsupported.dbms.tx_log.group_commit.max_latency", DURATION, Duration.ZERO ).build();
+
     @Description( "If `true`, Neo4j will abort recovery if any errors are encountered in the logical log. Setting " +
             "this to `false` will allow Neo4j to restore as much as possible from the corrupted log files and ignore " +
             "the rest, but, the integrity of the database might be compromised." )
@@ -772,6 +812,19 @@ public class GraphDatabaseSettings implements SettingsDeclaration
             "the integrity of the database might be compromised." )
     public static final Setting<Boolean> fail_on_missing_files = newBuilder( "dbms.recovery.fail_on_missing_files", BOOL, true ).build();
 
+    @Description( "The number of threads that recovery uses to apply recovered transactions. Transactions that change disjoint sets of " +
+            "entities and records are applied concurrently, while transactions that change the same entities or records are applied in " +
+            "the order they were committed. A value of 1 applies all recovered transactions serially." )
+    @Internal
+    public static final Setting<Integer> recovery_parallelism =
+            newBuilder( "unsupported.dbms.recovery.parallelism", INT, 1 ).addConstraint( min( 1 ) ).build();
+
+    @Description( "The maximum number of transactions that parallel recovery reads from the transaction log ahead of the oldest " +
+            "transaction that is still being applied." )
+    @Internal
+    public static final Setting<Integer> recovery_read_ahead =
+            newBuilder( "unsupported.dbms.recovery.read_ahead", INT, 1024 ).addConstraint( min( 1 ) ).build();
+
     @Description( "Specifies if engine should run cypher query based on a snapshot of accessed data. " +
             "Query will be restarted in case if concurrent modification of data will be detected." )
     @Internal
@@ -800,16 +853,27 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     public static final Setting<Integer> pagecache_scan_prefetch = newBuilder( "dbms.memory.pagecache.scan.prefetchers", INT, 4 )
             .addConstraint( range( 0, 255 ) ).build();
 
+    public enum PageCacheEvictionPolicy
+    {
+        CLOCK, SCAN_RESISTANT
+    }
+
+    @Description( "The policy the page cache uses to decide which pages to evict. `CLOCK` evicts pages that have not been used " +
+            "recently. `SCAN_RESISTANT` prefers to evict pages that have only been used once, so that large scans do not push the " +
+            "frequently used pages out of the cache." )
+    @Internal
+    public static final Setting<PageCacheEvictionPolicy> pagecache_eviction_policy =
+            newBuilder( "unsupported.dbms.memory.pagecache.eviction_policy", ofEnum( PageCacheEvictionPolicy.class ), PageCacheEvictionPolicy.CLOCK )
+                    .build();
+
     @Description( "The profiling frequency for the page cache. Accurate profiles allow the page cache to do active " +
-            "warmup after a restart, reducing the mean time to performance. " +
-            "This feature available in Neo4j Enterprise Edition." )
+            "warmup after a restart, reducing the mean time to performance." )
     public static final Setting<Duration> pagecache_warmup_profiling_interval =
             newBuilder( "dbms.memory.pagecache.warmup.profile.interval", DURATION, ofMinutes( 1 ) ).build();
 
     @Description( "Page cache can be configured to perform usage sampling of loaded pages that can be used to construct active load profile. " +
             "According to that profile pages can be reloaded on the restart, replication, etc. " +
-            "This setting allows disabling that behavior. " +
-            "This feature available in Neo4j Enterprise Edition." )
+            "This setting allows disabling that behavior." )
     public static final Setting<Boolean> pagecache_warmup_enabled =
             newBuilder( "dbms.memory.pagecache.warmup.enable", BOOL, true ).build();
 
@@ -35,6 +35,7 @@ import static java.time.Duration.ofMinutes;
 import static java.time.Duration.ofSeconds;
 import static org.neo4j.configuration.GraphDatabaseSettings.default_advertised_address;
 import static org.neo4j.configuration.GraphDatabaseSettings.default_listen_address;
+import static org.neo4j.configuration.SettingConstraints.min;
 import static org.neo4j.configuration.SettingImpl.newBuilder;
 import static org.neo4j.configuration.SettingValueParsers.BOOL;
 import static org.neo4j.configuration.SettingValueParsers.BYTES;
@@ -90,6 +91,13 @@ public final class BoltConnector implements SettingsDeclaration
     public static final Setting<Integer> unsupported_thread_pool_queue_size =
             newBuilder( "dbms.connector.bolt.unsupported_thread_pool_queue_size", INT, 0 ).build();
 
+    @Description( "The number of workers of the affinity scheduler, which pins each connection to one worker and runs its jobs without " +
+            "handing them off to a thread pool. Idle workers take over connections queued on busy workers. " +
+            "0 uses the thread pool bound to this connector instead." )
+    @Internal
+    public static final Setting<Integer> unsupported_affinity_scheduler_workers =
+            newBuilder( "dbms.connector.bolt.unsupported_affinity_scheduler_workers", INT, 0 ).addConstraint( min( 0 ) ).build();
+
     @Description( "The maximum time to wait for a user to finish authentication before closing the connection." )
     @Internal
     public static final Setting<Duration> unsupported_bolt_unauth_connection_timeout =
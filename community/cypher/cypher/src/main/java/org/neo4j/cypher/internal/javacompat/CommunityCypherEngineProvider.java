@@ -19,12 +19,15 @@
  */
 package org.neo4j.cypher.internal.javacompat;
 
+import java.nio.file.Path;
+
 import org.neo4j.collection.Dependencies;
 import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.cypher.internal.CommunityCompilerFactory;
 import org.neo4j.cypher.internal.CompilerFactory;
 import org.neo4j.cypher.internal.CypherConfiguration;
 import org.neo4j.cypher.internal.CypherRuntimeConfiguration;
+import org.neo4j.cypher.internal.QueryCacheWarmer;
 import org.neo4j.cypher.internal.compiler.CypherPlannerConfiguration;
 import org.neo4j.kernel.impl.query.QueryEngineProvider;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
@@ -32,6 +35,8 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
 public class CommunityCypherEngineProvider extends QueryEngineProvider
 {
+    private static final String QUERY_CACHE_WARMUP_FILE_SUFFIX = ".querycache";
+
     @Override
     protected int enginePriority()
     {
@@ -65,13 +70,22 @@ public class CommunityCypherEngineProvider extends QueryEngineProvider
                     new CommunityCompilerFactory( queryService,spi.monitors(), spi.logProvider(), innerPlannerConfig, runtimeConfig );
             return new SystemExecutionEngine( queryService, spi.logProvider(), compilerFactory, innerCompilerFactory );
         }
-        else if ( spi.config().get( GraphDatabaseSettings.snapshot_query ) )
+        ExecutionEngine engine;
+        if ( spi.config().get( GraphDatabaseSettings.snapshot_query ) )
         {
-            return new SnapshotExecutionEngine( queryService, spi.config(), spi.logProvider(), compilerFactory );
+            engine = new SnapshotExecutionEngine( queryService, spi.config(), spi.logProvider(), compilerFactory );
         }
         else
         {
-            return new ExecutionEngine( queryService, spi.logProvider(), compilerFactory );
+            engine = new ExecutionEngine( queryService, spi.logProvider(), compilerFactory );
+        }
+        Path warmupDirectory = spi.config().get( GraphDatabaseSettings.cypher_query_cache_warmup_directory );
+        if ( warmupDirectory != null )
+        {
+            Path warmupFile = warmupDirectory.resolve( graphAPI.databaseName() + QUERY_CACHE_WARMUP_FILE_SUFFIX );
+            spi.lifeSupport().add( new QueryCacheWarmer( engine.getCypherExecutionEngine(), queryService, spi.jobScheduler(), warmupFile,
+                    spi.logProvider() ) );
         }
+        return engine;
     }
 }
@@ -83,4 +83,16 @@ public class MonitoringCacheTracer implements CacheTracer<Pair<String,scala.coll
     {
         monitor.cacheFlushDetected( sizeOfCacheBeforeFlush );
     }
+
+    @Override
+    public void queryCacheWarmup( Pair<String,Map<String,Class<?>>> queryKey, String metaData )
+    {
+        monitor.cacheWarmup( queryKey );
+    }
+
+    @Override
+    public void queryCacheWarmupProgress( int processed, int total )
+    {
+        monitor.cacheWarmupProgress( processed, total );
+    }
 }
@@ -20,6 +20,7 @@
 package org.neo4j.cypher.internal
 
 import java.io.File
+import java.nio.file.Path
 
 import org.neo4j.configuration.Config
 import org.neo4j.configuration.GraphDatabaseSettings
@@ -65,7 +66,10 @@ object CypherConfiguration {
       CypherOperatorEngineOption(config.get(GraphDatabaseSettings.cypher_operator_engine).toString),
       CypherInterpretedPipesFallbackOption(config.get(GraphDatabaseSettings.cypher_pipelined_interpreted_pipes_fallback).toString),
       new ConfigMemoryTrackingController(config),
-      config.get(GraphDatabaseSettings.cypher_enable_runtime_monitors)
+      config.get(GraphDatabaseSettings.cypher_enable_runtime_monitors),
+      config.get(GraphDatabaseSettings.cypher_interpreted_batch_size),
+      config.get(GraphDatabaseSettings.cypher_load_csv_prefetch),
+      config.get(GraphDatabaseSettings.cypher_spill_directory)
     )
   }
 
@@ -129,7 +133,10 @@ case class CypherConfiguration(version: CypherVersion,
                                operatorEngine: CypherOperatorEngineOption,
                                interpretedPipesFallback: CypherInterpretedPipesFallbackOption,
                                memoryTrackingController: MemoryTrackingController,
-                               enableMonitors: Boolean) {
+                               enableMonitors: Boolean,
+                               interpretedBatchSize: Int,
+                               loadCsvPrefetch: Boolean,
+                               spillDirectory: Path) {
 
   def toCypherRuntimeConfiguration: CypherRuntimeConfiguration =
     CypherRuntimeConfiguration(
@@ -138,7 +145,10 @@ case class CypherConfiguration(version: CypherVersion,
       schedulerTracing = toSchedulerTracingConfiguration(doSchedulerTracing, schedulerTracingFile),
       lenientCreateRelationship = lenientCreateRelationship,
       memoryTrackingController = memoryTrackingController,
-      enableMonitors
+      enableMonitors,
+      interpretedBatchSize,
+      loadCsvPrefetch,
+      spillDirectory
     )
 
   def toSchedulerTracingConfiguration(doSchedulerTracing: Boolean,
@@ -117,6 +117,12 @@ class ExecutionEngine(val queryService: GraphDatabaseQueryService,
 
     override def queryCacheFlush(sizeOfCacheBeforeFlush: Long): Unit =
       cacheTracer.queryCacheFlush(sizeOfCacheBeforeFlush)
+
+    override def queryCacheWarmup(queryKey: Pair[AnyRef, ParameterTypeMap], metaData: String): Unit =
+      cacheTracer.queryCacheWarmup(str(queryKey), metaData)
+
+    override def queryCacheWarmupProgress(processed: Int, total: Int): Unit =
+      cacheTracer.queryCacheWarmupProgress(processed, total)
   }
 
   private val queryCache: QueryCache[AnyRef, Pair[AnyRef, ParameterTypeMap], ExecutableQuery] =
@@ -313,6 +319,42 @@ class ExecutionEngine(val queryService: GraphDatabaseQueryService,
     throw new IllegalStateException("Could not compile query due to insanely frequent schema changes")
   }
 
+  /**
+   * @return the query texts and parameter types of the cached queries that can be given to [[warmUp]]
+   */
+  def cachedQueries: Seq[(String, ParameterTypeMap)] =
+    queryCache.entries.collect {
+      case (key, queryText) if key.first().isInstanceOf[String] => (queryText, key.other())
+    }
+
+  /**
+   * Compiles a query and puts it in the query cache without executing it, unless it is already cached and not stale.
+   *
+   * @param query the query text, as given by [[cachedQueries]]
+   * @param parameterTypes the parameter types to compile the query for
+   * @param context the transactional context in which to compile the query
+   * @return `true` if the query was compiled and cached
+   */
+  def warmUp(query: String, parameterTypes: ParameterTypeMap, context: TransactionalContext): Boolean = {
+    val queryTracer = tracer.compileQuery(query)
+    try {
+      val inputQuery = preParser.preParseQuery(query)
+      val params = QueryCache.parameterValuesOfTypes(parameterTypes)
+      val tc = context.getOrBeginNewIfClosed()
+      val compilerAuthorization = tc.restrictCurrentTransaction(tc.securityContext.withMode(AccessMode.Static.READ))
+      try {
+        queryCache.warmUp(Pair.of(inputQuery.cacheKey, parameterTypes),
+          tc,
+          compilerWithExpressionCodeGenOption(inputQuery, queryTracer, tc, params),
+          inputQuery.description)
+      } finally {
+        compilerAuthorization.close()
+      }
+    } finally {
+      queryTracer.close()
+    }
+  }
+
   def clearQueryCaches(): Long =
     List(masterCompiler.clearCaches(), queryCache.clear(), preParser.clearCache()).max
 
@@ -33,7 +33,9 @@ import org.neo4j.cypher.internal.runtime.interpreted.InterpretedExecutionResultB
 import org.neo4j.cypher.internal.runtime.interpreted.InterpretedPipeMapper
 import org.neo4j.cypher.internal.runtime.interpreted.UpdateCountingQueryContext
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.CommunityExpressionConverter
+import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.CompiledExpressionConverter
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.ExpressionConverters
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.BatchedPipeMapper
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.NestedPipeExpressions
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.PipeTreeBuilder
 import org.neo4j.cypher.internal.runtime.interpreted.profiler.InterpretedProfileInformation
@@ -52,9 +54,22 @@ object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
     val Result(logicalPlan, nExpressionSlots, availableExpressionVars) = expressionVariableAllocation.allocate(query.logicalPlan)
     val (withSlottedParameters, parameterMapping) = slottedParameters(logicalPlan)
 
-    val converters = new ExpressionConverters(CommunityExpressionConverter(context.tokenContext))
+    val communityConverter = CommunityExpressionConverter(context.tokenContext)
+    val converters =
+      if (context.compileExpressions) new ExpressionConverters(CompiledExpressionConverter(context.log), communityConverter)
+      else new ExpressionConverters(communityConverter)
     val queryIndexRegistrator = new QueryIndexRegistrator(context.schemaRead)
-    val pipeMapper = InterpretedPipeMapper(query.readOnly, converters, context.tokenContext, queryIndexRegistrator)(query.semanticTable)
+    val interpretedPipeMapper = InterpretedPipeMapper(query.readOnly, converters, context.tokenContext, queryIndexRegistrator)(query.semanticTable)
+    // Batches read ahead of the rest of the plan, which is only known to be safe when nothing is written, below an Eager,
+    // or for index seeks under Apply outside of a MERGE
+    val pipeMapper =
+      if (context.config.interpretedBatchSize <= 0) interpretedPipeMapper
+      else if (query.readOnly) BatchedPipeMapper(interpretedPipeMapper, context.config.interpretedBatchSize)
+      else {
+        val batchedPlans =
+          BatchedPipeMapper.readOnlyBelowEager(withSlottedParameters) ++ BatchedPipeMapper.readOnlySeekApplies(withSlottedParameters)
+        BatchedPipeMapper(interpretedPipeMapper, context.config.interpretedBatchSize, plan => batchedPlans.contains(plan.id))
+      }
     val pipeTreeBuilder = PipeTreeBuilder(pipeMapper)
     val logicalPlanWithConvertedNestedPlans = NestedPipeExpressions.build(pipeTreeBuilder, withSlottedParameters, availableExpressionVars)
     val pipe = pipeTreeBuilder.build(logicalPlanWithConvertedNestedPlans)
@@ -68,7 +83,9 @@ object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
       withSlottedParameters,
       context.config.lenientCreateRelationship,
       context.config.memoryTrackingController,
-      query.hasLoadCSV)
+      query.hasLoadCSV,
+      context.config.loadCsvPrefetch,
+      Some(context.config.spillDirectory))
 
     new InterpretedExecutionPlan(query.periodicCommitInfo,
       resultBuilderFactory,
@@ -19,6 +19,8 @@
  */
 package org.neo4j.cypher.internal
 
+import java.time.ZoneOffset
+
 import com.github.benmanes.caffeine.cache.Cache
 import com.github.benmanes.caffeine.cache.Caffeine
 import org.neo4j.cypher.CypherReplanOption
@@ -30,7 +32,24 @@ import org.neo4j.cypher.internal.compiler.MissingRelTypeNotification
 import org.neo4j.internal.helpers.collection.Pair
 import org.neo4j.internal.kernel.api.TokenRead
 import org.neo4j.kernel.impl.query.TransactionalContext
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.BooleanValue
+import org.neo4j.values.storable.CoordinateReferenceSystem
+import org.neo4j.values.storable.DateTimeValue
+import org.neo4j.values.storable.DateValue
+import org.neo4j.values.storable.DurationValue
+import org.neo4j.values.storable.IntegralValue
+import org.neo4j.values.storable.LocalDateTimeValue
+import org.neo4j.values.storable.LocalTimeValue
+import org.neo4j.values.storable.NumberValue
+import org.neo4j.values.storable.PointValue
+import org.neo4j.values.storable.TextValue
+import org.neo4j.values.storable.TimeValue
+import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.ListValue
 import org.neo4j.values.virtual.MapValue
+import org.neo4j.values.virtual.MapValueBuilder
+import org.neo4j.values.virtual.VirtualValues
 
 import scala.collection.JavaConverters.asScalaIteratorConverter
 
@@ -69,6 +88,18 @@ trait CacheTracer[QUERY_KEY] {
    * The query cache was flushed.
    */
   def queryCacheFlush(sizeOfCacheBeforeFlush: Long): Unit
+
+  /**
+   * The item was compiled and cached while warming up the cache with the queries saved by an earlier run.
+   */
+  def queryCacheWarmup(queryKey: QUERY_KEY, metaData: String): Unit = {}
+
+  /**
+   * Warming up the cache has progressed.
+   * @param processed the number of saved queries that have been processed so far
+   * @param total the number of saved queries
+   */
+  def queryCacheWarmupProgress(processed: Int, total: Int): Unit = {}
 }
 
 /**
@@ -135,9 +166,10 @@ class QueryCache[QUERY_REP <: AnyRef,
 
   /*
     * The cached value wraps the value and maintains a count of how many times it has been fetched from the cache
-    * and whether or not it has been recompiled with expression code generation.
+    * and whether or not it has been recompiled with expression code generation. It also keeps the metaData that
+    * the value was compiled with.
     */
-  private class CachedValue(val value: EXECUTABLE_QUERY, val recompiledWithExpressionCodeGen: Boolean) {
+  private class CachedValue(val value: EXECUTABLE_QUERY, val recompiledWithExpressionCodeGen: Boolean, val metaData: String) {
 
     @volatile private var _numberOfHits = 0
 
@@ -247,7 +279,7 @@ class QueryCache[QUERY_REP <: AnyRef,
       compiler.maybeCompileWithExpressionCodeGen(cachedValue.numberOfHits) match {
         case Some(recompiledQuery) =>
           tracer.queryCompileWithExpressionCodeGen(queryKey, metaData)
-          val recompiled = new CachedValue(recompiledQuery, recompiledWithExpressionCodeGen = true)
+          val recompiled = new CachedValue(recompiledQuery, recompiledWithExpressionCodeGen = true, metaData)
           inner.put(queryKey, recompiled)
           recompiled
         case None => cachedValue
@@ -292,7 +324,7 @@ class QueryCache[QUERY_REP <: AnyRef,
                                                            ): EXECUTABLE_QUERY = {
     val newExecutableQuery = compile()
     if (newExecutableQuery.shouldBeCached) {
-      val cachedValue = new CachedValue(newExecutableQuery, recompiledWithExpressionCodeGen = false)
+      val cachedValue = new CachedValue(newExecutableQuery, recompiledWithExpressionCodeGen = false, metaData)
       inner.put(queryKey, cachedValue)
       if (hitCache)
         hit(queryKey, cachedValue, metaData)
@@ -319,6 +351,45 @@ class QueryCache[QUERY_REP <: AnyRef,
     newExecutableQuery
   }
 
+  /**
+   * Compile and cache a query ahead of its first use, unless it is already cached and not stale.
+   *
+   * @param queryKey the queryKey to compile the execution plan for
+   * @param tc TransactionalContext in which to compile and compute staleness
+   * @param compiler Compiler
+   * @param metaData String which will be passed to the CacheTracer
+   * @return `true` if the query was compiled and cached
+   */
+  def warmUp(queryKey: QUERY_KEY,
+             tc: TransactionalContext,
+             compiler: CompilerWithExpressionCodeGenOption[EXECUTABLE_QUERY],
+             metaData: String = ""
+            ): Boolean = {
+    if (maximumSize == 0) {
+      false
+    } else {
+      val cachedValue = inner.getIfPresent(queryKey)
+      if (cachedValue != NOT_PRESENT && stalenessCaller.staleness(tc, cachedValue.value) == NotStale) {
+        false
+      } else {
+        val executableQuery = compiler.compile()
+        if (executableQuery.shouldBeCached) {
+          inner.put(queryKey, new CachedValue(executableQuery, recompiledWithExpressionCodeGen = false, metaData))
+          tracer.queryCacheWarmup(queryKey, metaData)
+          true
+        } else {
+          false
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the keys of all queries currently in the cache, together with the metaData they were compiled with
+   */
+  def entries: Seq[(QUERY_KEY, String)] =
+    inner.asMap().entrySet().iterator().asScala.map(entry => (entry.getKey, entry.getValue.metaData)).toList
+
   /**
    * Method for clearing the LRUCache
    *
@@ -347,4 +418,37 @@ object QueryCache {
     }
     resultMap.result()
   }
+
+  /**
+   * Use this method to create parameters of the types in a ParameterTypeMap, for compiling a query ahead of knowing
+   * its actual parameters
+   */
+  def parameterValuesOfTypes(parameterTypes: ParameterTypeMap): MapValue = {
+    val builder = new MapValueBuilder(parameterTypes.size)
+    parameterTypes.foreach {
+      case (key, valueClass) => builder.add(key, valueOfType(valueClass))
+    }
+    builder.build()
+  }
+
+  /*
+   * Only the Cypher type of a parameter is used when planning, so any value of the same Cypher type will do.
+   */
+  private def valueOfType(valueClass: Class[_]): AnyValue = {
+    def is(cls: Class[_]) = cls.isAssignableFrom(valueClass)
+    if (is(classOf[TextValue])) Values.EMPTY_STRING
+    else if (is(classOf[BooleanValue])) Values.FALSE
+    else if (is(classOf[IntegralValue])) Values.longValue(0)
+    else if (is(classOf[NumberValue])) Values.doubleValue(0.0)
+    else if (is(classOf[PointValue])) Values.pointValue(CoordinateReferenceSystem.Cartesian, 0.0, 0.0)
+    else if (is(classOf[DateTimeValue])) DateTimeValue.datetime(0, 0, ZoneOffset.UTC)
+    else if (is(classOf[LocalDateTimeValue])) LocalDateTimeValue.localDateTime(0, 0)
+    else if (is(classOf[TimeValue])) TimeValue.time(0, ZoneOffset.UTC)
+    else if (is(classOf[LocalTimeValue])) LocalTimeValue.localTime(0)
+    else if (is(classOf[DateValue])) DateValue.epochDate(0)
+    else if (is(classOf[DurationValue])) DurationValue.duration(0, 0, 0, 0)
+    else if (is(classOf[MapValue])) VirtualValues.EMPTY_MAP
+    else if (is(classOf[ListValue])) VirtualValues.EMPTY_LIST
+    else Values.NO_VALUE
+  }
 }
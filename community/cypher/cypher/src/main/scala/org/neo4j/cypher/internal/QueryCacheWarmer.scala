@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.IOException
+import java.nio.charset.StandardCharsets.UTF_8
+import java.nio.file.Files
+import java.nio.file.NoSuchFileException
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption.ATOMIC_MOVE
+import java.nio.file.StandardCopyOption.REPLACE_EXISTING
+import java.util.concurrent.ExecutionException
+
+import org.neo4j.cypher.internal.QueryCache.ParameterTypeMap
+import org.neo4j.cypher.internal.QueryCacheWarmer.FORMAT_VERSION
+import org.neo4j.cypher.internal.javacompat.GraphDatabaseCypherService
+import org.neo4j.internal.kernel.api.security.LoginContext
+import org.neo4j.kernel.api.KernelTransaction
+import org.neo4j.kernel.impl.query.Neo4jTransactionalContextFactory
+import org.neo4j.kernel.lifecycle.LifecycleAdapter
+import org.neo4j.logging.LogProvider
+import org.neo4j.scheduler.Group
+import org.neo4j.scheduler.JobHandle
+import org.neo4j.scheduler.JobScheduler
+import org.neo4j.values.virtual.VirtualValues
+
+import scala.collection.mutable.ArrayBuffer
+import scala.util.control.NonFatal
+
+/**
+ * Keeps the query cache warm across restarts.
+ *
+ * When the database stops, the warmer saves the query texts and parameter types of the queries in the query cache to
+ * the warmup file. When the database starts, the warmer plans the saved queries again in the background, as soon as the
+ * database is available, so that the first executions of those queries find them in the query cache. A query that has
+ * been cached by then is only planned again if it is stale.
+ *
+ * Progress is reported through the [[CacheTracer]] of the execution engine.
+ */
+class QueryCacheWarmer(engine: ExecutionEngine,
+                       queryService: GraphDatabaseCypherService,
+                       scheduler: JobScheduler,
+                       warmupFile: Path,
+                       logProvider: LogProvider) extends LifecycleAdapter {
+
+  private val log = logProvider.getLog(getClass)
+  private lazy val contextFactory = Neo4jTransactionalContextFactory.create(queryService)
+
+  @volatile private var stopped = false
+  @volatile private var warmedUp = false
+  private var warmupJob: JobHandle[_] = _
+
+  override def start(): Unit = synchronized {
+    stopped = false
+    warmedUp = false
+    warmupJob = scheduler.schedule(Group.QUERY_CACHE_WARMER, new Runnable {
+      override def run(): Unit = warmUp()
+    })
+  }
+
+  override def stop(): Unit = synchronized {
+    stopped = true
+    if (warmupJob != null) {
+      awaitTermination(warmupJob)
+      warmupJob = null
+    }
+    // Only save the queries if we managed to warm up, or we would overwrite the saved queries with a part of them.
+    if (warmedUp) {
+      try {
+        saveQueries(engine.cachedQueries)
+      } catch {
+        case e: IOException => log.warn(s"Failed to save the cached queries to $warmupFile.", e)
+      }
+    }
+  }
+
+  /**
+   * Plan the saved queries and put them in the query cache.
+   *
+   * @return the number of queries that were planned.
+   */
+  private[internal] def warmUp(): Int = {
+    val startMillis = System.currentTimeMillis()
+    val queries = loadQueries()
+    var planned = 0
+    var processed = 0
+    if (queries.nonEmpty) {
+      awaitAvailable()
+    }
+    while (!stopped && processed < queries.size) {
+      val (query, parameterTypes) = queries(processed)
+      if (warmUp(query, parameterTypes)) {
+        planned += 1
+      }
+      processed += 1
+      engine.cacheTracer.queryCacheWarmupProgress(processed, queries.size)
+    }
+    if (!stopped) {
+      warmedUp = true
+      if (queries.nonEmpty) {
+        val elapsedMillis = System.currentTimeMillis() - startMillis
+        log.info(s"Query cache warmup completed. $planned of ${queries.size} saved queries planned. Duration: $elapsedMillis ms.")
+      }
+    }
+    planned
+  }
+
+  private def warmUp(query: String, parameterTypes: ParameterTypeMap): Boolean = {
+    try {
+      val tx = queryService.beginTransaction(KernelTransaction.Type.IMPLICIT, LoginContext.AUTH_DISABLED)
+      try {
+        val context = contextFactory.newContext(tx, query, VirtualValues.EMPTY_MAP)
+        try {
+          engine.warmUp(query, parameterTypes, context)
+        } finally {
+          context.close()
+        }
+      } finally {
+        tx.close()
+      }
+    } catch {
+      case NonFatal(e) =>
+        log.debug(s"Failed to plan saved query: $query", e)
+        false
+    }
+  }
+
+  private def awaitAvailable(): Unit = {
+    val facade = queryService.getGraphDatabaseService
+    while (!stopped && !facade.isAvailable(100)) {}
+  }
+
+  private[internal] def saveQueries(queries: Seq[(String, ParameterTypeMap)]): Unit = {
+    Files.createDirectories(warmupFile.toAbsolutePath.getParent)
+    val tmpFile = warmupFile.resolveSibling(warmupFile.getFileName.toString + ".tmp")
+    val out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))
+    try {
+      out.writeInt(FORMAT_VERSION)
+      out.writeInt(queries.size)
+      queries.foreach {
+        case (query, parameterTypes) =>
+          writeString(out, query)
+          out.writeInt(parameterTypes.size)
+          parameterTypes.foreach {
+            case (name, valueClass) =>
+              writeString(out, name)
+              writeString(out, valueClass.getName)
+          }
+      }
+    } finally {
+      out.close()
+    }
+    Files.move(tmpFile, warmupFile, ATOMIC_MOVE, REPLACE_EXISTING)
+  }
+
+  private[internal] def loadQueries(): IndexedSeq[(String, ParameterTypeMap)] = {
+    val queries = new ArrayBuffer[(String, ParameterTypeMap)]()
+    try {
+      val in = new DataInputStream(new BufferedInputStream(Files.newInputStream(warmupFile)))
+      try {
+        if (in.readInt() == FORMAT_VERSION) {
+          val count = in.readInt()
+          var i = 0
+          while (i < count) {
+            val query = readString(in)
+            val parameterCount = in.readInt()
+            val parameterTypes = Map.newBuilder[String, Class[_]]
+            var loadable = true
+            var j = 0
+            while (j < parameterCount) {
+              val name = readString(in)
+              val className = readString(in)
+              try {
+                parameterTypes += ((name, Class.forName(className, false, getClass.getClassLoader)))
+              } catch {
+                case _: ClassNotFoundException => loadable = false
+              }
+              j += 1
+            }
+            if (loadable) {
+              queries += ((query, parameterTypes.result()))
+            }
+            i += 1
+          }
+        }
+      } finally {
+        in.close()
+      }
+    } catch {
+      case _: NoSuchFileException => // nothing saved yet
+      case e: IOException => log.warn(s"Failed to load the saved queries from $warmupFile.", e)
+    }
+    queries
+  }
+
+  private def writeString(out: DataOutputStream, string: String): Unit = {
+    val bytes = string.getBytes(UTF_8)
+    out.writeInt(bytes.length)
+    out.write(bytes)
+  }
+
+  private def readString(in: DataInputStream): String = {
+    val bytes = new Array[Byte](in.readInt())
+    in.readFully(bytes)
+    new String(bytes, UTF_8)
+  }
+
+  private def awaitTermination(handle: JobHandle[_]): Unit = {
+    try {
+      handle.waitTermination()
+    } catch {
+      case _: InterruptedException => Thread.currentThread().interrupt()
+      case e: ExecutionException => log.warn("Query cache warmup job failed.", e)
+    }
+  }
+}
+
+object QueryCacheWarmer {
+  val FORMAT_VERSION = 1
+}
@@ -430,6 +430,10 @@ trait CypherCacheHitMonitor[T] {
   def cacheCompile(key: T): Unit = {}
 
   def cacheCompileWithExpressionCodeGen(key: T): Unit = {}
+
+  def cacheWarmup(key: T): Unit = {}
+
+  def cacheWarmupProgress(processed: Int, total: Int): Unit = {}
 }
 
 /**
@@ -32,10 +32,16 @@ import org.neo4j.cypher.internal.QueryCacheTest.newCache
 import org.neo4j.cypher.internal.QueryCacheTest.newKey
 import org.neo4j.cypher.internal.QueryCacheTest.newTracer
 import org.neo4j.cypher.internal.QueryCacheTest.staleAfterNTimes
+import org.neo4j.cypher.internal.compiler.helpers.ParameterValueTypeHelper
 import org.neo4j.cypher.internal.util.InternalNotification
 import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
 import org.neo4j.internal.helpers.collection.Pair
 import org.neo4j.kernel.impl.query.TransactionalContext
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.CoordinateReferenceSystem
+import org.neo4j.values.storable.DateValue
+import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.VirtualValues
 import org.scalatest.mockito.MockitoSugar
 
 class QueryCacheTest extends CypherFunSuite {
@@ -315,6 +321,93 @@ class QueryCacheTest extends CypherFunSuite {
     o.verify(tracer, times(96)).queryCacheHit(key, "")
     verifyNoMoreInteractions(tracer)
   }
+
+  test("warming up should cache the item so that the first access is a cache hit") {
+    // Given
+    val tracer = newTracer()
+    val cache = newCache(tracer)
+    val key = newKey("foo")
+
+    // When
+    cache.warmUp(key, TC, compilerWithExpressionCodeGenOption(key)) should equal(true)
+    val valueFromCache = cache.computeIfAbsentOrStale(key, TC, compilerWithExpressionCodeGenOption(key), CypherReplanOption.default)
+
+    // Then
+    valueFromCache should equal(compiled(key))
+    val o = Mockito.inOrder(tracer)
+    o.verify(tracer).queryCacheWarmup(key, "")
+    o.verify(tracer).queryCacheHit(key, "")
+    verifyNoMoreInteractions(tracer)
+  }
+
+  test("warming up should not compile an item that is cached and not stale") {
+    // Given
+    val tracer = newTracer()
+    val cache = newCache(tracer)
+    val key = newKey("foo")
+    cache.computeIfAbsentOrStale(key, TC, compilerWithExpressionCodeGenOption(key), CypherReplanOption.default)
+
+    // When
+    cache.warmUp(key, TC, compilerWithExpressionCodeGenOption(key)) should equal(false)
+
+    // Then
+    val o = Mockito.inOrder(tracer)
+    o.verify(tracer).queryCacheMiss(key, "")
+    o.verify(tracer).queryCompile(key, "")
+    verifyNoMoreInteractions(tracer)
+  }
+
+  test("warming up should compile an item that is cached but stale") {
+    // Given
+    val tracer = newTracer()
+    val cache = newCache(tracer, alwaysStale(17))
+    val key = newKey("foo")
+    cache.computeIfAbsentOrStale(key, TC, compilerWithExpressionCodeGenOption(key), CypherReplanOption.default)
+
+    // When
+    cache.warmUp(key, TC, compilerWithExpressionCodeGenOption(key)) should equal(true)
+
+    // Then
+    val o = Mockito.inOrder(tracer)
+    o.verify(tracer).queryCacheMiss(key, "")
+    o.verify(tracer).queryCompile(key, "")
+    o.verify(tracer).queryCacheWarmup(key, "")
+    verifyNoMoreInteractions(tracer)
+  }
+
+  test("size 0 cache should never warm up") {
+    val cache = newCache(size = 0)
+    val key = newKey("foo")
+
+    cache.warmUp(key, TC, compilerWithExpressionCodeGenOption(key)) should equal(false)
+    cache.entries shouldBe empty
+  }
+
+  test("entries should contain the keys and metadata of the cached items") {
+    // Given
+    val cache = newCache()
+    val foo = newKey("foo")
+    val bar = newKey("bar")
+
+    // When
+    cache.computeIfAbsentOrStale(foo, TC, compilerWithExpressionCodeGenOption(foo), CypherReplanOption.default, "CYPHER foo")
+    cache.warmUp(bar, TC, compilerWithExpressionCodeGenOption(bar), "CYPHER bar")
+
+    // Then
+    cache.entries should contain theSameElementsAs Seq(foo -> "CYPHER foo", bar -> "CYPHER bar")
+  }
+
+  test("parameters of a parameter type map should have the same Cypher types as the parameters it was extracted from") {
+    val params = VirtualValues.map(
+      Array("string", "int", "float", "bool", "list", "map", "point", "date", "node"),
+      Array[AnyValue](Values.utf8Value("foo"), Values.intValue(42), Values.floatValue(1.5f), Values.TRUE,
+        VirtualValues.list(Values.longValue(1)), VirtualValues.EMPTY_MAP,
+        Values.pointValue(CoordinateReferenceSystem.WGS84, 12.0, 56.0), DateValue.epochDate(100), VirtualValues.node(1)))
+
+    val recreated = QueryCache.parameterValuesOfTypes(QueryCache.extractParameterTypeMap(params))
+
+    ParameterValueTypeHelper.asCypherTypeMap(recreated) should equal(ParameterValueTypeHelper.asCypherTypeMap(params))
+  }
 }
 
 object QueryCacheTest extends MockitoSugar {
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import java.nio.file.Path
+
+import org.neo4j.cypher.internal.QueryCache.ParameterTypeMap
+import org.neo4j.cypher.internal.runtime.CreateTempFileTestSupport
+import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+import org.neo4j.logging.NullLogProvider
+import org.neo4j.values.storable.LongValue
+import org.neo4j.values.storable.TextValue
+import org.neo4j.values.virtual.ListValue
+
+class QueryCacheWarmerTest extends CypherFunSuite with CreateTempFileTestSupport {
+
+  test("should load the saved queries") {
+    // Given
+    val warmer = newWarmer(createTempDirectory("warmup").resolve("neo4j.querycache"))
+    val queries = Seq[(String, ParameterTypeMap)](
+      "MATCH (n) RETURN n" -> Map.empty,
+      "CYPHER runtime=slotted MATCH (n:Person {name: $name})\nRETURN n LIMIT $limit" -> Map("name" -> classOf[TextValue], "limit" -> classOf[LongValue]),
+      "UNWIND $list AS x RETURN 'ö' + x" -> Map("list" -> classOf[ListValue]))
+
+    // When
+    warmer.saveQueries(queries)
+
+    // Then
+    warmer.loadQueries() should equal(queries)
+  }
+
+  test("should replace the saved queries") {
+    // Given
+    val warmer = newWarmer(createTempDirectory("warmup").resolve("neo4j.querycache"))
+    warmer.saveQueries(Seq("MATCH (n) RETURN n" -> Map.empty))
+
+    // When
+    warmer.saveQueries(Seq("RETURN 1" -> Map.empty))
+
+    // Then
+    warmer.loadQueries() should equal(Seq("RETURN 1" -> Map.empty))
+  }
+
+  test("should load nothing if no queries were saved") {
+    val warmer = newWarmer(createTempDirectory("warmup").resolve("neo4j.querycache"))
+
+    warmer.loadQueries() shouldBe empty
+  }
+
+  private def newWarmer(warmupFile: Path) =
+    new QueryCacheWarmer(null, null, null, warmupFile, NullLogProvider.getInstance())
+}
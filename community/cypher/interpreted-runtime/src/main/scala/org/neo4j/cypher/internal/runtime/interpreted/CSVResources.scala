@@ -27,11 +27,13 @@ import java.net.CookiePolicy
 import java.net.URL
 import java.nio.charset.StandardCharsets
 import java.nio.file.Paths
+import java.util.concurrent.ArrayBlockingQueue
 import java.util.zip.GZIPInputStream
 import java.util.zip.InflaterInputStream
 
 import org.neo4j.csv.reader.BufferOverflowException
 import org.neo4j.csv.reader.CharReadable
+import org.neo4j.csv.reader.CharSeeker
 import org.neo4j.csv.reader.CharSeekers
 import org.neo4j.csv.reader.Configuration
 import org.neo4j.csv.reader.Extractors
@@ -79,59 +81,50 @@ case class CSVResource(url: URL, resource: AutoCloseable) extends DefaultCloseLi
   override def isClosed = false
 }
 
-class CSVResources(resourceManager: ResourceManager) extends ExternalCSVResource {
+/**
+  * @param prefetch if true, rows are read and parsed by a separate thread, ahead of the query, see [[PrefetchingCsvReader]].
+  */
+class CSVResources(resourceManager: ResourceManager, prefetch: Boolean = false) extends ExternalCSVResource {
 
   def getCsvIterator(url: URL, fieldTerminator: Option[String], legacyCsvQuoteEscaping: Boolean, bufferSize: Int,
                      headers: Boolean = false): LoadCsvIterator = {
 
     val reader: CharReadable = getReader(url)
     val delimiter: Char = fieldTerminator.map(_.charAt(0)).getOrElse(CSVResources.DEFAULT_FIELD_TERMINATOR)
-    val seeker = CharSeekers.charSeeker(reader, CSVResources.config(legacyCsvQuoteEscaping, bufferSize), false)
-    val extractor = new Extractors(delimiter).string()
-    val intDelimiter = delimiter.toInt
-    val mark = new Mark
+    val config = CSVResources.config(legacyCsvQuoteEscaping, bufferSize)
 
-    resourceManager.trace(CSVResource(url, seeker))
+    if (prefetch) {
+      // Local files are also read, decompressed and decoded ahead, by the thread of a ThreadAheadReadable
+      val prefetchingReader = new PrefetchingCsvReader(url, reader, config, delimiter, readAhead = url.getProtocol == "file")
+      resourceManager.trace(CSVResource(url, prefetchingReader))
+      prefetchingReader.start()
+      loadCsvIterator(() => prefetchingReader.readNextRow())
+    } else {
+      val seeker = CharSeekers.charSeeker(reader, config, false)
+      resourceManager.trace(CSVResource(url, seeker))
+      val rowReader = new CsvRowReader(seeker, delimiter)
+      loadCsvIterator(() => rowReader.readNextRow())
+    }
+  }
 
+  private def loadCsvIterator(readNextRow: () => Array[String]): LoadCsvIterator =
     new LoadCsvIterator {
       var lastProcessed = 0L
       var readAll = false
 
-      private def readNextRow: Array[String] = {
-        val buffer = new ArrayBuffer[String]
-
-        try {
-          while (seeker.seek(mark, intDelimiter)) {
-            val success = seeker.tryExtract(mark, extractor)
-            buffer += (if (success) extractor.value() else null)
-            if (mark.isEndOfLine) return if (buffer.isEmpty) null else buffer.toArray
-          }
-        } catch {
-          //TODO change to error message mentioning `dbms.import.csv.buffer_size` in 4.0
-          case e: BufferOverflowException => throw new CypherExecutionException(e.getMessage, e)
-        }
-
-        if (buffer.isEmpty) {
-          null
-        } else {
-          buffer.toArray
-        }
-      }
-
-      var nextRow: Array[String] = readNextRow
+      var nextRow: Array[String] = readNextRow()
 
       override def hasNext: Boolean = nextRow != null
 
       override def next(): Array[String] = {
         if (!hasNext) Iterator.empty.next()
         val row = nextRow
-        nextRow = readNextRow
+        nextRow = readNextRow()
         lastProcessed += 1
         readAll = !hasNext
         row
       }
     }
-  }
 
   private def getReader(url: URL) = try {
     val reader = if (url.getProtocol == "file") {
@@ -162,6 +155,142 @@ class CSVResources(resourceManager: ResourceManager) extends ExternalCSVResource
   }
 }
 
+/**
+  * Reads the rows of a CSV file, one at a time.
+  */
+class CsvRowReader(seeker: CharSeeker, delimiter: Char) {
+  private val extractor = new Extractors(delimiter).string()
+  private val intDelimiter = delimiter.toInt
+  private val mark = new Mark
+
+  /**
+    * @return the next row, or null if there are no more rows
+    */
+  def readNextRow(): Array[String] = {
+    val buffer = new ArrayBuffer[String]
+
+    try {
+      while (seeker.seek(mark, intDelimiter)) {
+        val success = seeker.tryExtract(mark, extractor)
+        buffer += (if (success) extractor.value() else null)
+        if (mark.isEndOfLine) return if (buffer.isEmpty) null else buffer.toArray
+      }
+    } catch {
+      //TODO change to error message mentioning `dbms.import.csv.buffer_size` in 4.0
+      case e: BufferOverflowException => throw new CypherExecutionException(e.getMessage, e)
+    }
+
+    if (buffer.isEmpty) {
+      null
+    } else {
+      buffer.toArray
+    }
+  }
+}
+
+/**
+  * Reads and parses the rows of a CSV file on a separate thread, so that the query thread does not alternate between parsing
+  * and writing. Parsed rows are handed over in chunks through a bounded queue, which stops the reader from getting more than
+  * [[PrefetchingCsvReader.MAX_CHUNKS_AHEAD]] chunks ahead of the query.
+  *
+  * The seeker is created by the reading thread, since a read-ahead seeker wakes up the thread that created it.
+  */
+class PrefetchingCsvReader(url: URL, reader: CharReadable, config: Configuration, delimiter: Char, readAhead: Boolean,
+                           closeTimeoutMillis: Long = PrefetchingCsvReader.CLOSE_TIMEOUT_MILLIS)
+  extends Thread with AutoCloseable {
+
+  import PrefetchingCsvReader._
+
+  setName(s"LOAD CSV reader for $url")
+  setDaemon(true)
+
+  private val chunks = new ArrayBlockingQueue[Chunk](MAX_CHUNKS_AHEAD)
+  @volatile private var closed = false
+
+  // Only accessed by the query thread
+  private var rows: Array[Array[String]] = Array.empty
+  private var index = 0
+  private var exhausted = false
+
+  override def run(): Unit = {
+    try {
+      val seeker = CharSeekers.charSeeker(reader, config, readAhead)
+      try {
+        val rowReader = new CsvRowReader(seeker, delimiter)
+        var row = rowReader.readNextRow()
+        while (row != null && !closed) {
+          val chunk = new ArrayBuffer[Array[String]](CHUNK_SIZE)
+          while (row != null && chunk.size < CHUNK_SIZE && !closed) {
+            chunk += row
+            row = rowReader.readNextRow()
+          }
+          chunks.put(Rows(chunk.toArray))
+        }
+        chunks.put(EndOfRows)
+      } finally {
+        seeker.close()
+      }
+    } catch {
+      case _: Throwable if closed => // the query is done with the rows
+      case t: Throwable =>
+        try {
+          chunks.put(Failure(t))
+        } catch {
+          case _: InterruptedException => // closed while waiting for the query to take the failure
+        }
+    }
+  }
+
+  /**
+    * Called by the query thread. Waits for the next row to be parsed, and rethrows any failure to read it.
+    *
+    * @return the next row, or null if there are no more rows
+    */
+  def readNextRow(): Array[String] = {
+    while (index == rows.length && !exhausted) {
+      chunks.take() match {
+        case Rows(chunk) =>
+          rows = chunk
+          index = 0
+        case EndOfRows =>
+          exhausted = true
+        case Failure(t) =>
+          exhausted = true
+          throw t
+      }
+    }
+
+    if (index < rows.length) {
+      val row = rows(index)
+      index += 1
+      row
+    } else {
+      null
+    }
+  }
+
+  /**
+    * Stops the reading thread. A blocking read from a socket does not notice the interrupt, so the wait is bounded; the
+    * thread is a daemon and closes the seeker itself once that read returns.
+    */
+  override def close(): Unit = {
+    closed = true
+    interrupt()
+    join(closeTimeoutMillis)
+  }
+}
+
+object PrefetchingCsvReader {
+  val CHUNK_SIZE = 1024
+  val MAX_CHUNKS_AHEAD = 4
+  val CLOSE_TIMEOUT_MILLIS = 10000L
+
+  private sealed trait Chunk
+  private case class Rows(rows: Array[Array[String]]) extends Chunk
+  private case object EndOfRows extends Chunk
+  private case class Failure(t: Throwable) extends Chunk
+}
+
 object TheCookieManager {
   private lazy val theCookieManager = create
 
@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted
+
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap
+import org.eclipse.collections.impl.map.mutable.primitive.LongLongHashMap
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet
+import org.neo4j.cypher.internal.expressions.SemanticDirection
+import org.neo4j.cypher.internal.runtime.Expander
+import org.neo4j.cypher.internal.runtime.KernelPredicate
+import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.DirectionConverter.toGraphDb
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.OnlyDirectionExpander
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.TypeAndDirectionExpander
+import org.neo4j.graphalgo.impl.util.PathImpl
+import org.neo4j.graphdb.Direction
+import org.neo4j.graphdb.Entity
+import org.neo4j.graphdb.Path
+import org.neo4j.internal.kernel.api.NodeCursor
+import org.neo4j.internal.kernel.api.Read
+import org.neo4j.internal.kernel.api.RelationshipTraversalCursor
+import org.neo4j.internal.kernel.api.TokenRead
+import org.neo4j.internal.kernel.api.helpers.RelationshipSelections.relationshipsCursor
+import org.neo4j.kernel.impl.core.TransactionalEntityFactory
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+ * Finds shortest paths with a bidirectional breadth first search running directly on kernel cursors.
+ *
+ * The two sides are expanded one full level at a time, always picking the side with the smaller frontier. Visited
+ * nodes are kept in primitive maps together with every relationship that reached them at their depth, which is enough
+ * to reconstruct all shortest paths once the frontiers meet. Node and relationship filters are evaluated during the
+ * expansion, so entities are only created for the filters that need them and for the paths that are returned.
+ */
+class CursorShortestPath(read: Read,
+                         tokenRead: TokenRead,
+                         nodeCursor: NodeCursor,
+                         traversalCursor: RelationshipTraversalCursor,
+                         entityAccessor: TransactionalEntityFactory,
+                         maxDepth: Int,
+                         expander: Expander,
+                         filters: Seq[KernelPredicate[Entity]]) {
+
+  private val nodeFilters = (expander.nodeFilters ++ filters).distinct.toArray
+  private val relFilters = expander.relFilters.toArray
+
+  // (direction, types) to expand from the start side, types == null means all types
+  private val selections: Array[(Direction, Array[Int])] = expander match {
+    case OnlyDirectionExpander(_, _, dir) =>
+      Array((toGraphDb(dir), null))
+    case TypeAndDirectionExpander(_, _, typDirs) =>
+      val directionByType = typDirs.groupBy(_._1).map {
+        case (typ, dirs) => typ -> (if (dirs.map(_._2).distinct.size == 1) dirs.head._2 else SemanticDirection.BOTH)
+      }
+      directionByType.toSeq
+        .map { case (typ, dir) => (tokenRead.relationshipType(typ), dir) }
+        .filter { case (typ, _) => typ != TokenRead.NO_TOKEN }
+        .groupBy(_._2)
+        .map { case (dir, types) => (toGraphDb(dir), types.map(_._1).toArray) }
+        .toArray
+  }
+
+  private val rejectedNodes = new LongHashSet()
+
+  /**
+   * Finds the first shortest path accepted by the predicate.
+   *
+   * @return `None` if there is no path at all, `Some(None)` if there are shortest paths but none was accepted,
+   *         otherwise the accepted path.
+   */
+  def findSinglePath(start: Long, end: Long, predicate: KernelPredicate[Path]): Option[Option[Path]] = {
+    var result: Option[Path] = None
+    val found = search(start, end, path => {
+      if (predicate.test(path)) {
+        result = Some(path)
+        true
+      } else false
+    })
+    if (found) Some(result) else None
+  }
+
+  /**
+   * Finds all shortest paths accepted by the predicate.
+   */
+  def findAllPaths(start: Long, end: Long, predicate: KernelPredicate[Path]): Seq[Path] = {
+    val result = new ArrayBuffer[Path]()
+    search(start, end, path => {
+      if (predicate.test(path)) result += path
+      false
+    })
+    result
+  }
+
+  /*
+   * Visits shortest paths until the visitor returns true. Returns true if at least one shortest path was found.
+   */
+  private def search(start: Long, end: Long, visitor: Path => Boolean): Boolean = {
+    if (start == end) {
+      visitor(PathImpl.singular(entityAccessor.newNodeEntity(start)))
+      return true
+    }
+
+    val startSide = new Side(start, reversed = false)
+    val endSide = new Side(end, reversed = true)
+    var hits: LongArrayList = null
+    while (hits == null) {
+      if (startSide.depth + endSide.depth >= maxDepth || startSide.frontier.isEmpty || endSide.frontier.isEmpty) {
+        return false
+      }
+      hits =
+        if (startSide.frontier.size() <= endSide.frontier.size()) startSide.expand(endSide)
+        else endSide.expand(startSide)
+    }
+
+    // Only the hits of minimal total depth connect shortest paths
+    var length = Int.MaxValue
+    var i = 0
+    while (i < hits.size()) {
+      val hit = hits.get(i)
+      length = math.min(length, startSide.depths.get(hit) + endSide.depths.get(hit))
+      i += 1
+    }
+
+    val rels = new Array[Long](length)
+    i = 0
+    var stop = false
+    while (!stop && i < hits.size()) {
+      val hit = hits.get(i)
+      val startDepth = startSide.depths.get(hit)
+      if (startDepth + endSide.depths.get(hit) == length) {
+        stop = startSide.walk(hit, startDepth - 1, -1, rels,
+          () => endSide.walk(hit, startDepth, 1, rels,
+            () => visitor(toPath(start, end, startDepth, rels))))
+      }
+      i += 1
+    }
+    true
+  }
+
+  private def toPath(start: Long, end: Long, startDepth: Int, rels: Array[Long]): Path = {
+    var left = new PathImpl.Builder(entityAccessor.newNodeEntity(start))
+    var i = 0
+    while (i < startDepth) {
+      left = left.push(entityAccessor.newRelationshipEntity(rels(i)))
+      i += 1
+    }
+    var right = new PathImpl.Builder(entityAccessor.newNodeEntity(end))
+    i = rels.length - 1
+    while (i >= startDepth) {
+      right = right.push(entityAccessor.newRelationshipEntity(rels(i)))
+      i -= 1
+    }
+    left.build(right)
+  }
+
+  private def acceptsRelationship(): Boolean = {
+    if (relFilters.nonEmpty) {
+      var i = 0
+      val rel = entityAccessor.newRelationshipEntity(traversalCursor.relationshipReference(),
+        traversalCursor.sourceNodeReference(), traversalCursor.`type`(), traversalCursor.targetNodeReference())
+      while (i < relFilters.length) {
+        if (!relFilters(i).test(rel)) return false
+        i += 1
+      }
+    }
+    true
+  }
+
+  private def acceptsNode(node: Long): Boolean = {
+    if (nodeFilters.isEmpty) return true
+    if (rejectedNodes.contains(node)) return false
+    val entity = entityAccessor.newNodeEntity(node)
+    var i = 0
+    while (i < nodeFilters.length) {
+      if (!nodeFilters(i).test(entity)) {
+        rejectedNodes.add(node)
+        return false
+      }
+      i += 1
+    }
+    true
+  }
+
+  private class Side(origin: Long, reversed: Boolean) {
+    val depths = new LongIntHashMap()
+    // the first relationship (and the node on the other end of it) that reached a node
+    private val parentRels = new LongLongHashMap()
+    private val parentNodes = new LongLongHashMap()
+    // further (relationship, node) pairs reaching a node at the same depth, only needed for multiple shortest paths
+    private val moreParents = new LongObjectHashMap[LongArrayList]()
+    private val directions = selections.map {
+      case (dir, types) => (if (reversed) dir.reverse() else dir, types)
+    }
+
+    var frontier = new LongArrayList()
+    var depth = 0
+
+    depths.put(origin, 0)
+    frontier.add(origin)
+
+    /*
+     * Expands the whole frontier one level. Returns the newly reached nodes that the other side has already seen,
+     * or null if there were none.
+     */
+    def expand(other: Side): LongArrayList = {
+      val nextFrontier = new LongArrayList()
+      val nextDepth = depth + 1
+      var hits: LongArrayList = null
+      var i = 0
+      while (i < frontier.size()) {
+        val node = frontier.get(i)
+        read.singleNode(node, nodeCursor)
+        if (nodeCursor.next()) {
+          var d = 0
+          while (d < directions.length) {
+            val (direction, types) = directions(d)
+            relationshipsCursor(traversalCursor, nodeCursor, types, direction)
+            while (traversalCursor.next()) {
+              val next = traversalCursor.otherNodeReference()
+              val seenAt = depths.getIfAbsent(next, -1)
+              if (seenAt == -1) {
+                if (acceptsRelationship() && acceptsNode(next)) {
+                  depths.put(next, nextDepth)
+                  parentRels.put(next, traversalCursor.relationshipReference())
+                  parentNodes.put(next, node)
+                  nextFrontier.add(next)
+                  if (other.depths.containsKey(next)) {
+                    if (hits == null) hits = new LongArrayList()
+                    hits.add(next)
+                  }
+                }
+              } else if (seenAt == nextDepth && acceptsRelationship()) {
+                val parents = moreParents.getIfAbsentPut(next, new LongArrayList())
+                parents.add(traversalCursor.relationshipReference())
+                parents.add(node)
+              }
+            }
+            d += 1
+          }
+        }
+        i += 1
+      }
+      frontier = nextFrontier
+      depth = nextDepth
+      hits
+    }
+
+    /*
+     * Writes every chain of relationships from `node` back to the origin into `rels`, starting at `pos` and moving
+     * `step` positions per relationship, calling `onComplete` for each complete chain. Stops as soon as `onComplete`
+     * returns true, and returns whether it did.
+     */
+    def walk(node: Long, pos: Int, step: Int, rels: Array[Long], onComplete: () => Boolean): Boolean = {
+      if (node == origin) {
+        onComplete()
+      } else {
+        rels(pos) = parentRels.get(node)
+        if (walk(parentNodes.get(node), pos + step, step, rels, onComplete)) {
+          true
+        } else {
+          val parents = moreParents.get(node)
+          var i = 0
+          while (parents != null && i < parents.size()) {
+            rels(pos) = parents.get(i)
+            if (walk(parents.get(i + 1), pos + step, step, rels, onComplete)) return true
+            i += 2
+          }
+          false
+        }
+      }
+    }
+  }
+}
@@ -19,6 +19,8 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted
 
+import java.nio.file.Path
+
 import org.neo4j.cypher.internal.logical.plans.LogicalPlan
 import org.neo4j.cypher.internal.runtime.ExpressionCursors
 import org.neo4j.cypher.internal.runtime.InputDataStream
@@ -45,10 +47,11 @@ abstract class BaseExecutionResultBuilderFactory(pipe: Pipe,
                                                  readOnly: Boolean,
                                                  columns: Seq[String],
                                                  logicalPlan: LogicalPlan,
-                                                 hasLoadCSV: Boolean) extends ExecutionResultBuilderFactory {
+                                                 hasLoadCSV: Boolean,
+                                                 loadCsvPrefetch: Boolean) extends ExecutionResultBuilderFactory {
 
   abstract class BaseExecutionResultBuilder() extends ExecutionResultBuilder {
-    protected var externalResource: ExternalCSVResource = new CSVResources(queryContext.resources)
+    protected var externalResource: ExternalCSVResource = new CSVResources(queryContext.resources, loadCsvPrefetch)
     protected var pipeDecorator: PipeDecorator = if (hasLoadCSV) new LinenumberPipeDecorator() else NullPipeDecorator
 
     protected def createQueryState(params: MapValue,
@@ -85,8 +88,10 @@ case class InterpretedExecutionResultBuilderFactory(pipe: Pipe,
                                                     logicalPlan: LogicalPlan,
                                                     lenientCreateRelationship: Boolean,
                                                     memoryTrackingController: MemoryTrackingController,
-                                                    hasLoadCSV: Boolean = false)
-  extends BaseExecutionResultBuilderFactory(pipe, readOnly, columns, logicalPlan, hasLoadCSV) {
+                                                    hasLoadCSV: Boolean = false,
+                                                    loadCsvPrefetch: Boolean = false,
+                                                    spillDirectory: Option[Path] = None)
+  extends BaseExecutionResultBuilderFactory(pipe, readOnly, columns, logicalPlan, hasLoadCSV, loadCsvPrefetch) {
 
   override def create(queryContext: QueryContext): ExecutionResultBuilder = InterpretedExecutionResultBuilder(queryContext: QueryContext)
 
@@ -107,7 +112,8 @@ case class InterpretedExecutionResultBuilderFactory(pipe: Pipe,
                      pipeDecorator,
                      lenientCreateRelationship = lenientCreateRelationship,
                      prePopulateResults = prePopulateResults,
-                     input = input)
+                     input = input,
+                     spillDirectory = spillDirectory)
     }
   }
 
@@ -868,20 +868,19 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
   override def singleShortestPath(left: Long, right: Long, depth: Int, expander: Expander,
                                   pathPredicate: KernelPredicate[Path],
                                   filters: Seq[KernelPredicate[Entity]]): Option[Path] = {
-    val pathFinder = buildPathFinder(depth, expander, pathPredicate, filters)
-
-    //could probably do without node proxies here
-    Option(pathFinder.findSinglePath(entityAccessor.newNodeEntity(left), entityAccessor.newNodeEntity(right)))
+    withCursorShortestPath(depth, expander, filters)(_.findSinglePath(left, right, pathPredicate)) match {
+      case Some(None) =>
+        // none of the shortest paths was accepted, but a longer one might be
+        val pathFinder = buildPathFinder(depth, expander, pathPredicate, filters)
+        Option(pathFinder.findSinglePath(entityAccessor.newNodeEntity(left), entityAccessor.newNodeEntity(right)))
+      case result => result.flatten
+    }
   }
 
   override def allShortestPath(left: Long, right: Long, depth: Int, expander: Expander,
                                pathPredicate: KernelPredicate[Path],
-                               filters: Seq[KernelPredicate[Entity]]): scala.Iterator[Path] = {
-    val pathFinder = buildPathFinder(depth, expander, pathPredicate, filters)
-
-    pathFinder.findAllPaths(entityAccessor.newNodeEntity(left), entityAccessor.newNodeEntity(right)).iterator()
-      .asScala
-  }
+                               filters: Seq[KernelPredicate[Entity]]): scala.Iterator[Path] =
+    withCursorShortestPath(depth, expander, filters)(_.findAllPaths(left, right, pathPredicate)).iterator
 
   override def callReadOnlyProcedure(id: Int, args: Seq[AnyValue], allowed: Array[String],
                                      context: ProcedureCallContext): Iterator[Array[AnyValue]] =
@@ -905,6 +904,18 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
   override def aggregateFunction(id: Int, allowed: Array[String]): UserDefinedAggregator =
     CallSupport.aggregateFunction(transactionalContext.tc, id, allowed)
 
+  private def withCursorShortestPath[T](depth: Int, expander: Expander, filters: Seq[KernelPredicate[Entity]])
+                                       (f: CursorShortestPath => T): T = {
+    val nodeCursor = allocateAndTraceNodeCursor()
+    val traversalCursor = allocateAndTraceRelationshipTraversalCursor()
+    try {
+      f(new CursorShortestPath(reads(), tokenRead, nodeCursor, traversalCursor, entityAccessor, depth, expander, filters))
+    } finally {
+      traversalCursor.close()
+      nodeCursor.close()
+    }
+  }
+
   private def buildPathFinder(depth: Int, expander: Expander, pathPredicate: KernelPredicate[Path],
                               filters: Seq[KernelPredicate[Entity]]): ShortestPath = {
     val startExpander = expander match {
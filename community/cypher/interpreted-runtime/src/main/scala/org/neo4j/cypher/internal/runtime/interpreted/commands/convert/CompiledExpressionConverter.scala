@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.commands.convert
+
+import java.util.concurrent.atomic.AtomicLong
+
+import org.neo4j.codegen.api.ClassDeclaration
+import org.neo4j.codegen.api.CodeGeneration
+import org.neo4j.codegen.api.CodeGeneration.ByteCodeGeneration
+import org.neo4j.codegen.api.CodeGeneration.CodeSaver
+import org.neo4j.codegen.api.IntermediateRepresentation
+import org.neo4j.codegen.api.IntermediateRepresentation.arrayLoad
+import org.neo4j.codegen.api.IntermediateRepresentation.assign
+import org.neo4j.codegen.api.IntermediateRepresentation.block
+import org.neo4j.codegen.api.IntermediateRepresentation.condition
+import org.neo4j.codegen.api.IntermediateRepresentation.constant
+import org.neo4j.codegen.api.IntermediateRepresentation.declareAndAssign
+import org.neo4j.codegen.api.IntermediateRepresentation.equal
+import org.neo4j.codegen.api.IntermediateRepresentation.fail
+import org.neo4j.codegen.api.IntermediateRepresentation.falseValue
+import org.neo4j.codegen.api.IntermediateRepresentation.getStatic
+import org.neo4j.codegen.api.IntermediateRepresentation.ifElse
+import org.neo4j.codegen.api.IntermediateRepresentation.invoke
+import org.neo4j.codegen.api.IntermediateRepresentation.invokeStatic
+import org.neo4j.codegen.api.IntermediateRepresentation.invokeStaticSideEffect
+import org.neo4j.codegen.api.IntermediateRepresentation.isNotNull
+import org.neo4j.codegen.api.IntermediateRepresentation.isNull
+import org.neo4j.codegen.api.IntermediateRepresentation.load
+import org.neo4j.codegen.api.IntermediateRepresentation.method
+import org.neo4j.codegen.api.IntermediateRepresentation.noValue
+import org.neo4j.codegen.api.IntermediateRepresentation.noop
+import org.neo4j.codegen.api.IntermediateRepresentation.notEqual
+import org.neo4j.codegen.api.IntermediateRepresentation.or
+import org.neo4j.codegen.api.IntermediateRepresentation.param
+import org.neo4j.codegen.api.IntermediateRepresentation.staticConstant
+import org.neo4j.codegen.api.IntermediateRepresentation.ternary
+import org.neo4j.codegen.api.IntermediateRepresentation.trueValue
+import org.neo4j.codegen.api.IntermediateRepresentation.tryCatch
+import org.neo4j.codegen.api.IntermediateRepresentation.typeRefOf
+import org.neo4j.codegen.api.MethodDeclaration
+import org.neo4j.codegen.api.StaticField
+import org.neo4j.cypher.internal
+import org.neo4j.cypher.internal.expressions.Expression
+import org.neo4j.cypher.internal.runtime.ReadableRow
+import org.neo4j.cypher.internal.runtime.ast.ParameterFromSlot
+import org.neo4j.cypher.internal.runtime.interpreted.CommandProjection
+import org.neo4j.cypher.internal.runtime.interpreted.GroupingExpression
+import org.neo4j.cypher.internal.runtime.interpreted.ValueConversion.asValue
+import org.neo4j.cypher.internal.runtime.interpreted.commands
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.CompiledExpression
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.CompiledPredicate
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.ExpressionEvaluator
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.cypher.operations.CypherBoolean
+import org.neo4j.cypher.operations.CypherMath
+import org.neo4j.logging.Log
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Value
+
+import scala.collection.mutable.ArrayBuffer
+import scala.util.control.NonFatal
+
+/**
+  * Compiles comparisons, boolean logic and arithmetic to bytecode, so that they are evaluated without walking a tree of
+  * interpreted commands. Literals, variables and parameters are compiled too. Any other sub-expression is converted by the
+  * converters that follow this one, and evaluated by the compiled code as an input.
+  *
+  * Expressions that are not rooted in one of the compiled operators, or that fail to compile, are left to the following converters.
+  */
+case class CompiledExpressionConverter(log: Log) extends ExpressionConverter {
+
+  import CompiledExpressionConverter._
+
+  override def toCommandExpression(id: Id, expression: Expression, self: ExpressionConverters): Option[commands.expressions.Expression] =
+    if (!isOperator(expression)) {
+      None
+    } else {
+      try {
+        Some(compile(id, expression, self))
+      } catch {
+        case NonFatal(t) =>
+          log.debug(s"Failed to compile expression: $expression", t)
+          None
+      }
+    }
+
+  override def toCommandProjection(id: Id, projections: Map[String, Expression], self: ExpressionConverters): Option[CommandProjection] = None
+
+  override def toGroupingExpression(id: Id,
+                                    groupings: Map[String, Expression],
+                                    orderToLeverage: Seq[Expression],
+                                    self: ExpressionConverters): Option[GroupingExpression] = None
+
+  private def compile(id: Id, expression: Expression, self: ExpressionConverters): commands.expressions.Expression = {
+    val generator = new IntermediateCodeGeneration(id, self)
+    val body = generator.compile(expression)
+    val declaration = ClassDeclaration[ExpressionEvaluator](
+      PACKAGE_NAME,
+      CLASS_NAME_PREFIX + COUNTER.incrementAndGet(),
+      Some(typeRefOf[ExpressionEvaluator]),
+      Seq.empty,
+      Seq.empty,
+      noop(),
+      () => generator.constants,
+      Seq(MethodDeclaration("evaluate", typeRefOf[AnyValue], Seq(param[ReadableRow]("row"), param[QueryState]("state"),
+        param[Array[commands.expressions.Expression]]("inputs")), body)))
+
+    val generatorMode = ByteCodeGeneration(new CodeSaver(false, false))
+    val evaluator = CodeGeneration.compileAnonymousClass(declaration, CodeGeneration.createGenerator(generatorMode))
+      .getDeclaredConstructor().newInstance()
+    val inputs = generator.inputs.toArray
+    val description = expression.asCanonicalStringVal
+
+    if (isPredicate(expression)) CompiledPredicate(evaluator, inputs, description, containsIsNull(expression))
+    else CompiledExpression(evaluator, inputs, description)
+  }
+}
+
+object CompiledExpressionConverter {
+  private val PACKAGE_NAME = "org.neo4j.codegen"
+  private val CLASS_NAME_PREFIX = "InterpretedExpression"
+  private val COUNTER = new AtomicLong(0)
+
+  private def isOperator(expression: Expression): Boolean = isPredicate(expression) || isArithmetic(expression)
+
+  private def isPredicate(expression: Expression): Boolean = expression match {
+    case _: internal.expressions.Equals |
+         _: internal.expressions.NotEquals |
+         _: internal.expressions.InequalityExpression |
+         _: internal.expressions.And |
+         _: internal.expressions.Or |
+         _: internal.expressions.Xor |
+         _: internal.expressions.Not |
+         _: internal.expressions.Ands |
+         _: internal.expressions.Ors |
+         _: internal.expressions.IsNull |
+         _: internal.expressions.IsNotNull => true
+    case _ => false
+  }
+
+  private def isArithmetic(expression: Expression): Boolean = expression match {
+    case _: internal.expressions.Add |
+         _: internal.expressions.Subtract |
+         _: internal.expressions.UnarySubtract |
+         _: internal.expressions.Multiply |
+         _: internal.expressions.Divide |
+         _: internal.expressions.Modulo |
+         _: internal.expressions.Pow => true
+    case _ => false
+  }
+
+  private def containsIsNull(expression: Expression): Boolean = expression match {
+    case _: internal.expressions.IsNull => true
+    case e: internal.expressions.And => containsIsNull(e.lhs) || containsIsNull(e.rhs)
+    case e: internal.expressions.Or => containsIsNull(e.lhs) || containsIsNull(e.rhs)
+    case e: internal.expressions.Xor => containsIsNull(e.lhs) || containsIsNull(e.rhs)
+    case e: internal.expressions.Not => containsIsNull(e.rhs)
+    case e: internal.expressions.Ands => e.exprs.exists(containsIsNull)
+    case e: internal.expressions.Ors => e.exprs.exists(containsIsNull)
+    case e: internal.expressions.Equals => e.rhs.isInstanceOf[internal.expressions.Null] && e.lhs.isInstanceOf[internal.expressions.Variable]
+    case _ => false
+  }
+
+  /**
+    * Generates the body of [[ExpressionEvaluator.evaluate]] for one expression. Every compiled sub-expression is a block whose last
+    * value is the [[AnyValue]] of the sub-expression. Sub-expressions that are evaluated conditionally are generated as statements,
+    * never as branches of a ternary, since the statements of a block are emitted where the block is generated.
+    */
+  private class IntermediateCodeGeneration(id: Id, self: ExpressionConverters) {
+
+    private val _inputs = ArrayBuffer[commands.expressions.Expression]()
+    private val _constants = ArrayBuffer[StaticField]()
+    private var names = 0
+
+    def inputs: Seq[commands.expressions.Expression] = _inputs
+
+    def constants: Seq[StaticField] = _constants
+
+    def compile(expression: Expression): IntermediateRepresentation = expression match {
+      case _: internal.expressions.Null => noValue
+      case _: internal.expressions.True => trueValue
+      case _: internal.expressions.False => falseValue
+      case e: internal.expressions.Literal => constantValue(asValue(e.value))
+      case e: internal.expressions.Variable => variable(e.name)
+      case ParameterFromSlot(offset, _, _) => arrayLoad(invoke(load("state"), method[QueryState, Array[AnyValue]]("params")), offset)
+
+      case e: internal.expressions.Equals => nullCheckedBinary(e.lhs, e.rhs, method[CypherBoolean, Value, AnyValue, AnyValue]("equals"))
+      case e: internal.expressions.NotEquals => nullCheckedBinary(e.lhs, e.rhs, method[CypherBoolean, Value, AnyValue, AnyValue]("notEquals"))
+      case e: internal.expressions.LessThan => binary(e.lhs, e.rhs, method[CypherBoolean, Value, AnyValue, AnyValue]("lessThan"))
+      case e: internal.expressions.LessThanOrEqual => binary(e.lhs, e.rhs, method[CypherBoolean, Value, AnyValue, AnyValue]("lessThanOrEqual"))
+      case e: internal.expressions.GreaterThan => binary(e.lhs, e.rhs, method[CypherBoolean, Value, AnyValue, AnyValue]("greaterThan"))
+      case e: internal.expressions.GreaterThanOrEqual => binary(e.lhs, e.rhs, method[CypherBoolean, Value, AnyValue, AnyValue]("greaterThanOrEqual"))
+
+      case e: internal.expressions.IsNull => isNoValue(compile(e.lhs), trueValue, falseValue)
+      case e: internal.expressions.IsNotNull => isNoValue(compile(e.lhs), falseValue, trueValue)
+      case e: internal.expressions.Not => not(e.rhs)
+      case e: internal.expressions.Xor => xor(e.lhs, e.rhs)
+      case e: internal.expressions.And => composite(Seq(e.lhs, e.rhs), exitValue = falseValue, otherValue = trueValue)
+      case e: internal.expressions.Ands => composite(e.exprs.toSeq, exitValue = falseValue, otherValue = trueValue)
+      case e: internal.expressions.Or => composite(Seq(e.lhs, e.rhs), exitValue = trueValue, otherValue = falseValue)
+      case e: internal.expressions.Ors => composite(e.exprs.toSeq, exitValue = trueValue, otherValue = falseValue)
+
+      case e: internal.expressions.Add => nullCheckedBinary(e.lhs, e.rhs, method[CypherMath, AnyValue, AnyValue, AnyValue]("add"))
+      case e: internal.expressions.UnaryAdd => compile(e.rhs)
+      case e: internal.expressions.Subtract => nullCheckedBinary(e.lhs, e.rhs, method[CypherMath, AnyValue, AnyValue, AnyValue]("subtract"))
+      case e: internal.expressions.UnarySubtract =>
+        nullChecked(constantValue(asValue(0)), compile(e.rhs), method[CypherMath, AnyValue, AnyValue, AnyValue]("subtract"))
+      case e: internal.expressions.Multiply => nullCheckedBinary(e.lhs, e.rhs, method[CypherMath, AnyValue, AnyValue, AnyValue]("multiply"))
+      case e: internal.expressions.Divide => divide(e.lhs, e.rhs)
+      case e: internal.expressions.Modulo => nullCheckedBinary(e.lhs, e.rhs, method[CypherMath, AnyValue, AnyValue, AnyValue]("modulo"))
+      case e: internal.expressions.Pow => nullCheckedBinary(e.lhs, e.rhs, method[CypherMath, AnyValue, AnyValue, AnyValue]("pow"))
+
+      case e => evaluateInput(self.toCommandExpression(id, e))
+    }
+
+    /**
+      * Compiles an operand of boolean logic, which evaluates to `TRUE`, `FALSE` or `NO_VALUE`. Anything but compiled predicates is
+      * coerced to a predicate by the interpreted commands.
+      */
+    private def compilePredicate(expression: Expression): IntermediateRepresentation = expression match {
+      case e if isPredicate(e) => compile(e)
+      case _: internal.expressions.True | _: internal.expressions.False => compile(expression)
+      case e => evaluateInput(self.toCommandPredicate(id, e))
+    }
+
+    private def binary(lhs: Expression, rhs: Expression, operation: org.neo4j.codegen.api.Method): IntermediateRepresentation = {
+      val l = nextName("l")
+      val r = nextName("r")
+      block(
+        declareAndAssign(typeRefOf[AnyValue], l, compile(lhs)),
+        declareAndAssign(typeRefOf[AnyValue], r, compile(rhs)),
+        invokeStatic(operation, load(l), load(r)))
+    }
+
+    private def nullCheckedBinary(lhs: Expression, rhs: Expression, operation: org.neo4j.codegen.api.Method): IntermediateRepresentation =
+      nullChecked(compile(lhs), compile(rhs), operation)
+
+    // lhs and rhs are always both evaluated, like in the interpreted commands
+    private def nullChecked(lhs: IntermediateRepresentation,
+                            rhs: IntermediateRepresentation,
+                            operation: org.neo4j.codegen.api.Method): IntermediateRepresentation = {
+      val l = nextName("l")
+      val r = nextName("r")
+      block(
+        declareAndAssign(typeRefOf[AnyValue], l, lhs),
+        declareAndAssign(typeRefOf[AnyValue], r, rhs),
+        ternary(or(equal(load(l), noValue), equal(load(r), noValue)), noValue, invokeStatic(operation, load(l), load(r))))
+    }
+
+    private def divide(lhs: Expression, rhs: Expression): IntermediateRepresentation = {
+      val l = nextName("l")
+      val r = nextName("r")
+      block(
+        declareAndAssign(typeRefOf[AnyValue], l, compile(lhs)),
+        declareAndAssign(typeRefOf[AnyValue], r, compile(rhs)),
+        invokeStaticSideEffect(method[CypherMath, Boolean, AnyValue, AnyValue]("divideCheckForNull"), load(l), load(r)),
+        ternary(or(equal(load(l), noValue), equal(load(r), noValue)), noValue,
+          invokeStatic(method[CypherMath, AnyValue, AnyValue, AnyValue]("divide"), load(l), load(r))))
+    }
+
+    private def isNoValue(value: IntermediateRepresentation,
+                          onNoValue: IntermediateRepresentation,
+                          otherwise: IntermediateRepresentation): IntermediateRepresentation = {
+      val v = nextName("v")
+      block(
+        declareAndAssign(typeRefOf[AnyValue], v, value),
+        ternary(equal(load(v), noValue), onNoValue, otherwise))
+    }
+
+    private def not(operand: Expression): IntermediateRepresentation = {
+      val v = nextName("v")
+      block(
+        declareAndAssign(typeRefOf[AnyValue], v, compilePredicate(operand)),
+        ternary(equal(load(v), noValue), noValue, ternary(equal(load(v), trueValue), falseValue, trueValue)))
+    }
+
+    private def xor(lhs: Expression, rhs: Expression): IntermediateRepresentation = {
+      val l = nextName("l")
+      val r = nextName("r")
+      block(
+        declareAndAssign(typeRefOf[AnyValue], l, compilePredicate(lhs)),
+        declareAndAssign(typeRefOf[AnyValue], r, compilePredicate(rhs)),
+        ternary(or(equal(load(l), noValue), equal(load(r), noValue)), noValue,
+          ternary(equal(load(l), load(r)), falseValue, trueValue)))
+    }
+
+    /**
+      * AND (OR) of the operands, with the semantics of [[commands.predicates.CompositeBooleanPredicate]]. Evaluation stops at the
+      * first `FALSE` (`TRUE`), which also supersedes errors of earlier operands. Otherwise the first error is thrown, then `NO_VALUE`
+      * is returned if any operand was `NO_VALUE`.
+      */
+    private def composite(operands: Seq[Expression],
+                          exitValue: IntermediateRepresentation,
+                          otherValue: IntermediateRepresentation): IntermediateRepresentation = {
+      val result = nextName("result")
+      val seenNoValue = nextName("seenNoValue")
+      val error = nextName("error")
+      val evaluateOperands = operands.map { operand =>
+        val v = nextName("v")
+        val e = nextName("e")
+        condition(notEqual(load(result), exitValue))(
+          tryCatch[Exception](e)(
+            block(
+              declareAndAssign(typeRefOf[AnyValue], v, compilePredicate(operand)),
+              ifElse(equal(load(v), exitValue))(
+                assign(result, exitValue))(
+                condition(equal(load(v), noValue))(assign(seenNoValue, constant(true))))))(
+            condition(isNull(load(error)))(assign(error, load(e)))))
+      }
+
+      block(
+        Seq(
+          declareAndAssign(typeRefOf[AnyValue], result, otherValue),
+          declareAndAssign(typeRefOf[Boolean], seenNoValue, constant(false)),
+          declareAndAssign(typeRefOf[Exception], error, constant(null))) ++
+          evaluateOperands ++
+          Seq(
+            condition(notEqual(load(result), exitValue))(
+              block(
+                condition(isNotNull(load(error)))(fail(load(error))),
+                condition(load(seenNoValue))(assign(result, noValue)))),
+            load(result)): _*)
+    }
+
+    private def variable(name: String): IntermediateRepresentation =
+      invoke(load("row"), method[ReadableRow, AnyValue, String]("getByName"), constant(name))
+
+    private def constantValue(value: AnyValue): IntermediateRepresentation = {
+      val field = staticConstant[AnyValue](nextName("CONSTANT"), value)
+      _constants += field
+      getStatic(field)
+    }
+
+    private def evaluateInput(input: commands.expressions.Expression): IntermediateRepresentation = {
+      val offset = _inputs.size
+      _inputs += input
+      invoke(arrayLoad(load("inputs"), offset), method[commands.expressions.Expression, AnyValue, ReadableRow, QueryState]("apply"),
+        load("row"), load("state"))
+    }
+
+    private def nextName(prefix: String): String = {
+      names += 1
+      prefix + names
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.commands.expressions
+
+import org.neo4j.cypher.internal.runtime.IsFalseValue
+import org.neo4j.cypher.internal.runtime.IsNoValue
+import org.neo4j.cypher.internal.runtime.IsTrueValue
+import org.neo4j.cypher.internal.runtime.ReadableRow
+import org.neo4j.cypher.internal.runtime.interpreted.commands.AstNode
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.Predicate
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Value
+
+/**
+  * Base class of the classes generated by [[org.neo4j.cypher.internal.runtime.interpreted.commands.convert.CompiledExpressionConverter]].
+  * Sub-expressions that were not compiled are evaluated through `inputs`.
+  */
+abstract class ExpressionEvaluator {
+  def evaluate(row: ReadableRow, state: QueryState, inputs: Array[Expression]): AnyValue
+}
+
+/**
+  * An expression compiled to bytecode.
+  *
+  * @param inputs      the interpreted sub-expressions of the compiled expression
+  * @param description the compiled expression, for plan descriptions and debugging
+  */
+case class CompiledExpression(evaluator: ExpressionEvaluator, inputs: Array[Expression], description: String) extends Expression {
+
+  override def apply(row: ReadableRow, state: QueryState): AnyValue = evaluator.evaluate(row, state, inputs)
+
+  override def rewrite(f: Expression => Expression): Expression = f(CompiledExpression(evaluator, inputs.map(_.rewrite(f)), description))
+
+  override def arguments: Seq[Expression] = inputs
+
+  override def children: Seq[AstNode[_]] = inputs
+
+  override def toString: String = description
+}
+
+/**
+  * A predicate compiled to bytecode, evaluating to `true`, `false` or `null`.
+  *
+  * @param inputs      the interpreted sub-expressions of the compiled predicate
+  * @param description the compiled predicate, for plan descriptions and debugging
+  */
+case class CompiledPredicate(evaluator: ExpressionEvaluator, inputs: Array[Expression], description: String, containsIsNull: Boolean)
+  extends Predicate {
+
+  override def apply(row: ReadableRow, state: QueryState): Value = evaluator.evaluate(row, state, inputs).asInstanceOf[Value]
+
+  override def isMatch(ctx: ReadableRow, state: QueryState): Option[Boolean] = evaluator.evaluate(ctx, state, inputs) match {
+    case IsTrueValue() => Some(true)
+    case IsFalseValue() => Some(false)
+    case IsNoValue() => None
+  }
+
+  override def rewrite(f: Expression => Expression): Expression =
+    f(CompiledPredicate(evaluator, inputs.map(_.rewrite(f)), description, containsIsNull))
+
+  override def arguments: Seq[Expression] = inputs
+
+  override def children: Seq[AstNode[_]] = inputs
+
+  override def toString: String = description
+}
@@ -22,11 +22,15 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.util.attribution.Id
 
-case class AllNodesScanPipe(ident: String)(val id: Id = Id.INVALID_ID) extends Pipe {
+case class AllNodesScanPipe(ident: String)(val id: Id = Id.INVALID_ID) extends BatchedPipe {
 
   protected def internalCreateResults(state: QueryState): Iterator[CypherRow] = {
     val baseContext = state.newExecutionContext(executionContextFactory)
-    state.query.nodeOps.all.map(n => executionContextFactory.copyWith(baseContext, ident, n))
+    if (isBatched(state)) {
+      RowBatch.rows(RowBatch.nodeBatches(state.query.nodeOps.allPrimitive, batchSize, baseContext, ident, state, executionContextFactory))
+    } else {
+      state.query.nodeOps.all.map(n => executionContextFactory.copyWith(baseContext, ident, n))
+    }
   }
 
 }
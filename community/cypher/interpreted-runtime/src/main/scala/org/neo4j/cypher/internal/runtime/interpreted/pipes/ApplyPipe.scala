@@ -22,12 +22,19 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.util.attribution.Id
 
-case class ApplyPipe(source: Pipe, inner: Pipe)(val id: Id = Id.INVALID_ID) extends PipeWithSource(source) {
+case class ApplyPipe(source: Pipe, inner: Pipe)(val id: Id = Id.INVALID_ID) extends PipeWithSource(source) with BatchedPipe {
 
   protected def internalCreateResults(input: Iterator[CypherRow], state: QueryState): Iterator[CypherRow] =
-    input.flatMap {
-      outerContext: CypherRow =>
-        val innerState = state.withInitialContext(outerContext)
-        inner.createResults(innerState)
+    inner match {
+      // An exact index seek per row, e.g. for UNWIND $keys AS k MATCH (n:L {p: k}), seeks the keys of a whole batch at once
+      case seek: NodeIndexSeekPipe if isBatched(state) && seek.canSeekInBatches =>
+        RowBatch.rows(seek.seekBatches(RowBatch.batches(input, batchSize), state, batchSize))
+
+      case _ =>
+        input.flatMap {
+          outerContext: CypherRow =>
+            val innerState = state.withInitialContext(outerContext)
+            inner.createResults(innerState)
+        }
     }
 }
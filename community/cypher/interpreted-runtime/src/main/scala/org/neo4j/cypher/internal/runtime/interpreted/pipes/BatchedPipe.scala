@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+/**
+  * A pipe which can process its rows a batch at a time. Adjacent batched pipes pass [[RowBatch]]es to each other, while other pipes
+  * are given the rows of the batches one at a time.
+  *
+  * Like [[Pipe.executionContextFactory]], the batch size is set when the pipe tree is built, see [[BatchedPipeMapper]].
+  */
+trait BatchedPipe extends Pipe {
+
+  /**
+    * The number of rows per batch, or 0 to process one row at a time.
+    */
+  var batchSize: Int = 0
+
+  /**
+    * Batches are only used when the pipes are not decorated. Profiling counts rows and db hits between pipes, which
+    * batches would bypass.
+    */
+  protected def isBatched(state: QueryState): Boolean = batchSize > 0 && (state.decorator eq NullPipeDecorator)
+}
@@ -24,6 +24,8 @@ import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.runtime.IsNoValue
 import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.exceptions.ParameterWrongTypeException
+import org.neo4j.graphdb.Direction
+import org.neo4j.internal.kernel.api.helpers.RelationshipSelections
 import org.neo4j.values.virtual.NodeValue
 import org.neo4j.values.virtual.RelationshipValue
 
@@ -33,22 +35,119 @@ case class ExpandAllPipe(source: Pipe,
                          toName: String,
                          dir: SemanticDirection,
                          types: RelationshipTypes)
-                        (val id: Id = Id.INVALID_ID) extends PipeWithSource(source) {
+                        (val id: Id = Id.INVALID_ID) extends PipeWithSource(source) with BatchedPipe {
+
+  private val kernelDirection = dir match {
+    case SemanticDirection.OUTGOING => Direction.OUTGOING
+    case SemanticDirection.INCOMING => Direction.INCOMING
+    case SemanticDirection.BOTH => Direction.BOTH
+  }
 
   protected def internalCreateResults(input: Iterator[CypherRow], state: QueryState): Iterator[CypherRow] = {
-    input.flatMap {
-      row =>
+    if (isBatched(state)) {
+      RowBatch.rows(new ExpandAllBatches(RowBatch.batches(input, batchSize), state))
+    } else {
+      input.flatMap {
+        row =>
+          row.getByName(fromName) match {
+            case n: NodeValue =>
+              val relationships: Iterator[RelationshipValue] = state.query.getRelationshipsForIds(n.id(), dir, types.types(state.query))
+              relationships.map { r =>
+                  val other = r.otherNode(n)
+                  executionContextFactory.copyWith(row, relName, r, toName, other)
+              }
+            case IsNoValue() => None
+
+            case value => throw new ParameterWrongTypeException(s"Expected to find a node at '$fromName' but found $value instead")
+          }
+      }
+    }
+  }
+
+  /**
+    * Expands the rows of the input batches into batches of `batchSize` rows. All nodes are expanded with the same node and
+    * traversal cursors, instead of allocating cursors per row.
+    */
+  private class ExpandAllBatches(input: Iterator[RowBatch], state: QueryState) extends Iterator[RowBatch] {
+    private val query = state.query
+    private val read = query.transactionalContext.dataRead
+    private val relTypes = types.types(query)
+    private val nodeCursor = query.nodeCursor()
+    private val traversalCursor = query.traversalCursor()
+    query.resources.trace(nodeCursor)
+    query.resources.trace(traversalCursor)
+
+    private val output = new RowBatch(batchSize)
+    private var inputBatch: RowBatch = _
+    private var inputIndex = 0
+    // The row and node being expanded by the traversal cursor, or null
+    private var row: CypherRow = _
+    private var fromNode: NodeValue = _
+    private var ready = false
+
+    override def hasNext: Boolean = {
+      if (!ready) {
+        fill()
+        ready = true
+      }
+      !output.isEmpty
+    }
+
+    override def next(): RowBatch = {
+      if (!hasNext) Iterator.empty.next()
+      ready = false
+      output
+    }
+
+    private def fill(): Unit = {
+      output.clear()
+      while (!output.isFull && (fromNode != null || nextFromNode())) {
+        if (traversalCursor.next()) {
+          val r = query.relationshipById(traversalCursor.relationshipReference(),
+                                         traversalCursor.sourceNodeReference(),
+                                         traversalCursor.targetNodeReference(),
+                                         traversalCursor.`type`())
+          output.add(executionContextFactory.copyWith(row, relName, r, toName, r.otherNode(fromNode)))
+        } else {
+          fromNode = null
+          row = null
+        }
+      }
+      if (output.isEmpty) {
+        nodeCursor.close()
+        traversalCursor.close()
+      }
+    }
+
+    // Positions the traversal cursor at the relationships of the next input row, if there is one
+    private def nextFromNode(): Boolean = {
+      while (fromNode == null && nextInputRow()) {
         row.getByName(fromName) match {
           case n: NodeValue =>
-            val relationships: Iterator[RelationshipValue] = state.query.getRelationshipsForIds(n.id(), dir, types.types(state.query))
-            relationships.map { r =>
-                val other = r.otherNode(n)
-                executionContextFactory.copyWith(row, relName, r, toName, other)
+            read.singleNode(n.id(), nodeCursor)
+            if (nodeCursor.next()) {
+              RelationshipSelections.relationshipsCursor(traversalCursor, nodeCursor, relTypes, kernelDirection)
+              fromNode = n
             }
-          case IsNoValue() => None
-
+          case IsNoValue() =>
           case value => throw new ParameterWrongTypeException(s"Expected to find a node at '$fromName' but found $value instead")
         }
+      }
+      fromNode != null
+    }
+
+    private def nextInputRow(): Boolean = {
+      while ((inputBatch == null || inputIndex >= inputBatch.size) && input.hasNext) {
+        inputBatch = input.next()
+        inputIndex = 0
+      }
+      if (inputBatch != null && inputIndex < inputBatch.size) {
+        row = inputBatch(inputIndex)
+        inputIndex += 1
+        true
+      } else {
+        false
+      }
     }
   }
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.util.Comparator
+import java.util.PriorityQueue
+
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.memory.HeapEstimator
+import org.neo4j.memory.MemoryLimitExceeded
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * Sorts rows within the memory budget of the query.
+  *
+  * Rows are buffered in memory, and every row is allocated on the memory tracker of the operator. When an allocation exceeds the
+  * memory budget, the buffered rows are sorted and written to a [[SpillFile]] as a sorted run, and their memory is released.
+  * The result is a lazy k-way merge of all runs and the rows still in memory. Without a memory budget, e.g. when memory tracking
+  * is disabled, nothing is ever written to disk and this is a plain in-memory sort.
+  *
+  * @param limit the number of rows that will be consumed from the result. Runs only keep their first `limit` rows.
+  */
+class ExternalSorter(comparator: Comparator[CypherRow],
+                     limit: Long,
+                     state: QueryState,
+                     operatorId: Int,
+                     executionContextFactory: ExecutionContextFactory) {
+  private val memoryTracker = state.memoryTracker.memoryTrackerForOperator(operatorId)
+  private val buffer = new ArrayBuffer[CypherRow]()
+  private var bufferedBytes = 0L
+  private val runs = new ArrayBuffer[SpillFile]()
+
+  def add(row: CypherRow): Unit = {
+    val bytes = row.estimatedHeapUsage + HeapEstimator.OBJECT_REFERENCE_BYTES
+    try {
+      memoryTracker.allocateHeap(bytes)
+    } catch {
+      case e: MemoryLimitExceeded =>
+        if (buffer.isEmpty) {
+          throw e
+        }
+        spill()
+        memoryTracker.allocateHeap(bytes)
+    }
+    buffer += row
+    bufferedBytes += bytes
+  }
+
+  /**
+    * Adds all rows of the input. If that fails, e.g. because the query fails while producing the input, the runs written so far are
+    * deleted right away rather than when the query is closed.
+    */
+  def addAll(input: Iterator[CypherRow]): Unit = {
+    try {
+      input.foreach(add)
+    } catch {
+      case t: Throwable =>
+        close()
+        throw t
+    }
+  }
+
+  /**
+    * Deletes all runs.
+    */
+  def close(): Unit = {
+    runs.foreach(_.close())
+    runs.clear()
+  }
+
+  /**
+    * @return all added rows, in sorted order
+    */
+  def result(): Iterator[CypherRow] = {
+    val inMemory = sortBuffer()
+    if (runs.isEmpty) {
+      inMemory.iterator
+    } else {
+      while (runs.size > ExternalSorter.MAX_MERGE_FAN_IN) {
+        val merged = runs.take(ExternalSorter.MAX_MERGE_FAN_IN)
+        runs.remove(0, ExternalSorter.MAX_MERGE_FAN_IN)
+        runs += writeRun(merge(merged.map(_.rows(executionContextFactory))))
+      }
+      merge(runs.map(_.rows(executionContextFactory)) :+ inMemory.iterator)
+    }
+  }
+
+  private def spill(): Unit = {
+    runs += writeRun(sortBuffer().iterator)
+    buffer.clear()
+    memoryTracker.releaseHeap(bufferedBytes)
+    bufferedBytes = 0L
+  }
+
+  private def sortBuffer(): Array[CypherRow] = {
+    val array = buffer.toArray
+    java.util.Arrays.sort(array, comparator)
+    array
+  }
+
+  private def writeRun(sorted: Iterator[CypherRow]): SpillFile = {
+    val run = new SpillFile(state)
+    try {
+      var i = 0L
+      while (i < limit && sorted.hasNext) {
+        run.write(sorted.next())
+        i += 1
+      }
+      run
+    } catch {
+      case t: Throwable =>
+        run.close()
+        throw t
+    }
+  }
+
+  private def merge(sources: Seq[Iterator[CypherRow]]): Iterator[CypherRow] = {
+    val heads = new PriorityQueue[(CypherRow, Iterator[CypherRow])](sources.size.max(1), new Comparator[(CypherRow, Iterator[CypherRow])] {
+      override def compare(a: (CypherRow, Iterator[CypherRow]), b: (CypherRow, Iterator[CypherRow])): Int = comparator.compare(a._1, b._1)
+    })
+    sources.foreach(source => if (source.hasNext) heads.add((source.next(), source)))
+
+    new Iterator[CypherRow] {
+      override def hasNext: Boolean = !heads.isEmpty
+
+      override def next(): CypherRow = {
+        val (row, source) = heads.poll()
+        if (source.hasNext) {
+          heads.add((source.next(), source))
+        }
+        row
+      }
+    }
+  }
+}
+
+object ExternalSorter {
+  /**
+    * The maximum number of runs that are read at the same time. More runs than this are first merged into fewer, longer runs.
+    */
+  private val MAX_MERGE_FAN_IN = 64
+}
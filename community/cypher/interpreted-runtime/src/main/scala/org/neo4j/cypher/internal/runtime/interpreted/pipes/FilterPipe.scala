@@ -25,8 +25,25 @@ import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.values.storable.Values
 
 case class FilterPipe(source: Pipe, predicate: Expression)
-                     (val id: Id = Id.INVALID_ID) extends PipeWithSource(source) {
+                     (val id: Id = Id.INVALID_ID) extends PipeWithSource(source) with BatchedPipe {
 
   protected def internalCreateResults(input: Iterator[CypherRow], state: QueryState): Iterator[CypherRow] =
-    input.filter(ctx => predicate(ctx, state) eq Values.TRUE)
+    if (isBatched(state)) RowBatch.rows(RowBatch.batches(input, batchSize).map(filter(_, state)))
+    else input.filter(ctx => predicate(ctx, state) eq Values.TRUE)
+
+  // Filters the batch in place
+  private def filter(batch: RowBatch, state: QueryState): RowBatch = {
+    var kept = 0
+    var i = 0
+    while (i < batch.size) {
+      val row = batch(i)
+      if (predicate(row, state) eq Values.TRUE) {
+        batch(kept) = row
+        kept += 1
+      }
+      i += 1
+    }
+    batch.truncate(kept)
+    batch
+  }
 }
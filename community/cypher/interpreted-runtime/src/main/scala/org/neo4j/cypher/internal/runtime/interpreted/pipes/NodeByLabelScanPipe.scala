@@ -25,16 +25,21 @@ import org.neo4j.cypher.internal.runtime.interpreted.pipes.LazyLabel.UNKNOWN
 import org.neo4j.cypher.internal.util.attribution.Id
 
 case class NodeByLabelScanPipe(ident: String, label: LazyLabel)
-                              (val id: Id = Id.INVALID_ID) extends Pipe {
+                              (val id: Id = Id.INVALID_ID) extends BatchedPipe {
 
   protected def internalCreateResults(state: QueryState): Iterator[CypherRow] = {
 
     val id = label.getId(state.query)
     if (id != UNKNOWN) {
       // TODO use order provided by the LogicalPlan (follow-up PR)
-      val nodes = state.query.getNodesByLabel(id, IndexOrderNone)
       val baseContext = state.newExecutionContext(executionContextFactory)
-      nodes.map(n => executionContextFactory.copyWith(baseContext, ident, n))
+      if (isBatched(state)) {
+        val nodeIds = state.query.getNodesByLabelPrimitive(id, IndexOrderNone)
+        RowBatch.rows(RowBatch.nodeBatches(nodeIds, batchSize, baseContext, ident, state, executionContextFactory))
+      } else {
+        val nodes = state.query.getNodesByLabel(id, IndexOrderNone)
+        nodes.map(n => executionContextFactory.copyWith(baseContext, ident, n))
+      }
     } else {
       Iterator.empty
     }
@@ -20,12 +20,9 @@
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
 import org.neo4j.cypher.internal.runtime.CypherRow
-import org.neo4j.cypher.internal.runtime.IsNoValue
 import org.neo4j.cypher.internal.util.attribution.Id
-import org.neo4j.exceptions.CypherTypeException
-import org.neo4j.values.virtual.VirtualNodeValue
 
-import scala.collection.mutable
+import scala.collection.JavaConverters.asScalaIteratorConverter
 
 case class NodeHashJoinPipe(nodeVariables: Set[String], left: Pipe, right: Pipe)
                            (val id: Id = Id.INVALID_ID)
@@ -40,51 +37,29 @@ case class NodeHashJoinPipe(nodeVariables: Set[String], left: Pipe, right: Pipe)
     if (rhsIterator.isEmpty)
       return Iterator.empty
 
-    val table = buildProbeTable(state.memoryTracker.memoryTrackingIterator(input, id.x))
+    val table = buildProbeTable(input, state)
 
-    if (table.isEmpty)
+    if (table.isEmpty) {
+      table.close()
       return Iterator.empty
+    }
 
     val result =
-      for {rhsRow <- rhsIterator
-           joinKey <- computeKey(rhsRow)}
+      for {rhsRow <- rhsIterator}
         yield {
-          val lhsRows = table.getOrElse(joinKey, mutable.MutableList.empty)
-          lhsRows.map { lhsRow =>
+          table.probe(rhsRow).asScala.map { lhsRow =>
             val output = lhsRow.createClone()
             output.mergeWith(rhsRow, state.query)
             output
           }
         }
 
-    result.flatten
+    NodeProbeTable.closeWhenExhausted(result.flatten, table)
   }
 
-  private def buildProbeTable(input: Iterator[CypherRow]): mutable.HashMap[IndexedSeq[Long], mutable.MutableList[CypherRow]] = {
-    // TODO: Use heap tracking ProbeTable in community edition?
-    val table = new mutable.HashMap[IndexedSeq[Long], mutable.MutableList[CypherRow]]
-
-    for {context <- input
-         joinKey <- computeKey(context)} {
-      val seq = table.getOrElseUpdate(joinKey, mutable.MutableList.empty)
-      seq += context
-    }
-
+  private def buildProbeTable(input: Iterator[CypherRow], state: QueryState): NodeProbeTable = {
+    val table = NodeProbeTable(nodeVariables, state.memoryTracker.memoryTrackerForOperator(id.x))
+    input.foreach(table.add)
     table
   }
-
-  private val cachedVariables = nodeVariables.toIndexedSeq
-
-  private def computeKey(context: CypherRow): Option[IndexedSeq[Long]] = {
-    val key = new Array[Long](cachedVariables.length)
-
-    for (idx <- cachedVariables.indices) {
-      key(idx) = context.getByName(cachedVariables(idx)) match {
-        case n: VirtualNodeValue => n.id()
-        case IsNoValue() => return None
-        case _ => throw new CypherTypeException("Created a plan that uses non-nodes when expecting a node")
-      }
-    }
-    Some(key.toIndexedSeq)
-  }
 }
@@ -19,14 +19,22 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import java.util
+
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList
 import org.neo4j.cypher.internal.expressions.CachedProperty
 import org.neo4j.cypher.internal.expressions.LabelToken
 import org.neo4j.cypher.internal.logical.plans.IndexOrder
 import org.neo4j.cypher.internal.logical.plans.IndexedProperty
 import org.neo4j.cypher.internal.logical.plans.QueryExpression
+import org.neo4j.cypher.internal.logical.plans.SingleQueryExpression
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.makeValueNeoSafe
 import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.internal.kernel.api.IndexQuery
+import org.neo4j.values.storable.Value
+import org.neo4j.values.storable.Values
 
 case class NodeIndexSeekPipe(ident: String,
                              label: LabelToken,
@@ -53,6 +61,124 @@ case class NodeIndexSeekPipe(ident: String,
     )
   }
 
+  /**
+    * True if the seek is an exact seek on a single value, which can be done for a whole batch of argument rows at once,
+    * see [[seekBatches]].
+    */
+  def canSeekInBatches: Boolean = indexMode.isInstanceOf[ExactSeek] && valueExpr.isInstanceOf[SingleQueryExpression[_]] && propertyIds.length == 1
+
+  /**
+    * Seeks the index for each row of the argument batches, as if this pipe was run once per argument row by [[ApplyPipe]],
+    * and returns the resulting rows in the same order.
+    *
+    * The seek values of a whole argument batch are computed first. The distinct values are then sought in index order, so
+    * that consecutive seeks visit neighbouring parts of the index, and rows that share a value share one seek.
+    */
+  def seekBatches(arguments: Iterator[RowBatch], state: QueryState, batchSize: Int): Iterator[RowBatch] =
+    new SeekBatches(arguments, state, batchSize)
+
+  private class SeekBatches(arguments: Iterator[RowBatch], state: QueryState, batchSize: Int) extends Iterator[RowBatch] {
+    private val index = state.queryIndexes(queryIndexId)
+    private val seekExpression = valueExpr.asInstanceOf[SingleQueryExpression[Expression]].expression
+    private val propertyId = propertyIds.head
+
+    private val output = new RowBatch(batchSize)
+    private var argumentBatch: RowBatch = _
+    // The seek value of each row of the argument batch, and the nodes found for each distinct seek value
+    private var seekValues: Array[Value] = _
+    private val nodesByValue = new util.TreeMap[Value, FoundNodes](Values.COMPARATOR)
+    // The position of the next row to create, as an argument row and a node of that row
+    private var argumentIndex = 0
+    private var nodeIndex = 0
+    private var ready = false
+
+    override def hasNext: Boolean = {
+      if (!ready) {
+        fill()
+        ready = true
+      }
+      !output.isEmpty
+    }
+
+    override def next(): RowBatch = {
+      if (!hasNext) Iterator.empty.next()
+      ready = false
+      output
+    }
+
+    private def fill(): Unit = {
+      output.clear()
+      while (!output.isFull && (argumentIndex < batchLength || nextArgumentBatch())) {
+        val argument = argumentBatch(argumentIndex)
+        val nodes = nodesByValue.get(seekValues(argumentIndex))
+        if (nodeIndex < nodes.ids.size()) {
+          val row = executionContextFactory.copyWith(argument, ident, state.query.nodeById(nodes.ids.get(nodeIndex)))
+          if (needsValues) {
+            // The stored value, which may differ from the seek value it equals, e.g. 1.0 for a seek on 1
+            row.setCachedProperty(indexCachedProperties(0), nodes.propertyValues.get(nodeIndex))
+          }
+          output.add(row)
+          nodeIndex += 1
+        } else {
+          argumentIndex += 1
+          nodeIndex = 0
+        }
+      }
+    }
+
+    private def batchLength: Int = if (argumentBatch == null) 0 else argumentBatch.size
+
+    // Computes the seek values of the next non-empty argument batch and seeks each distinct value once, in index order
+    private def nextArgumentBatch(): Boolean = {
+      argumentBatch = null
+      while (argumentBatch == null && arguments.hasNext) {
+        val batch = arguments.next()
+        if (!batch.isEmpty) argumentBatch = batch
+      }
+      argumentIndex = 0
+      nodeIndex = 0
+      nodesByValue.clear()
+      if (argumentBatch == null) {
+        seekValues = null
+        false
+      } else {
+        seekValues = new Array[Value](argumentBatch.size)
+        var i = 0
+        while (i < argumentBatch.size) {
+          val value = makeValueNeoSafe(seekExpression(argumentBatch(i), state))
+          seekValues(i) = value
+          nodesByValue.putIfAbsent(value, null)
+          i += 1
+        }
+
+        val values = nodesByValue.navigableKeySet().iterator()
+        while (values.hasNext) {
+          val value = values.next()
+          val nodes = new FoundNodes
+          val cursor = state.query.indexSeek(index, needsValues, indexOrder, Seq(IndexQuery.exact(propertyId, value)))
+          try {
+            while (cursor.next()) {
+              nodes.ids.add(cursor.nodeReference())
+              if (needsValues) {
+                nodes.propertyValues.add(cursor.propertyValue(indexPropertyIndices(0)))
+              }
+            }
+          } finally {
+            cursor.close()
+          }
+          nodesByValue.put(value, nodes)
+        }
+        true
+      }
+    }
+  }
+
+  // The nodes found by one seek, with their indexed property values if the pipe needs them
+  private class FoundNodes {
+    val ids = new LongArrayList()
+    val propertyValues = new util.ArrayList[Value]()
+  }
+
   def canEqual(other: Any): Boolean = other.isInstanceOf[NodeIndexSeekPipe]
 
   override def equals(other: Any): Boolean = other match {
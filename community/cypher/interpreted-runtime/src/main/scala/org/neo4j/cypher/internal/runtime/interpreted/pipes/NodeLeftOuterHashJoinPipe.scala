@@ -21,11 +21,8 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.util.attribution.Id
-import org.neo4j.values.storable.LongArray
 
 import scala.collection.JavaConverters.asScalaIteratorConverter
-import scala.collection.JavaConverters.asScalaSetConverter
-import scala.collection.mutable
 
 case class NodeLeftOuterHashJoinPipe(nodeVariables: Set[String],
                                      lhs: Pipe,
@@ -39,31 +36,20 @@ case class NodeLeftOuterHashJoinPipe(nodeVariables: Set[String],
     if (input.isEmpty)
       return Iterator.empty
 
-    val probeTable = buildProbeTableAndFindNullRows(input, state.memoryTracker.memoryTrackerForOperator(id.x), withNulls = true)
+    val probeTable = buildProbeTable(input, state.memoryTracker.memoryTrackerForOperator(id.x), keepUnmatchedRows = true)
 
-    val rhsKeys = mutable.Set[LongArray]()
-    val lhsKeys: collection.Set[LongArray] = probeTable.keySet.asScala
     val joinedRows = (
-      for {rhsRow <- rhs.createResults(state)
-           joinKey <- computeKey(rhsRow)}
+      for {rhsRow <- rhs.createResults(state)}
         yield {
-          val lhsRows = probeTable(joinKey)
-          rhsKeys.add(joinKey)
-          lhsRows.asScala.map { lhsRow =>
+          probeTable.probe(rhsRow).asScala.map { lhsRow =>
             val outputRow = executionContextFactory.copyWith(lhsRow)
             outputRow.mergeWith(rhsRow, state.query)
             outputRow
           }
         }).flatten
 
-    def rowsWithoutRhsMatch: Iterator[CypherRow] = {
-      (lhsKeys -- rhsKeys).iterator.flatMap {
-        x => probeTable(x).asScala.map(addNulls)
-      }
-    }
+    def rowsWithoutRhsMatch: Iterator[CypherRow] = probeTable.unmatchedRows.map(addNulls)
 
-    val rowsWithNullAsJoinKey = probeTable.nullRows.map(addNulls)
-
-    joinedRows ++ rowsWithNullAsJoinKey ++ rowsWithoutRhsMatch
+    NodeProbeTable.closeWhenExhausted(joinedRows ++ rowsWithoutRhsMatch, probeTable)
   }
 }
@@ -20,73 +20,26 @@
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
 import org.neo4j.cypher.internal.runtime.CypherRow
-import org.neo4j.kernel.impl.util.collection
 import org.neo4j.memory.MemoryTracker
 import org.neo4j.values.AnyValue
-import org.neo4j.values.storable.LongArray
 import org.neo4j.values.storable.Values
-import org.neo4j.values.virtual.VirtualNodeValue
-
-import scala.collection.mutable.ListBuffer
 
 abstract class NodeOuterHashJoinPipe(nodeVariables: Set[String],
                                      lhs: Pipe,
                                      rhs: Pipe,
                                      nullableVariables: Set[String]) extends PipeWithSource(lhs) {
 
-  private val myVariables = nodeVariables.toIndexedSeq
   private val nullVariables: Array[(String, AnyValue)] = nullableVariables.map(_ -> Values.NO_VALUE).toArray
 
-  protected def computeKey(context: CypherRow): Option[LongArray] = {
-    val key = new Array[Long](myVariables.length)
-
-    for (idx <- myVariables.indices) {
-      key(idx) = context.getByName(myVariables(idx)) match {
-        case n: VirtualNodeValue => n.id
-        case _ => return None
-      }
-    }
-    Some(Values.longArray(key))
-  }
-
   protected def addNulls(in: CypherRow): CypherRow = {
     val withNulls = executionContextFactory.copyWith(in)
     withNulls.set(nullVariables)
     withNulls
   }
 
-  protected def buildProbeTableAndFindNullRows(input: Iterator[CypherRow], memoryTracker: MemoryTracker, withNulls: Boolean): ProbeTable = {
-    val probeTable = new ProbeTable(memoryTracker)
-
-    for (context <- input) {
-      val key = computeKey(context)
-
-      key match {
-        case Some(joinKey) => probeTable.addValue(joinKey, context)
-        case None => if(withNulls) probeTable.addNull(context)
-      }
-    }
-
+  protected def buildProbeTable(input: Iterator[CypherRow], memoryTracker: MemoryTracker, keepUnmatchedRows: Boolean): NodeProbeTable = {
+    val probeTable = NodeProbeTable(nodeVariables, memoryTracker, nonNodesAsNull = true, keepUnmatchedRows = keepUnmatchedRows)
+    input.foreach(probeTable.add)
     probeTable
   }
 }
-
-//noinspection ReferenceMustBePrefixed
-class ProbeTable(memoryTracker: MemoryTracker) {
-  private val table: collection.ProbeTable[LongArray, CypherRow] =
-    collection.ProbeTable.createProbeTable[LongArray, CypherRow](memoryTracker)
-
-  private val rowsWithNullInKey: ListBuffer[CypherRow] = new ListBuffer[CypherRow]()
-
-  def addValue(key: LongArray, newValue: CypherRow) {
-    table.put(key, newValue)
-  }
-
-  def addNull(context: CypherRow): Unit = rowsWithNullInKey += context
-
-  def apply(key: LongArray): java.util.Iterator[CypherRow] = table.get(key)
-
-  def keySet: java.util.Set[LongArray] = table.keySet
-
-  def nullRows: Iterator[CypherRow] = rowsWithNullInKey.iterator
-}
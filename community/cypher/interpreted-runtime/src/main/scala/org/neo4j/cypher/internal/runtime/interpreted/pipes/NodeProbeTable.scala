@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.util
+
+import org.eclipse.collections.api.set.primitive.MutableLongSet
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.IsNoValue
+import org.neo4j.exceptions.CypherTypeException
+import org.neo4j.kernel.impl.util.collection.HeapTrackingAppendList
+import org.neo4j.kernel.impl.util.collection.HeapTrackingCollections
+import org.neo4j.kernel.impl.util.collection.LongProbeTable
+import org.neo4j.kernel.impl.util.collection.ProbeTable
+import org.neo4j.memory.MemoryTracker
+import org.neo4j.memory.ScopedMemoryTracker
+import org.neo4j.values.storable.LongArray
+import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.VirtualNodeValue
+
+import scala.collection.JavaConverters.asScalaIteratorConverter
+
+/**
+  * Heap tracked probe table of the node hash join pipes, keyed on the ids of the join nodes of the added rows.
+  *
+  * A single join node is keyed on its primitive id, several join nodes on a [[LongArray]] of their ids.
+  * All memory of the table, including the rows, is released on [[close]].
+  *
+  * @param nonNodesAsNull    treat join variables that are not nodes as null, instead of failing
+  * @param keepUnmatchedRows keep the rows with a null join node, and record which keys are probed, to support [[unmatchedRows]]
+  */
+abstract class NodeProbeTable(nonNodesAsNull: Boolean, keepUnmatchedRows: Boolean, memoryTracker: MemoryTracker) extends AutoCloseable {
+
+  protected val scopedMemoryTracker = new ScopedMemoryTracker(memoryTracker)
+
+  private val rowsWithNullKey: HeapTrackingAppendList[CypherRow] =
+    if (keepUnmatchedRows) HeapTrackingAppendList.newAppendList(scopedMemoryTracker) else null
+
+  /**
+    * Adds the row under its join key.
+    *
+    * @return false, without adding the row under any key, if any of its join nodes is null
+    */
+  def add(row: CypherRow): Boolean = {
+    val added = addWithKey(row)
+    if (!added && keepUnmatchedRows) {
+      rowsWithNullKey.add(row)
+      scopedMemoryTracker.allocateHeap(row.estimatedHeapUsage)
+    }
+    added
+  }
+
+  /**
+    * The added rows with the same join key as `row`. Empty if any of the join nodes of `row` is null.
+    */
+  def probe(row: CypherRow): util.Iterator[CypherRow]
+
+  /**
+    * The added rows that did not match any probed row, i.e. the rows with a null join node and the rows under keys that were never probed.
+    * Only available when keeping unmatched rows.
+    */
+  def unmatchedRows: Iterator[CypherRow] = {
+    if (!keepUnmatchedRows) throw new IllegalStateException("Unmatched rows are not kept by this probe table")
+    rowsWithNullKey.iterator().asScala ++ rowsWithUnprobedKeys
+  }
+
+  def isEmpty: Boolean
+
+  override def close(): Unit = scopedMemoryTracker.close()
+
+  protected def addWithKey(row: CypherRow): Boolean
+
+  protected def rowsWithUnprobedKeys: Iterator[CypherRow]
+
+  /**
+    * The id of the node `variable` of the row, or [[NodeProbeTable.NULL_KEY]] if it is null.
+    */
+  protected def nodeId(row: CypherRow, variable: String): Long = row.getByName(variable) match {
+    case n: VirtualNodeValue => n.id()
+    case IsNoValue() => NodeProbeTable.NULL_KEY
+    case _ if nonNodesAsNull => NodeProbeTable.NULL_KEY
+    case _ => throw new CypherTypeException("Created a plan that uses non-nodes when expecting a node")
+  }
+}
+
+object NodeProbeTable {
+
+  private val NULL_KEY = -1L
+
+  def apply(nodeVariables: Set[String],
+            memoryTracker: MemoryTracker,
+            nonNodesAsNull: Boolean = false,
+            keepUnmatchedRows: Boolean = false): NodeProbeTable = {
+    if (nodeVariables.size == 1)
+      new SingleNodeProbeTable(nodeVariables.head, nonNodesAsNull, keepUnmatchedRows, memoryTracker)
+    else
+      new MultiNodeProbeTable(nodeVariables.toArray, nonNodesAsNull, keepUnmatchedRows, memoryTracker)
+  }
+
+  /**
+    * Closes `table`, releasing its memory, as soon as `rows` is exhausted.
+    */
+  def closeWhenExhausted(rows: Iterator[CypherRow], table: AutoCloseable): Iterator[CypherRow] = new Iterator[CypherRow] {
+    private var closed = false
+
+    override def hasNext: Boolean = {
+      val more = rows.hasNext
+      if (!more && !closed) {
+        table.close()
+        closed = true
+      }
+      more
+    }
+
+    override def next(): CypherRow = rows.next()
+  }
+
+  private class SingleNodeProbeTable(variable: String, nonNodesAsNull: Boolean, keepUnmatchedRows: Boolean, memoryTracker: MemoryTracker)
+    extends NodeProbeTable(nonNodesAsNull, keepUnmatchedRows, memoryTracker) {
+
+    private val table = LongProbeTable.createLongProbeTable[CypherRow](scopedMemoryTracker)
+    private val probedKeys: MutableLongSet = if (keepUnmatchedRows) HeapTrackingCollections.newLongSet(scopedMemoryTracker) else null
+
+    override protected def addWithKey(row: CypherRow): Boolean = {
+      val key = nodeId(row, variable)
+      if (key == NULL_KEY) {
+        false
+      } else {
+        table.put(key, row)
+        true
+      }
+    }
+
+    override def probe(row: CypherRow): util.Iterator[CypherRow] = {
+      val key = nodeId(row, variable)
+      if (key == NULL_KEY) {
+        util.Collections.emptyIterator()
+      } else {
+        if (keepUnmatchedRows) probedKeys.add(key)
+        table.get(key)
+      }
+    }
+
+    override protected def rowsWithUnprobedKeys: Iterator[CypherRow] = {
+      val keys = table.keySet.longIterator()
+      new Iterator[Long] {
+        override def hasNext: Boolean = keys.hasNext
+        override def next(): Long = keys.next()
+      }.filterNot(probedKeys.contains).flatMap(key => table.get(key).asScala)
+    }
+
+    override def isEmpty: Boolean = table.isEmpty
+
+    override def close(): Unit = {
+      table.close()
+      super.close()
+    }
+  }
+
+  private class MultiNodeProbeTable(variables: Array[String], nonNodesAsNull: Boolean, keepUnmatchedRows: Boolean, memoryTracker: MemoryTracker)
+    extends NodeProbeTable(nonNodesAsNull, keepUnmatchedRows, memoryTracker) {
+
+    private val table = ProbeTable.createProbeTable[LongArray, CypherRow](scopedMemoryTracker)
+    private val probedKeys: util.Set[LongArray] = if (keepUnmatchedRows) HeapTrackingCollections.newSet[LongArray](scopedMemoryTracker) else null
+
+    override protected def addWithKey(row: CypherRow): Boolean = {
+      val key = computeKey(row)
+      if (key == null) {
+        false
+      } else {
+        table.put(key, row)
+        true
+      }
+    }
+
+    override def probe(row: CypherRow): util.Iterator[CypherRow] = {
+      val key = computeKey(row)
+      if (key == null) {
+        util.Collections.emptyIterator()
+      } else {
+        if (keepUnmatchedRows && probedKeys.add(key)) scopedMemoryTracker.allocateHeap(key.estimatedHeapUsage())
+        table.get(key)
+      }
+    }
+
+    override protected def rowsWithUnprobedKeys: Iterator[CypherRow] =
+      table.keySet.iterator().asScala.filterNot(probedKeys.contains).flatMap(key => table.get(key).asScala)
+
+    override def isEmpty: Boolean = table.isEmpty
+
+    override def close(): Unit = {
+      table.close()
+      super.close()
+    }
+
+    private def computeKey(row: CypherRow): LongArray = {
+      val key = new Array[Long](variables.length)
+      var i = 0
+      while (i < variables.length) {
+        key(i) = nodeId(row, variables(i))
+        if (key(i) == NULL_KEY) {
+          return null
+        }
+        i += 1
+      }
+      Values.longArray(key)
+    }
+  }
+}
@@ -37,25 +37,22 @@ case class NodeRightOuterHashJoinPipe(nodeVariables: Set[String],
     if (rhsResult.isEmpty)
       return Iterator.empty
 
-    val probeTable = buildProbeTableAndFindNullRows(input, state.memoryTracker.memoryTrackerForOperator(id.x), withNulls = false)
-    (
+    val probeTable = buildProbeTable(input, state.memoryTracker.memoryTrackerForOperator(id.x), keepUnmatchedRows = false)
+    val result = (
       for {rhsRow <- rhsResult}
         yield {
-          computeKey(rhsRow) match {
-            case Some(joinKey) =>
-              val lhsRows = probeTable(joinKey)
-              if(lhsRows.hasNext) {
-                lhsRows.asScala.map { lhsRow =>
-                  val outputRow = executionContextFactory.copyWith(rhsRow)
-                  outputRow.mergeWith(lhsRow, state.query)
-                  outputRow
-                }
-              } else {
-                Seq(addNulls(rhsRow))
-              }
-            case None =>
-              Seq(addNulls(rhsRow))
+          val lhsRows = probeTable.probe(rhsRow)
+          if (lhsRows.hasNext) {
+            lhsRows.asScala.map { lhsRow =>
+              val outputRow = executionContextFactory.copyWith(rhsRow)
+              outputRow.mergeWith(lhsRow, state.query)
+              outputRow
+            }
+          } else {
+            Iterator.single(addNulls(rhsRow))
           }
         }).flatten
+
+    NodeProbeTable.closeWhenExhausted(result, probeTable)
   }
 }
@@ -19,8 +19,18 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import org.neo4j.cypher.internal.logical.plans.AntiConditionalApply
+import org.neo4j.cypher.internal.logical.plans.Apply
+import org.neo4j.cypher.internal.logical.plans.ConditionalApply
+import org.neo4j.cypher.internal.logical.plans.Eager
+import org.neo4j.cypher.internal.logical.plans.ForeachApply
+import org.neo4j.cypher.internal.logical.plans.LockNodes
 import org.neo4j.cypher.internal.logical.plans.LogicalPlan
 import org.neo4j.cypher.internal.logical.plans.LogicalPlans
+import org.neo4j.cypher.internal.logical.plans.NodeIndexSeek
+import org.neo4j.cypher.internal.logical.plans.ProcedureCall
+import org.neo4j.cypher.internal.logical.plans.UpdatingPlan
+import org.neo4j.cypher.internal.util.attribution.Id
 
 /**
   * Maps single logical plan operators to their respective pipes. Does not recurse.
@@ -36,3 +46,64 @@ case class PipeTreeBuilder(pipeMapper: PipeMapper) {
     LogicalPlans.map(logicalPlan, pipeMapper)
   }
 }
+
+/**
+  * Makes all [[BatchedPipe]]s mapped by the inner [[PipeMapper]] process rows in batches of the given size, for the plans accepted by
+  * `batched`.
+  */
+case class BatchedPipeMapper(inner: PipeMapper, batchSize: Int, batched: LogicalPlan => Boolean = _ => true) extends PipeMapper {
+
+  override def onLeaf(plan: LogicalPlan): Pipe = withBatchSize(plan, inner.onLeaf(plan))
+
+  override def onOneChildPlan(plan: LogicalPlan, source: Pipe): Pipe = withBatchSize(plan, inner.onOneChildPlan(plan, source))
+
+  override def onTwoChildPlan(plan: LogicalPlan, lhs: Pipe, rhs: Pipe): Pipe = withBatchSize(plan, inner.onTwoChildPlan(plan, lhs, rhs))
+
+  private def withBatchSize(plan: LogicalPlan, pipe: Pipe): Pipe = {
+    pipe match {
+      case batchedPipe: BatchedPipe if batched(plan) => batchedPipe.batchSize = batchSize
+      case _ =>
+    }
+    pipe
+  }
+}
+
+object BatchedPipeMapper {
+
+  /**
+    * Batched scans, expands, filters and projections read ahead of the plans above them. In a query which writes, that is only known
+    * to be safe for the plans below an [[Eager]] that has no writes below it, e.g. the MATCH of MATCH (a)-->(b) WHERE a.p > 0 SET b.p = a.p,
+    * or the UNWIND and MATCH of UNWIND $rows AS row MATCH (n:L {p: row.key}) SET n.p = row.value, since an Eager reads all of its input
+    * before anything above it runs.
+    *
+    * @return the ids of the plans of a writing query which may be batched.
+    */
+  def readOnlyBelowEager(plan: LogicalPlan): Set[Id] =
+    plan.treeFold(Set.empty[Id]) {
+      case Eager(source) if !containsUpdates(source) =>
+        acc => (acc ++ source.flatten.map(_.id), None)
+    }
+
+  /**
+    * The batched index seek under an [[Apply]] reads ahead of the writes above it, like the other batched pipes. Without an [[Eager]]
+    * between them, the planner has found that no write for a row changes what the reads of a later row find, so the seeks of
+    * UNWIND $rows AS row MATCH (n:L {p: row.key}) SET n.q = row.value may run for a whole batch before its writes. That doesn't hold
+    * for the reads of a MERGE, which must find what the MERGE created for earlier rows, nor for the body of a FOREACH, so seeks
+    * below those are not batched.
+    *
+    * @return the ids of the applies of a writing query whose index seeks may be batched.
+    */
+  def readOnlySeekApplies(plan: LogicalPlan): Set[Id] =
+    plan.treeFold(Set.empty[Id]) {
+      case _: AntiConditionalApply | _: ConditionalApply | _: ForeachApply | _: LockNodes =>
+        acc => (acc, None)
+      case apply@Apply(_, _: NodeIndexSeek) if !containsUpdates(apply) =>
+        acc => (acc + apply.id, None)
+    }
+
+  private def containsUpdates(plan: LogicalPlan): Boolean =
+    plan.treeExists {
+      case _: UpdatingPlan => true
+      case ProcedureCall(_, call) => !call.containsNoUpdates
+    }
+}
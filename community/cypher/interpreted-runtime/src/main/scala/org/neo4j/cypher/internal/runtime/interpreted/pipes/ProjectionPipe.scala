@@ -26,12 +26,14 @@ import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expres
 import org.neo4j.cypher.internal.util.attribution.Id
 
 case class ProjectionPipe(source: Pipe, projection: CommandProjection)
-                         (val id: Id = Id.INVALID_ID) extends PipeWithSource(source) {
+                         (val id: Id = Id.INVALID_ID) extends PipeWithSource(source) with BatchedPipe {
 
   protected def internalCreateResults(input: Iterator[CypherRow], state: QueryState): Iterator[CypherRow] = {
     if (projection.isEmpty)
       input
-    else {
+    else if (isBatched(state)) {
+      RowBatch.rows(RowBatch.batches(input, batchSize).map(project(_, state)))
+    } else {
       input.map {
         ctx =>
           projection.project(ctx, state)
@@ -39,6 +41,15 @@ case class ProjectionPipe(source: Pipe, projection: CommandProjection)
       }
     }
   }
+
+  private def project(batch: RowBatch, state: QueryState): RowBatch = {
+    var i = 0
+    while (i < batch.size) {
+      projection.project(batch(i), state)
+      i += 1
+    }
+    batch
+  }
 }
 
 object ProjectionPipe {
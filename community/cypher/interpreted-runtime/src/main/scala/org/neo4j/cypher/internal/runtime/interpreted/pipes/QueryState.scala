@@ -19,6 +19,8 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import java.nio.file.Path
+
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.runtime.ExpressionCursors
 import org.neo4j.cypher.internal.runtime.InputDataStream
@@ -48,7 +50,8 @@ class QueryState(val query: QueryContext,
                  val cachedIn: SingleThreadedLRUCache[Any, InCheckContainer] = new SingleThreadedLRUCache(maxSize = 16),
                  val lenientCreateRelationship: Boolean = false,
                  val prePopulateResults: Boolean = false,
-                 val input: InputDataStream = NoInput) extends AutoCloseable {
+                 val input: InputDataStream = NoInput,
+                 val spillDirectory: Option[Path] = None) extends AutoCloseable {
 
   private var _pathValueBuilder: PathValueBuilder = _
   private var _exFactory: ExecutionContextFactory = _
@@ -71,11 +74,11 @@ class QueryState(val query: QueryContext,
 
   def withDecorator(decorator: PipeDecorator) =
     new QueryState(query, resources, params, cursors, queryIndexes, expressionVariables, subscriber, memoryTracker, decorator, initialContext,
-      cachedIn, lenientCreateRelationship, prePopulateResults, input)
+      cachedIn, lenientCreateRelationship, prePopulateResults, input, spillDirectory)
 
   def withInitialContext(initialContext: CypherRow) =
     new QueryState(query, resources, params, cursors, queryIndexes, expressionVariables, subscriber, memoryTracker, decorator, Some(initialContext),
-      cachedIn, lenientCreateRelationship, prePopulateResults, input)
+      cachedIn, lenientCreateRelationship, prePopulateResults, input, spillDirectory)
 
   /**
    * When running on the RHS of an Apply, this method will fill an execution context with argument data
@@ -87,7 +90,7 @@ class QueryState(val query: QueryContext,
 
   def withQueryContext(query: QueryContext) =
     new QueryState(query, resources, params, cursors, queryIndexes, expressionVariables, subscriber, memoryTracker, decorator, initialContext,
-      cachedIn, lenientCreateRelationship, prePopulateResults, input)
+      cachedIn, lenientCreateRelationship, prePopulateResults, input, spillDirectory)
 
   def setExecutionContextFactory(exFactory: ExecutionContextFactory): Unit = {
     _exFactory = exFactory
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.util
+
+import org.eclipse.collections.api.iterator.LongIterator
+import org.neo4j.cypher.internal.runtime.CypherRow
+
+/**
+  * A batch of rows, exchanged between [[BatchedPipe]]s. A pipe refills and reuses its own batch, so a batch is only valid until
+  * the next batch is pulled from the same pipe. The rows themselves are never reused.
+  */
+final class RowBatch(val capacity: Int) {
+  private val rows = new Array[CypherRow](capacity)
+  private var _size = 0
+
+  def size: Int = _size
+
+  def isEmpty: Boolean = _size == 0
+
+  def isFull: Boolean = _size == capacity
+
+  def apply(i: Int): CypherRow = rows(i)
+
+  def update(i: Int, row: CypherRow): Unit = rows(i) = row
+
+  def add(row: CypherRow): Unit = {
+    rows(_size) = row
+    _size += 1
+  }
+
+  /**
+    * Keeps the first `size` rows of the batch.
+    */
+  def truncate(size: Int): Unit = {
+    util.Arrays.fill(rows.asInstanceOf[Array[AnyRef]], size, _size, null)
+    _size = size
+  }
+
+  def clear(): Unit = truncate(0)
+}
+
+object RowBatch {
+
+  /**
+    * Groups rows into batches. If the rows are the untouched [[BatchedRows]] of a batched pipe, its batches are returned instead.
+    */
+  def batches(rows: Iterator[CypherRow], batchSize: Int): Iterator[RowBatch] = rows match {
+    case batchedRows: BatchedRows if !batchedRows.isStarted => batchedRows.batches
+    case _ =>
+      new Iterator[RowBatch] {
+        private val batch = new RowBatch(batchSize)
+
+        override def hasNext: Boolean = rows.hasNext
+
+        override def next(): RowBatch = {
+          if (!hasNext) Iterator.empty.next()
+          batch.clear()
+          while (!batch.isFull && rows.hasNext) {
+            batch.add(rows.next())
+          }
+          batch
+        }
+      }
+  }
+
+  /**
+    * Flattens batches into rows.
+    */
+  def rows(batches: Iterator[RowBatch]): Iterator[CypherRow] = new BatchedRows(batches)
+
+  /**
+    * Batches of rows with a node each, created by copying the base row. The node ids of a whole batch are read before any row is
+    * created, so the loop over the scan cursor is not interleaved with the creation of rows.
+    */
+  def nodeBatches(nodeIds: LongIterator,
+                  batchSize: Int,
+                  baseRow: CypherRow,
+                  ident: String,
+                  state: QueryState,
+                  executionContextFactory: ExecutionContextFactory): Iterator[RowBatch] =
+    new Iterator[RowBatch] {
+      private val ids = new Array[Long](batchSize)
+      private val batch = new RowBatch(batchSize)
+
+      override def hasNext: Boolean = nodeIds.hasNext
+
+      override def next(): RowBatch = {
+        if (!hasNext) Iterator.empty.next()
+        var n = 0
+        while (n < batchSize && nodeIds.hasNext) {
+          ids(n) = nodeIds.next()
+          n += 1
+        }
+
+        batch.clear()
+        var i = 0
+        while (i < n) {
+          batch.add(executionContextFactory.copyWith(baseRow, ident, state.query.nodeById(ids(i))))
+          i += 1
+        }
+        batch
+      }
+    }
+}
+
+/**
+  * The rows of batches, as returned to pipes that pull one row at a time.
+  */
+class BatchedRows(private[pipes] val batches: Iterator[RowBatch]) extends Iterator[CypherRow] {
+  private var batch: RowBatch = _
+  private var i = 0
+  private var started = false
+
+  def isStarted: Boolean = started
+
+  override def hasNext: Boolean = {
+    started = true
+    while ((batch == null || i >= batch.size) && batches.hasNext) {
+      batch = batches.next()
+      i = 0
+    }
+    batch != null && i < batch.size
+  }
+
+  override def next(): CypherRow = {
+    if (!hasNext) Iterator.empty.next()
+    val row = batch(i)
+    i += 1
+    row
+  }
+}
@@ -23,16 +23,17 @@ import java.util.Comparator
 
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.util.attribution.Id
-import org.neo4j.memory.HeapEstimator
 
+/*
+ * SortPipe sorts all of its input. Rows that don't fit in the memory budget of the query are sorted in runs on disk, see ExternalSorter.
+ */
 case class SortPipe(source: Pipe, comparator: Comparator[CypherRow])
                    (val id: Id = Id.INVALID_ID)
   extends PipeWithSource(source) {
 
   protected def internalCreateResults(input: Iterator[CypherRow], state: QueryState): Iterator[CypherRow] = {
-    val array = state.memoryTracker.memoryTrackingIterator(input, id.x).toArray
-    state.memoryTracker.memoryTrackerForOperator(id.x).allocateHeap(HeapEstimator.shallowSizeOfObjectArray(array.length))
-    java.util.Arrays.sort(array, comparator)
-    array.toIterator
+    val sorter = new ExternalSorter(comparator, Long.MaxValue, state, id.x, executionContextFactory)
+    sorter.addAll(input)
+    sorter.result()
   }
 }
@@ -0,0 +1,506 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.IOException
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Instant
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.OffsetTime
+import java.time.ZoneId
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.MapCypherRow
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.exceptions.InternalException
+import org.neo4j.internal.kernel.api.AutoCloseablePlus
+import org.neo4j.internal.kernel.api.DefaultCloseListenable
+import org.neo4j.values.AnyValue
+import org.neo4j.values.ReferenceEntityValueWriter
+import org.neo4j.values.storable.ArrayValue
+import org.neo4j.values.storable.BooleanValue
+import org.neo4j.values.storable.CharValue
+import org.neo4j.values.storable.CoordinateReferenceSystem
+import org.neo4j.values.storable.DateTimeValue
+import org.neo4j.values.storable.DateValue
+import org.neo4j.values.storable.DurationValue
+import org.neo4j.values.storable.LocalDateTimeValue
+import org.neo4j.values.storable.LocalTimeValue
+import org.neo4j.values.storable.NumberValue
+import org.neo4j.values.storable.PointValue
+import org.neo4j.values.storable.TextValue
+import org.neo4j.values.storable.TimeValue
+import org.neo4j.values.storable.Value
+import org.neo4j.values.storable.ValueWriter.ArrayType
+import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.NodeValue
+import org.neo4j.values.virtual.RelationshipValue
+import org.neo4j.values.virtual.VirtualValues
+
+/**
+  * A temporary file holding rows or values that didn't fit in memory, e.g. a sorted run of [[ExternalSorter]].
+  *
+  * The file is created in the spill directory of the query, see [[QueryState.spillDirectory]], or in the temporary directory of the JVM
+  * for a query state that has none.
+  *
+  * A file holds either rows or values. They are written once, in order, and can then be read back once, in the same order. The file is deleted when it is closed,
+  * which happens at the latest when the query is closed, since it is traced by the [[org.neo4j.cypher.internal.runtime.ResourceManager]]
+  * of the query.
+  *
+  * Only the variables of a row are kept, and entities are kept as references, which are looked up again when read back.
+  * Cached properties are dropped and will be read again if needed.
+  */
+class SpillFile(state: QueryState) extends DefaultCloseListenable with AutoCloseablePlus {
+  private val path: Path = SpillFile.createFile(state.spillDirectory)
+  private var output: DataOutputStream = try {
+    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), SpillFile.BUFFER_SIZE))
+  } catch {
+    case t: Throwable =>
+      Files.deleteIfExists(path)
+      throw t
+  }
+  private var input: DataInputStream = _
+  private val valueWriter = new SpillFile.SpilledValueWriter(output)
+  private var closed = false
+  private var count = 0L
+
+  state.query.resources.trace(this)
+
+  def size: Long = count
+
+  def write(row: CypherRow): Unit = {
+    val entries = row match {
+      case mapRow: MapCypherRow => mapRow.toMap
+      case _ => throw new InternalException(s"Cannot write ${row.getClass.getSimpleName} to disk")
+    }
+    output.writeInt(entries.size)
+    entries.foreach {
+      case (name, value) =>
+        SpillFile.writeString(output, name)
+        value.writeTo(valueWriter)
+    }
+    row.getLinenumber match {
+      case Some(linenumber) =>
+        output.writeBoolean(true)
+        SpillFile.writeString(output, linenumber.filename)
+        output.writeLong(linenumber.linenumber)
+        output.writeBoolean(linenumber.last)
+      case None =>
+        output.writeBoolean(false)
+    }
+    count += 1
+  }
+
+  def writeValue(value: AnyValue): Unit = {
+    value.writeTo(valueWriter)
+    count += 1
+  }
+
+  /**
+    * Finishes writing and reads all rows back, creating them with the given [[ExecutionContextFactory]].
+    * The file is closed when the last row has been read.
+    */
+  def rows(executionContextFactory: ExecutionContextFactory): Iterator[CypherRow] = {
+    val valueReader = startReading()
+    read { () =>
+      val row = executionContextFactory.newExecutionContext()
+      var i = input.readInt()
+      while (i > 0) {
+        row.set(SpillFile.readString(input), valueReader.read())
+        i -= 1
+      }
+      if (input.readBoolean()) {
+        row.setLinenumber(SpillFile.readString(input), input.readLong(), input.readBoolean())
+      }
+      row
+    }
+  }
+
+  /**
+    * Finishes writing and reads all values back. The file is closed when the last value has been read.
+    */
+  def values(): Iterator[AnyValue] = {
+    val valueReader = startReading()
+    read(() => valueReader.read())
+  }
+
+  private def startReading(): SpillFile.SpilledValueReader = {
+    output.close()
+    output = null
+    input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), SpillFile.BUFFER_SIZE))
+    new SpillFile.SpilledValueReader(input, state.query)
+  }
+
+  private def read[T](readNext: () => T): Iterator[T] = new Iterator[T] {
+    private var remaining = count
+    if (remaining == 0) {
+      close()
+    }
+
+    override def hasNext: Boolean = remaining > 0
+
+    override def next(): T = {
+      if (remaining <= 0) {
+        Iterator.empty.next()
+      }
+      val next = readNext()
+      remaining -= 1
+      if (remaining == 0) {
+        close()
+      }
+      next
+    }
+  }
+
+  override def closeInternal(): Unit = {
+    if (!closed) {
+      closed = true
+      try {
+        if (output != null) output.close()
+        if (input != null) input.close()
+      } finally {
+        Files.deleteIfExists(path)
+      }
+    }
+  }
+
+  override def close(): Unit = {
+    closeInternal()
+    val listener = closeListener
+    if (listener != null) listener.onClosed(this)
+  }
+
+  override def isClosed: Boolean = closed
+}
+
+object SpillFile {
+  private val BUFFER_SIZE = 64 * 1024
+  private val PREFIX = "neo4j-cypher-spill-"
+  private val SUFFIX = ".tmp"
+
+  private def createFile(directory: Option[Path]): Path = directory match {
+    case Some(dir) =>
+      Files.createDirectories(dir)
+      Files.createTempFile(dir, PREFIX, SUFFIX)
+    case None =>
+      Files.createTempFile(PREFIX, SUFFIX)
+  }
+
+  private def writeString(out: DataOutputStream, value: String): Unit = {
+    val bytes = value.getBytes(StandardCharsets.UTF_8)
+    out.writeInt(bytes.length)
+    out.write(bytes)
+  }
+
+  private def readString(in: DataInputStream): String = {
+    val bytes = new Array[Byte](in.readInt())
+    in.readFully(bytes)
+    new String(bytes, StandardCharsets.UTF_8)
+  }
+
+  private val NULL: Byte = 0
+  private val BOOLEAN: Byte = 1
+  private val BYTE: Byte = 2
+  private val SHORT: Byte = 3
+  private val INT: Byte = 4
+  private val LONG: Byte = 5
+  private val FLOAT: Byte = 6
+  private val DOUBLE: Byte = 7
+  private val STRING: Byte = 8
+  private val CHAR: Byte = 9
+  private val BYTE_ARRAY: Byte = 10
+  private val ARRAY: Byte = 11
+  private val POINT: Byte = 12
+  private val DURATION: Byte = 13
+  private val DATE: Byte = 14
+  private val LOCAL_TIME: Byte = 15
+  private val TIME: Byte = 16
+  private val LOCAL_DATE_TIME: Byte = 17
+  private val DATE_TIME: Byte = 18
+  private val NODE: Byte = 19
+  private val RELATIONSHIP: Byte = 20
+  private val LIST: Byte = 21
+  private val MAP: Byte = 22
+  private val PATH: Byte = 23
+
+  private val ARRAY_TYPES = ArrayType.values()
+
+  /**
+    * Writes values in the format read by [[SpilledValueReader]]. Lists, maps and arrays are written as a header followed by their elements.
+    */
+  private class SpilledValueWriter(out: DataOutputStream) extends ReferenceEntityValueWriter[IOException] {
+
+    override def writeNull(): Unit = out.writeByte(NULL)
+
+    override def writeBoolean(value: Boolean): Unit = {
+      out.writeByte(BOOLEAN)
+      out.writeBoolean(value)
+    }
+
+    override def writeInteger(value: Byte): Unit = {
+      out.writeByte(BYTE)
+      out.writeByte(value)
+    }
+
+    override def writeInteger(value: Short): Unit = {
+      out.writeByte(SHORT)
+      out.writeShort(value)
+    }
+
+    override def writeInteger(value: Int): Unit = {
+      out.writeByte(INT)
+      out.writeInt(value)
+    }
+
+    override def writeInteger(value: Long): Unit = {
+      out.writeByte(LONG)
+      out.writeLong(value)
+    }
+
+    override def writeFloatingPoint(value: Float): Unit = {
+      out.writeByte(FLOAT)
+      out.writeFloat(value)
+    }
+
+    override def writeFloatingPoint(value: Double): Unit = {
+      out.writeByte(DOUBLE)
+      out.writeDouble(value)
+    }
+
+    override def writeString(value: String): Unit = {
+      out.writeByte(STRING)
+      SpillFile.writeString(out, value)
+    }
+
+    override def writeString(value: Char): Unit = {
+      out.writeByte(CHAR)
+      out.writeChar(value)
+    }
+
+    override def beginArray(size: Int, arrayType: ArrayType): Unit = {
+      out.writeByte(ARRAY)
+      out.writeByte(arrayType.ordinal())
+      out.writeInt(size)
+    }
+
+    override def endArray(): Unit = {}
+
+    override def writeByteArray(value: Array[Byte]): Unit = {
+      out.writeByte(BYTE_ARRAY)
+      out.writeInt(value.length)
+      out.write(value)
+    }
+
+    override def writePoint(crs: CoordinateReferenceSystem, coordinate: Array[Double]): Unit = {
+      out.writeByte(POINT)
+      out.writeInt(crs.getTable.getTableId)
+      out.writeInt(crs.getCode)
+      out.writeInt(coordinate.length)
+      coordinate.foreach(out.writeDouble)
+    }
+
+    override def writeDuration(months: Long, days: Long, seconds: Long, nanos: Int): Unit = {
+      out.writeByte(DURATION)
+      out.writeLong(months)
+      out.writeLong(days)
+      out.writeLong(seconds)
+      out.writeInt(nanos)
+    }
+
+    override def writeDate(localDate: LocalDate): Unit = {
+      out.writeByte(DATE)
+      out.writeLong(localDate.toEpochDay)
+    }
+
+    override def writeLocalTime(localTime: LocalTime): Unit = {
+      out.writeByte(LOCAL_TIME)
+      out.writeLong(localTime.toNanoOfDay)
+    }
+
+    override def writeTime(offsetTime: OffsetTime): Unit = {
+      out.writeByte(TIME)
+      out.writeLong(offsetTime.toLocalTime.toNanoOfDay)
+      out.writeInt(offsetTime.getOffset.getTotalSeconds)
+    }
+
+    override def writeLocalDateTime(localDateTime: LocalDateTime): Unit = {
+      out.writeByte(LOCAL_DATE_TIME)
+      out.writeLong(localDateTime.toEpochSecond(ZoneOffset.UTC))
+      out.writeInt(localDateTime.getNano)
+    }
+
+    override def writeDateTime(zonedDateTime: ZonedDateTime): Unit = {
+      out.writeByte(DATE_TIME)
+      out.writeLong(zonedDateTime.toEpochSecond)
+      out.writeInt(zonedDateTime.getNano)
+      SpillFile.writeString(out, zonedDateTime.getZone.getId)
+    }
+
+    override def writeNodeReference(nodeId: Long): Unit = {
+      out.writeByte(NODE)
+      out.writeLong(nodeId)
+    }
+
+    override def writeRelationshipReference(relId: Long): Unit = {
+      out.writeByte(RELATIONSHIP)
+      out.writeLong(relId)
+    }
+
+    override def beginMap(size: Int): Unit = {
+      out.writeByte(MAP)
+      out.writeInt(size)
+    }
+
+    override def endMap(): Unit = {}
+
+    override def beginList(size: Int): Unit = {
+      out.writeByte(LIST)
+      out.writeInt(size)
+    }
+
+    override def endList(): Unit = {}
+
+    override def writePath(nodes: Array[NodeValue], relationships: Array[RelationshipValue]): Unit = {
+      out.writeByte(PATH)
+      out.writeInt(nodes.length)
+      nodes.foreach(node => out.writeLong(node.id()))
+      out.writeInt(relationships.length)
+      relationships.foreach(relationship => out.writeLong(relationship.id()))
+    }
+  }
+
+  /**
+    * Reads values written by [[SpilledValueWriter]]. Entities are looked up by id through the given [[QueryContext]].
+    */
+  private class SpilledValueReader(in: DataInputStream, query: QueryContext) {
+
+    def read(): AnyValue = in.readByte() match {
+      case NULL => Values.NO_VALUE
+      case BOOLEAN => Values.booleanValue(in.readBoolean())
+      case BYTE => Values.byteValue(in.readByte())
+      case SHORT => Values.shortValue(in.readShort())
+      case INT => Values.intValue(in.readInt())
+      case LONG => Values.longValue(in.readLong())
+      case FLOAT => Values.floatValue(in.readFloat())
+      case DOUBLE => Values.doubleValue(in.readDouble())
+      case STRING => Values.stringValue(readString(in))
+      case CHAR => Values.charValue(in.readChar())
+      case BYTE_ARRAY =>
+        val bytes = new Array[Byte](in.readInt())
+        in.readFully(bytes)
+        Values.byteArray(bytes)
+      case ARRAY =>
+        val arrayType = ARRAY_TYPES(in.readByte())
+        val elements = new Array[Value](in.readInt())
+        var i = 0
+        while (i < elements.length) {
+          elements(i) = read().asInstanceOf[Value]
+          i += 1
+        }
+        toArray(arrayType, elements)
+      case POINT =>
+        val crs = CoordinateReferenceSystem.get(in.readInt(), in.readInt())
+        val coordinate = new Array[Double](in.readInt())
+        var i = 0
+        while (i < coordinate.length) {
+          coordinate(i) = in.readDouble()
+          i += 1
+        }
+        Values.pointValue(crs, coordinate: _*)
+      case DURATION => DurationValue.duration(in.readLong(), in.readLong(), in.readLong(), in.readInt())
+      case DATE => DateValue.date(LocalDate.ofEpochDay(in.readLong()))
+      case LOCAL_TIME => LocalTimeValue.localTime(LocalTime.ofNanoOfDay(in.readLong()))
+      case TIME =>
+        val time = LocalTime.ofNanoOfDay(in.readLong())
+        TimeValue.time(OffsetTime.of(time, ZoneOffset.ofTotalSeconds(in.readInt())))
+      case LOCAL_DATE_TIME =>
+        val epochSecond = in.readLong()
+        LocalDateTimeValue.localDateTime(LocalDateTime.ofEpochSecond(epochSecond, in.readInt(), ZoneOffset.UTC))
+      case DATE_TIME =>
+        val instant = Instant.ofEpochSecond(in.readLong(), in.readInt())
+        DateTimeValue.datetime(ZonedDateTime.ofInstant(instant, ZoneId.of(readString(in))))
+      case NODE => query.nodeById(in.readLong())
+      case RELATIONSHIP => query.relationshipById(in.readLong())
+      case LIST =>
+        val values = new Array[AnyValue](in.readInt())
+        var i = 0
+        while (i < values.length) {
+          values(i) = read()
+          i += 1
+        }
+        VirtualValues.list(values: _*)
+      case MAP =>
+        val size = in.readInt()
+        val keys = new Array[String](size)
+        val values = new Array[AnyValue](size)
+        var i = 0
+        while (i < size) {
+          keys(i) = read().asInstanceOf[TextValue].stringValue()
+          values(i) = read()
+          i += 1
+        }
+        VirtualValues.map(keys, values)
+      case PATH =>
+        val nodes = new Array[NodeValue](in.readInt())
+        var i = 0
+        while (i < nodes.length) {
+          nodes(i) = query.nodeById(in.readLong())
+          i += 1
+        }
+        val relationships = new Array[RelationshipValue](in.readInt())
+        i = 0
+        while (i < relationships.length) {
+          relationships(i) = query.relationshipById(in.readLong())
+          i += 1
+        }
+        VirtualValues.path(nodes, relationships)
+      case tag => throw new InternalException(s"Unexpected value type $tag in spill file")
+    }
+
+    private def toArray(arrayType: ArrayType, elements: Array[Value]): ArrayValue = arrayType match {
+      case ArrayType.BYTE => Values.byteArray(elements.map(_.asInstanceOf[NumberValue].longValue().toByte))
+      case ArrayType.SHORT => Values.shortArray(elements.map(_.asInstanceOf[NumberValue].longValue().toShort))
+      case ArrayType.INT => Values.intArray(elements.map(_.asInstanceOf[NumberValue].longValue().toInt))
+      case ArrayType.LONG => Values.longArray(elements.map(_.asInstanceOf[NumberValue].longValue()))
+      case ArrayType.FLOAT => Values.floatArray(elements.map(_.asInstanceOf[NumberValue].doubleValue().toFloat))
+      case ArrayType.DOUBLE => Values.doubleArray(elements.map(_.asInstanceOf[NumberValue].doubleValue()))
+      case ArrayType.BOOLEAN => Values.booleanArray(elements.map(_.asInstanceOf[BooleanValue].booleanValue()))
+      case ArrayType.STRING => Values.stringArray(elements.map(_.asInstanceOf[TextValue].stringValue()): _*)
+      case ArrayType.CHAR => Values.charArray(elements.map(_.asInstanceOf[CharValue].value()))
+      case ArrayType.POINT => Values.pointArray(elements.map(_.asInstanceOf[PointValue]))
+      case ArrayType.ZONED_DATE_TIME => Values.dateTimeArray(elements.map(_.asObjectCopy().asInstanceOf[ZonedDateTime]))
+      case ArrayType.LOCAL_DATE_TIME => Values.localDateTimeArray(elements.map(_.asObjectCopy().asInstanceOf[LocalDateTime]))
+      case ArrayType.DATE => Values.dateArray(elements.map(_.asObjectCopy().asInstanceOf[LocalDate]))
+      case ArrayType.ZONED_TIME => Values.timeArray(elements.map(_.asObjectCopy().asInstanceOf[OffsetTime]))
+      case ArrayType.LOCAL_TIME => Values.localTimeArray(elements.map(_.asObjectCopy().asInstanceOf[LocalTime]))
+      case ArrayType.DURATION => Values.durationArray(elements.map(_.asInstanceOf[DurationValue]))
+    }
+  }
+}
@@ -27,6 +27,7 @@ import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expres
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.NumericHelper
 import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.exceptions.InvalidArgumentException
+import org.neo4j.memory.MemoryLimitExceeded
 import org.neo4j.values.storable.FloatingPointValue
 
 import scala.collection.Iterator.empty
@@ -34,7 +35,8 @@ import scala.collection.JavaConverters.asScalaIteratorConverter
 
 /*
  * TopPipe is used when a query does a ORDER BY ... LIMIT query. Instead of ordering the whole result set and then
- * returning the matching top results, we only keep the top results in heap, which allows us to release memory earlier
+ * returning the matching top results, we only keep the top results in heap, which allows us to release memory earlier.
+ * If the top results don't fit in the memory budget of the query, it falls back to sorting in runs on disk, see ExternalSorter.
  */
 case class TopNPipe(source: Pipe, countExpression: Expression, comparator: Comparator[CypherRow])
                    (val id: Id = Id.INVALID_ID) extends PipeWithSource(source) {
@@ -55,15 +57,24 @@ case class TopNPipe(source: Pipe, countExpression: Expression, comparator: Compa
 
     if (limit == 0 || input.isEmpty) return empty
 
-    val topTable = new DefaultComparatorTopTable(comparator, limit, state.memoryTracker.memoryTrackerForOperator(id.x))
+    val memoryTracker = state.memoryTracker.memoryTrackerForOperator(id.x)
+    val topTable = new DefaultComparatorTopTable(comparator, limit, memoryTracker)
+    var rowsHeapUsage = 0L
 
     var i = 1L
     while (input.hasNext) {
       val row = input.next()
-      topTable.add(row)
-      if (i < limit) {
-        // This makes the assumption that rows have more or less the same size, since we don't know which ones are actually kept in the TopTable here.
-        state.memoryTracker.allocated(row, id.x)
+      try {
+        if (i < limit) {
+          // This makes the assumption that rows have more or less the same size, since we don't know which ones are actually kept in the TopTable here.
+          val rowHeapUsage = row.estimatedHeapUsage
+          memoryTracker.allocateHeap(rowHeapUsage)
+          rowsHeapUsage += rowHeapUsage
+        }
+        topTable.add(row)
+      } catch {
+        case _: MemoryLimitExceeded =>
+          return externalSort(topTable, rowsHeapUsage, row, input, limit, state)
       }
       i += 1
     }
@@ -73,6 +84,26 @@ case class TopNPipe(source: Pipe, countExpression: Expression, comparator: Compa
     // TODO: Use an auto-closing iterator that closes the topTable and deallocates its heap usage
     topTable.iterator.asScala
   }
+
+  /**
+    * Moves the rows kept so far, which didn't include `row`, from the top table to an [[ExternalSorter]], and sorts the rest of the input with it.
+    */
+  private def externalSort(topTable: DefaultComparatorTopTable[CypherRow],
+                           rowsHeapUsage: Long,
+                           row: CypherRow,
+                           input: Iterator[CypherRow],
+                           limit: Long,
+                           state: QueryState): Iterator[CypherRow] = {
+    topTable.sort()
+    val keptRows = topTable.iterator.asScala
+    topTable.close()
+    state.memoryTracker.memoryTrackerForOperator(id.x).releaseHeap(rowsHeapUsage)
+
+    val sorter = new ExternalSorter(comparator, limit, state, id.x, executionContextFactory)
+    sorter.addAll(keptRows ++ Iterator.single(row) ++ input)
+    val sorted = sorter.result()
+    if (limit < Int.MaxValue) sorted.take(limit.toInt) else sorted
+  }
 }
 
 /*
@@ -44,8 +44,10 @@ case class ValueHashJoinPipe(lhsExpression: Expression, rhsExpression: Expressio
 
     val table = buildProbeTable(input, state)
 
-    if (table.isEmpty)
+    if (table.isEmpty) {
+      table.close()
       return Iterator.empty
+    }
 
     val result = for {rhsRow <- rhsIterator
                       joinKey = rhsExpression(rhsRow, state) if !(joinKey eq Values.NO_VALUE) }
@@ -58,14 +60,14 @@ case class ValueHashJoinPipe(lhsExpression: Expression, rhsExpression: Expressio
         }
       }
 
-    result.flatten
+    NodeProbeTable.closeWhenExhausted(result.flatten, table)
   }
 
   private def buildProbeTable(input: Iterator[CypherRow], state: QueryState) = {
     val table = collection.ProbeTable.createProbeTable[AnyValue, CypherRow](state.memoryTracker.memoryTrackerForOperator(id.x))
 
     for (context <- input;
-         joinKey = lhsExpression(context, state) if joinKey != null) {
+         joinKey = lhsExpression(context, state) if !(joinKey eq Values.NO_VALUE)) {
       table.put(joinKey, context)
     }
 
@@ -43,5 +43,23 @@ abstract class AggregationFunction {
    * Record de-allocation of memory used by this function.
    */
   def recordMemoryDeallocation(state: QueryState): Unit
+
+  /**
+   * Whether the aggregated state of this function can be taken out with [[partialState]] and put back with [[restore]],
+   * e.g. to write it to disk.
+   */
+  def spillable: Boolean = false
+
+  /**
+   * The state aggregated so far, as a value.
+   */
+  def partialState: AnyValue = throw new UnsupportedOperationException(s"${getClass.getSimpleName} has no partial state")
+
+  /**
+   * Continues aggregating from the [[partialState]] of another instance of the same function. Only called on a new instance.
+   * Memory of the restored state is recorded before it is kept, like in [[apply]].
+   */
+  def restore(partialState: AnyValue, state: QueryState): Unit =
+    throw new UnsupportedOperationException(s"${getClass.getSimpleName} has no partial state")
 }
 
@@ -27,9 +27,12 @@ import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.exceptions.InternalException
 import org.neo4j.values.AnyValue
 import org.neo4j.values.storable.DurationValue
+import org.neo4j.values.storable.NumberValue
 import org.neo4j.values.storable.Value
 import org.neo4j.values.storable.Values
 import org.neo4j.values.utils.ValueMath.overflowSafeAdd
+import org.neo4j.values.virtual.ListValue
+import org.neo4j.values.virtual.VirtualValues
 
 /**
  * AVG computation is calculated using cumulative moving average approach:
@@ -67,6 +70,23 @@ class AvgFunction(val value: Expression)
 
   override def recordMemoryDeallocation(state: QueryState): Unit = ()
 
+  override def spillable: Boolean = true
+
+  override def partialState: AnyValue =
+    VirtualValues.list(aggregatingTypeValue, Values.longValue(count), sumNumber, Values.doubleValue(monthsRunningAvg),
+      Values.doubleValue(daysRunningAvg), Values.doubleValue(secondsRunningAvg), Values.doubleValue(nanosRunningAvg))
+
+  override def restore(partialState: AnyValue, state: QueryState): Unit = {
+    val values = partialState.asInstanceOf[ListValue]
+    restoreAggregatingType(values.value(0))
+    count = values.value(1).asInstanceOf[NumberValue].longValue()
+    sumNumber = values.value(2).asInstanceOf[NumberValue]
+    monthsRunningAvg = values.value(3).asInstanceOf[NumberValue].doubleValue()
+    daysRunningAvg = values.value(4).asInstanceOf[NumberValue].doubleValue()
+    secondsRunningAvg = values.value(5).asInstanceOf[NumberValue].doubleValue()
+    nanosRunningAvg = values.value(6).asInstanceOf[NumberValue].doubleValue()
+  }
+
   def applyValueDirectly(vl: AnyValue): Unit = {
     actOnNumberOrDuration(vl,
       number => {
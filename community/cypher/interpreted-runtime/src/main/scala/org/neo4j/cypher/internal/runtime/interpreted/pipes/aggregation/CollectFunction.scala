@@ -25,6 +25,7 @@ import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expres
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.values.AnyValue
+import org.neo4j.values.virtual.ListValue
 import org.neo4j.values.virtual.VirtualValues
 
 import scala.collection.mutable.ArrayBuffer
@@ -36,12 +37,27 @@ class CollectFunction(value:Expression, operatorId: Id) extends AggregationFunct
     value(data, state) match {
       case IsNoValue() =>
       case v    =>
-        collection += v
         state.memoryTracker.allocated(v, operatorId.x)
+        collection += v
     }
   }
 
   override def result(state: QueryState): AnyValue = VirtualValues.list(collection.toArray:_*)
 
   override def recordMemoryDeallocation(state: QueryState): Unit = collection.foreach(x => state.memoryTracker.deallocated(x, operatorId.x))
+
+  override def spillable: Boolean = true
+
+  override def partialState: AnyValue = VirtualValues.list(collection.toArray:_*)
+
+  override def restore(partialState: AnyValue, state: QueryState): Unit = {
+    val values = partialState.asInstanceOf[ListValue]
+    var i = 0
+    while (i < values.size()) {
+      val v = values.value(i)
+      state.memoryTracker.allocated(v, operatorId.x)
+      collection += v
+      i += 1
+    }
+  }
 }
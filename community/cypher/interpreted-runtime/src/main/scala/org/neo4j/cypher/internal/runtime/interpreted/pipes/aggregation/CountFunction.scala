@@ -24,6 +24,7 @@ import org.neo4j.cypher.internal.runtime.ReadableRow
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.NumberValue
 import org.neo4j.values.storable.Values
 
 class CountFunction(value: Expression) extends AggregationFunction {
@@ -39,4 +40,10 @@ class CountFunction(value: Expression) extends AggregationFunction {
   override def recordMemoryDeallocation(state: QueryState): Unit = ()
 
   override def result(state: QueryState): AnyValue = Values.longValue(count)
+
+  override def spillable: Boolean = true
+
+  override def partialState: AnyValue = Values.longValue(count)
+
+  override def restore(partialState: AnyValue, state: QueryState): Unit = count = partialState.asInstanceOf[NumberValue].longValue()
 }
@@ -22,6 +22,7 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation
 import org.neo4j.cypher.internal.runtime.ReadableRow
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.NumberValue
 import org.neo4j.values.storable.Values
 
 class CountStarFunction extends AggregationFunction {
@@ -34,5 +35,11 @@ class CountStarFunction extends AggregationFunction {
   override def result(state: QueryState): AnyValue = Values.longValue(count)
 
   override def recordMemoryDeallocation(state: QueryState): Unit = ()
+
+  override def spillable: Boolean = true
+
+  override def partialState: AnyValue = Values.longValue(count)
+
+  override def restore(partialState: AnyValue, state: QueryState): Unit = count = partialState.asInstanceOf[NumberValue].longValue()
 }
 
@@ -24,14 +24,17 @@ import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expres
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.values.AnyValue
+import org.neo4j.values.virtual.ListValue
+import org.neo4j.values.virtual.VirtualValues
 
 class DistinctFunction(value: Expression, inner: AggregationFunction, operatorId: Id) extends AggregationFunction {
   private val seen = scala.collection.mutable.Set[AnyValue]()
 
   override def apply(ctx: ReadableRow, state: QueryState): Unit = {
     val data = value(ctx, state)
-    if (seen.add(data)) {
+    if (!seen.contains(data)) {
       state.memoryTracker.allocated(data, operatorId.x)
+      seen.add(data)
       inner(ctx, state)
     }
   }
@@ -42,4 +45,21 @@ class DistinctFunction(value: Expression, inner: AggregationFunction, operatorId
     seen.foreach(x => state.memoryTracker.deallocated(x, operatorId.x))
     inner.recordMemoryDeallocation(state)
   }
+
+  override def spillable: Boolean = inner.spillable
+
+  override def partialState: AnyValue = VirtualValues.list(VirtualValues.list(seen.toSeq:_*), inner.partialState)
+
+  override def restore(partialState: AnyValue, state: QueryState): Unit = {
+    val values = partialState.asInstanceOf[ListValue]
+    val seenValues = values.value(0).asInstanceOf[ListValue]
+    var i = 0
+    while (i < seenValues.size()) {
+      val v = seenValues.value(i)
+      state.memoryTracker.allocated(v, operatorId.x)
+      seen.add(v)
+      i += 1
+    }
+    inner.restore(values.value(1), state)
+  }
 }
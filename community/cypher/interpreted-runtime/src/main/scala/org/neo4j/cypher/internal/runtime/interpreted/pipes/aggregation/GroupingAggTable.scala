@@ -105,8 +105,15 @@ object GroupingAggTable {
   case class Factory(groupingColumns: Array[GroupingCol],
                      groupingFunction: (CypherRow, QueryState) => AnyValue,
                      aggregations: Array[AggregatingCol]) extends AggregationTableFactory {
+    private lazy val spillable = aggregations.forall(_.expression.createAggregationFunction(Id.INVALID_ID).spillable)
+
     override def table(state: QueryState, executionContextFactory: ExecutionContextFactory, operatorId: Id): AggregationTable =
-      new GroupingAggTable(groupingColumns, groupingFunction, aggregations, state, executionContextFactory, operatorId)
+      // Without memory tracking the memory budget can't be exceeded, so there is never anything to spill
+      if (state.memoryTracker.isEnabled && spillable) {
+        new SpillingGroupingAggTable(groupingColumns, groupingFunction, aggregations, state, executionContextFactory, operatorId)
+      } else {
+        new GroupingAggTable(groupingColumns, groupingFunction, aggregations, state, executionContextFactory, operatorId)
+      }
   }
 
 }
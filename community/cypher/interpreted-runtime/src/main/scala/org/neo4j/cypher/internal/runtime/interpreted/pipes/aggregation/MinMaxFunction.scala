@@ -45,6 +45,12 @@ trait MinMax extends AggregationFunction {
 
   override def recordMemoryDeallocation(state: QueryState): Unit = ()
 
+  override def spillable: Boolean = true
+
+  override def partialState: AnyValue = biggestSeen
+
+  override def restore(partialState: AnyValue, state: QueryState): Unit = biggestSeen = partialState
+
   private def checkIfLargest(value: AnyValue) {
     if (biggestSeen eq Values.NO_VALUE) {
       biggestSeen = value
@@ -40,6 +40,18 @@ trait NumericOrDurationAggregationExpression {
 
   def value: Expression
 
+  protected def aggregatingTypeValue: AnyValue = aggregatingType match {
+    case None => Values.intValue(0)
+    case Some(AggregatingNumbers) => Values.intValue(1)
+    case Some(AggregatingDurations) => Values.intValue(2)
+  }
+
+  protected def restoreAggregatingType(value: AnyValue): Unit = aggregatingType = value.asInstanceOf[NumberValue].longValue() match {
+    case 0 => None
+    case 1 => Some(AggregatingNumbers)
+    case 2 => Some(AggregatingDurations)
+  }
+
   protected def actOnNumberOrDuration(vl: AnyValue, aggNumber: NumberValue => Unit, aggDuration: DurationValue => Unit): Unit = {
     vl match {
       case IsNoValue() =>
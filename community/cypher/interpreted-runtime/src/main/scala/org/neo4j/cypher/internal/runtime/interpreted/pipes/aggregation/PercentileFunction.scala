@@ -26,7 +26,10 @@ import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.exceptions.InvalidArgumentException
 import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.NumberValue
 import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.ListValue
+import org.neo4j.values.virtual.VirtualValues
 
 abstract class PercentileFunction(val value: Expression, val percentile: Expression, operatorId: Id) extends AggregationFunction
                                                                                      with NumericExpressionOnly {
@@ -43,13 +46,31 @@ abstract class PercentileFunction(val value: Expression, val percentile: Express
           throw new InvalidArgumentException(
             s"Invalid input '$perc' is not a valid argument, must be a number in the range 0.0 to 1.0")
       }
+      state.memoryTracker.allocated(number, operatorId.x)
       count += 1
       temp = temp :+ number
-      state.memoryTracker.allocated(number, operatorId.x)
     })
   }
 
   override def recordMemoryDeallocation(state: QueryState): Unit = temp.foreach(x => state.memoryTracker.deallocated(x, operatorId.x))
+
+  override def spillable: Boolean = true
+
+  override def partialState: AnyValue = VirtualValues.list(Values.doubleValue(perc), VirtualValues.list(temp:_*))
+
+  override def restore(partialState: AnyValue, state: QueryState): Unit = {
+    val values = partialState.asInstanceOf[ListValue]
+    perc = values.value(0).asInstanceOf[NumberValue].doubleValue()
+    val numbers = values.value(1).asInstanceOf[ListValue]
+    var i = 0
+    while (i < numbers.size()) {
+      val number = numbers.value(i)
+      state.memoryTracker.allocated(number, operatorId.x)
+      count += 1
+      temp = temp :+ number
+      i += 1
+    }
+  }
 }
 
 class PercentileContFunction(value: Expression, percentile: Expression, operatorId: Id)
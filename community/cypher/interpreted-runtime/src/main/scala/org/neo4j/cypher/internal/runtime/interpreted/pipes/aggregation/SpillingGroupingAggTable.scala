@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation
+
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.AggregatingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.DistinctPipe.GroupingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ExecutionContextFactory
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.SpillFile
+import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.memory.MemoryLimitExceeded
+import org.neo4j.values.AnyValue
+import org.neo4j.values.virtual.ListValue
+import org.neo4j.values.virtual.VirtualValues
+
+import scala.util.hashing.MurmurHash3
+
+/**
+ * A [[GroupingAggTable]] which spills to disk when its groups don't fit in the memory budget of the query.
+ * Only used when memory is tracked and all aggregation functions are [[AggregationFunction.spillable]], see [[GroupingAggTable.Factory]].
+ *
+ * Until the memory budget is exceeded this table aggregates in memory exactly like a [[GroupingAggTable]] and writes nothing to disk.
+ * Groups are partitioned by the hash of their grouping key. When the budget is exceeded, either when allocating a new group or inside
+ * an aggregation function such as `collect()`, the partition of the current row is spilled: the partial state of each of its groups is
+ * written to a [[SpillFile]] of the partition and the memory of the groups is released. All later rows of a spilled partition are
+ * written to another [[SpillFile]] of the partition instead of being aggregated. If that doesn't free enough memory, all partitions
+ * are spilled.
+ *
+ * The result is the groups in memory, followed by the groups of each spilled partition, which are aggregated one partition at a time
+ * after the memory of the previous groups has been released, by restoring the partial states of the partition and then aggregating
+ * its remaining rows. Such a partition may spill again, partitioned by a different hash.
+ *
+ * @param level how many times the groups of this table have been spilled before
+ */
+class SpillingGroupingAggTable(groupingColumns: Array[GroupingCol],
+                               groupingFunction: (CypherRow, QueryState) => AnyValue,
+                               aggregations: Array[AggregatingCol],
+                               state: QueryState,
+                               executionContextFactory: ExecutionContextFactory,
+                               operatorId: Id,
+                               level: Int = 0)
+  extends GroupingAggTable(groupingColumns, groupingFunction, aggregations, state, executionContextFactory, operatorId) {
+
+  // Null until the memory budget is exceeded for the first time, then holds the spilled partitions
+  private var partitions: Array[SpilledPartition] = _
+
+  override def clear(): Unit = {
+    closePartitions()
+    super.clear()
+  }
+
+  override def processRow(row: CypherRow): Unit = {
+    val groupingValue: AnyValue = groupingFunction(row, state)
+    if (partitions != null) {
+      val spilled = partitions(partitionOf(groupingValue))
+      if (spilled != null) {
+        spilled.writeRow(row)
+        return
+      }
+    }
+    var aggregationFunctions = resultMap.get(groupingValue)
+    if (aggregationFunctions == null) {
+      try {
+        aggregationFunctions = newGroup(groupingValue)
+      } catch {
+        case e: MemoryLimitExceeded =>
+          // Nothing of this table can be released to make room
+          if (resultMap.isEmpty) {
+            throw e
+          }
+          val partition = partitionOf(groupingValue)
+          spill(partition, except = null)
+          partitions(partition).writeRow(row)
+          return
+      }
+    }
+    aggregate(groupingValue, aggregationFunctions, row)
+  }
+
+  private def newGroup(groupingValue: AnyValue): Array[AggregationFunction] = {
+    state.memoryTracker.allocated(groupingValue, operatorId.x)
+    val aggregationFunctions = new Array[AggregationFunction](aggregations.length)
+    var i = 0
+    while (i < aggregations.length) {
+      aggregationFunctions(i) = aggregations(i).expression.createAggregationFunction(operatorId)
+      i += 1
+    }
+    resultMap.put(groupingValue, aggregationFunctions)
+    aggregationFunctions
+  }
+
+  private def aggregate(groupingValue: AnyValue, aggregationFunctions: Array[AggregationFunction], row: CypherRow): Unit = {
+    var i = 0
+    var attempts = 0
+    while (i < aggregationFunctions.length) {
+      try {
+        while (i < aggregationFunctions.length) {
+          aggregationFunctions(i)(row, state)
+          i += 1
+        }
+      } catch {
+        case e: MemoryLimitExceeded =>
+          // A function records memory before keeping anything, so function i can be applied again once there is room
+          attempts += 1
+          if (attempts == 1) {
+            spill(partitionOf(groupingValue), except = groupingValue)
+          } else if (attempts == 2) {
+            var partition = 0
+            while (partition < SpillingGroupingAggTable.PARTITIONS) {
+              spill(partition, except = groupingValue)
+              partition += 1
+            }
+          } else {
+            throw e
+          }
+      }
+    }
+    if (attempts > 0) {
+      // The partition of this group has been spilled, so the group goes to disk as well
+      spill(partitionOf(groupingValue), except = null)
+    }
+  }
+
+  /**
+   * Writes the partial state of all groups of the partition, except the given one, to disk and releases their memory.
+   * Later rows of the partition are written to disk.
+   */
+  private def spill(partition: Int, except: AnyValue): Unit = {
+    if (partitions == null) {
+      partitions = new Array[SpilledPartition](SpillingGroupingAggTable.PARTITIONS)
+    }
+    if (partitions(partition) == null) {
+      partitions(partition) = new SpilledPartition
+    }
+    val spilled = partitions(partition)
+    val entries = resultMap.entrySet().iterator()
+    while (entries.hasNext) {
+      val entry = entries.next()
+      val groupingValue = entry.getKey
+      if (partitionOf(groupingValue) == partition && (except == null || groupingValue != except)) {
+        val aggregationFunctions = entry.getValue
+        spilled.writeGroup(groupingValue, VirtualValues.list(aggregationFunctions.map(_.partialState):_*))
+        release(groupingValue, aggregationFunctions)
+        entries.remove()
+      }
+    }
+  }
+
+  private def release(groupingValue: AnyValue, aggregationFunctions: Array[AggregationFunction]): Unit = {
+    state.memoryTracker.deallocated(groupingValue, operatorId.x)
+    aggregationFunctions.foreach(_.recordMemoryDeallocation(state))
+  }
+
+  /**
+   * Adds a group from the partial states of its aggregation functions, or writes it to disk if its partition has been spilled or
+   * it doesn't fit in memory.
+   */
+  private def restoreGroup(groupingValue: AnyValue, partialStates: ListValue): Unit = {
+    val partition = partitionOf(groupingValue)
+    if (partitions == null || partitions(partition) == null) {
+      var aggregationFunctions: Array[AggregationFunction] = null
+      try {
+        aggregationFunctions = newGroup(groupingValue)
+        var i = 0
+        while (i < aggregationFunctions.length) {
+          aggregationFunctions(i).restore(partialStates.value(i), state)
+          i += 1
+        }
+        return
+      } catch {
+        case e: MemoryLimitExceeded =>
+          if (aggregationFunctions != null) {
+            release(groupingValue, aggregationFunctions)
+            resultMap.remove(groupingValue)
+          }
+          if (resultMap.isEmpty) {
+            throw e
+          }
+          spill(partition, except = null)
+      }
+    }
+    partitions(partition).writeGroup(groupingValue, partialStates)
+  }
+
+  override def result(): Iterator[CypherRow] =
+    if (partitions == null) super.result()
+    else super.result() ++ spilledResult()
+
+  private def spilledResult(): Iterator[CypherRow] = {
+    // All groups in memory have been returned at this point
+    super.clear()
+    val spilled = partitions.filter(_ != null)
+    partitions = null
+
+    spilled.iterator.flatMap { partition =>
+      val table = new SpillingGroupingAggTable(groupingColumns, groupingFunction, aggregations, state, executionContextFactory, operatorId, level + 1)
+      table.clear()
+      partition.aggregateInto(table)
+      table.result()
+    }
+  }
+
+  private def closePartitions(): Unit = {
+    if (partitions != null) {
+      partitions.foreach(partition => if (partition != null) partition.close())
+      partitions = null
+    }
+  }
+
+  private def partitionOf(groupingValue: AnyValue): Int =
+    MurmurHash3.finalizeHash(MurmurHash3.mix(level, groupingValue.hashCode()), 1) & (SpillingGroupingAggTable.PARTITIONS - 1)
+
+  /**
+   * The partial states of the spilled groups of a partition, followed by the rows of the partition that came after it was spilled.
+   * Each file is only created when something is written to it.
+   */
+  private class SpilledPartition {
+    private var groups: SpillFile = _
+    private var rows: SpillFile = _
+
+    def writeGroup(groupingValue: AnyValue, partialStates: ListValue): Unit = {
+      if (groups == null) {
+        groups = new SpillFile(state)
+      }
+      groups.writeValue(VirtualValues.list(groupingValue, partialStates))
+    }
+
+    def writeRow(row: CypherRow): Unit = {
+      if (rows == null) {
+        rows = new SpillFile(state)
+      }
+      rows.write(row)
+    }
+
+    def aggregateInto(table: SpillingGroupingAggTable): Unit = {
+      if (groups != null) {
+        val values = groups.values()
+        while (values.hasNext) {
+          val group = values.next().asInstanceOf[ListValue]
+          table.restoreGroup(group.value(0), group.value(1).asInstanceOf[ListValue])
+        }
+      }
+      if (rows != null) {
+        val values = rows.rows(executionContextFactory)
+        while (values.hasNext) {
+          table.processRow(values.next())
+        }
+      }
+    }
+
+    def close(): Unit = {
+      if (groups != null) groups.close()
+      if (rows != null) rows.close()
+    }
+  }
+}
+
+object SpillingGroupingAggTable {
+  private val PARTITIONS = 32
+}
@@ -24,7 +24,10 @@ import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expres
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.NumberValue
 import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.ListValue
+import org.neo4j.values.virtual.VirtualValues
 
 class StdevFunction(val value: Expression, val population:Boolean, operatorId: Id)
   extends AggregationFunction
@@ -57,12 +60,29 @@ class StdevFunction(val value: Expression, val population:Boolean, operatorId: I
 
   override def apply(data: ReadableRow, state: QueryState) {
     actOnNumber(value(data, state), number => {
+      state.memoryTracker.allocated(java.lang.Double.BYTES, operatorId.x)
       count += 1
       total += number.doubleValue()
       temp = temp :+ number.doubleValue()
-      state.memoryTracker.allocated(java.lang.Double.BYTES, operatorId.x)
     })
   }
 
   override def recordMemoryDeallocation(state: QueryState): Unit = state.memoryTracker.deallocated(java.lang.Double.BYTES * temp.size, operatorId.x)
+
+  override def spillable: Boolean = true
+
+  override def partialState: AnyValue = VirtualValues.list(temp.map(d => Values.doubleValue(d)):_*)
+
+  override def restore(partialState: AnyValue, state: QueryState): Unit = {
+    val numbers = partialState.asInstanceOf[ListValue]
+    var i = 0
+    while (i < numbers.size()) {
+      val number = numbers.value(i).asInstanceOf[NumberValue].doubleValue()
+      state.memoryTracker.allocated(java.lang.Double.BYTES, operatorId.x)
+      count += 1
+      total += number
+      temp = temp :+ number
+      i += 1
+    }
+  }
 }
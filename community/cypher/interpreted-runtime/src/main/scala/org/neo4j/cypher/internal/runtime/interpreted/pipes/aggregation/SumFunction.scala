@@ -24,7 +24,11 @@ import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expres
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.exceptions.InternalException
 import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.DurationValue
+import org.neo4j.values.storable.NumberValue
 import org.neo4j.values.utils.ValueMath.overflowSafeAdd
+import org.neo4j.values.virtual.ListValue
+import org.neo4j.values.virtual.VirtualValues
 
 class SumFunction(val value: Expression)
   extends AggregationFunction
@@ -45,6 +49,17 @@ class SumFunction(val value: Expression)
 
   override def recordMemoryDeallocation(state: QueryState): Unit = ()
 
+  override def spillable: Boolean = true
+
+  override def partialState: AnyValue = VirtualValues.list(aggregatingTypeValue, sumNumber, sumDuration)
+
+  override def restore(partialState: AnyValue, state: QueryState): Unit = {
+    val values = partialState.asInstanceOf[ListValue]
+    restoreAggregatingType(values.value(0))
+    sumNumber = values.value(1).asInstanceOf[NumberValue]
+    sumDuration = values.value(2).asInstanceOf[DurationValue]
+  }
+
   override def apply(data: ReadableRow, state: QueryState) {
     val vl = value(data, state)
     actOnNumberOrDuration(vl,
@@ -19,11 +19,16 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted
 
+import java.io.Reader
 import java.net.URL
+import java.util.concurrent.CountDownLatch
 
 import org.apache.commons.lang3.SystemUtils
+import org.mockito.ArgumentCaptor
 import org.mockito.ArgumentMatchers.any
 import org.mockito.Mockito.verify
+import org.neo4j.csv.reader.Configuration
+import org.neo4j.csv.reader.Readables
 import org.neo4j.cypher.internal.runtime.CreateTempFileTestSupport
 import org.neo4j.cypher.internal.runtime.ResourceManager
 import org.neo4j.cypher.internal.runtime.interpreted.CSVResources.DEFAULT_BUFFER_SIZE
@@ -245,4 +250,90 @@ class CSVResourcesTest extends CypherFunSuite with CreateTempFileTestSupport {
         r should equal(expected)
     }
   }
+
+  test("should read the same rows when prefetching") {
+    // given
+    val url = createCSVTempFileURL {
+      writer =>
+        (0 until 3 * PrefetchingCsvReader.CHUNK_SIZE + 1).foreach(i => writer.println(s"$i,\"value $i\""))
+    }
+    val prefetchingResources = new CSVResources(cleaner, prefetch = true)
+
+    // when
+    val result = prefetchingResources.getCsvIterator(new URL(url), None, legacyCsvQuoteEscaping = false, DEFAULT_BUFFER_SIZE).toList
+    val expected = resources.getCsvIterator(new URL(url), None, legacyCsvQuoteEscaping = false, DEFAULT_BUFFER_SIZE).toList
+
+    // then
+    result.map(_.toSeq) should equal(expected.map(_.toSeq))
+    result should have size (3 * PrefetchingCsvReader.CHUNK_SIZE + 1)
+  }
+
+  test("should rethrow errors from the prefetching thread") {
+    // given
+    val url = createCSVTempFileURL {
+      writer =>
+        writer.println("\"quoted\" and then some")
+    }
+    val prefetchingResources = new CSVResources(cleaner, prefetch = true)
+
+    // then
+    intercept[IllegalStateException](prefetchingResources.getCsvIterator(new URL(url), None, legacyCsvQuoteEscaping = false,
+      DEFAULT_BUFFER_SIZE))
+  }
+
+  test("should stop the prefetching thread when the resource is closed") {
+    // given
+    val url = createCSVTempFileURL {
+      writer =>
+        (0 until 10 * PrefetchingCsvReader.CHUNK_SIZE).foreach(i => writer.println(i))
+    }
+    val prefetchingResources = new CSVResources(cleaner, prefetch = true)
+    val iterator = prefetchingResources.getCsvIterator(new URL(url), None, legacyCsvQuoteEscaping = false, DEFAULT_BUFFER_SIZE)
+    iterator.next() should equal(Array("0"))
+
+    // when
+    val resource = ArgumentCaptor.forClass(classOf[AutoCloseablePlus])
+    verify(cleaner).trace(resource.capture())
+    val reader = resource.getValue.asInstanceOf[CSVResource].resource.asInstanceOf[PrefetchingCsvReader]
+    resource.getValue.close()
+
+    // then
+    reader.isAlive shouldBe false
+  }
+
+  test("should not wait for a blocked read when the resource is closed") {
+    // given a source whose read ignores interrupts, like a read from a socket
+    val readStarted = new CountDownLatch(1)
+    val release = new CountDownLatch(1)
+    val blockingReader = new Reader {
+      override def read(buffer: Array[Char], offset: Int, length: Int): Int = {
+        readStarted.countDown()
+        var released = false
+        while (!released) {
+          try {
+            release.await()
+            released = true
+          } catch {
+            case _: InterruptedException => // keep blocking
+          }
+        }
+        -1
+      }
+
+      override def close(): Unit = {}
+    }
+    val reader = new PrefetchingCsvReader(new URL("http://localhost/file.csv"), Readables.wrap(blockingReader, 0),
+      Configuration.COMMAS, ',', readAhead = false, closeTimeoutMillis = 100)
+    reader.start()
+    readStarted.await()
+
+    // when
+    reader.close()
+
+    // then
+    reader.isAlive shouldBe true
+    release.countDown()
+    reader.join()
+    reader.isAlive shouldBe false
+  }
 }
@@ -19,14 +19,19 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted
 
+import java.nio.file.Path
+
 import org.mockito.ArgumentMatchers
 import org.mockito.Mockito
 import org.mockito.invocation.InvocationOnMock
 import org.mockito.stubbing.Answer
+import org.neo4j.cypher.internal.runtime.BoundedMemoryTracker
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.runtime.ExpressionCursors
 import org.neo4j.cypher.internal.runtime.NoMemoryTracker
 import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.QueryMemoryTracker
+import org.neo4j.cypher.internal.runtime.ResourceManager
 import org.neo4j.cypher.internal.runtime.interpreted.TransactionBoundQueryContext.IndexSearchMonitor
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.ExternalCSVResource
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.NullPipeDecorator
@@ -43,6 +48,8 @@ import org.neo4j.kernel.impl.coreapi.InternalTransaction
 import org.neo4j.kernel.impl.query.Neo4jTransactionalContextFactory
 import org.neo4j.kernel.impl.query.QuerySubscriber
 import org.neo4j.kernel.impl.util.BaseToObjectValueWriter
+import org.neo4j.memory.LocalMemoryTracker
+import org.neo4j.memory.MemoryPools
 import org.neo4j.monitoring.Monitors
 import org.neo4j.values.AnyValue
 import org.neo4j.values.storable.CoordinateReferenceSystem
@@ -61,10 +68,12 @@ object QueryStateHelper extends MockitoSugar {
                 expressionVariables: Array[AnyValue] = Array.empty,
                 subscriber: QuerySubscriber = QuerySubscriber.DO_NOTHING_SUBSCRIBER,
                 decorator: PipeDecorator = NullPipeDecorator,
-                initialContext: Option[CypherRow] = None
+                initialContext: Option[CypherRow] = None,
+                memoryTracker: QueryMemoryTracker = NoMemoryTracker,
+                spillDirectory: Option[Path] = None
                ):QueryState =
-    new QueryState(query, resources, params, expressionCursors, queryIndexes, expressionVariables, subscriber, NoMemoryTracker,
-      decorator, initialContext = initialContext)
+    new QueryState(query, resources, params, expressionCursors, queryIndexes, expressionVariables, subscriber, memoryTracker,
+      decorator, initialContext = initialContext, spillDirectory = spillDirectory)
 
   def queryStateFrom(db: GraphDatabaseQueryService,
                      tx: InternalTransaction,
@@ -98,6 +107,13 @@ object QueryStateHelper extends MockitoSugar {
 
   def emptyWithValueSerialization: QueryState = emptyWith(query = context)
 
+  def emptyWithMemoryBudget(bytes: Long, spillDirectory: Option[Path] = None): QueryState = {
+    val query = mock[QueryContext]
+    Mockito.when(query.resources).thenReturn(new ResourceManager)
+    emptyWith(query = query, memoryTracker = BoundedMemoryTracker(new LocalMemoryTracker(MemoryPools.NO_TRACKING, bytes, 0)),
+      spillDirectory = spillDirectory)
+  }
+
   private val context = mock[QueryContext]
   Mockito.when(context.asObject(ArgumentMatchers.any())).thenAnswer(new Answer[Any] {
     override def answer(invocationOnMock: InvocationOnMock): AnyRef = toObject(invocationOnMock.getArgument(0))
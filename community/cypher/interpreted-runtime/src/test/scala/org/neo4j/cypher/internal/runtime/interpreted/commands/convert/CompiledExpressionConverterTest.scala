@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.commands.convert
+
+import org.neo4j.cypher.internal.expressions.Add
+import org.neo4j.cypher.internal.expressions.And
+import org.neo4j.cypher.internal.expressions.Ands
+import org.neo4j.cypher.internal.expressions.Divide
+import org.neo4j.cypher.internal.expressions.Equals
+import org.neo4j.cypher.internal.expressions.Expression
+import org.neo4j.cypher.internal.expressions.False
+import org.neo4j.cypher.internal.expressions.GreaterThan
+import org.neo4j.cypher.internal.expressions.IsNull
+import org.neo4j.cypher.internal.expressions.Multiply
+import org.neo4j.cypher.internal.expressions.Not
+import org.neo4j.cypher.internal.expressions.Null
+import org.neo4j.cypher.internal.expressions.Or
+import org.neo4j.cypher.internal.expressions.SignedDecimalIntegerLiteral
+import org.neo4j.cypher.internal.expressions.StringLiteral
+import org.neo4j.cypher.internal.expressions.True
+import org.neo4j.cypher.internal.expressions.UnarySubtract
+import org.neo4j.cypher.internal.expressions.Variable
+import org.neo4j.cypher.internal.expressions.Xor
+import org.neo4j.cypher.internal.planner.spi.TokenContext
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.CompiledExpression
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.CompiledPredicate
+import org.neo4j.cypher.internal.util.DummyPosition
+import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+import org.neo4j.exceptions.ArithmeticException
+import org.neo4j.logging.NullLog
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.TextValue
+import org.neo4j.values.storable.Values.NO_VALUE
+import org.neo4j.values.storable.Values.intValue
+import org.neo4j.values.storable.Values.stringValue
+
+class CompiledExpressionConverterTest extends CypherFunSuite {
+
+  private val pos = DummyPosition(0)
+  private val interpreted = new ExpressionConverters(CommunityExpressionConverter(TokenContext.EMPTY))
+  private val compiled = new ExpressionConverters(CompiledExpressionConverter(NullLog.getInstance), CommunityExpressionConverter(TokenContext.EMPTY))
+  private val state = QueryStateHelper.empty
+
+  private val rows: Seq[CypherRow] = {
+    val values: Seq[(AnyValue, AnyValue)] = Seq(
+      (intValue(1), intValue(2)),
+      (intValue(3), intValue(3)),
+      (NO_VALUE, intValue(2)),
+      (intValue(1), NO_VALUE),
+      (stringValue("a"), stringValue("b")))
+    values.map {
+      case (x, y) => CypherRow.from("x" -> x, "y" -> y)
+    }
+  }
+
+  test("should compile arithmetic") {
+    val expression = Add(Multiply(x, literal(2))(pos), UnarySubtract(y)(pos))(pos)
+
+    compiled.toCommandExpression(Id.INVALID_ID, expression) shouldBe a[CompiledExpression]
+    rows.filterNot(_.getByName("x").isInstanceOf[TextValue]).foreach(row =>
+      evaluateCompiled(expression, row) should equal(evaluateInterpreted(expression, row)))
+  }
+
+  test("should compile comparisons and boolean logic") {
+    val expressions = Seq(
+      Equals(x, y)(pos),
+      GreaterThan(x, y)(pos),
+      And(GreaterThan(x, literal(0))(pos), Not(Equals(x, y)(pos))(pos))(pos),
+      Or(IsNull(x)(pos), Equals(y, literal(2))(pos))(pos),
+      Xor(Equals(x, literal(1))(pos), Equals(y, StringLiteral("b")(pos))(pos))(pos),
+      Ands(Set(Equals(x, x)(pos), Equals(y, y)(pos), True()(pos)))(pos))
+
+    expressions.foreach { expression =>
+      compiled.toCommandPredicate(Id.INVALID_ID, expression) shouldBe a[CompiledPredicate]
+      rows.foreach(row => withClue(s"$expression on $row") {
+        evaluateCompiled(expression, row) should equal(evaluateInterpreted(expression, row))
+        compiled.toCommandPredicate(Id.INVALID_ID, expression).isMatch(row, state) should equal(
+          interpreted.toCommandPredicate(Id.INVALID_ID, expression).isMatch(row, state))
+      })
+    }
+  }
+
+  test("should return null for null operands") {
+    evaluateCompiled(Add(x, Null()(pos))(pos), rows.head) should equal(NO_VALUE)
+    evaluateCompiled(Equals(Null()(pos), y)(pos), rows.head) should equal(NO_VALUE)
+  }
+
+  test("should throw on division by zero") {
+    an[ArithmeticException] should be thrownBy evaluateCompiled(Divide(Null()(pos), literal(0))(pos), rows.head)
+  }
+
+  test("should let false in AND supersede errors of earlier operands") {
+    val failing = Equals(Divide(x, literal(0))(pos), literal(1))(pos)
+
+    evaluateCompiled(And(failing, False()(pos))(pos), rows.head) should equal(evaluateInterpreted(And(failing, False()(pos))(pos), rows.head))
+    an[ArithmeticException] should be thrownBy evaluateCompiled(And(failing, True()(pos))(pos), rows.head)
+  }
+
+  test("should not compile expressions that are not operators") {
+    compiled.toCommandExpression(Id.INVALID_ID, x) should not be a[CompiledExpression]
+    compiled.toCommandExpression(Id.INVALID_ID, literal(1)) should not be a[CompiledExpression]
+  }
+
+  private def x: Variable = Variable("x")(pos)
+
+  private def y: Variable = Variable("y")(pos)
+
+  private def literal(value: Int): Expression = SignedDecimalIntegerLiteral(value.toString)(pos)
+
+  private def evaluateCompiled(expression: Expression, row: CypherRow): AnyValue =
+    compiled.toCommandExpression(Id.INVALID_ID, expression).apply(row, state)
+
+  private def evaluateInterpreted(expression: Expression, row: CypherRow): AnyValue =
+    interpreted.toCommandExpression(Id.INVALID_ID, expression).apply(row, state)
+}
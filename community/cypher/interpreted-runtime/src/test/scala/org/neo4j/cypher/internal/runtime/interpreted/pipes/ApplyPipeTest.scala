@@ -19,12 +19,33 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import org.mockito.ArgumentMatchers.any
+import org.mockito.Mockito.times
+import org.mockito.Mockito.verify
+import org.neo4j.cypher.internal.expressions.LabelName
+import org.neo4j.cypher.internal.expressions.LabelToken
+import org.neo4j.cypher.internal.expressions.PropertyKeyName
+import org.neo4j.cypher.internal.expressions.PropertyKeyToken
+import org.neo4j.cypher.internal.logical.plans.GetValue
+import org.neo4j.cypher.internal.logical.plans.IndexOrderNone
+import org.neo4j.cypher.internal.logical.plans.IndexedProperty
+import org.neo4j.cypher.internal.logical.plans.SingleQueryExpression
 import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
 import org.neo4j.cypher.internal.runtime.interpreted.ValueComparisonHelper.beEquivalentTo
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Variable
+import org.neo4j.cypher.internal.util.LabelId
+import org.neo4j.cypher.internal.util.PropertyKeyId
 import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+import org.neo4j.values.storable.DoubleValue
+import org.neo4j.values.storable.LongValue
 import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.VirtualValues
 
-class ApplyPipeTest extends CypherFunSuite with PipeTestSupport {
+class ApplyPipeTest extends CypherFunSuite with PipeTestSupport with IndexMockingHelp {
+
+  private val label = LabelToken(LabelName("L") _, LabelId(11))
+  private val propertyKey = PropertyKeyToken(PropertyKeyName("p") _, PropertyKeyId(10))
+  override val propertyKeys = Seq(propertyKey)
 
   test("should work by applying the identity operator on the rhs") {
     val lhsData = List(Map("a" -> 1), Map("a" -> 2))
@@ -49,4 +70,38 @@ class ApplyPipeTest extends CypherFunSuite with PipeTestSupport {
 
     result should beEquivalentTo(lhsData.map(_ + rhsData))
   }
+
+  test("should seek the keys of a batch of rows once each and keep the order of the rows") {
+    val query = indexFor(
+      Seq("a") -> Seq(nodeValueHit(VirtualValues.node(1), "a")),
+      Seq("b") -> Seq(nodeValueHit(VirtualValues.node(2), "b"), nodeValueHit(VirtualValues.node(3), "b"))
+    )
+    val lhs = new FakePipe(Seq("b", "c", "a", "b", "a").map(k => Map("k" -> k)))
+    val rhs = NodeIndexSeekPipe("n", label, Array(IndexedProperty(propertyKey, GetValue)), 0,
+                                SingleQueryExpression(Variable("k")), IndexSeek, IndexOrderNone)()
+    val apply = ApplyPipe(lhs, rhs)()
+    apply.batchSize = 10
+
+    val result = apply.createResults(QueryStateHelper.emptyWith(query = query)).toList
+
+    result.map(_.getByName("k")) should equal(List("b", "b", "a", "b", "b", "a").map(Values.stringValue))
+    result.map(_.getByName("n")) should equal(List(2, 3, 1, 2, 3, 1).map(id => VirtualValues.node(id)))
+    result.map(_.getCachedProperty(cachedProperty("n", propertyKey))) should equal(List("b", "b", "a", "b", "b", "a").map(Values.stringValue))
+    verify(query, times(3)).indexSeek(any(), any(), any(), any())
+  }
+
+  test("should cache the indexed value of each node found by a batched seek") {
+    val query = indexFor(
+      Seq(Long.box(1)) -> Seq(nodeValueHit(VirtualValues.node(1), Double.box(1.0)), nodeValueHit(VirtualValues.node(2), Long.box(1)))
+    )
+    val lhs = new FakePipe(Seq(Map("k" -> 1)))
+    val rhs = NodeIndexSeekPipe("n", label, Array(IndexedProperty(propertyKey, GetValue)), 0,
+                                SingleQueryExpression(Variable("k")), IndexSeek, IndexOrderNone)()
+    val apply = ApplyPipe(lhs, rhs)()
+    apply.batchSize = 10
+
+    val result = apply.createResults(QueryStateHelper.emptyWith(query = query)).toList
+
+    result.map(_.getCachedProperty(cachedProperty("n", propertyKey)).getClass) should equal(List(classOf[DoubleValue], classOf[LongValue]))
+  }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import org.neo4j.cypher.internal.ast.AstConstructionTestSupport
+import org.neo4j.cypher.internal.expressions.PropertyKeyName
+import org.neo4j.cypher.internal.expressions.SemanticDirection
+import org.neo4j.cypher.internal.expressions.LabelToken
+import org.neo4j.cypher.internal.expressions.PropertyKeyToken
+import org.neo4j.cypher.internal.logical.plans.AllNodesScan
+import org.neo4j.cypher.internal.logical.plans.AntiConditionalApply
+import org.neo4j.cypher.internal.logical.plans.Apply
+import org.neo4j.cypher.internal.logical.plans.Argument
+import org.neo4j.cypher.internal.logical.plans.DoNotGetValue
+import org.neo4j.cypher.internal.logical.plans.Eager
+import org.neo4j.cypher.internal.logical.plans.Expand
+import org.neo4j.cypher.internal.logical.plans.IndexOrderNone
+import org.neo4j.cypher.internal.logical.plans.IndexedProperty
+import org.neo4j.cypher.internal.logical.plans.MergeCreateNode
+import org.neo4j.cypher.internal.logical.plans.NodeIndexSeek
+import org.neo4j.cypher.internal.logical.plans.Optional
+import org.neo4j.cypher.internal.logical.plans.Selection
+import org.neo4j.cypher.internal.logical.plans.SetNodeProperty
+import org.neo4j.cypher.internal.logical.plans.SingleQueryExpression
+import org.neo4j.cypher.internal.logical.plans.UnwindCollection
+import org.neo4j.cypher.internal.util.LabelId
+import org.neo4j.cypher.internal.util.PropertyKeyId
+import org.neo4j.cypher.internal.util.attribution.SequentialIdGen
+import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+
+class BatchedPipeMapperTest extends CypherFunSuite with AstConstructionTestSupport {
+
+  private implicit val idGen: SequentialIdGen = new SequentialIdGen()
+
+  test("should batch the reads of a writing query when an eager separates them from the writes") {
+    // UNWIND [1, 2, 3] AS row MATCH (n) SET n.p = row, where all reads are done before the first write
+    val argument = Argument()
+    val unwind = UnwindCollection(argument, "row", listOfInt(1, 2, 3))
+    val scan = AllNodesScan("n", Set("row"))
+    val apply = Apply(unwind, scan)
+    val plan = SetNodeProperty(Eager(apply), "n", PropertyKeyName("p")(pos), varFor("row"))
+
+    BatchedPipeMapper.readOnlyBelowEager(plan) should equal(Set(argument.id, unwind.id, scan.id, apply.id))
+  }
+
+  test("should batch the scans, expands and filters of a writing query below an eager") {
+    // MATCH (a)-->(b) WHERE a.p > 0 SET b.p = a.p
+    val scan = AllNodesScan("a", Set.empty)
+    val expand = Expand(scan, "a", SemanticDirection.OUTGOING, Seq.empty, "b", "r")
+    val selection = Selection(Seq(greaterThan(prop("a", "p"), literalInt(0))), expand)
+    val plan = SetNodeProperty(Eager(selection), "b", PropertyKeyName("p")(pos), prop("a", "p"))
+
+    BatchedPipeMapper.readOnlyBelowEager(plan) should equal(Set(scan.id, expand.id, selection.id))
+  }
+
+  test("should not batch the reads of a writing query without an eager") {
+    val apply = Apply(UnwindCollection(Argument(), "row", listOfInt(1, 2, 3)), AllNodesScan("n", Set("row")))
+    val plan = SetNodeProperty(apply, "n", PropertyKeyName("p")(pos), varFor("row"))
+
+    BatchedPipeMapper.readOnlyBelowEager(plan) shouldBe empty
+  }
+
+  test("should not batch below an eager which has writes below it") {
+    val apply = Apply(UnwindCollection(Argument(), "row", listOfInt(1, 2, 3)), AllNodesScan("n", Set("row")))
+    val plan = Eager(SetNodeProperty(apply, "n", PropertyKeyName("p")(pos), varFor("row")))
+
+    BatchedPipeMapper.readOnlyBelowEager(plan) shouldBe empty
+  }
+
+  test("should batch the index seeks under apply of a writing query without an eager") {
+    // UNWIND $rows AS row MATCH (n:L {p: row}) SET n.q = row
+    val apply = Apply(UnwindCollection(Argument(), "row", listOfInt(1, 2, 3)), seek("row"))
+    val plan = SetNodeProperty(apply, "n", PropertyKeyName("q")(pos), varFor("row"))
+
+    BatchedPipeMapper.readOnlySeekApplies(plan) should equal(Set(apply.id))
+  }
+
+  test("should not batch the index seeks of a merge") {
+    // UNWIND $rows AS row MERGE (n:L {p: row})
+    val read = Optional(Apply(Argument(Set("row")), seek("row")), Set("row"))
+    val create = MergeCreateNode(Argument(Set("row")), "n", Seq(labelName("L")), None)
+    val plan = Apply(UnwindCollection(Argument(), "row", listOfInt(1, 2, 3)), AntiConditionalApply(read, create, Seq("n")))
+
+    BatchedPipeMapper.readOnlySeekApplies(plan) shouldBe empty
+  }
+
+  private def seek(key: String) =
+    NodeIndexSeek("n", LabelToken("L", LabelId(0)), Seq(IndexedProperty(PropertyKeyToken("p", PropertyKeyId(0)), DoNotGetValue)),
+      SingleQueryExpression(varFor(key)), Set(key), IndexOrderNone)
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Add
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Literal
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Variable
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.LessThan
+import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+import org.neo4j.values.storable.Values.intValue
+
+class BatchedPipeTest extends CypherFunSuite {
+
+  private val input = (0 until 10).map(i => Map("x" -> i))
+
+  test("should filter and project in batches") {
+    val rowByRow = pipes(batchSize = 0).createResults(QueryStateHelper.empty).map(_.getByName("y")).toList
+    val batched = pipes(batchSize = 3).createResults(QueryStateHelper.empty).map(_.getByName("y")).toList
+
+    rowByRow should equal((1 to 7).map(intValue).toList)
+    batched should equal(rowByRow)
+  }
+
+  test("should pass batches between batched pipes") {
+    val batches = Iterator(batchOf(1, 2), batchOf(3))
+    val rows = RowBatch.rows(batches)
+
+    RowBatch.batches(rows, 10) should be theSameInstanceAs batches
+  }
+
+  test("should not pass batches once rows have been pulled") {
+    val rows = RowBatch.rows(Iterator(batchOf(1, 2), batchOf(3)))
+    rows.next()
+
+    RowBatch.batches(rows, 10).map(_.size).toList should equal(List(2))
+  }
+
+  test("should skip empty batches") {
+    RowBatch.rows(Iterator(batchOf(), batchOf(1), batchOf())).map(_.getByName("x")).toList should equal(List(intValue(1)))
+  }
+
+  private def pipes(batchSize: Int): Pipe = {
+    val filter = FilterPipe(new FakePipe(input), LessThan(Variable("x"), Literal(7)))()
+    filter.batchSize = batchSize
+    val projection = ProjectionPipe(filter, Map("y" -> Add(Variable("x"), Literal(1))))
+    projection.batchSize = batchSize
+    projection
+  }
+
+  private def batchOf(xs: Int*): RowBatch = {
+    val batch = new RowBatch(3)
+    xs.foreach(x => batch.add(CypherRow.from("x" -> intValue(x))))
+    batch
+  }
+}
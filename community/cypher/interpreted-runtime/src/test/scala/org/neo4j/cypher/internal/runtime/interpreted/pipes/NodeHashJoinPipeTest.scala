@@ -23,12 +23,14 @@ import org.mockito.ArgumentMatchers.any
 import org.mockito.Mockito.never
 import org.mockito.Mockito.verify
 import org.mockito.Mockito.when
+import org.neo4j.cypher.internal.runtime.BoundedMemoryTracker
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
 import org.neo4j.cypher.internal.runtime.ImplicitValueConversion.toNodeValue
 import org.neo4j.cypher.internal.runtime.interpreted.TestableIterator
 import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
 import org.neo4j.graphdb.Node
+import org.neo4j.memory.LocalMemoryTracker
 import org.neo4j.values.AnyValue
 
 class NodeHashJoinPipeTest extends CypherFunSuite {
@@ -91,6 +93,30 @@ class NodeHashJoinPipeTest extends CypherFunSuite {
     lhsIterator.fetched should equal(0)
   }
 
+  test("should release the memory of the probe table once the result is exhausted") {
+    // given
+    val transactionMemoryTracker = new LocalMemoryTracker()
+    val queryState = QueryStateHelper.emptyWith(memoryTracker = BoundedMemoryTracker(transactionMemoryTracker))
+
+    val node1 = newMockedNode(1)
+    val node2 = newMockedNode(2)
+
+    val left = mock[Pipe]
+    when(left.createResults(queryState)).thenReturn(Iterator(row("b" -> node1), row("b" -> node2), row("b" -> node1)))
+
+    val right = mock[Pipe]
+    when(right.createResults(queryState)).thenReturn(Iterator(row("b" -> node1), row("b" -> node2)))
+
+    // when
+    val result = NodeHashJoinPipe(Set("b"), left, right)().createResults(queryState)
+
+    // then
+    result.hasNext shouldBe true
+    transactionMemoryTracker.estimatedHeapMemory() should be > 0L
+    result.toList should have size 3
+    transactionMemoryTracker.estimatedHeapMemory() shouldBe 0L
+  }
+
   private def row(values: (String, AnyValue)*) = CypherRow.from(values: _*)
 
   private def newMockedNode(id: Int) = {
@@ -19,6 +19,9 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import java.nio.file.Files
+import java.nio.file.Path
+
 import org.junit.Assert.assertEquals
 import org.neo4j.cypher.internal.runtime.interpreted.Ascending
 import org.neo4j.cypher.internal.runtime.interpreted.Descending
@@ -26,6 +29,7 @@ import org.neo4j.cypher.internal.runtime.interpreted.InterpretedExecutionContext
 import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
 import org.neo4j.cypher.internal.runtime.interpreted.ValueComparisonHelper.beEquivalentTo
 import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+import org.neo4j.io.fs.FileUtils
 import org.neo4j.values.storable.Values
 import org.neo4j.values.storable.Values.intValue
 import org.scalatest.mockito.MockitoSugar
@@ -91,4 +95,51 @@ class SortPipeTest extends CypherFunSuite with MockitoSugar {
       Map("y" -> intValue(2)),
       Map("y" -> Values.NO_VALUE)))
   }
+
+  test("should sort on disk when input exceeds the memory budget") {
+    val list = (0 until 1000).reverse.map(i => Map[String, Any]("x" -> i, "y" -> s"row $i", "z" -> Array(i, i + 1)))
+    val source = new FakePipe(list)
+    val sortPipe = SortPipe(source, InterpretedExecutionContextOrdering.asComparator(List(Ascending("x"))))()
+    val state = QueryStateHelper.emptyWithMemoryBudget(10000)
+
+    val result = sortPipe.createResults(state)
+    state.query.resources.allResources should not be empty
+
+    result.map(ctx => (ctx.getByName("x"), ctx.getByName("y"), ctx.getByName("z"))).toList should equal(
+      (0 until 1000).map(i => (intValue(i), Values.stringValue(s"row $i"), Values.intArray(Array(i, i + 1)))).toList)
+    state.query.resources.allResources shouldBe empty
+  }
+
+  test("should spill to the spill directory of the query and delete the files when the input fails") {
+    val spillDirectory = Files.createTempDirectory("spill")
+    try {
+      val state = QueryStateHelper.emptyWithMemoryBudget(10000, Some(spillDirectory))
+      var spilledFiles = 0L
+      val input = (0 until 1000).reverse.map(i => Map[String, Any]("x" -> i, "y" -> s"row $i")).iterator.map { row =>
+        if (row("x") == 0) {
+          spilledFiles = fileCount(spillDirectory)
+          throw new IllegalStateException("input failed")
+        }
+        row
+      }
+      val sortPipe = SortPipe(new FakePipe(input), InterpretedExecutionContextOrdering.asComparator(List(Ascending("x"))))()
+
+      intercept[IllegalStateException](sortPipe.createResults(state))
+
+      spilledFiles should be > 0L
+      fileCount(spillDirectory) shouldBe 0L
+      state.query.resources.allResources shouldBe empty
+    } finally {
+      FileUtils.deletePathRecursively(spillDirectory)
+    }
+  }
+
+  private def fileCount(directory: Path): Long = {
+    val files = Files.list(directory)
+    try {
+      files.count()
+    } finally {
+      files.close()
+    }
+  }
 }
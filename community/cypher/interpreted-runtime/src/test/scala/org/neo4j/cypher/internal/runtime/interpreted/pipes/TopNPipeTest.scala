@@ -111,6 +111,17 @@ class TopNPipeTest extends CypherFunSuite {
     result should equal(list(10,null))
   }
 
+  test("should sort on disk when top rows exceed the memory budget") {
+    val in = (0 until 1000).map(i => Map("a" -> i)).reverse
+    val input = new FakePipe(in)
+    val state = QueryStateHelper.emptyWithMemoryBudget(10000)
+
+    val pipe = TopNPipe(input, Literal(500), InterpretedExecutionContextOrdering.asComparator(List(Ascending("a"))))()
+    val result = pipe.createResults(state).map(ctx => ctx.getByName("a")).toList
+
+    result should equal(list(0 until 500: _*))
+  }
+
   private def list(a: Any*) = a.map(ValueUtils.of).toList
 
   private def createFakePipeWith(count: Int): FakePipe = {
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation
+
+import org.mockito.ArgumentMatchers.any
+import org.mockito.Mockito.when
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.AggregationExpression
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Avg
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Collect
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.CountStar
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Distinct
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Max
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Sum
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Variable
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.AggregatingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.CommunityExecutionContextFactory
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.DistinctPipe.GroupingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+import org.neo4j.memory.MemoryLimitExceeded
+import org.neo4j.values.storable.Values.intValue
+import org.neo4j.values.storable.Values.longValue
+import org.neo4j.values.virtual.VirtualValues
+
+class SpillingGroupingAggTableTest extends CypherFunSuite {
+
+  private val groupingColumns = Array(GroupingCol("x", Variable("x")))
+  private val aggregations = Array(AggregatingCol("count", CountStar()))
+  private val collectAggregations = Array(AggregatingCol("ys", Collect(Variable("y"))))
+
+  test("should aggregate in memory without writing to disk within the memory budget") {
+    val state = QueryStateHelper.emptyWithMemoryBudget(0)
+
+    val table = fill(state, 1000, 200)
+    table shouldBe a[SpillingGroupingAggTable]
+    state.query.resources.allResources shouldBe empty
+
+    table.result().map(row => row.getByName("x") -> row.getByName("count")).toMap should equal((0 until 200).map(x => intValue(x) -> longValue(5)).toMap)
+  }
+
+  test("should use the in-memory table without memory tracking") {
+    fill(QueryStateHelper.empty, 10, 2) should not be a[SpillingGroupingAggTable]
+  }
+
+  test("should use the in-memory table when an aggregation function can't be spilled") {
+    val state = QueryStateHelper.emptyWithMemoryBudget(0)
+    val udaf = mock[AggregationExpression]
+    when(udaf.createAggregationFunction(any())).thenReturn(new CountStarFunction {
+      override def spillable: Boolean = false
+    })
+
+    fill(state, 10, 2, Array(AggregatingCol("udaf", udaf))) should not be a[SpillingGroupingAggTable]
+  }
+
+  test("should spill groups that don't fit in the memory budget") {
+    val state = QueryStateHelper.emptyWithMemoryBudget(1000)
+
+    val table = fill(state, 1000, 200)
+    state.query.resources.allResources should not be empty
+
+    table.result().map(row => row.getByName("x") -> row.getByName("count")).toMap should equal((0 until 200).map(x => intValue(x) -> longValue(5)).toMap)
+    state.query.resources.allResources shouldBe empty
+  }
+
+  test("should fail when not even one group fits in the memory budget") {
+    val state = QueryStateHelper.emptyWithMemoryBudget(1)
+
+    a[MemoryLimitExceeded] should be thrownBy aggregate(state, 10, 2)
+  }
+
+  test("should spill groups whose aggregation doesn't fit in the memory budget") {
+    val state = QueryStateHelper.emptyWithMemoryBudget(4000)
+
+    val table = fill(state, 2000, 20, collectAggregations)
+    state.query.resources.allResources should not be empty
+
+    table.result().map(row => row.getByName("x") -> row.getByName("ys")).toMap should equal(
+      (0 until 20).map(x => intValue(x) -> VirtualValues.list((x until 2000 by 20).map(y => intValue(y)): _*)).toMap)
+    state.query.resources.allResources shouldBe empty
+  }
+
+  test("should restore the partial state of spilled groups") {
+    val aggregations = Array(
+      AggregatingCol("sum", Sum(Variable("y"))),
+      AggregatingCol("avg", Avg(Variable("y"))),
+      AggregatingCol("max", Max(Variable("y"))),
+      AggregatingCol("ys", Distinct(Collect(Variable("y")), Variable("y"))))
+    def result(state: QueryState) =
+      fill(state, 2000, 100, aggregations).result().map(row => row.getByName("x") -> aggregations.map(a => row.getByName(a.key)).toSeq).toMap
+
+    val state = QueryStateHelper.emptyWithMemoryBudget(4000)
+    result(state) should equal(result(QueryStateHelper.empty))
+    state.query.resources.allResources shouldBe empty
+  }
+
+  test("should fail when the aggregation of a single group doesn't fit in the memory budget") {
+    val state = QueryStateHelper.emptyWithMemoryBudget(4000)
+
+    a[MemoryLimitExceeded] should be thrownBy fill(state, 2000, 1, collectAggregations)
+  }
+
+  private def aggregate(state: QueryState, rows: Int, groups: Int) =
+    fill(state, rows, groups).result().map(row => row.getByName("x") -> row.getByName("count")).toMap
+
+  private def fill(state: QueryState, rows: Int, groups: Int, aggregations: Array[AggregatingCol] = aggregations) = {
+    val table = GroupingAggTable.Factory(groupingColumns, AggregationPipe.computeGroupingFunction(groupingColumns), aggregations)
+      .table(state, CommunityExecutionContextFactory(), Id(0))
+    table.clear()
+    (0 until rows).foreach(i => table.processRow(CypherRow.from("x" -> intValue(i % groups), "y" -> intValue(i))))
+    table
+  }
+}
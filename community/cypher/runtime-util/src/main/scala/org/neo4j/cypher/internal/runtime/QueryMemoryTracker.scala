@@ -161,11 +161,12 @@ object BoundedMemoryTracker {
     override def releaseNative(bytes: Long): Unit = transactionMemoryTracker.releaseNative(bytes)
 
     override def allocateHeap(bytes: Long): Unit = {
+      // Allocate on the transaction first, so that nothing is counted for this operator if it exceeds the limit
+      transactionMemoryTracker.allocateHeap(bytes)
       _allocatedBytes += bytes
       if (_allocatedBytes > _highWaterMark) {
         _highWaterMark = _allocatedBytes
       }
-      transactionMemoryTracker.allocateHeap(bytes)
     }
 
     override def releaseHeap(bytes: Long): Unit = {
@@ -55,6 +55,7 @@ import org.neo4j.internal.batchimport.input.csv.DataFactory;
 import org.neo4j.internal.batchimport.staging.ExecutionMonitor;
 import org.neo4j.internal.batchimport.staging.ExecutionMonitors;
 import org.neo4j.internal.batchimport.staging.SpectrumExecutionMonitor;
+import org.neo4j.internal.batchimport.store.DatabaseNotEmptyException;
 import org.neo4j.io.fs.DefaultFileSystemAbstraction;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.FileSystemUtils;
@@ -63,6 +64,10 @@ import org.neo4j.io.os.OsBeanUtil;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.store.format.RecordFormatSelector;
 import org.neo4j.kernel.internal.Version;
+import org.neo4j.kernel.internal.locker.DatabaseLocker;
+import org.neo4j.kernel.internal.locker.FileLockException;
+import org.neo4j.kernel.internal.locker.Locker;
+import org.neo4j.kernel.recovery.Recovery;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.logging.NullLogProvider;
 import org.neo4j.logging.internal.SimpleLogService;
@@ -103,6 +108,7 @@ class CsvImporter implements Importer
     private final long badTolerance;
     private final boolean normalizeTypes;
     private final boolean verbose;
+    private final boolean incremental;
     private final Map<Set<String>, List<File[]>> nodeFiles;
     private final Map<String, List<File[]>> relationshipFiles;
     private final FileSystemAbstraction fileSystem;
@@ -126,6 +132,7 @@ class CsvImporter implements Importer
         this.badTolerance = b.badTolerance;
         this.normalizeTypes = b.normalizeTypes;
         this.verbose = b.verbose;
+        this.incremental = b.incremental;
         this.nodeFiles = requireNonNull( b.nodeFiles );
         this.relationshipFiles = requireNonNull( b.relationshipFiles );
         this.fileSystem = requireNonNull( b.fileSystem );
@@ -137,6 +144,19 @@ class CsvImporter implements Importer
     @Override
     public void doImport() throws IOException
     {
+        if ( incremental )
+        {
+            if ( !relationshipFiles.isEmpty() )
+            {
+                throw new IllegalArgumentException( "Only nodes can be imported into an existing database, relationships can't yet" );
+            }
+            if ( idType == IdType.ACTUAL )
+            {
+                throw new IllegalArgumentException( "Nodes can't be imported into an existing database with id type " + IdType.ACTUAL +
+                        " since they could overwrite existing nodes" );
+            }
+        }
+
         try ( OutputStream badOutput = new BufferedOutputStream( fileSystem.openAsOutputStream( reportFile, false ) );
                 Collector badCollector = getBadCollector( skipBadEntriesLogging, badOutput ) )
         {
@@ -159,11 +179,26 @@ class CsvImporter implements Importer
     private void doImport( Input input, Collector badCollector )
     {
         boolean success = false;
+        boolean importStarted = false;
+        boolean storeUntouched = false;
 
         File internalLogFile = databaseConfig.get( store_internal_log_path ).toFile();
         try ( JobScheduler jobScheduler = createInitialisedScheduler();
-                OutputStream outputStream = FileSystemUtils.createOrOpenAsOutputStream( fileSystem, internalLogFile, true ) )
+                OutputStream outputStream = FileSystemUtils.createOrOpenAsOutputStream( fileSystem, internalLogFile, true );
+                Locker locker = incremental ? new DatabaseLocker( fileSystem, databaseLayout ) : null )
         {
+            if ( incremental )
+            {
+                // The existing database must be stopped and must not have anything left to recover, since the import
+                // replaces its store files and keeps its transaction logs as they are
+                locker.checkLock();
+                if ( Recovery.isRecoveryRequired( fileSystem, databaseLayout, databaseConfig ) )
+                {
+                    throw new IllegalStateException( databaseLayout.databaseDirectory() + " needs recovery, start and stop the database " +
+                            "before importing into it" );
+                }
+            }
+
             LogProvider logProvider = Util.configuredLogProvider( databaseConfig, outputStream );
 
             ExecutionMonitor executionMonitor = verbose ? new SpectrumExecutionMonitor( 2, TimeUnit.SECONDS, stdOut,
@@ -184,12 +219,22 @@ class CsvImporter implements Importer
 
             printOverview( databaseLayout.databaseDirectory(), nodeFiles, relationshipFiles, importConfig, stdOut );
 
-            importer.doImport( input );
+            importStarted = true;
+            if ( incremental )
+            {
+                importer.doIncrementalImport( input );
+            }
+            else
+            {
+                importer.doImport( input );
+            }
 
             success = true;
         }
         catch ( Exception e )
         {
+            // A failed incremental import leaves the existing store files as they were, since it imports into a copy of them
+            storeUntouched = !importStarted || incremental || e instanceof DatabaseNotEmptyException;
             throw andPrintError( "Import error", e, verbose, stdErr );
         }
         finally
@@ -204,7 +249,7 @@ class CsvImporter implements Importer
                 }
             }
 
-            if ( !success )
+            if ( !success && !storeUntouched )
             {
                 stdErr.println( "WARNING Import failed. The store files in " + databaseLayout.databaseDirectory().getAbsolutePath() +
                         " are left as they are, although they are likely in an unusable state. " +
@@ -227,6 +272,16 @@ class CsvImporter implements Importer
         {
             printErrorMessage( "Duplicate input ids that would otherwise clash can be put into separate id space.", e, stackTrace, err );
         }
+        else if ( DatabaseNotEmptyException.class.equals( e.getClass() ) )
+        {
+            printErrorMessage( "Import creates a new database unless --incremental is used, and the existing store files have been " +
+                    "left untouched. Nodes can be added to an existing, stopped database with --incremental, other data using Cypher, " +
+                    "e.g. LOAD CSV, or by importing everything again into a new database.", e, stackTrace, err );
+        }
+        else if ( FileLockException.class.equals( e.getClass() ) )
+        {
+            printErrorMessage( "The database is in use, it must be stopped before importing into it.", e, stackTrace, err );
+        }
         else if ( MissingRelationshipDataException.class.equals( e.getClass() ) )
         {
             printErrorMessage( "Relationship missing mandatory field", e, stackTrace, err );
@@ -400,6 +455,7 @@ class CsvImporter implements Importer
         private long badTolerance;
         private boolean normalizeTypes;
         private boolean verbose;
+        private boolean incremental;
         private final Map<Set<String>, List<File[]>> nodeFiles = new HashMap<>();
         private final Map<String, List<File[]>> relationshipFiles = new HashMap<>();
         private FileSystemAbstraction fileSystem = new DefaultFileSystemAbstraction();
@@ -491,6 +547,12 @@ class CsvImporter implements Importer
             return this;
         }
 
+        Builder withIncremental( boolean incremental )
+        {
+            this.incremental = incremental;
+            return this;
+        }
+
         Builder addNodeFiles( Set<String> labels, File[] files )
         {
             final var list = nodeFiles.computeIfAbsent( labels, unused -> new ArrayList<>() );
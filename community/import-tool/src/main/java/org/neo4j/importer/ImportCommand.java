@@ -189,6 +189,13 @@ public class ImportCommand extends AbstractCommand
             description = "Whether or not to normalize property types to Cypher types, e.g. 'int' becomes 'long' and 'float' becomes 'double'" )
     private boolean normalizeTypes = true;
 
+    @Option( names = "--incremental", arity = "0..1", showDefaultValue = ALWAYS, paramLabel = "<true/false>",
+            description = "Whether or not to add the imported nodes to an existing database instead of creating a new one. The database must be " +
+                    "stopped. Node ids are matched against the id properties of existing nodes, so that nodes which already exist are treated " +
+                    "as duplicates. This is a first stage which only adds nodes: relationships can't be imported this way, and schema indexes " +
+                    "are rebuilt when the database starts rather than updated." )
+    private boolean incremental;
+
     @Option( names = "--nodes", required = true, arity = "1..*", converter = NodeFilesConverter.class, paramLabel = "[<label>[:<label>]...=]<files>",
             description = "Node CSV header and data. Multiple files will be logically seen as one big file from the perspective of the importer. The first " +
                     "line must contain the header. Multiple data sources like these can be specified in one import, where each data source has its " +
@@ -234,6 +241,7 @@ public class ImportCommand extends AbstractCommand
                     .withSkipBadEntriesLogging( skipBadEntriesLogging )
                     .withSkipBadRelationships( skipBadRelationships )
                     .withNormalizeTypes( normalizeTypes )
+                    .withIncremental( incremental )
                     .withVerbose( verbose );
 
             nodes.forEach( n -> {
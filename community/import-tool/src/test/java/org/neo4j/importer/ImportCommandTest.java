@@ -69,11 +69,12 @@ class ImportCommandTest
                         "" + lineSeparator() +
                         "import [--verbose] [--cache-on-heap[=<true/false>]] [--high-io[=<true/false>]]" + lineSeparator() +
                         "       [--ignore-empty-strings[=<true/false>]] [--ignore-extra-columns" + lineSeparator() +
-                        "       [=<true/false>]] [--legacy-style-quoting[=<true/false>]]" + lineSeparator() +
-                        "       [--multiline-fields[=<true/false>]] [--normalize-types[=<true/false>]]" + lineSeparator() +
-                        "       [--skip-bad-entries-logging[=<true/false>]] [--skip-bad-relationships" + lineSeparator() +
-                        "       [=<true/false>]] [--skip-duplicate-nodes[=<true/false>]] [--trim-strings" + lineSeparator() +
-                        "       [=<true/false>]] [--additional-config=<path>] [--array-delimiter=<char>]" + lineSeparator() +
+                        "       [=<true/false>]] [--incremental[=<true/false>]] [--legacy-style-quoting" + lineSeparator() +
+                        "       [=<true/false>]] [--multiline-fields[=<true/false>]] [--normalize-types" + lineSeparator() +
+                        "       [=<true/false>]] [--skip-bad-entries-logging[=<true/false>]]" + lineSeparator() +
+                        "       [--skip-bad-relationships[=<true/false>]] [--skip-duplicate-nodes" + lineSeparator() +
+                        "       [=<true/false>]] [--trim-strings[=<true/false>]]" + lineSeparator() +
+                        "       [--additional-config=<path>] [--array-delimiter=<char>]" + lineSeparator() +
                         "       [--bad-tolerance=<num>] [--database=<database>] [--delimiter=<char>]" + lineSeparator() +
                         "       [--id-type=<STRING|INTEGER|ACTUAL>] [--input-encoding=<character-set>]" + lineSeparator() +
                         "       [--max-memory=<size>] [--processors=<num>] [--quote=<char>]" + lineSeparator() +
@@ -212,6 +213,17 @@ class ImportCommandTest
                         "                               Cypher types, e.g. 'int' becomes 'long' and" + lineSeparator() +
                         "                               'float' becomes 'double'" + lineSeparator() +
                         "                               Default: true" + lineSeparator() +
+                        "      --incremental[=<true/false>]" + lineSeparator() +
+                        "                             Whether or not to add the imported nodes to an" + lineSeparator() +
+                        "                               existing database instead of creating a new one." + lineSeparator() +
+                        "                               The database must be stopped. Node ids are" + lineSeparator() +
+                        "                               matched against the id properties of existing" + lineSeparator() +
+                        "                               nodes, so that nodes which already exist are" + lineSeparator() +
+                        "                               treated as duplicates. This is a first stage" + lineSeparator() +
+                        "                               which only adds nodes: relationships can't be" + lineSeparator() +
+                        "                               imported this way, and schema indexes are rebuilt" + lineSeparator() +
+                        "                               when the database starts rather than updated." + lineSeparator() +
+                        "                               Default: false" + lineSeparator() +
                         "      --nodes=[<label>[:<label>]...=]<files>..." + lineSeparator() +
                         "                             Node CSV header and data. Multiple files will be" + lineSeparator() +
                         "                               logically seen as one big file from the" + lineSeparator() +
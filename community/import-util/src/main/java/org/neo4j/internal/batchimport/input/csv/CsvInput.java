@@ -39,6 +39,7 @@ import org.neo4j.csv.reader.MultiReadable;
 import org.neo4j.internal.batchimport.InputIterable;
 import org.neo4j.internal.batchimport.InputIterator;
 import org.neo4j.internal.batchimport.input.Collector;
+import org.neo4j.internal.batchimport.input.Group;
 import org.neo4j.internal.batchimport.input.Groups;
 import org.neo4j.internal.batchimport.input.IdType;
 import org.neo4j.internal.batchimport.input.Input;
@@ -73,6 +74,7 @@ public class CsvInput implements Input
     private final Configuration config;
     private final Monitor monitor;
     private final Groups groups;
+    private final Map<Group,Set<String>> nodeIdPropertyKeys = new HashMap<>();
 
     /**
      * @param nodeDataFactory multiple {@link DataFactory} instances providing data, each {@link DataFactory}
@@ -132,8 +134,19 @@ public class CsvInput implements Input
                 try ( CharSeeker dataStream = charSeeker( new MultiReadable( dataFactory.create( config ).stream() ), config, true ) )
                 {
                     // Parsing and constructing this header will create this group,
-                    // so no need to do something with the result of it right now
-                    nodeHeaderFactory.create( dataStream, config, idType, groups, NO_MONITOR );
+                    // so only remember which properties, if any, the ids of the group are stored in
+                    Header header = nodeHeaderFactory.create( dataStream, config, idType, groups, NO_MONITOR );
+                    for ( Header.Entry entry : header.entries() )
+                    {
+                        if ( entry.type() == Type.ID )
+                        {
+                            Set<String> propertyKeys = nodeIdPropertyKeys.computeIfAbsent( entry.group(), group -> new HashSet<>() );
+                            if ( entry.name() != null )
+                            {
+                                propertyKeys.add( entry.name() );
+                            }
+                        }
+                    }
                 }
             }
 
@@ -239,6 +252,12 @@ public class CsvInput implements Input
         return groups;
     }
 
+    @Override
+    public Map<Group,Set<String>> nodeIdPropertyKeys()
+    {
+        return nodeIdPropertyKeys;
+    }
+
     @Override
     public Estimates calculateEstimates( ToIntBiFunction<Value[],PageCursorTracer> valueSizeCalculator ) throws IOException
     {
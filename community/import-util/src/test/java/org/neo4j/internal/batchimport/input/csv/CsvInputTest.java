@@ -68,6 +68,7 @@ import org.neo4j.values.storable.TimeValue;
 import org.neo4j.values.storable.Values;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -285,6 +286,28 @@ public class CsvInputTest
         }
     }
 
+    @Test
+    public void shouldProvideNodeIdPropertyKeysPerGroup()
+    {
+        // GIVEN
+        DataFactory persons = data( "personId:ID(Person),name\n" +
+                                    "1,Jim\n" );
+        DataFactory employees = data( "employeeId:ID(Person),name\n" +
+                                      "2,Abathur\n" );
+        DataFactory units = data( ":ID(Unit),type\n" +
+                                  "3,zergling\n" );
+        Groups groups = new Groups();
+
+        // WHEN
+        Input input = new CsvInput( dataIterable( persons, employees, units ), defaultFormatNodeFileHeader(),
+                datas(), defaultFormatRelationshipFileHeader(), IdType.STRING, config(), NO_MONITOR, groups );
+
+        // THEN
+        assertEquals( 2, input.nodeIdPropertyKeys().size() );
+        assertEquals( asSet( "personId", "employeeId" ), input.nodeIdPropertyKeys().get( groups.get( "Person" ) ) );
+        assertEquals( emptySet(), input.nodeIdPropertyKeys().get( groups.get( "Unit" ) ) );
+    }
+
     @Test
     public void shouldProvideAdditiveLabels() throws Exception
     {
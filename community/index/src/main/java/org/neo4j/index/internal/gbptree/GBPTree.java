@@ -1381,6 +1381,32 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         return writer;
     }
 
+    /**
+     * Returns a {@link BulkLoader} able to fill this tree, which must be empty, with key/value pairs given in sorted order.
+     * Instead of inserting entries one by one from the root, which splits leaves and internal nodes as they fill up,
+     * the bulk loader appends entries to leaves left-to-right, moving on to the next leaf when the current one is filled
+     * to {@code fillFactor}, and adds a separator key to the internal level above for every new node, all the way up to the root.
+     * The new tree is made visible when the bulk loader is {@link BulkLoader#close() closed}.
+     * <p>
+     * The bulk loader excludes the {@link #writer(PageCursorTracer) writer} and checkpoints while open.
+     *
+     * @param fillFactor how full to make each tree node before moving on to the next, 0 &lt; fillFactor &lt;= 1.
+     * Leaving some space in every node makes later inserts less likely to cause splits.
+     * @param cursorTracer underlying page cursor tracer
+     * @return a {@link BulkLoader} to add sorted entries to. It must be {@link BulkLoader#close() closed} after usage.
+     * @throws IOException on error accessing the index.
+     * @throws IllegalStateException if the tree isn't empty.
+     */
+    public BulkLoader<KEY,VALUE> bulkLoader( double fillFactor, PageCursorTracer cursorTracer ) throws IOException
+    {
+        assertNotReadOnly( "Open tree bulk loader." );
+        Preconditions.checkArgument( fillFactor > 0 && fillFactor <= 1, "Fill factor must be in range (0,1], but was %f", fillFactor );
+        TreeBulkLoader bulkLoader = new TreeBulkLoader( fillFactor, cursorTracer );
+        bulkLoader.initialize();
+        changesSinceLastCheckpoint = true;
+        return bulkLoader;
+    }
+
     private void setRoot( long rootId, long rootGeneration )
     {
         this.root = new Root( rootId, rootGeneration );
@@ -1770,6 +1796,247 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         }
     }
 
+    /**
+     * Builds the tree bottom-up from sorted entries, see {@link #bulkLoader(double, PageCursorTracer)}.
+     * There's one {@link LevelBuilder} per level of the tree being built, leaves first, each keeping a cursor
+     * on the right-most node of its level, which is the only node on that level that is still being filled.
+     * Nodes are never split, instead a full node gets a right sibling and the separator between them is
+     * added to the level above, which may in turn fill up that level and so on.
+     */
+    private class TreeBulkLoader implements BulkLoader<KEY,VALUE>
+    {
+        private final double fillFactor;
+        private final PageCursorTracer cursorTracer;
+        private final List<LevelBuilder> levels = new ArrayList<>();
+        private final KEY previousKey;
+        private final KEY splitter;
+        private boolean hasPreviousKey;
+        private boolean locked;
+        private boolean failed;
+        private boolean closed;
+
+        // Bulk loader can't live past a checkpoint because of the mutex with checkpoint,
+        // therefore safe to locally cache these generation fields from the volatile generation in the tree
+        private long stableGeneration;
+        private long unstableGeneration;
+
+        TreeBulkLoader( double fillFactor, PageCursorTracer cursorTracer )
+        {
+            this.fillFactor = fillFactor;
+            this.cursorTracer = cursorTracer;
+            this.previousKey = layout.newKey();
+            this.splitter = layout.newKey();
+        }
+
+        void initialize() throws IOException
+        {
+            boolean success = false;
+            try
+            {
+                // Block here until cleaning has completed, if cleaning was required
+                lock.writerAndCleanerLock();
+                locked = true;
+                assertRecoveryCleanSuccessful();
+                stableGeneration = stableGeneration( generation );
+                unstableGeneration = unstableGeneration( generation );
+                assertEmpty();
+                success = true;
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    failed = true;
+                    close();
+                }
+            }
+        }
+
+        private void assertEmpty() throws IOException
+        {
+            boolean isLeaf;
+            int keyCount;
+            try ( PageCursor cursor = openRootCursor( PF_SHARED_READ_LOCK, cursorTracer ) )
+            {
+                do
+                {
+                    isLeaf = TreeNode.isLeaf( cursor );
+                    keyCount = TreeNode.keyCount( cursor );
+                }
+                while ( cursor.shouldRetry() );
+                checkOutOfBounds( cursor );
+            }
+            if ( !isLeaf || keyCount != 0 )
+            {
+                throw new IllegalStateException( "Can only bulk load into an empty tree, but " + GBPTree.this + " has content" );
+            }
+        }
+
+        @Override
+        public void add( KEY key, VALUE value )
+        {
+            if ( hasPreviousKey && layout.compare( previousKey, key ) >= 0 )
+            {
+                throw new IllegalArgumentException( format( "Keys must be added in strictly increasing order, but %s was added after %s", key, previousKey ) );
+            }
+            bTreeNode.validateKeyValueSize( key, value );
+
+            boolean success = false;
+            try
+            {
+                if ( levels.isEmpty() )
+                {
+                    levels.add( new LevelBuilder( Type.LEAF ) );
+                }
+                LevelBuilder leaves = levels.get( 0 );
+                if ( leaves.keyCount > 0 && (bTreeNode.reachedFillFactor( leaves.cursor, leaves.keyCount, Type.LEAF, fillFactor ) ||
+                        bTreeNode.leafOverflow( leaves.cursor, leaves.keyCount, key, value ) != TreeNode.Overflow.NO) )
+                {
+                    layout.minimalSplitter( previousKey, key, splitter );
+                    long leftLeaf = leaves.cursor.getCurrentPageId();
+                    long rightLeaf = leaves.nextNode();
+                    addToParent( 1, splitter, leftLeaf, rightLeaf );
+                }
+                bTreeNode.insertKeyValueAt( leaves.cursor, key, value, leaves.keyCount, leaves.keyCount, stableGeneration, unstableGeneration,
+                        cursorTracer );
+                TreeNode.setKeyCount( leaves.cursor, ++leaves.keyCount );
+                layout.copyKey( key, previousKey );
+                hasPreviousKey = true;
+                success = true;
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    failed = true;
+                }
+            }
+        }
+
+        /**
+         * Adds {@code key} to the node currently being filled on the given internal level, with {@code rightChild} to the right of it.
+         * If that node is full, the key instead becomes the separator between it and a new right sibling, which starts out with
+         * {@code rightChild} as its only child, and is added to the level above.
+         */
+        private void addToParent( int level, KEY key, long leftChild, long rightChild ) throws IOException
+        {
+            if ( levels.size() == level )
+            {
+                LevelBuilder newLevel = new LevelBuilder( Type.INTERNAL );
+                bTreeNode.setChildAt( newLevel.cursor, leftChild, 0, stableGeneration, unstableGeneration );
+                levels.add( newLevel );
+                monitor.treeGrowth();
+            }
+
+            LevelBuilder internals = levels.get( level );
+            if ( internals.keyCount > 0 && (bTreeNode.reachedFillFactor( internals.cursor, internals.keyCount, Type.INTERNAL, fillFactor ) ||
+                    bTreeNode.internalOverflow( internals.cursor, internals.keyCount, key ) != TreeNode.Overflow.NO) )
+            {
+                long leftNode = internals.cursor.getCurrentPageId();
+                long rightNode = internals.nextNode();
+                bTreeNode.setChildAt( internals.cursor, rightChild, 0, stableGeneration, unstableGeneration );
+                addToParent( level + 1, key, leftNode, rightNode );
+            }
+            else
+            {
+                bTreeNode.insertKeyAndRightChildAt( internals.cursor, key, rightChild, internals.keyCount, internals.keyCount,
+                        stableGeneration, unstableGeneration, cursorTracer );
+                TreeNode.setKeyCount( internals.cursor, ++internals.keyCount );
+            }
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if ( closed )
+            {
+                throw new IllegalStateException( "Tried to close bulk loader of " + GBPTree.this + ", but bulk loader is already closed." );
+            }
+            closed = true;
+            try
+            {
+                // A bulk load that failed leaves the tree empty. Nodes it had already written are of the unstable generation
+                // and not reachable from the root, so they're simply left as garbage.
+                if ( !failed && !levels.isEmpty() )
+                {
+                    for ( LevelBuilder level : levels )
+                    {
+                        checkOutOfBounds( level.cursor );
+                    }
+                    long newRootId = levels.get( levels.size() - 1 ).cursor.getCurrentPageId();
+                    freeList.releaseId( stableGeneration, unstableGeneration, root.id(), cursorTracer );
+                    setRoot( newRootId, unstableGeneration );
+                }
+            }
+            finally
+            {
+                IOUtils.closeAll( levels );
+                levels.clear();
+                if ( locked )
+                {
+                    lock.writerAndCleanerUnlock();
+                }
+            }
+        }
+
+        private class LevelBuilder implements Closeable
+        {
+            private final Type type;
+            private final PageCursor cursor;
+            private int keyCount;
+
+            LevelBuilder( Type type ) throws IOException
+            {
+                this.type = type;
+                this.cursor = pagedFile.io( 0L /*ignored*/, PagedFile.PF_SHARED_WRITE_LOCK, cursorTracer );
+                goToNewNode( freeList.acquireNewId( stableGeneration, unstableGeneration, cursorTracer ) );
+            }
+
+            /**
+             * Moves on to a new node, linked as right sibling of the current node.
+             * @return id of the new node.
+             */
+            long nextNode() throws IOException
+            {
+                long leftSibling = cursor.getCurrentPageId();
+                long rightSibling = freeList.acquireNewId( stableGeneration, unstableGeneration, cursorTracer );
+                TreeNode.setRightSibling( cursor, rightSibling, stableGeneration, unstableGeneration );
+                goToNewNode( rightSibling );
+                TreeNode.setLeftSibling( cursor, leftSibling, stableGeneration, unstableGeneration );
+                return rightSibling;
+            }
+
+            private void goToNewNode( long newId ) throws IOException
+            {
+                PageCursorUtil.goTo( cursor, "new bulk loaded node", newId );
+                if ( type == Type.LEAF )
+                {
+                    bTreeNode.initializeLeaf( cursor, stableGeneration, unstableGeneration );
+                }
+                else
+                {
+                    bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+                }
+                keyCount = 0;
+            }
+
+            @Override
+            public void close()
+            {
+                cursor.close();
+            }
+        }
+    }
+
     /**
      * Total size limit for key and value.
      * This limit includes storage overhead that is specific to key implementation for example entity id or meta data about type.
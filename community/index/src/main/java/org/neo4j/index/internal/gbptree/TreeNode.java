@@ -357,6 +357,13 @@ abstract class TreeNode<KEY,VALUE>
 
     abstract boolean leafUnderflow( PageCursor cursor, int keyCount );
 
+    /**
+     * Has the node been filled up to the given fill factor, i.e. is the given ratio of its space used?
+     * Used when {@link GBPTree#bulkLoader(double, org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer) bulk loading}.
+     * @return true if node is filled to at least {@code fillFactor}, else false.
+     */
+    abstract boolean reachedFillFactor( PageCursor cursor, int keyCount, Type type, double fillFactor );
+
     /**
      * How do we best rebalance left and right leaf?
      * Can we move keys from underflowing left to right so that none of them underflow?
@@ -725,6 +725,12 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return stack.isEmpty() ? -1 : stack.pop();
     }
 
+    @Override
+    boolean reachedFillFactor( PageCursor cursor, int keyCount, Type type, double fillFactor )
+    {
+        return totalActiveSpace( cursor, keyCount, type ) >= totalSpace * fillFactor;
+    }
+
     @Override
     boolean leafUnderflow( PageCursor cursor, int keyCount )
     {
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.PageCacheSupportExtension;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.PageCacheConfig;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+@EphemeralTestDirectoryExtension
+class GBPTreeBulkLoaderTest
+{
+    @RegisterExtension
+    static PageCacheSupportExtension pageCacheExtension = new PageCacheSupportExtension( PageCacheConfig.config().withPageSize( 512 ) );
+    @Inject
+    private TestDirectory directory;
+    @Inject
+    private PageCache pageCache;
+
+    @ParameterizedTest
+    @CsvSource( {"true,1.0", "true,0.5", "false,1.0", "false,0.7", "false,0.01"} )
+    void shouldBuildTreeFromSortedEntries( boolean fixedSize, double fillFactor ) throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( fixedSize ).build();
+        int count = 20_000;
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // Every other key, so that there's room for more keys in between afterwards
+            try ( BulkLoader<MutableLong,MutableLong> bulkLoader = tree.bulkLoader( fillFactor, NULL ) )
+            {
+                for ( long i = 0; i < count; i++ )
+                {
+                    bulkLoader.add( layout.key( i * 2 ), layout.value( i * 2 ) );
+                }
+            }
+            assertTrue( tree.consistencyCheck( NULL ) );
+            assertKeys( tree, layout, count, 2 );
+
+            try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+            {
+                for ( long i = 0; i < count; i++ )
+                {
+                    writer.put( layout.key( i * 2 + 1 ), layout.value( i * 2 + 1 ) );
+                }
+            }
+            tree.checkpoint( IOLimiter.UNLIMITED, NULL );
+            assertTrue( tree.consistencyCheck( NULL ) );
+            assertKeys( tree, layout, count * 2, 1 );
+        }
+    }
+
+    @Test
+    void shouldNotChangeTreeIfNothingAdded() throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            tree.bulkLoader( 1, NULL ).close();
+
+            assertTrue( tree.consistencyCheck( NULL ) );
+            assertKeys( tree, layout, 0, 1 );
+        }
+    }
+
+    @Test
+    void shouldThrowOnKeysNotInIncreasingOrder() throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            try ( BulkLoader<MutableLong,MutableLong> bulkLoader = tree.bulkLoader( 1, NULL ) )
+            {
+                bulkLoader.add( layout.key( 0 ), layout.value( 0 ) );
+                assertThrows( IllegalArgumentException.class, () -> bulkLoader.add( layout.key( 0 ), layout.value( 0 ) ) );
+                bulkLoader.add( layout.key( 1 ), layout.value( 1 ) );
+                assertThrows( IllegalArgumentException.class, () -> bulkLoader.add( layout.key( 0 ), layout.value( 0 ) ) );
+            }
+
+            // Rejected keys are not added
+            assertKeys( tree, layout, 2, 1 );
+        }
+    }
+
+    @Test
+    void shouldRefuseToBulkLoadIntoNonEmptyTree() throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+            {
+                writer.put( layout.key( 1 ), layout.value( 1 ) );
+            }
+
+            assertThrows( IllegalStateException.class, () -> tree.bulkLoader( 1, NULL ) );
+
+            // The writer lock must have been released
+            try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+            {
+                writer.put( layout.key( 2 ), layout.value( 2 ) );
+            }
+        }
+    }
+
+    private static void assertKeys( GBPTree<MutableLong,MutableLong> tree, SimpleLongLayout layout, long count, long step ) throws IOException
+    {
+        try ( Seeker<MutableLong,MutableLong> seeker = tree.seek( layout.key( 0 ), layout.key( Long.MAX_VALUE ), NULL ) )
+        {
+            for ( long i = 0; i < count; i++ )
+            {
+                assertTrue( seeker.next() );
+                assertEquals( i * step, seeker.key().longValue() );
+                assertEquals( i * step, seeker.value().longValue() );
+            }
+            assertFalse( seeker.next() );
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * Decides which of the loaded pages the eviction clock arm should evict.
+ *
+ * The {@link MuninnPageCache} sweeps its pages in clock order, both in the background eviction thread and cooperatively
+ * in page faulting threads, and asks the policy about every loaded page it passes. The policy is also told about
+ * every page that is faulted in on demand, so it can remember which pages have been evicted and are coming back.
+ *
+ * All methods are called concurrently and without any locks held, so implementations must be benignly racy.
+ */
+interface EvictionPolicy
+{
+    /**
+     * Called by the clock arm for each loaded page it passes.
+     *
+     * @param pageRef the page the clock arm is pointing at.
+     * @return {@code true} if the page should be evicted.
+     */
+    boolean shouldEvict( long pageRef );
+
+    /**
+     * Called after the given page has been faulted in on demand, and bound to the given file page, while the page is
+     * still exclusively locked by the faulting thread.
+     *
+     * @param pageRef the page that was faulted.
+     * @param swapperId the id of the swapper the page is bound to.
+     * @param filePageId the file page the page is bound to.
+     */
+    void pageFaulted( long pageRef, int swapperId, long filePageId );
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+
+/**
+ * The page eviction policies supported by the {@link MuninnPageCache}.
+ */
+public enum EvictionPolicyType
+{
+    /**
+     * The classic CLOCK policy, where each page has a small usage counter that is incremented on access, and
+     * decremented when the clock arm passes it. A page is evicted when its counter reaches zero. A large scan will
+     * age out all the pages in the cache, no matter how often they have been used.
+     */
+    CLOCK
+            {
+                @Override
+                EvictionPolicy createPolicy( PageList pages, PageCacheTracer tracer )
+                {
+                    return new ClockEvictionPolicy( pages );
+                }
+            },
+    /**
+     * A scan resistant policy in the spirit of 2Q and CLOCK-Pro. Pages that have only been accessed once since they
+     * were faulted in are evicted ahead of pages that have been accessed repeatedly, and pages that come back shortly
+     * after having been evicted start out as frequently used. See {@link ScanResistantEvictionPolicy}.
+     */
+    SCAN_RESISTANT
+            {
+                @Override
+                EvictionPolicy createPolicy( PageList pages, PageCacheTracer tracer )
+                {
+                    return new ScanResistantEvictionPolicy( pages, tracer );
+                }
+            };
+
+    abstract EvictionPolicy createPolicy( PageList pages, PageCacheTracer tracer );
+}
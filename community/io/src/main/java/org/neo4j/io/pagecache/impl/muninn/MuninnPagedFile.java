@@ -22,6 +22,7 @@ package org.neo4j.io.pagecache.impl.muninn;
 import java.io.File;
 import java.io.Flushable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.channels.ClosedChannelException;
 import java.util.Arrays;
 
@@ -38,6 +39,7 @@ import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.io.pagecache.tracing.PinEvent;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 
@@ -59,11 +61,13 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     private static final long headerStateRefCountMask = 0x7FFF_0000_0000_0000L;
     private static final long headerStateLastPageIdMask = 0x8000_FFFF_FFFF_FFFFL;
     private static final int PF_LOCK_MASK = PF_SHARED_WRITE_LOCK | PF_SHARED_READ_LOCK;
+    private static final String TRACER_READ_AHEAD_TAG = "Read-ahead";
 
     final MuninnPageCache pageCache;
     final int filePageSize;
     private final PageCacheTracer pageCacheTracer;
     final LatchMap pageFaultLatches;
+    private final ReadAhead readAhead;
 
     // This is the table where we translate file-page-ids to cache-page-ids. Only one thread can perform a resize at
     // a time, and we ensure this mutual exclusion using the monitor lock on this MuninnPagedFile object.
@@ -123,6 +127,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         this.cursorFactory = new CursorFactory( this, versionContextSupplier );
         this.pageCacheTracer = pageCacheTracer;
         this.pageFaultLatches = new LatchMap();
+        this.readAhead = new ReadAhead();
 
         // The translation table is an array of arrays of integers that are either UNMAPPED_TTE, or the id of a page in
         // the page list. The table only grows the outer array, and all the inner "chunks" all stay the same size. This
@@ -185,7 +190,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         }
 
         cursor.rewind();
-        if ( ( pf_flags & PF_READ_AHEAD ) == PF_READ_AHEAD && ( pf_flags & PF_NO_FAULT ) != PF_NO_FAULT )
+        if ( !ReadAhead.ENABLED && ( pf_flags & PF_READ_AHEAD ) == PF_READ_AHEAD && ( pf_flags & PF_NO_FAULT ) != PF_NO_FAULT )
         {
             pageCache.startPreFetching( cursor, cursorFactory );
         }
@@ -682,6 +687,188 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         return pageCache.grabFreeAndExclusivelyLockedPage( faultEvent );
     }
 
+    /**
+     * Called by cursors after they have faulted in the given file page, so the {@link ReadAhead} engine can learn from
+     * the access pattern, and possibly start reading ahead of it in the background.
+     * @param filePageId The id of the file page that was faulted in.
+     * @param readAheadHint {@code true} if the cursor was opened with {@link #PF_READ_AHEAD}.
+     */
+    void pageFaulted( long filePageId, boolean readAheadHint )
+    {
+        if ( ReadAhead.ENABLED )
+        {
+            ReadAhead.Window window = readAhead.pageFaulted( filePageId, readAheadHint );
+            if ( window != null )
+            {
+                pageCache.startReadAhead( this, window );
+            }
+        }
+    }
+
+    void readAhead( ReadAhead.Window window )
+    {
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( TRACER_READ_AHEAD_TAG ) )
+        {
+            faultAhead( window.startFilePageId, window.stride, window.length, cursorTracer );
+        }
+        catch ( FileIsNotMappedException e )
+        {
+            // The file got unmapped while we were reading ahead, so there's nothing more to do.
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * Fault in the given number of file pages, the given stride apart, without pinning them to any cursor.
+     * <p>
+     * Pages that are already mapped, or are currently being faulted in by another thread, are skipped, since read-ahead
+     * never waits for anyone. Pages beyond the end of the file are never faulted. Runs of adjacent pages are read with a
+     * single vectored read through {@link PageSwapper#read(long, long[], int, int)}.
+     *
+     * @return the number of pages that were faulted in.
+     */
+    int faultAhead( long startFilePageId, long stride, int length, PageCursorTracer cursorTracer ) throws IOException
+    {
+        long lastPageId = getLastPageId();
+        int maxRun = stride == 1 ? length : 1;
+        long[] pageRefs = new long[maxRun];
+        long[] bufferAddresses = new long[maxRun];
+        LatchMap.Latch[] latches = new LatchMap.Latch[maxRun];
+        PinEvent[] pinEvents = new PinEvent[maxRun];
+        PageFaultEvent[] faultEvents = new PageFaultEvent[maxRun];
+        int faulted = 0;
+        int run = 0;
+        long runStart = 0;
+        for ( int i = 0; i < length; i++ )
+        {
+            long filePageId = startFilePageId + i * stride;
+            int chunkId = computeChunkId( filePageId );
+            int[][] tt = translationTable;
+            if ( filePageId < 0 || filePageId > lastPageId || chunkId >= tt.length )
+            {
+                break;
+            }
+            int[] chunk = tt[chunkId];
+            long chunkOffset = computeChunkOffset( filePageId );
+            LatchMap.Latch latch = null;
+            if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) == UNMAPPED_TTE )
+            {
+                latch = pageFaultLatches.tryTakeLatch( filePageId );
+                // Double-check that we didn't race with another page fault, just like the cursors do.
+                if ( latch != null && UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+                {
+                    latch.release();
+                    latch = null;
+                }
+            }
+            if ( latch == null )
+            {
+                // The page is either already mapped, or someone else is faulting it. Either way, our run ends here.
+                faulted += faultRun( pageRefs, bufferAddresses, latches, pinEvents, faultEvents, run, runStart );
+                run = 0;
+                continue;
+            }
+
+            PinEvent pinEvent = cursorTracer.beginPin( false, filePageId, swapper );
+            PageFaultEvent faultEvent = pinEvent.beginPageFault();
+            long pageRef;
+            try
+            {
+                pageRef = grabFreeAndExclusivelyLockedPage( faultEvent );
+            }
+            catch ( Throwable throwable )
+            {
+                latch.release();
+                faultEvent.done( throwable );
+                pinEvent.done();
+                abortRun( pageRefs, latches, pinEvents, faultEvents, run, throwable );
+                throw throwable;
+            }
+            if ( run == 0 )
+            {
+                runStart = filePageId;
+            }
+            pageRefs[run] = pageRef;
+            latches[run] = latch;
+            pinEvents[run] = pinEvent;
+            faultEvents[run] = faultEvent;
+            run++;
+            if ( run == maxRun )
+            {
+                faulted += faultRun( pageRefs, bufferAddresses, latches, pinEvents, faultEvents, run, runStart );
+                run = 0;
+            }
+        }
+        faulted += faultRun( pageRefs, bufferAddresses, latches, pinEvents, faultEvents, run, runStart );
+        return faulted;
+    }
+
+    private int faultRun( long[] pageRefs, long[] bufferAddresses, LatchMap.Latch[] latches, PinEvent[] pinEvents, PageFaultEvent[] faultEvents,
+            int length, long startFilePageId ) throws IOException
+    {
+        if ( length == 0 )
+        {
+            return 0;
+        }
+        long bytesRead;
+        try
+        {
+            // Check if we're racing with unmapping, while we hold the page locks. See MuninnPageCursor.pageFault.
+            getLastPageId();
+            for ( int i = 0; i < length; i++ )
+            {
+                initBuffer( pageRefs[i] );
+            }
+            if ( length == 1 )
+            {
+                fault( pageRefs[0], swapper, swapperId, startFilePageId, faultEvents[0] );
+                bytesRead = 0; // Already accounted for by the fault.
+            }
+            else
+            {
+                bytesRead = fault( pageRefs, bufferAddresses, length, swapper, swapperId, startFilePageId );
+            }
+        }
+        catch ( Throwable throwable )
+        {
+            abortRun( pageRefs, latches, pinEvents, faultEvents, length, throwable );
+            throw throwable;
+        }
+        int[][] tt = translationTable;
+        for ( int i = 0; i < length; i++ )
+        {
+            long filePageId = startFilePageId + i;
+            long pageRef = pageRefs[i];
+            // Publish the page before we let go of the exclusive lock, or we could race with eviction.
+            UnsafeUtil.putIntVolatile( tt[computeChunkId( filePageId )], computeChunkOffset( filePageId ), toId( pageRef ) );
+            unlockExclusive( pageRef );
+            latches[i].release();
+            long pageBytes = Math.min( bytesRead, filePageSize );
+            bytesRead -= pageBytes;
+            faultEvents[i].addBytesRead( pageBytes );
+            faultEvents[i].setCachePageId( toId( pageRef ) );
+            faultEvents[i].done();
+            pinEvents[i].done();
+        }
+        return length;
+    }
+
+    private void abortRun( long[] pageRefs, LatchMap.Latch[] latches, PinEvent[] pinEvents, PageFaultEvent[] faultEvents, int length,
+            Throwable throwable )
+    {
+        for ( int i = 0; i < length; i++ )
+        {
+            // Make sure to unlock the page, so the eviction thread can pick up our trash, and release the latch.
+            unlockExclusive( pageRefs[i] );
+            latches[i].release();
+            faultEvents[i].done( throwable );
+            pinEvents[i].done();
+        }
+    }
+
     /**
      * Remove the mapping of the given filePageId from the translation table, and return the evicted page object.
      * @param filePageId The id of the file page to evict.
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import static org.neo4j.util.FeatureToggles.flag;
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A pattern-learning read-ahead engine for a single {@link MuninnPagedFile}.
+ *
+ * The engine is told about every page fault on the file, and tries to match each fault to one of a small number of
+ * access streams. A stream is a sequence of faults that are a fixed number of pages apart – the stride – which can
+ * be positive for forward scans, negative for backward scans, and greater than one for strided access. Once the stride
+ * of a stream has been confirmed by a couple of faults, the engine asks for a window of pages ahead of the stream to
+ * be faulted in, in the background.
+ *
+ * The window is adaptive. If the next fault of the stream lands exactly on the page following the window, then the
+ * read-ahead covered everything the stream needed, and the window doubles. If the stream instead faults on a page that
+ * was part of a window, then the read-ahead was wasted, either because the page was evicted before it was used, or
+ * because the read-ahead was too slow, and the window is halved. A stream whose window collapses backs off from reading
+ * ahead for a while. Likewise, when the overall hit ratio of the read-ahead drops below one half, the maximum window
+ * size is cut for all streams.
+ *
+ * This class only decides what to read ahead. The actual faulting is done by
+ * {@link MuninnPagedFile#faultAhead(long, long, int, org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer)}.
+ * Each stream only asks for its next window once it has faulted past the previous one, so there is at most about one
+ * window in flight per stream. All methods are called with the monitor lock held, which is cheap compared to the page
+ * fault that precedes them.
+ */
+final class ReadAhead
+{
+    /**
+     * When enabled, this read-ahead engine replaces the {@link PreFetcher} for cursors opened with
+     * {@link org.neo4j.io.pagecache.PagedFile#PF_READ_AHEAD}, and also reads ahead for cursors that were not.
+     */
+    static final boolean ENABLED = flag( ReadAhead.class, "enabled", false );
+    private static final int maxWindow = getInteger( ReadAhead.class, "maxWindow", 64 );
+    private static final int maxStride = getInteger( ReadAhead.class, "maxStride", 16 );
+    private static final int STREAMS = 4;
+    private static final int INITIAL_WINDOW = 4;
+    private static final int CONFIRMATIONS = 2;
+    private static final int BACK_OFF_FAULTS = 64;
+    private static final int HIT_RATIO_SAMPLES = 256;
+    private static final long NONE = -1;
+
+    private final Stream[] streams;
+    private int nextVictim;
+    // The hits and misses are decayed every HIT_RATIO_SAMPLES samples, so they reflect the recent hit ratio.
+    private int recentHits;
+    private int recentMisses;
+    private long hits;
+    private long misses;
+    private long pagesRequested;
+
+    ReadAhead()
+    {
+        streams = new Stream[STREAMS];
+        for ( int i = 0; i < STREAMS; i++ )
+        {
+            streams[i] = new Stream();
+        }
+    }
+
+    /**
+     * Record that the given file page was faulted in by a cursor.
+     *
+     * @param filePageId the file page that was faulted.
+     * @param hinted {@code true} if the cursor was opened with {@link org.neo4j.io.pagecache.PagedFile#PF_READ_AHEAD},
+     * in which case we read ahead as soon as we know the direction of the scan.
+     * @return the window of pages that should be read ahead, or {@code null} if nothing should be read ahead.
+     */
+    synchronized Window pageFaulted( long filePageId, boolean hinted )
+    {
+        for ( Stream stream : streams )
+        {
+            if ( stream.expectedNext == filePageId )
+            {
+                // The read-ahead covered everything this stream needed, up until this fault.
+                recordHit();
+                stream.lastFault = filePageId;
+                if ( stream.backOff > 0 )
+                {
+                    stream.backOff--;
+                    stream.clearIssued();
+                    return null;
+                }
+                stream.window = Math.min( stream.window * 2, maxWindow );
+                return issue( stream, filePageId );
+            }
+            if ( stream.covers( filePageId ) )
+            {
+                // We read this page ahead, but it was either evicted before it was used, or we were too slow.
+                recordMiss();
+                stream.lastFault = filePageId;
+                stream.window = Math.max( stream.window / 2, 1 );
+                if ( stream.window == 1 )
+                {
+                    stream.backOff = BACK_OFF_FAULTS;
+                }
+                return null;
+            }
+            if ( stream.stride != 0 && filePageId == stream.lastFault + stream.stride )
+            {
+                stream.lastFault = filePageId;
+                stream.confirmations++;
+                if ( stream.backOff > 0 )
+                {
+                    stream.backOff--;
+                    return null;
+                }
+                return stream.confirmations >= CONFIRMATIONS ? issue( stream, filePageId ) : null;
+            }
+        }
+
+        for ( Stream stream : streams )
+        {
+            long stride = filePageId - stream.lastFault;
+            if ( stream.stride == 0 && stream.lastFault != NONE && stride != 0 && Math.abs( stride ) <= maxStride )
+            {
+                // A second fault close to the first one of a new stream; this tells us the stride of the stream.
+                stream.stride = stride;
+                stream.lastFault = filePageId;
+                stream.confirmations = 1;
+                return hinted ? issue( stream, filePageId ) : null;
+            }
+        }
+
+        // This does not look like any stream we know about, so start tracking a new one in place of the oldest.
+        Stream stream = streams[nextVictim];
+        nextVictim = (nextVictim + 1) % STREAMS;
+        stream.reset( filePageId );
+        return null;
+    }
+
+    synchronized long hits()
+    {
+        return hits;
+    }
+
+    synchronized long misses()
+    {
+        return misses;
+    }
+
+    synchronized long pagesRequested()
+    {
+        return pagesRequested;
+    }
+
+    private Window issue( Stream stream, long filePageId )
+    {
+        long stride = stream.stride;
+        long start = filePageId + stride;
+        if ( start < 0 )
+        {
+            return null;
+        }
+        int length = Math.min( stream.window, windowLimit() );
+        if ( stride < 0 )
+        {
+            length = (int) Math.min( length, start / -stride + 1 );
+        }
+        long end = start + stride * (length - 1);
+        stream.issuedLow = Math.min( start, end );
+        stream.issuedHigh = Math.max( start, end );
+        stream.expectedNext = end + stride;
+        pagesRequested += length;
+        return new Window( start, stride, length );
+    }
+
+    private int windowLimit()
+    {
+        // Back off across all streams, when less than half of the recent read-aheads were useful.
+        return recentMisses > recentHits ? Math.max( maxWindow / 4, 1 ) : maxWindow;
+    }
+
+    private void recordHit()
+    {
+        hits++;
+        recentHits++;
+        decayHitRatio();
+    }
+
+    private void recordMiss()
+    {
+        misses++;
+        recentMisses++;
+        decayHitRatio();
+    }
+
+    private void decayHitRatio()
+    {
+        if ( recentHits + recentMisses >= HIT_RATIO_SAMPLES )
+        {
+            recentHits /= 2;
+            recentMisses /= 2;
+        }
+    }
+
+    /**
+     * A range of file pages to read ahead: {@code length} pages, {@code stride} pages apart, starting at
+     * {@code startFilePageId}.
+     */
+    static final class Window
+    {
+        final long startFilePageId;
+        final long stride;
+        final int length;
+
+        Window( long startFilePageId, long stride, int length )
+        {
+            this.startFilePageId = startFilePageId;
+            this.stride = stride;
+            this.length = length;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Window[start=" + startFilePageId + ", stride=" + stride + ", length=" + length + "]";
+        }
+    }
+
+    private static final class Stream
+    {
+        private long lastFault = NONE;
+        private long stride;
+        private int confirmations;
+        private int window = INITIAL_WINDOW;
+        private int backOff;
+        private long issuedLow = NONE;
+        private long issuedHigh = NONE;
+        private long expectedNext = NONE;
+
+        void reset( long filePageId )
+        {
+            lastFault = filePageId;
+            stride = 0;
+            confirmations = 0;
+            window = INITIAL_WINDOW;
+            backOff = 0;
+            clearIssued();
+        }
+
+        void clearIssued()
+        {
+            issuedLow = NONE;
+            issuedHigh = NONE;
+            expectedNext = NONE;
+        }
+
+        boolean covers( long filePageId )
+        {
+            return issuedLow != NONE && issuedLow <= filePageId && filePageId <= issuedHigh && (filePageId - issuedLow) % stride == 0;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A scan resistant eviction policy, which approximates 2Q and CLOCK-Pro on top of the usage counters that the
+ * {@link PageList} already keeps for the CLOCK policy.
+ *
+ * Pages are split into cold and hot pages by their usage counter. A page that has been faulted in, and then only been
+ * pinned once, is cold, and is evicted the first time the clock arm finds it. A page that has been pinned more than
+ * once is hot, and the clock arm normally passes it by without touching its usage counter. This means that a large
+ * scan, which faults in a lot of pages that are each only used once, will mostly end up evicting its own pages, rather
+ * than the working set of the database.
+ *
+ * Hot pages still have to age, or they would stay in the cache forever. The clock arm decrements the usage counter of a
+ * hot page when it has gone a long way – a fraction of the cache – without finding anything cold to evict, and also
+ * decrements the counter of one hot page for every few cold pages that it evicts. The latter keeps a slow turnover in
+ * the hot pages, so pages that are no longer used eventually make room for the new working set.
+ *
+ * Finally, the policy remembers the identity of recently evicted cold pages in a table of ghost entries. If a page is
+ * faulted back in while it still has a ghost entry, then it was evicted too early, and it starts out as a hot page.
+ * Such faults are counted as ghost hits by the {@link PageCacheTracer}. The ghost table is direct mapped, so a new
+ * ghost simply overwrites whichever ghost was in its slot, and the table size is bounded.
+ *
+ * Like the usage counters themselves, all of this is benignly racy.
+ */
+final class ScanResistantEvictionPolicy implements EvictionPolicy
+{
+    private static final int maxGhostTableSize = getInteger( ScanResistantEvictionPolicy.class, "maxGhostTableSize", 1 << 22 );
+    private static final int hotPassFraction = getInteger( ScanResistantEvictionPolicy.class, "hotPassFraction", 16 );
+    private static final int coldEvictionsPerHotAging = getInteger( ScanResistantEvictionPolicy.class, "coldEvictionsPerHotAging", 8 );
+    private static final int HOT_USAGE = 2;
+    private static final long NO_GHOST = 0;
+
+    private final PageList pages;
+    private final PageCacheTracer tracer;
+    private final long[] ghosts;
+    private final int ghostMask;
+    private final int hotPassLimit;
+    private int hotPagesPassed;
+    private int coldEvictions;
+    private int agingCredits;
+
+    ScanResistantEvictionPolicy( PageList pages, PageCacheTracer tracer )
+    {
+        this.pages = pages;
+        this.tracer = tracer;
+        int pageCount = pages.getPageCount();
+        int ghostTableSize = Integer.highestOneBit( Math.max( Math.min( pageCount, maxGhostTableSize ), 1 ) );
+        this.ghosts = new long[ghostTableSize];
+        this.ghostMask = ghostTableSize - 1;
+        this.hotPassLimit = Math.max( pageCount / hotPassFraction, 1 );
+    }
+
+    @Override
+    public boolean shouldEvict( long pageRef )
+    {
+        int usage = pages.getUsageCounter( pageRef );
+        if ( usage < HOT_USAGE )
+        {
+            hotPagesPassed = 0;
+            if ( ++coldEvictions >= coldEvictionsPerHotAging )
+            {
+                coldEvictions = 0;
+                agingCredits++;
+            }
+            rememberGhost( pages.getSwapperId( pageRef ), pages.getFilePageId( pageRef ) );
+            return true;
+        }
+
+        if ( hotPagesPassed >= hotPassLimit )
+        {
+            // We have gone a long way without finding anything cold, so the hot pages have to age.
+            pages.decrementUsage( pageRef );
+        }
+        else
+        {
+            hotPagesPassed++;
+            if ( agingCredits > 0 )
+            {
+                agingCredits--;
+                pages.decrementUsage( pageRef );
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void pageFaulted( long pageRef, int swapperId, long filePageId )
+    {
+        long ghost = ghostOf( swapperId, filePageId );
+        int slot = slotOf( ghost );
+        if ( ghosts[slot] == ghost )
+        {
+            // This page was evicted too early. Give it a head start, so the pin that follows the fault makes it hot.
+            ghosts[slot] = NO_GHOST;
+            pages.incrementUsage( pageRef );
+            tracer.ghostHits( 1 );
+        }
+    }
+
+    private void rememberGhost( int swapperId, long filePageId )
+    {
+        // The page binding is read without holding the page lock, so it can in rare cases belong to another page than
+        // the one we end up evicting. That only costs us the accuracy of a single ghost entry.
+        if ( swapperId == 0 )
+        {
+            return;
+        }
+        long ghost = ghostOf( swapperId, filePageId );
+        ghosts[slotOf( ghost )] = ghost;
+    }
+
+    private static long ghostOf( int swapperId, long filePageId )
+    {
+        // Swapper ids are at most 21 bits, and they are never zero for a bound page, so a ghost is never NO_GHOST.
+        return (filePageId << 21) | swapperId;
+    }
+
+    private int slotOf( long ghost )
+    {
+        ghost ^= ghost >>> 33;
+        ghost *= 0xff51afd7ed558ccdL;
+        ghost ^= ghost >>> 33;
+        return (int) (ghost & ghostMask);
+    }
+}
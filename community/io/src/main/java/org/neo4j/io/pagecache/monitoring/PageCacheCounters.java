@@ -80,6 +80,12 @@ public interface PageCacheCounters
      */
     long evictionExceptions();
 
+    /**
+     * @return The number of page faults for pages that had recently been evicted, as remembered by the eviction policy.
+     * This is always zero for eviction policies that do not remember evicted pages.
+     */
+    long ghostHits();
+
     /**
      * @return The cache hit ratio observed thus far.
      */
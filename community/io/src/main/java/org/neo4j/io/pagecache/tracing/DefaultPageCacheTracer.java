@@ -45,6 +45,7 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final LongAdder filesMapped = new LongAdder();
     protected final LongAdder filesUnmapped = new LongAdder();
     protected final LongAdder evictionExceptions = new LongAdder();
+    protected final LongAdder ghostHits = new LongAdder();
     protected final AtomicLong maxPages = new AtomicLong();
 
     private final FlushEvent flushEvent = new FlushEvent()
@@ -241,6 +242,12 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return evictionExceptions.sum();
     }
 
+    @Override
+    public long ghostHits()
+    {
+        return ghostHits.sum();
+    }
+
     @Override
     public double hitRatio()
     {
@@ -300,6 +307,12 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         this.evictionExceptions.add( evictionExceptions );
     }
 
+    @Override
+    public void ghostHits( long ghostHits )
+    {
+        this.ghostHits.add( ghostHits );
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
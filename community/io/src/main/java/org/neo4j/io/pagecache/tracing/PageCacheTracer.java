@@ -137,6 +137,12 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0;
         }
 
+        @Override
+        public long ghostHits()
+        {
+            return 0;
+        }
+
         @Override
         public double hitRatio()
         {
@@ -184,6 +190,11 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void ghostHits( long ghostHits )
+        {
+        }
+
         @Override
         public void bytesWritten( long bytesWritten )
         {
@@ -284,6 +295,12 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void evictionExceptions( long evictionExceptions );
 
+    /**
+     * Report number of page faults for pages that the eviction policy remembered as recently evicted
+     * @param ghostHits number of ghost hits
+     */
+    void ghostHits( long ghostHits );
+
     /**
      * Report number of bytes written
      * @param bytesWritten number of written bytes
@@ -95,11 +95,14 @@ import org.neo4j.kernel.impl.factory.KernelTransactionFactory;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.StatementLocksFactory;
 import org.neo4j.kernel.impl.pagecache.PageCacheLifecycle;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmer;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmerMonitor;
 import org.neo4j.kernel.impl.query.QueryEngineProvider;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
 import org.neo4j.kernel.impl.store.stats.DatabaseEntityCounters;
 import org.neo4j.kernel.impl.storemigration.DatabaseMigratorFactory;
 import org.neo4j.kernel.impl.transaction.log.BatchingTransactionAppender;
+import org.neo4j.kernel.impl.transaction.log.GroupCommitTransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.LoggingLogFileMonitor;
 import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogicalTransactionStore;
@@ -459,6 +462,8 @@ public class Database extends LifecycleAdapter
 
             this.checkpointerLifecycle = new CheckpointerLifecycle( transactionLogModule.checkPointer(), databaseHealth );
 
+            life.add( new PageCacheWarmer( fs, databasePageCache, scheduler, databaseLayout.databaseDirectory(), databaseConfig, internalLogProvider,
+                    tracers.getPageCacheTracer(), databaseMonitors.newMonitor( PageCacheWarmerMonitor.class ) ) );
             life.add( databaseHealth );
             life.add( databaseAvailabilityGuard );
             life.add( databaseAvailability );
@@ -651,8 +656,8 @@ public class Database extends LifecycleAdapter
         final LogRotation logRotation =
                 new LogRotationImpl( logFiles, clock, databaseHealth, monitors.newMonitor( LogRotationMonitor.class ) );
 
-        final TransactionAppender appender = life.add( new BatchingTransactionAppender(
-                logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth ) );
+        final TransactionAppender appender = life.add( createTransactionAppender( logFiles, config, scheduler, transactionIdStore,
+                transactionMetadataCache, logRotation ) );
         final LogicalTransactionStore logicalTransactionStore =
                 new PhysicalLogicalTransactionStore( logFiles, transactionMetadataCache, logEntryReader, monitors, true );
 
@@ -672,6 +677,18 @@ public class Database extends LifecycleAdapter
         return new DatabaseTransactionLogModule( logicalTransactionStore, logFiles, logRotation, checkPointer, appender );
     }
 
+    private BatchingTransactionAppender createTransactionAppender( LogFiles logFiles, Config config, JobScheduler scheduler,
+            TransactionIdStore transactionIdStore, TransactionMetadataCache transactionMetadataCache, LogRotation logRotation )
+    {
+        if ( config.get( GraphDatabaseSettings.group_commit_enabled ) )
+        {
+            return new GroupCommitTransactionAppender( logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth, scheduler,
+                    config.get( GraphDatabaseSettings.group_commit_max_batch_size ),
+                    config.get( GraphDatabaseSettings.group_commit_max_latency ).toNanos() );
+        }
+        return new BatchingTransactionAppender( logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth );
+    }
+
     private DatabaseKernelModule buildKernel( LogFiles logFiles, TransactionAppender appender,
             IndexingService indexingService, DatabaseSchemaState databaseSchemaState, LabelScanStore labelScanStore,
             RelationshipTypeScanStore relationshipTypeScanStore, StorageEngine storageEngine, TransactionIdStore transactionIdStore,
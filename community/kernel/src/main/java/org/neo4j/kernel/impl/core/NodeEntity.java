@@ -54,6 +54,7 @@ import org.neo4j.internal.kernel.api.helpers.Nodes;
 import org.neo4j.internal.kernel.api.helpers.RelationshipFactory;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.kernel.impl.util.EntityStreamingWriter;
 import org.neo4j.storageengine.api.Degrees;
 import org.neo4j.values.storable.Values;
 
@@ -418,6 +419,41 @@ public class NodeEntity implements Node, RelationshipFactory<Relationship>
         return properties;
     }
 
+    /**
+     * Writes this node with its labels and properties as they are read from the cursors of the transaction, without collecting them
+     * first.
+     *
+     * @throws NotFoundException if the node does not exist, in which case nothing has been written.
+     */
+    public <E extends Exception> void writeTo( EntityStreamingWriter<E> writer ) throws E
+    {
+        KernelTransaction transaction = internalTransaction.kernelTransaction();
+        NodeCursor nodes = transaction.ambientNodeCursor();
+        PropertyCursor properties = transaction.ambientPropertyCursor();
+        TokenRead tokenRead = transaction.tokenRead();
+        singleNode( transaction, nodes );
+        try
+        {
+            writer.beginNode( nodeId );
+            TokenSet labels = nodes.labels();
+            writer.beginList( labels.numberOfTokens() );
+            for ( int i = 0; i < labels.numberOfTokens(); i++ )
+            {
+                writer.writeString( tokenRead.nodeLabelName( labels.token( i ) ) );
+            }
+            writer.endList();
+
+            nodes.properties( properties );
+            int size = EntityStreamingWriter.countProperties( properties );
+            nodes.properties( properties );
+            EntityStreamingWriter.writeProperties( writer, properties, size, tokenRead );
+        }
+        catch ( KernelException e )
+        {
+            throw new IllegalStateException( "Token retrieved through kernel API should exist.", e );
+        }
+    }
+
     @Override
     public Object getProperty( String key ) throws NotFoundException
     {
@@ -46,6 +46,7 @@ import org.neo4j.internal.kernel.api.exceptions.schema.IllegalTokenNameException
 import org.neo4j.internal.kernel.api.exceptions.schema.TokenCapacityExceededKernelException;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.kernel.impl.util.EntityStreamingWriter;
 import org.neo4j.storageengine.api.RelationshipVisitor;
 import org.neo4j.values.storable.Values;
 
@@ -324,6 +325,35 @@ public class RelationshipEntity implements Relationship, RelationshipVisitor<Run
         return properties;
     }
 
+    /**
+     * Writes this relationship with its type and properties as they are read from the cursors of the transaction, without collecting
+     * them first.
+     *
+     * @throws NotFoundException if the relationship does not exist, in which case nothing has been written.
+     */
+    public <E extends Exception> void writeTo( EntityStreamingWriter<E> writer ) throws E
+    {
+        KernelTransaction transaction = internalTransaction.kernelTransaction();
+        RelationshipScanCursor relationships = transaction.ambientRelationshipCursor();
+        PropertyCursor properties = transaction.ambientPropertyCursor();
+        TokenRead tokenRead = transaction.tokenRead();
+        singleRelationship( transaction, relationships );
+        try
+        {
+            writer.beginRelationship( id, relationships.sourceNodeReference(), relationships.targetNodeReference() );
+            writer.writeString( tokenRead.relationshipTypeName( relationships.type() ) );
+
+            relationships.properties( properties );
+            int size = EntityStreamingWriter.countProperties( properties );
+            relationships.properties( properties );
+            EntityStreamingWriter.writeProperties( writer, properties, size, tokenRead );
+        }
+        catch ( KernelException e )
+        {
+            throw new IllegalStateException( "Token retrieved through kernel API should exist.", e );
+        }
+    }
+
     @Override
     public Object getProperty( String key )
     {
@@ -33,6 +33,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+import org.neo4j.index.internal.gbptree.BulkLoader;
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Seeker;
 import org.neo4j.index.internal.gbptree.Writer;
@@ -84,6 +85,11 @@ import static org.neo4j.util.concurrent.Runnables.runAll;
 public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,VALUE extends NativeIndexValue> extends NativeIndexPopulator<KEY,VALUE>
 {
     public static final String BLOCK_SIZE_NAME = "blockSize";
+    /**
+     * How full to make each tree node when bulk loading the sorted scan updates into the tree. 1 packs nodes as densely as
+     * possible, which is what inserting entries in order used to result in. A lower value leaves room in every node for later updates.
+     */
+    private static final double BULK_LOAD_FILL_FACTOR = FeatureToggles.getDouble( BlockBasedIndexPopulator.class, "bulkLoadFillFactor", 1.0 );
 
     private final boolean archiveFailedIndex;
     /**
@@ -423,12 +429,26 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
                 }
             }
 
-            int asMuchAsPossibleToTheLeft = 1;
-            try ( Writer<KEY,VALUE> writer = tree.writer( asMuchAsPossibleToTheLeft, cursorTracer ) )
+            // The entries come sorted, so build the tree bottom-up instead of inserting them one by one
+            try ( BulkLoader<KEY,VALUE> bulkLoader = tree.bulkLoader( BULK_LOAD_FILL_FACTOR, cursorTracer ) )
             {
+                KEY previousKey = layout.newKey();
+                boolean first = true;
                 while ( allEntries.next() && !cancellation.cancelled() )
                 {
-                    writeToTree( writer, recordingConflictDetector, allEntries.key(), allEntries.value() );
+                    KEY key = allEntries.key();
+                    // Same value and same entity is the same entry, which the tree writer would have merged into the existing one
+                    if ( first || layout.compare( previousKey, key ) != 0 )
+                    {
+                        if ( !first && descriptor.isUnique() && layout.compareValue( previousKey, key ) == 0 )
+                        {
+                            // Same value for different entities, record the conflict and verify uniqueness for this value later on
+                            recordingConflictDetector.doReportConflict( previousKey.getEntityId(), key.getEntityId(), key );
+                        }
+                        bulkLoader.add( key, allEntries.value() );
+                        layout.copyKey( key, previousKey );
+                        first = false;
+                    }
                     numberOfAppliedScanUpdates++;
                 }
             }
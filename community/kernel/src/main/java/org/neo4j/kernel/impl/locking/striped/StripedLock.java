@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.lock.ResourceType;
+
+import static java.lang.String.format;
+
+/**
+ * A read/write lock for a single resource, as handed out by {@link StripedLockManager}.
+ * <p>
+ * All lock state is kept in a single {@code long} that is only ever changed with compare-and-set, so
+ * acquiring and releasing an uncontended lock never blocks. The state holds:
+ * <ul>
+ * <li>{@link #DEAD} - the lock has been fully released and is about to be removed from its lock map. A dead lock
+ * can never be acquired again, a client that sees it must remove it and look up (or create) a fresh one.</li>
+ * <li>{@link #EXCLUSIVE} - the lock is held exclusively by {@link #exclusiveOwner}.</li>
+ * <li>the number of clients holding the lock in shared mode, in the remaining lower bits.</li>
+ * </ul>
+ * A client that holds the lock in shared mode may upgrade it to exclusive once it is the only shared holder, and
+ * the exclusive owner may also take the lock in shared mode. Holders are tracked separately from the state, purely
+ * so that the wait path can build a wait-for graph for deadlock detection.
+ */
+final class StripedLock
+{
+    static final int ACQUIRED = 0;
+    static final int BUSY = 1;
+    static final int DEAD_LOCK_OBJECT = 2;
+
+    private static final long DEAD = 1L << 63;
+    private static final long EXCLUSIVE = 1L << 62;
+    private static final long SHARED_COUNT_MASK = EXCLUSIVE - 1;
+
+    private final ResourceType resourceType;
+    private final long resourceId;
+    private final AtomicLong state;
+    private final Set<StripedLockClient> sharedHolders = ConcurrentHashMap.newKeySet();
+    private volatile StripedLockClient exclusiveOwner;
+
+    /**
+     * Creates a lock which is already held by the given client, so that it can be published to a lock map with
+     * a single {@code putIfAbsent}.
+     */
+    StripedLock( ResourceType resourceType, long resourceId, StripedLockClient holder, boolean exclusive )
+    {
+        this.resourceType = resourceType;
+        this.resourceId = resourceId;
+        if ( exclusive )
+        {
+            this.state = new AtomicLong( EXCLUSIVE );
+            this.exclusiveOwner = holder;
+        }
+        else
+        {
+            this.state = new AtomicLong( 1 );
+            this.sharedHolders.add( holder );
+        }
+    }
+
+    /**
+     * @param alsoHoldsExclusive whether or not the client already holds this lock exclusively.
+     * @return {@link #ACQUIRED}, {@link #BUSY} if another client holds this lock exclusively, or
+     * {@link #DEAD_LOCK_OBJECT} if this lock object has been retired.
+     */
+    int tryAcquireShared( StripedLockClient client, boolean alsoHoldsExclusive )
+    {
+        long current;
+        do
+        {
+            current = state.get();
+            if ( (current & DEAD) != 0 )
+            {
+                return DEAD_LOCK_OBJECT;
+            }
+            if ( (current & EXCLUSIVE) != 0 && !alsoHoldsExclusive )
+            {
+                return BUSY;
+            }
+        }
+        while ( !state.compareAndSet( current, current + 1 ) );
+        sharedHolders.add( client );
+        return ACQUIRED;
+    }
+
+    /**
+     * @param alsoHoldsShared whether or not the client already holds this lock in shared mode, i.e. is upgrading.
+     * @return {@link #ACQUIRED}, {@link #BUSY} if any other client holds this lock, or {@link #DEAD_LOCK_OBJECT}
+     * if this lock object has been retired.
+     */
+    int tryAcquireExclusive( StripedLockClient client, boolean alsoHoldsShared )
+    {
+        long expectedSharedCount = alsoHoldsShared ? 1 : 0;
+        long current;
+        do
+        {
+            current = state.get();
+            if ( (current & DEAD) != 0 )
+            {
+                return DEAD_LOCK_OBJECT;
+            }
+            if ( (current & EXCLUSIVE) != 0 || (current & SHARED_COUNT_MASK) != expectedSharedCount )
+            {
+                return BUSY;
+            }
+        }
+        while ( !state.compareAndSet( current, current | EXCLUSIVE ) );
+        exclusiveOwner = client;
+        return ACQUIRED;
+    }
+
+    /**
+     * @return {@code true} if this was the last hold on the lock and it has now been retired, in which case the
+     * caller is responsible for removing it from its lock map.
+     */
+    boolean releaseShared( StripedLockClient client )
+    {
+        sharedHolders.remove( client );
+        return state.decrementAndGet() == 0 && retire();
+    }
+
+    /**
+     * @return {@code true} if this was the last hold on the lock and it has now been retired, in which case the
+     * caller is responsible for removing it from its lock map.
+     */
+    boolean releaseExclusive()
+    {
+        exclusiveOwner = null;
+        long current;
+        long next;
+        do
+        {
+            current = state.get();
+            next = current & ~EXCLUSIVE;
+        }
+        while ( !state.compareAndSet( current, next ) );
+        return next == 0 && retire();
+    }
+
+    private boolean retire()
+    {
+        return state.compareAndSet( 0, DEAD );
+    }
+
+    boolean isHeld()
+    {
+        long current = state.get();
+        return (current & DEAD) == 0 && current != 0;
+    }
+
+    /**
+     * Best-effort snapshot of the clients currently holding this lock, used for deadlock detection only.
+     */
+    List<StripedLockClient> holders()
+    {
+        List<StripedLockClient> holders = new ArrayList<>( sharedHolders );
+        StripedLockClient owner = exclusiveOwner;
+        if ( owner != null && !holders.contains( owner ) )
+        {
+            holders.add( owner );
+        }
+        return holders;
+    }
+
+    ResourceType resourceType()
+    {
+        return resourceType;
+    }
+
+    long resourceId()
+    {
+        return resourceId;
+    }
+
+    String describe()
+    {
+        long current = state.get();
+        StripedLockClient owner = exclusiveOwner;
+        return format( "%s exclusiveOwner=%s sharedCount=%d sharedHolders=%s", this, owner,
+                current & SHARED_COUNT_MASK, sharedHolders );
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "%s(%d)", resourceType, resourceId );
+    }
+}
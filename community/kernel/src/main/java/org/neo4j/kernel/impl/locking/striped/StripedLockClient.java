@@ -0,0 +1,531 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableLongIntMap;
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.api.LeaseClient;
+import org.neo4j.kernel.impl.locking.ActiveLock;
+import org.neo4j.kernel.impl.locking.LockAcquisitionTimeoutException;
+import org.neo4j.kernel.impl.locking.LockClientStateHolder;
+import org.neo4j.kernel.impl.locking.LockClientStoppedException;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.LockWaitEvent;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.lock.ResourceTypes;
+
+import static java.lang.String.format;
+
+// Please note. Except separate test cases for particular classes related to striped locking
+// see also org.neo4j.kernel.impl.locking.striped.StripedLocksTest compatibility test suite
+
+/**
+ * Lock client for {@link StripedLockManager}.
+ * <p>
+ * Re-entrant acquisitions are counted locally, so only the first acquisition and the last release of a lock by
+ * this client touch the shared {@link StripedLock}. When a lock cannot be acquired the client publishes the lock it
+ * is waiting for, and periodically walks the wait-for graph formed by lock holders and the locks they in turn wait
+ * for. Finding this client in that graph means that waiting would deadlock.
+ */
+public class StripedLockClient implements Locks.Client
+{
+    /** Deadlock detection is performed on the first wait iteration, and then every this many iterations. */
+    private static final int DEADLOCK_CHECK_INTERVAL = 128;
+
+    private final int clientId;
+    private final ConcurrentMap<Long,StripedLock>[] lockMaps;
+    private final Clock clock;
+    private final long lockAcquisitionTimeoutMillis;
+
+    private final MutableIntObjectMap<MutableLongIntMap> sharedLockCounts = new IntObjectHashMap<>();
+    private final MutableIntObjectMap<MutableLongIntMap> exclusiveLockCounts = new IntObjectHashMap<>();
+    private final LockClientStateHolder stateHolder = new LockClientStateHolder();
+
+    /** The lock this client is currently waiting for, if any. Read by other clients doing deadlock detection. */
+    private volatile StripedLock waitingFor;
+
+    StripedLockClient( int clientId, ConcurrentMap<Long,StripedLock>[] lockMaps, Clock clock, long lockAcquisitionTimeoutMillis )
+    {
+        this.clientId = clientId;
+        this.lockMaps = lockMaps;
+        this.clock = clock;
+        this.lockAcquisitionTimeoutMillis = lockAcquisitionTimeoutMillis;
+    }
+
+    @Override
+    public void initialize( LeaseClient leaseClient )
+    {
+        // we don't need lease here
+    }
+
+    @Override
+    public void acquireShared( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localShared( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                if ( !reEnter( localLocks, resourceId ) )
+                {
+                    acquire( tracer, resourceType, resourceId, false );
+                    localLocks.put( resourceId, 1 );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void acquireExclusive( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localExclusive( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                if ( !reEnter( localLocks, resourceId ) )
+                {
+                    acquire( tracer, resourceType, resourceId, true );
+                    localLocks.put( resourceId, 1 );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean tryExclusiveLock( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localExclusive( resourceType );
+            if ( reEnter( localLocks, resourceId ) )
+            {
+                return true;
+            }
+            if ( tryAcquire( resourceType, resourceId, true ) )
+            {
+                localLocks.put( resourceId, 1 );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean trySharedLock( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localShared( resourceType );
+            if ( reEnter( localLocks, resourceId ) )
+            {
+                return true;
+            }
+            if ( tryAcquire( resourceType, resourceId, false ) )
+            {
+                localLocks.put( resourceId, 1 );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean reEnterShared( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            return reEnter( localShared( resourceType ), resourceId );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean reEnterExclusive( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            return reEnter( localExclusive( resourceType ), resourceId );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    private static boolean reEnter( MutableLongIntMap localLocks, long resourceId )
+    {
+        if ( localLocks.containsKey( resourceId ) )
+        {
+            localLocks.addToValue( resourceId, 1 );
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void releaseShared( ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localShared( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                int count = localLocks.getOrThrow( resourceId );
+                if ( count > 1 )
+                {
+                    localLocks.put( resourceId, count - 1 );
+                }
+                else
+                {
+                    localLocks.remove( resourceId );
+                    releaseGlobal( resourceType.typeId(), resourceId, false );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void releaseExclusive( ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localExclusive( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                int count = localLocks.getOrThrow( resourceId );
+                if ( count > 1 )
+                {
+                    localLocks.put( resourceId, count - 1 );
+                }
+                else
+                {
+                    localLocks.remove( resourceId );
+                    releaseGlobal( resourceType.typeId(), resourceId, true );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void prepare()
+    {
+        stateHolder.prepare( this );
+    }
+
+    @Override
+    public void stop()
+    {
+        // closing client to prevent any new client to come
+        if ( stateHolder.stopClient() )
+        {
+            // waiters notice the stopped state on their next wait iteration
+            waitForActiveClientsToLeave();
+            releaseLocks();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        stateHolder.closeClient();
+        waitForActiveClientsToLeave();
+        releaseLocks();
+    }
+
+    private void waitForActiveClientsToLeave()
+    {
+        while ( stateHolder.hasActiveClients() )
+        {
+            LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 1 ) );
+        }
+    }
+
+    private synchronized void releaseLocks()
+    {
+        exclusiveLockCounts.forEachKeyValue( ( typeId, locks ) ->
+                locks.forEachKey( resourceId -> releaseGlobal( typeId, resourceId, true ) ) );
+        sharedLockCounts.forEachKeyValue( ( typeId, locks ) ->
+                locks.forEachKey( resourceId -> releaseGlobal( typeId, resourceId, false ) ) );
+        exclusiveLockCounts.clear();
+        sharedLockCounts.clear();
+    }
+
+    @Override
+    public int getLockSessionId()
+    {
+        return clientId;
+    }
+
+    @Override
+    public Stream<ActiveLock> activeLocks()
+    {
+        List<ActiveLock> locks = new ArrayList<>();
+        collectActiveLocks( exclusiveLockCounts, locks, ActiveLock.Factory.EXCLUSIVE_LOCK );
+        collectActiveLocks( sharedLockCounts, locks, ActiveLock.Factory.SHARED_LOCK );
+        return locks.stream();
+    }
+
+    @Override
+    public long activeLockCount()
+    {
+        return exclusiveLockCounts.sumOfInt( MutableLongIntMap::size ) + sharedLockCounts.sumOfInt( MutableLongIntMap::size );
+    }
+
+    private static void collectActiveLocks( MutableIntObjectMap<MutableLongIntMap> lockCounts, List<ActiveLock> locks,
+            ActiveLock.Factory activeLock )
+    {
+        lockCounts.forEachKeyValue( ( typeId, typeLocks ) ->
+        {
+            ResourceType resourceType = ResourceTypes.fromId( typeId );
+            typeLocks.forEachKey( resourceId -> locks.add( activeLock.create( resourceType, resourceId ) ) );
+        } );
+    }
+
+    private boolean tryAcquire( ResourceType resourceType, long resourceId, boolean exclusive )
+    {
+        return tryAcquire( lockMaps[resourceType.typeId()], resourceType, resourceId, exclusive,
+                holdsOther( resourceType, resourceId, exclusive ) ) == null;
+    }
+
+    private void acquire( LockTracer tracer, ResourceType resourceType, long resourceId, boolean exclusive )
+    {
+        ConcurrentMap<Long,StripedLock> locks = lockMaps[resourceType.typeId()];
+        boolean alsoHoldsOther = holdsOther( resourceType, resourceId, exclusive );
+        StripedLock busyLock = tryAcquire( locks, resourceType, resourceId, exclusive, alsoHoldsOther );
+        if ( busyLock == null )
+        {
+            return;
+        }
+
+        long waitDeadline = lockAcquisitionTimeoutMillis > 0 ? clock.millis() + lockAcquisitionTimeoutMillis : 0;
+        try ( LockWaitEvent ignored = tracer.waitForLock( exclusive, resourceType, resourceId ) )
+        {
+            for ( long iteration = 0; busyLock != null; iteration++ )
+            {
+                waitForLock( busyLock, iteration, waitDeadline );
+                busyLock = tryAcquire( locks, resourceType, resourceId, exclusive, alsoHoldsOther );
+            }
+        }
+        finally
+        {
+            waitingFor = null;
+        }
+    }
+
+    /**
+     * @return {@code null} if the lock was acquired, otherwise the lock, currently held by some other client.
+     */
+    private StripedLock tryAcquire( ConcurrentMap<Long,StripedLock> locks, ResourceType resourceType, long resourceId,
+            boolean exclusive, boolean alsoHoldsOther )
+    {
+        while ( true )
+        {
+            StripedLock lock = locks.get( resourceId );
+            if ( lock == null )
+            {
+                lock = locks.putIfAbsent( resourceId, new StripedLock( resourceType, resourceId, this, exclusive ) );
+                if ( lock == null )
+                {
+                    return null;
+                }
+            }
+            int result = exclusive ? lock.tryAcquireExclusive( this, alsoHoldsOther ) : lock.tryAcquireShared( this, alsoHoldsOther );
+            if ( result == StripedLock.ACQUIRED )
+            {
+                return null;
+            }
+            if ( result == StripedLock.BUSY )
+            {
+                return lock;
+            }
+            // the lock was released and retired concurrently, help removing it and try again with a fresh one
+            locks.remove( resourceId, lock );
+        }
+    }
+
+    private void waitForLock( StripedLock lock, long iteration, long waitDeadline )
+    {
+        waitingFor = lock;
+        if ( stateHolder.isStopped() )
+        {
+            throw new LockClientStoppedException( this );
+        }
+        if ( waitDeadline > 0 && clock.millis() > waitDeadline )
+        {
+            throw new LockAcquisitionTimeoutException( lock.resourceType(), lock.resourceId(), lockAcquisitionTimeoutMillis );
+        }
+        if ( iteration % DEADLOCK_CHECK_INTERVAL == 0 )
+        {
+            detectDeadlock( lock );
+        }
+        lock.resourceType().waitStrategy().apply( iteration );
+    }
+
+    /**
+     * Walks the wait-for graph starting at the holders of the given lock, following each holder to the lock it is
+     * waiting for in turn. The graph is read without any synchronization and so may be slightly stale, which is fine
+     * since this check is repeated for as long as this client keeps waiting.
+     *
+     * @throws DeadlockDetectedException if this client is found among the transitive holders of the lock.
+     */
+    private void detectDeadlock( StripedLock lock )
+    {
+        Set<StripedLockClient> visited = new HashSet<>();
+        Deque<Object> path = new ArrayDeque<>();
+        path.push( lock );
+        for ( StripedLockClient holder : lock.holders() )
+        {
+            // holding the lock we are waiting for is fine, e.g. when upgrading from shared to exclusive
+            if ( holder != this && waitsForThisClient( holder, visited, path ) )
+            {
+                throw new DeadlockDetectedException( format( "%s can't wait on resource %s since => %s", this, lock, describeCycle( path ) ) );
+            }
+        }
+    }
+
+    private boolean waitsForThisClient( StripedLockClient client, Set<StripedLockClient> visited, Deque<Object> path )
+    {
+        if ( !visited.add( client ) )
+        {
+            return false;
+        }
+        StripedLock lock = client.waitingFor;
+        if ( lock == null )
+        {
+            return false;
+        }
+        path.push( client );
+        path.push( lock );
+        for ( StripedLockClient holder : lock.holders() )
+        {
+            if ( holder == this )
+            {
+                return true;
+            }
+            if ( holder != client && waitsForThisClient( holder, visited, path ) )
+            {
+                return true;
+            }
+        }
+        path.pop();
+        path.pop();
+        return false;
+    }
+
+    private String describeCycle( Deque<Object> path )
+    {
+        StringBuilder cycle = new StringBuilder().append( this );
+        while ( !path.isEmpty() )
+        {
+            Object lock = path.pop();
+            cycle.append( " <-[:HELD_BY]- " ).append( lock );
+            if ( !path.isEmpty() )
+            {
+                cycle.append( " <-[:WAITING_FOR]- " ).append( path.pop() );
+            }
+        }
+        return cycle.toString();
+    }
+
+    private void releaseGlobal( int typeId, long resourceId, boolean exclusive )
+    {
+        ConcurrentMap<Long,StripedLock> locks = lockMaps[typeId];
+        StripedLock lock = locks.get( resourceId );
+        if ( exclusive ? lock.releaseExclusive() : lock.releaseShared( this ) )
+        {
+            locks.remove( resourceId, lock );
+        }
+    }
+
+    private boolean holdsOther( ResourceType resourceType, long resourceId, boolean exclusive )
+    {
+        MutableLongIntMap otherLocks = exclusive ? sharedLockCounts.get( resourceType.typeId() ) : exclusiveLockCounts.get( resourceType.typeId() );
+        return otherLocks != null && otherLocks.containsKey( resourceId );
+    }
+
+    private MutableLongIntMap localShared( ResourceType resourceType )
+    {
+        return sharedLockCounts.getIfAbsentPut( resourceType.typeId(), LongIntHashMap::new );
+    }
+
+    private MutableLongIntMap localExclusive( ResourceType resourceType )
+    {
+        return exclusiveLockCounts.getIfAbsentPut( resourceType.typeId(), LongIntHashMap::new );
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "%s[%d]", getClass().getSimpleName(), getLockSessionId() );
+    }
+}
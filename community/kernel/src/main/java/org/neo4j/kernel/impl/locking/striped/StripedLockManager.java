@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.time.Clock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.ResourceType;
+
+/**
+ * A {@link Locks} implementation that, unlike the community lock manager, has no global monitor.
+ * <p>
+ * Locks are kept in one {@link ConcurrentHashMap} per {@link ResourceType}, which in turn stripes its bins by
+ * resource id, so transactions touching disjoint resources never contend with each other. Uncontended shared and
+ * exclusive acquisitions and all releases are a handful of compare-and-set operations on the {@link StripedLock}
+ * itself. Only a client that actually has to wait for a lock builds a wait-for graph and checks it for deadlocks,
+ * see {@link StripedLockClient}.
+ */
+public class StripedLockManager implements Locks
+{
+    private final ConcurrentMap<Long,StripedLock>[] lockMaps;
+    private final ResourceType[] resourceTypes;
+    private final Clock clock;
+    private final long lockAcquisitionTimeoutMillis;
+    private final AtomicInteger clientIds = new AtomicInteger();
+    private volatile boolean closed;
+
+    @SuppressWarnings( "unchecked" )
+    public StripedLockManager( Config config, Clock clock, ResourceType... resourceTypes )
+    {
+        int maxTypeId = -1;
+        for ( ResourceType resourceType : resourceTypes )
+        {
+            maxTypeId = Math.max( maxTypeId, resourceType.typeId() );
+        }
+        this.lockMaps = new ConcurrentMap[maxTypeId + 1];
+        this.resourceTypes = new ResourceType[maxTypeId + 1];
+        for ( ResourceType resourceType : resourceTypes )
+        {
+            this.lockMaps[resourceType.typeId()] = new ConcurrentHashMap<>( 16, 0.75f, Runtime.getRuntime().availableProcessors() );
+            this.resourceTypes[resourceType.typeId()] = resourceType;
+        }
+        this.clock = clock;
+        this.lockAcquisitionTimeoutMillis = config.get( GraphDatabaseSettings.lock_acquisition_timeout ).toMillis();
+    }
+
+    @Override
+    public Client newClient()
+    {
+        // Lock clients are pooled together with their transactions, so this volatile read is rarely performed.
+        if ( closed )
+        {
+            throw new IllegalStateException( this + " already closed" );
+        }
+        return new StripedLockClient( clientIds.incrementAndGet(), lockMaps, clock, lockAcquisitionTimeoutMillis );
+    }
+
+    @Override
+    public void accept( Visitor visitor )
+    {
+        for ( int typeId = 0; typeId < lockMaps.length; typeId++ )
+        {
+            ConcurrentMap<Long,StripedLock> locks = lockMaps[typeId];
+            if ( locks == null )
+            {
+                continue;
+            }
+            ResourceType resourceType = resourceTypes[typeId];
+            locks.forEach( ( resourceId, lock ) ->
+            {
+                if ( lock.isHeld() )
+                {
+                    visitor.visit( resourceType, resourceId, lock.describe(), 0, System.identityHashCode( lock ) );
+                }
+            } );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.neo4j.io.pagecache.PageCursor.UNBOUND_PAGE_ID;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+
+/**
+ * Keeps the page cache warm across restarts.
+ * <p>
+ * While the database is running, the warmer periodically records which pages of each of the database's mapped files
+ * are in memory, as one compact bitmap per file, in the {@value #PROFILES_DIRECTORY} directory of the database. A last
+ * profile is recorded when the database stops. When the database starts, the warmer loads the recorded pages back into
+ * the page cache in the background, one file per thread, visiting the pages of each file in ascending order.
+ * <p>
+ * If {@link GraphDatabaseSettings#pagecache_warmup_prefetch} is enabled, then the warmer instead loads all pages of the
+ * files that match {@link GraphDatabaseSettings#pagecache_warmup_prefetch_whitelist}, and does not record profiles.
+ * <p>
+ * Progress is reported through the {@link PageCacheWarmerMonitor}.
+ */
+public class PageCacheWarmer extends LifecycleAdapter
+{
+    public static final String PROFILES_DIRECTORY = "profiles";
+    public static final String SUFFIX_CACHEPROF = ".cacheprof";
+    private static final String SUFFIX_TMP = ".tmp";
+    private static final String PAGE_CACHE_WARMER_TAG = "pageCacheWarmer";
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final File databaseDirectory;
+    private final File profilesDirectory;
+    private final Config config;
+    private final Log log;
+    private final PageCacheTracer pageCacheTracer;
+    private final PageCacheWarmerMonitor monitor;
+
+    private volatile boolean stopped;
+    private volatile boolean warmedUp;
+    private JobHandle<?> warmupJob;
+    private JobHandle<?> profileJob;
+
+    public PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, File databaseDirectory, Config config,
+            LogProvider logProvider, PageCacheTracer pageCacheTracer, PageCacheWarmerMonitor monitor )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.databaseDirectory = databaseDirectory;
+        this.profilesDirectory = new File( databaseDirectory, PROFILES_DIRECTORY );
+        this.config = config;
+        this.log = logProvider.getLog( getClass() );
+        this.pageCacheTracer = pageCacheTracer;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public synchronized void start()
+    {
+        if ( !config.get( GraphDatabaseSettings.pagecache_warmup_enabled ) )
+        {
+            return;
+        }
+        stopped = false;
+        warmedUp = false;
+        warmupJob = scheduler.schedule( Group.PAGE_CACHE_WARMER, this::warmUp );
+        if ( isProfiling() )
+        {
+            long interval = config.get( GraphDatabaseSettings.pagecache_warmup_profiling_interval ).toMillis();
+            profileJob = scheduler.scheduleRecurring( Group.PAGE_CACHE_WARMER, this::scheduledProfile, interval, interval, TimeUnit.MILLISECONDS );
+        }
+    }
+
+    @Override
+    public synchronized void stop() throws IOException
+    {
+        stopped = true;
+        if ( profileJob != null )
+        {
+            profileJob.cancel();
+            profileJob = null;
+        }
+        if ( warmupJob != null )
+        {
+            awaitTermination( warmupJob );
+            warmupJob = null;
+        }
+        // Only record a profile if we managed to warm up, or we would overwrite a good profile with a partial one.
+        if ( warmedUp && isProfiling() )
+        {
+            profile();
+        }
+    }
+
+    private boolean isProfiling()
+    {
+        return !config.get( GraphDatabaseSettings.pagecache_warmup_prefetch ) && !config.get( GraphDatabaseSettings.read_only );
+    }
+
+    /**
+     * Load pages into the page cache, either according to the recorded profiles, or by preloading whole files.
+     *
+     * @return the number of pages that were loaded.
+     */
+    long warmUp()
+    {
+        monitor.warmupStarted();
+        long startMillis = System.currentTimeMillis();
+        boolean preload = config.get( GraphDatabaseSettings.pagecache_warmup_prefetch );
+        Pattern whitelist = Pattern.compile( config.get( GraphDatabaseSettings.pagecache_warmup_prefetch_whitelist ) );
+        // Never load more pages than will fit in the cache, since we would then just be evicting our own work.
+        AtomicLong pageBudget = new AtomicLong( pageCache.maxCachedPages() );
+        AtomicLong pagesLoaded = new AtomicLong();
+        List<JobHandle<?>> handles = new ArrayList<>();
+        List<PagedFile> mappings;
+        try
+        {
+            mappings = pageCache.listExistingMappings();
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Page cache warmup failed to list the mapped files.", e );
+            return 0;
+        }
+        for ( PagedFile pagedFile : mappings )
+        {
+            Path relativePath = relativePath( pagedFile );
+            if ( relativePath == null )
+            {
+                continue;
+            }
+            if ( preload )
+            {
+                if ( whitelist.matcher( relativePath.toString() ).matches() )
+                {
+                    handles.add( scheduler.schedule( Group.FILE_IO_HELPER, () -> pagesLoaded.addAndGet( preload( pagedFile, pageBudget ) ) ) );
+                }
+            }
+            else
+            {
+                File profileFile = profileFile( relativePath );
+                if ( fs.fileExists( profileFile ) )
+                {
+                    handles.add( scheduler.schedule( Group.FILE_IO_HELPER,
+                            () -> pagesLoaded.addAndGet( reheat( pagedFile, profileFile, pageBudget ) ) ) );
+                }
+            }
+        }
+        for ( JobHandle<?> handle : handles )
+        {
+            awaitTermination( handle );
+        }
+        if ( !stopped )
+        {
+            warmedUp = true;
+            long elapsedMillis = System.currentTimeMillis() - startMillis;
+            log.info( "Page cache warmup completed. %d pages loaded. Duration: %d ms.", pagesLoaded.get(), elapsedMillis );
+            monitor.warmupCompleted( elapsedMillis, pagesLoaded.get() );
+        }
+        return pagesLoaded.get();
+    }
+
+    private long reheat( PagedFile pagedFile, File profileFile, AtomicLong pageBudget )
+    {
+        long pagesLoaded = 0;
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( PAGE_CACHE_WARMER_TAG );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, cursorTracer ) )
+        {
+            BitSet pages = readProfile( profileFile );
+            for ( int pageId = pages.nextSetBit( 0 ); pageId >= 0 && !stopped; pageId = pages.nextSetBit( pageId + 1 ) )
+            {
+                if ( pageBudget.decrementAndGet() < 0 || !cursor.next( pageId ) )
+                {
+                    break; // Either the page cache is full, or the file has shrunk since we recorded the profile.
+                }
+                pagesLoaded++;
+            }
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Failed to warm up " + pagedFile.file() + " from profile " + profileFile + ".", e );
+        }
+        return pagesLoaded;
+    }
+
+    private long preload( PagedFile pagedFile, AtomicLong pageBudget )
+    {
+        long pagesLoaded = 0;
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( PAGE_CACHE_WARMER_TAG );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, cursorTracer ) )
+        {
+            while ( !stopped && pageBudget.decrementAndGet() >= 0 && cursor.next() )
+            {
+                pagesLoaded++;
+            }
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Failed to preload " + pagedFile.file() + ".", e );
+        }
+        return pagesLoaded;
+    }
+
+    private void scheduledProfile()
+    {
+        // Don't record profiles while we are still warming up, since they would only capture a part of the profile we're loading.
+        if ( warmedUp && !stopped )
+        {
+            try
+            {
+                profile();
+            }
+            catch ( IOException e )
+            {
+                log.warn( "Failed to record page cache profile.", e );
+            }
+        }
+    }
+
+    /**
+     * Record which pages of each mapped file of the database are currently in memory.
+     *
+     * @return the number of pages that were in memory.
+     */
+    synchronized long profile() throws IOException
+    {
+        long startMillis = System.currentTimeMillis();
+        long pagesInMemory = 0;
+        for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+        {
+            Path relativePath = relativePath( pagedFile );
+            if ( relativePath == null || pagedFile.isDeleteOnClose() )
+            {
+                continue;
+            }
+            BitSet pages = new BitSet();
+            try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( PAGE_CACHE_WARMER_TAG );
+                  PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT, cursorTracer ) )
+            {
+                while ( cursor.next() )
+                {
+                    long pageId = cursor.getCurrentPageId();
+                    if ( pageId != UNBOUND_PAGE_ID && pageId <= Integer.MAX_VALUE )
+                    {
+                        pages.set( (int) pageId );
+                    }
+                }
+            }
+            writeProfile( profileFile( relativePath ), pages );
+            pagesInMemory += pages.cardinality();
+        }
+        long elapsedMillis = System.currentTimeMillis() - startMillis;
+        monitor.profileCompleted( elapsedMillis, pagesInMemory );
+        return pagesInMemory;
+    }
+
+    private void writeProfile( File profileFile, BitSet pages ) throws IOException
+    {
+        File tmpFile = new File( profileFile.getParentFile(), profileFile.getName() + SUFFIX_TMP );
+        fs.mkdirs( profileFile.getParentFile() );
+        try ( DataOutputStream out = new DataOutputStream( new GZIPOutputStream( fs.openAsOutputStream( tmpFile, false ) ) ) )
+        {
+            long[] words = pages.toLongArray();
+            out.writeInt( words.length );
+            for ( long word : words )
+            {
+                out.writeLong( word );
+            }
+        }
+        fs.renameFile( tmpFile, profileFile, REPLACE_EXISTING, ATOMIC_MOVE );
+    }
+
+    private BitSet readProfile( File profileFile ) throws IOException
+    {
+        try ( InputStream fileIn = fs.openAsInputStream( profileFile );
+              DataInputStream in = new DataInputStream( new GZIPInputStream( fileIn ) ) )
+        {
+            long[] words = new long[in.readInt()];
+            for ( int i = 0; i < words.length; i++ )
+            {
+                words[i] = in.readLong();
+            }
+            return BitSet.valueOf( words );
+        }
+    }
+
+    private Path relativePath( PagedFile pagedFile )
+    {
+        Path databasePath = databaseDirectory.toPath();
+        Path filePath = pagedFile.file().toPath();
+        return filePath.startsWith( databasePath ) ? databasePath.relativize( filePath ) : null;
+    }
+
+    private File profileFile( Path relativePath )
+    {
+        return new File( profilesDirectory, relativePath + SUFFIX_CACHEPROF );
+    }
+
+    private void awaitTermination( JobHandle<?> handle )
+    {
+        try
+        {
+            handle.waitTermination();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch ( ExecutionException e )
+        {
+            log.warn( "Page cache warmup job failed.", e );
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+/**
+ * Monitors the progress of the {@link PageCacheWarmer}, so that operators and orchestration can tell when a database
+ * has been warmed up after a restart.
+ */
+public interface PageCacheWarmerMonitor
+{
+    /**
+     * The warmer has started loading pages into the page cache, either according to the recorded profiles, or by
+     * preloading whole store files.
+     */
+    void warmupStarted();
+
+    /**
+     * The warmer has finished loading pages into the page cache.
+     *
+     * @param elapsedMillis how long the warmup took.
+     * @param pagesLoaded the number of pages that were loaded.
+     */
+    void warmupCompleted( long elapsedMillis, long pagesLoaded );
+
+    /**
+     * The warmer has recorded a new profile of the pages that are currently in memory.
+     *
+     * @param elapsedMillis how long the profiling took.
+     * @param pagesInMemory the number of pages that were found to be in memory.
+     */
+    void profileCompleted( long elapsedMillis, long pagesInMemory );
+}
@@ -109,24 +109,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             try ( SerializeTransactionEvent serialiseEvent = logAppendEvent.beginSerializeTransaction() )
             {
                 // Append all transactions in this batch to the log under the same logFile monitor
-                TransactionToApply tx = batch;
-                while ( tx != null )
-                {
-                    long transactionId = transactionIdStore.nextCommittingTransactionId();
-
-                    // If we're in a scenario where we're merely replicating transactions, i.e. transaction
-                    // id have already been generated by another entity we simply check that our id
-                    // that we generated match that id. If it doesn't we've run into a problem we can't ´
-                    // really recover from and would point to a bug somewhere.
-                    matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
-
-                    TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId, logAppendEvent, previousChecksum );
-                    previousChecksum = commitment.getTransactionChecksum();
-                    tx.commitment( commitment, transactionId );
-                    tx.logPosition( commitment.logPosition() );
-                    tx = tx.next();
-                    lastTransactionId = transactionId;
-                }
+                lastTransactionId = appendBatch( batch, logAppendEvent );
             }
         }
 
@@ -148,6 +131,36 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         return lastTransactionId;
     }
 
+    /**
+     * Appends all transactions in the given batch to the log, without forcing it. Must be called while holding the
+     * log file monitor.
+     *
+     * @return the id of the last transaction in the batch.
+     */
+    long appendBatch( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
+    {
+        long lastTransactionId = TransactionIdStore.BASE_TX_ID;
+        TransactionToApply tx = batch;
+        while ( tx != null )
+        {
+            long transactionId = transactionIdStore.nextCommittingTransactionId();
+
+            // If we're in a scenario where we're merely replicating transactions, i.e. transaction
+            // id have already been generated by another entity we simply check that our id
+            // that we generated match that id. If it doesn't we've run into a problem we can't ´
+            // really recover from and would point to a bug somewhere.
+            matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
+
+            TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId, logAppendEvent, previousChecksum );
+            previousChecksum = commitment.getTransactionChecksum();
+            tx.commitment( commitment, transactionId );
+            tx.logPosition( commitment.logPosition() );
+            tx = tx.next();
+            lastTransactionId = transactionId;
+        }
+        return lastTransactionId;
+    }
+
     private void matchAgainstExpectedTransactionIdIfAny( long transactionId, TransactionToApply tx )
     {
         long expectedTransactionId = tx.transactionId();
@@ -165,7 +178,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         }
     }
 
-    private static void publishAsCommitted( TransactionToApply batch )
+    static void publishAsCommitted( TransactionToApply batch )
     {
         while ( batch != null )
         {
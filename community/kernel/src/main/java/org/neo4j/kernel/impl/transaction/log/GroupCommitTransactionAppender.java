@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.transaction.log.files.LogFile;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.log.rotation.LogRotation;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.SerializeTransactionEvent;
+import org.neo4j.monitoring.Health;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.TransactionIdStore;
+
+/**
+ * A {@link BatchingTransactionAppender} where committing threads don't append to the log themselves, but instead
+ * queue their batches for a single log writer thread. The writer takes as many queued batches as are available, up to
+ * a configured maximum and optionally waiting a configured amount of time for more to arrive, appends them all under
+ * a single acquisition of the log file monitor and then forces the log once for the whole group. Committers are
+ * released when their transactions are durable and marked as committed.
+ * <p>
+ * Compared to the committers piggy-backing on each others forces, this amortizes every force over all the
+ * transactions that were queued while the previous force was in progress, and keeps the log file monitor and the log
+ * writer buffers on a single thread.
+ * <p>
+ * Check points are still appended by the check pointer thread, coordinating with the log writer thread on the log
+ * file monitor and the force lock, exactly like with the regular {@link BatchingTransactionAppender}. The same goes for
+ * any append that happens while the log writer thread is not running.
+ * <p>
+ * Committers check whether the writer is running and enqueue their batch under the read side of {@link #stateLock},
+ * while the writer stops accepting batches and takes the last of the queue under the write side. A batch is therefore
+ * either taken by the writer or appended by its committer, no matter how {@link #stop()} races with the commits.
+ */
+public class GroupCommitTransactionAppender extends BatchingTransactionAppender
+{
+    private static final long POLL_TIMEOUT_MILLIS = 10;
+
+    private final BlockingQueue<AppendRequest> queue = new LinkedBlockingQueue<>();
+    private final LogFile logFile;
+    private final LogRotation logRotation;
+    private final Health databaseHealth;
+    private final JobScheduler scheduler;
+    private final int maxBatchSize;
+    private final long maxLatencyNanos;
+
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private JobHandle<?> writerHandle;
+
+    public GroupCommitTransactionAppender( LogFiles logFiles, LogRotation logRotation, TransactionMetadataCache transactionMetadataCache,
+            TransactionIdStore transactionIdStore, Health databaseHealth, JobScheduler scheduler, int maxBatchSize, long maxLatencyNanos )
+    {
+        super( logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth );
+        this.logFile = logFiles.getLogFile();
+        this.logRotation = logRotation;
+        this.databaseHealth = databaseHealth;
+        this.scheduler = scheduler;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLatencyNanos = maxLatencyNanos;
+    }
+
+    @Override
+    public void start()
+    {
+        super.start();
+        running = true;
+        writerHandle = scheduler.schedule( Group.LOG_WRITER, this::writeLoop );
+    }
+
+    @Override
+    public void stop() throws ExecutionException, InterruptedException
+    {
+        // The writer appends whatever is still queued before it exits
+        running = false;
+        writerHandle.waitTermination();
+        writerHandle = null;
+    }
+
+    @Override
+    public long append( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
+    {
+        AppendRequest request = new AppendRequest( batch, logAppendEvent );
+        if ( !enqueue( request ) )
+        {
+            return super.append( batch, logAppendEvent );
+        }
+        try
+        {
+            // Uninterruptible on purpose, the transactions in this batch may already be in the log
+            return request.result.join();
+        }
+        catch ( CompletionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof IOException )
+            {
+                throw (IOException) cause;
+            }
+            if ( cause instanceof RuntimeException )
+            {
+                throw (RuntimeException) cause;
+            }
+            if ( cause instanceof Error )
+            {
+                throw (Error) cause;
+            }
+            throw new IOException( cause );
+        }
+    }
+
+    private boolean enqueue( AppendRequest request )
+    {
+        stateLock.readLock().lock();
+        try
+        {
+            if ( !running )
+            {
+                return false;
+            }
+            queue.add( request );
+            return true;
+        }
+        finally
+        {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    private void writeLoop()
+    {
+        List<AppendRequest> group = new ArrayList<>( maxBatchSize );
+        Throwable failure = null;
+        try
+        {
+            while ( running )
+            {
+                AppendRequest first = queue.poll( POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS );
+                if ( first == null )
+                {
+                    continue;
+                }
+                group.add( first );
+                collectGroup( group );
+                writeGroup( group );
+                group.clear();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            failure = e;
+        }
+        catch ( Throwable t )
+        {
+            failure = t;
+        }
+        finally
+        {
+            List<AppendRequest> remaining = stopAccepting();
+            if ( failure != null )
+            {
+                failAll( group, failure );
+                failAll( remaining, failure );
+            }
+            else
+            {
+                writeRemaining( remaining );
+            }
+        }
+    }
+
+    /**
+     * Makes all further appends fall back to appending on the committing thread and takes what was queued before that.
+     */
+    private List<AppendRequest> stopAccepting()
+    {
+        List<AppendRequest> remaining = new ArrayList<>();
+        stateLock.writeLock().lock();
+        try
+        {
+            running = false;
+            queue.drainTo( remaining );
+        }
+        finally
+        {
+            stateLock.writeLock().unlock();
+        }
+        return remaining;
+    }
+
+    private void writeRemaining( List<AppendRequest> remaining )
+    {
+        for ( int from = 0; from < remaining.size(); from += maxBatchSize )
+        {
+            writeGroup( remaining.subList( from, Math.min( remaining.size(), from + maxBatchSize ) ) );
+        }
+    }
+
+    private void collectGroup( List<AppendRequest> group ) throws InterruptedException
+    {
+        queue.drainTo( group, maxBatchSize - group.size() );
+        if ( maxLatencyNanos > 0 )
+        {
+            long deadline = System.nanoTime() + maxLatencyNanos;
+            long remainingNanos;
+            while ( group.size() < maxBatchSize && (remainingNanos = deadline - System.nanoTime()) > 0 )
+            {
+                AppendRequest next = queue.poll( remainingNanos, TimeUnit.NANOSECONDS );
+                if ( next == null )
+                {
+                    break;
+                }
+                group.add( next );
+                queue.drainTo( group, maxBatchSize - group.size() );
+            }
+        }
+    }
+
+    private void writeGroup( List<AppendRequest> group )
+    {
+        // The force and the potential rotation are traced on the first request in the group, which
+        // is also the one that has been waiting the longest.
+        LogAppendEvent groupEvent = group.get( 0 ).logAppendEvent;
+        try
+        {
+            synchronized ( logFile )
+            {
+                databaseHealth.assertHealthy( IOException.class );
+                for ( AppendRequest request : group )
+                {
+                    try ( SerializeTransactionEvent serialiseEvent = request.logAppendEvent.beginSerializeTransaction() )
+                    {
+                        request.lastTransactionId = appendBatch( request.batch, request.logAppendEvent );
+                    }
+                }
+            }
+
+            if ( forceAfterAppend( groupEvent ) )
+            {
+                groupEvent.setLogRotated( logRotation.rotateLogIfNeeded( groupEvent ) );
+            }
+
+            for ( AppendRequest request : group )
+            {
+                publishAsCommitted( request.batch );
+                request.result.complete( request.lastTransactionId );
+            }
+        }
+        catch ( Throwable t )
+        {
+            // Any failure to append has already caused a panic, just make sure that no committer is left waiting
+            failAll( group, t );
+        }
+    }
+
+    private static void failAll( List<AppendRequest> requests, Throwable cause )
+    {
+        for ( AppendRequest request : requests )
+        {
+            request.result.completeExceptionally( cause );
+        }
+    }
+
+    private static class AppendRequest
+    {
+        private final TransactionToApply batch;
+        private final LogAppendEvent logAppendEvent;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+        private long lastTransactionId;
+
+        AppendRequest( TransactionToApply batch, LogAppendEvent logAppendEvent )
+        {
+            this.batch = batch;
+            this.logAppendEvent = logAppendEvent;
+        }
+    }
+}
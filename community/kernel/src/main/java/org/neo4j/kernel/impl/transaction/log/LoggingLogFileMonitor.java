@@ -27,6 +27,7 @@ import org.neo4j.kernel.recovery.RecoveryMonitor;
 import org.neo4j.kernel.recovery.RecoveryStartInformationProvider;
 import org.neo4j.logging.Log;
 
+import static java.lang.Math.max;
 import static java.lang.String.format;
 import static org.neo4j.internal.helpers.Format.duration;
 
@@ -61,6 +62,13 @@ public class LoggingLogFileMonitor implements RecoveryMonitor, RecoveryStartInfo
         }
     }
 
+    @Override
+    public void recoveryPhaseCompleted( String phase, long numberOfTransactions, long phaseTimeInMilliseconds )
+    {
+        log.info( format( "%s completed. %d transactions, time spent: %s, throughput: %d transactions/s", phase, numberOfTransactions,
+                duration( phaseTimeInMilliseconds ), numberOfTransactions * 1000 / max( phaseTimeInMilliseconds, 1 ) ) );
+    }
+
     @Override
     public void failToRecoverTransactionsAfterCommit( Throwable t, LogEntryCommit commitEntry, LogPosition recoveryToPosition )
     {
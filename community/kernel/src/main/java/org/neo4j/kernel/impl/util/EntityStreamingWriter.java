@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util;
+
+import org.neo4j.exceptions.KernelException;
+import org.neo4j.internal.kernel.api.PropertyCursor;
+import org.neo4j.internal.kernel.api.TokenRead;
+import org.neo4j.values.AnyValueWriter;
+
+/**
+ * An {@link AnyValueWriter} to which nodes and relationships can be written part by part, straight from the cursors of the
+ * transaction, instead of as one call with materialized labels, type and properties.
+ * <p>
+ * A node is written as {@link #beginNode(long)}, a list of label names and a map of properties. A relationship is written as
+ * {@link #beginRelationship(long, long, long)}, the name of its type and a map of properties. Lists and maps are written with
+ * {@link #beginList(int)} and {@link #beginMap(int)}, and names and property keys with {@link #writeString(String)}.
+ */
+public interface EntityStreamingWriter<E extends Exception> extends AnyValueWriter<E>
+{
+    void beginNode( long nodeId ) throws E;
+
+    void beginRelationship( long relationshipId, long startNodeId, long endNodeId ) throws E;
+
+    /**
+     * Counts the remaining properties of the property cursor. The size of a map is written before its entries, so the properties of an
+     * entity are counted first, and then written by {@link #writeProperties} after initializing the cursor again.
+     */
+    static int countProperties( PropertyCursor properties )
+    {
+        int size = 0;
+        while ( properties.next() )
+        {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Writes the remaining properties of the property cursor as a map of the given size.
+     */
+    static <E extends Exception> void writeProperties( EntityStreamingWriter<E> writer, PropertyCursor properties, int size, TokenRead tokenRead )
+            throws E, KernelException
+    {
+        writer.beginMap( size );
+        while ( properties.next() )
+        {
+            writer.writeString( tokenRead.propertyKeyName( properties.propertyKey() ) );
+            properties.propertyValue().writeTo( writer );
+        }
+        writer.endMap();
+    }
+}
@@ -55,6 +55,7 @@ public class NodeEntityWrappingNodeValue extends NodeValue
         return node;
     }
 
+    @SuppressWarnings( "unchecked" )
     @Override
     public <E extends Exception> void writeTo( AnyValueWriter<E> writer ) throws E
     {
@@ -64,6 +65,11 @@ public class NodeEntityWrappingNodeValue extends NodeValue
         }
         else
         {
+            if ( writer instanceof EntityStreamingWriter && streamTo( (EntityStreamingWriter<E>) writer ) )
+            {
+                return;
+            }
+
             TextArray l;
             MapValue p;
             try
@@ -90,6 +96,32 @@ public class NodeEntityWrappingNodeValue extends NodeValue
         }
     }
 
+    /**
+     * Writes the node straight from the store, unless its labels and properties have already been loaded.
+     *
+     * @return false if nothing has been written, because the node has been loaded, is virtual or does not exist.
+     */
+    private <E extends Exception> boolean streamTo( EntityStreamingWriter<E> writer ) throws E
+    {
+        if ( id() < 0 || isPopulated() || !(node instanceof NodeEntity) )
+        {
+            return false;
+        }
+        try
+        {
+            ((NodeEntity) node).writeTo( writer );
+            return true;
+        }
+        catch ( NotFoundException e )
+        {
+            return false;
+        }
+        catch ( StoreFailureException e )
+        {
+            throw new ReadAndDeleteTransactionConflictException( NodeEntity.isDeletedInCurrentTransaction( node ), e );
+        }
+    }
+
     public void populate()
     {
         try
@@ -56,6 +56,7 @@ public class RelationshipEntityWrappingValue extends RelationshipValue
         return relationship;
     }
 
+    @SuppressWarnings( "unchecked" )
     @Override
     public <E extends Exception> void writeTo( AnyValueWriter<E> writer ) throws E
     {
@@ -77,6 +78,11 @@ public class RelationshipEntityWrappingValue extends RelationshipValue
                 }
             }
 
+            if ( writer instanceof EntityStreamingWriter && streamTo( (EntityStreamingWriter<E>) writer ) )
+            {
+                return;
+            }
+
             MapValue p;
             try
             {
@@ -100,6 +106,32 @@ public class RelationshipEntityWrappingValue extends RelationshipValue
         }
     }
 
+    /**
+     * Writes the relationship straight from the store, unless its properties have already been loaded.
+     *
+     * @return false if nothing has been written, because the relationship has been loaded, is virtual or does not exist.
+     */
+    private <E extends Exception> boolean streamTo( EntityStreamingWriter<E> writer ) throws E
+    {
+        if ( id() < 0 || properties != null || !(relationship instanceof RelationshipEntity) )
+        {
+            return false;
+        }
+        try
+        {
+            ((RelationshipEntity) relationship).writeTo( writer );
+            return true;
+        }
+        catch ( NotFoundException e )
+        {
+            return false;
+        }
+        catch ( IllegalStateException e )
+        {
+            throw new ReadAndDeleteTransactionConflictException( RelationshipEntity.isDeletedInCurrentTransaction( relationship ), e );
+        }
+    }
+
     @Override
     public long estimatedHeapUsage()
     {
@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.impl.util.collection;
 
+import org.eclipse.collections.api.set.primitive.LongSet;
 import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
 
 import java.util.Iterator;
@@ -71,6 +72,11 @@ public class LongProbeTable<V extends Measurable> implements AutoCloseable
         return map.isEmpty();
     }
 
+    public LongSet keySet()
+    {
+        return map.keySet();
+    }
+
     @Override
     public void close()
     {
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.logging.Log;
+import org.neo4j.storageengine.api.StorageCommandPartitioner;
+import org.neo4j.storageengine.api.StorageEngine;
+
+import static org.neo4j.kernel.impl.transaction.log.Commitment.NO_COMMITMENT;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
+
+/**
+ * Applies recovered transactions concurrently, where the {@link StorageCommandPartitioner} of the storage engine allows it.
+ * <p>
+ * Each recovered transaction is partitioned into the keys of the entities and records it changes, and is scheduled to be applied once
+ * all earlier transactions that share a key with it have been applied. Transactions that share no keys are applied concurrently by the
+ * {@link org.neo4j.scheduler.Group#RECOVERY_APPLIER} threads, while transactions that the partitioner refuses to partition are applied
+ * by the calling thread once all earlier transactions have been applied, and before any later transaction is. This keeps the changes,
+ * and thereby also the index updates, of every entity in commit order.
+ * <p>
+ * The calling thread keeps reading transactions from the log while earlier transactions are being applied, up to {@code readAhead}
+ * transactions ahead of the oldest transaction that has not yet been applied. A transaction only counts as applied, see
+ * {@link #isApplied(long)}, once all transactions before it in the log have been applied too, and a transaction depending on one that
+ * failed is never applied.
+ */
+class ParallelRecoveryVisitor implements RecoveryApplier
+{
+    private static final String PARALLEL_RECOVERY_TAG = "parallelRecovery";
+
+    private final StorageEngine storageEngine;
+    private final StorageCommandPartitioner partitioner;
+    private final Executor executor;
+    private final PageCacheTracer pageCacheTracer;
+    private final PageCursorTracer cursorTracer;
+    private final int readAhead;
+    private final Semaphore permits;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final MutableLongSet keys = new LongHashSet();
+    private final List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+    private final Deque<Application> applications = new ArrayDeque<>();
+    private final Log log;
+    private MutableLongObjectMap<CompletableFuture<Void>> lastApplicationOfKey = new LongObjectHashMap<>();
+    private long lastAppliedTxId = -1;
+    private long concurrentTransactions;
+    private long serialTransactions;
+
+    ParallelRecoveryVisitor( StorageEngine storageEngine, Executor executor, int readAhead, PageCacheTracer pageCacheTracer,
+            PageCursorTracer cursorTracer, Log log )
+    {
+        this.storageEngine = storageEngine;
+        this.partitioner = storageEngine.commandPartitioner();
+        this.executor = executor;
+        this.readAhead = readAhead;
+        this.pageCacheTracer = pageCacheTracer;
+        this.cursorTracer = cursorTracer;
+        this.log = log;
+        this.permits = new Semaphore( readAhead );
+    }
+
+    @Override
+    public boolean visit( CommittedTransactionRepresentation transaction ) throws Exception
+    {
+        checkFailure();
+        TransactionToApply tx = transactionToApply( transaction, cursorTracer );
+        keys.clear();
+        if ( !partitioner.partition( tx, keys::add ) )
+        {
+            awaitAppliedTransactions();
+            storageEngine.apply( tx, RECOVERY );
+            applications.clear();
+            lastAppliedTxId = tx.transactionId();
+            serialTransactions++;
+            return false;
+        }
+
+        dependencies.clear();
+        keys.forEach( key ->
+        {
+            CompletableFuture<Void> dependency = lastApplicationOfKey.get( key );
+            // A failed dependency fails its dependents too, rather than having them applied on top of what it did not apply
+            if ( dependency != null && (!dependency.isDone() || dependency.isCompletedExceptionally()) )
+            {
+                dependencies.add( dependency );
+            }
+        } );
+        permits.acquire();
+        CompletableFuture<Void> applied = CompletableFuture.allOf( dependencies.toArray( new CompletableFuture[0] ) )
+                .thenRunAsync( () -> apply( transaction ), executor );
+        applied.whenComplete( ( result, t ) ->
+        {
+            if ( t != null )
+            {
+                failure.compareAndSet( null, t instanceof CompletionException && t.getCause() != null ? t.getCause() : t );
+            }
+            permits.release();
+        } );
+        keys.forEach( key -> lastApplicationOfKey.put( key, applied ) );
+        applications.addLast( new Application( tx.transactionId(), applied ) );
+        concurrentTransactions++;
+        if ( lastApplicationOfKey.size() > readAhead * 64 )
+        {
+            // Only the keys of transactions that are still in flight can cause dependencies
+            lastApplicationOfKey = lastApplicationOfKey.reject( ( key, application ) -> application.isDone() && !application.isCompletedExceptionally() );
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isApplied( long txId )
+    {
+        while ( !applications.isEmpty() )
+        {
+            Application oldest = applications.peekFirst();
+            if ( !oldest.applied.isDone() || oldest.applied.isCompletedExceptionally() )
+            {
+                break;
+            }
+            lastAppliedTxId = oldest.txId;
+            applications.pollFirst();
+        }
+        return txId <= lastAppliedTxId;
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        awaitAppliedTransactions();
+        log.info( "Parallel recovery applied %d transactions concurrently and %d transactions serially.", concurrentTransactions, serialTransactions );
+    }
+
+    private void apply( CommittedTransactionRepresentation transaction )
+    {
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( PARALLEL_RECOVERY_TAG ) )
+        {
+            storageEngine.apply( transactionToApply( transaction, cursorTracer ), RECOVERY );
+        }
+        catch ( Exception e )
+        {
+            throw new CompletionException( e );
+        }
+    }
+
+    private void awaitAppliedTransactions() throws Exception
+    {
+        permits.acquire( readAhead );
+        permits.release( readAhead );
+        checkFailure();
+        lastApplicationOfKey.clear();
+    }
+
+    private void checkFailure() throws Exception
+    {
+        Throwable t = failure.get();
+        if ( t instanceof Error )
+        {
+            throw (Error) t;
+        }
+        if ( t != null )
+        {
+            throw (Exception) t;
+        }
+    }
+
+    private static TransactionToApply transactionToApply( CommittedTransactionRepresentation transaction, PageCursorTracer cursorTracer )
+    {
+        long txId = transaction.getCommitEntry().getTxId();
+        TransactionToApply tx = new TransactionToApply( transaction.getTransactionRepresentation(), txId, cursorTracer );
+        tx.commitment( NO_COMMITMENT, txId );
+        tx.logPosition( transaction.getStartEntry().getStartPosition() );
+        return tx;
+    }
+
+    private static class Application
+    {
+        private final long txId;
+        private final CompletableFuture<Void> applied;
+
+        Application( long txId, CompletableFuture<Void> applied )
+        {
+            this.txId = txId;
+            this.applied = applied;
+        }
+    }
+}
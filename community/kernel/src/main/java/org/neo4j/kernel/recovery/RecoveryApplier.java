@@ -27,4 +27,16 @@ import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
  */
 public interface RecoveryApplier extends Visitor<CommittedTransactionRepresentation,Exception>, AutoCloseable
 {
+    /**
+     * Tells whether a visited transaction has been applied, so that recovery only counts it as recovered once it has. Transactions are
+     * asked about in the order they were visited. Appliers that apply each transaction before returning from {@link #visit(Object)} have
+     * applied every transaction they have visited.
+     *
+     * @param txId id of a transaction that has been visited, and whose preceding transactions have all been applied.
+     * @return {@code true} if the transaction has been applied successfully.
+     */
+    default boolean isApplied( long txId )
+    {
+        return true;
+    }
 }
@@ -44,6 +44,11 @@ public interface RecoveryMonitor
         //noop
     }
 
+    default void recoveryPhaseCompleted( String phase, long numberOfTransactions, long phaseTimeInMilliseconds )
+    {
+        //noop
+    }
+
     default void failToRecoverTransactionsAfterCommit( Throwable t, LogEntryCommit commitEntry,
             LogPosition recoveryToPosition )
     {
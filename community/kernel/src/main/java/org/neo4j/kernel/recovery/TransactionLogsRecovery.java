@@ -20,6 +20,8 @@
 package org.neo4j.kernel.recovery;
 
 import java.nio.channels.ClosedByInterruptException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import org.neo4j.common.ProgressReporter;
 import org.neo4j.dbms.database.DatabaseStartAbortedException;
@@ -48,6 +50,8 @@ public class TransactionLogsRecovery extends LifecycleAdapter
     private static final String REVERSE_RECOVERY_TAG = "restoreDatabase";
     private static final String RECOVERY_TAG = "recoverDatabase";
     private static final String RECOVERY_COMPLETED_TAG = "databaseRecoveryCompleted";
+    private static final String REVERSE_RECOVERY_PHASE = "Reverse recovery";
+    private static final String RECOVERY_PHASE = "Forward recovery";
 
     private final RecoveryService recoveryService;
     private final RecoveryMonitor monitor;
@@ -98,6 +102,8 @@ public class TransactionLogsRecovery extends LifecycleAdapter
             try
             {
                 long lowestRecoveredTxId = TransactionIdStore.BASE_TX_ID;
+                long numberOfReversedTransactions = 0;
+                Stopwatch phaseStartTime = Stopwatch.start();
                 try ( var transactionsToRecover = recoveryService.getTransactionsInReverseOrder( recoveryStartPosition );
                       var cursorTracer = pageCacheTracer.createPageCursorTracer( REVERSE_RECOVERY_TAG );
                       var recoveryVisitor = recoveryService.getRecoveryApplier( REVERSE_RECOVERY, cursorTracer ) )
@@ -113,35 +119,67 @@ public class TransactionLogsRecovery extends LifecycleAdapter
                         }
                         recoveryVisitor.visit( transaction );
                         lowestRecoveredTxId = transaction.getCommitEntry().getTxId();
+                        numberOfReversedTransactions++;
                         reportProgress();
                     }
                 }
 
                 monitor.reverseStoreRecoveryCompleted( lowestRecoveredTxId );
+                monitor.recoveryPhaseCompleted( REVERSE_RECOVERY_PHASE, numberOfReversedTransactions, phaseStartTime.elapsed( MILLISECONDS ) );
 
                 // We cannot initialise the schema (tokens, schema cache, indexing service, etc.) until we have returned the store to a consistent state.
                 // We need to be able to read the store before we can even figure out what indexes, tokens, etc. we have. Hence we defer the initialisation
                 // of the schema life until after we've done the reverse recovery.
                 schemaLife.init();
 
+                phaseStartTime = Stopwatch.start();
+                // Transactions that have been visited, but may not have been applied yet. They only count as recovered, and the logs
+                // are only kept up to them, once they and all transactions before them have been applied.
+                Deque<VisitedTransaction> visitedTransactions = new ArrayDeque<>();
                 try ( TransactionCursor transactionsToRecover = recoveryService.getTransactions( recoveryStartPosition );
-                        var cursorTracer = pageCacheTracer.createPageCursorTracer( RECOVERY_TAG );
-                        RecoveryApplier recoveryVisitor = recoveryService.getRecoveryApplier( RECOVERY, cursorTracer ) )
+                        var cursorTracer = pageCacheTracer.createPageCursorTracer( RECOVERY_TAG ) )
                 {
-                    while ( transactionsToRecover.next() )
+                    RecoveryApplier recoveryVisitor = recoveryService.getRecoveryApplier( RECOVERY, cursorTracer );
+                    LogPosition endPosition;
+                    try
                     {
-                        recoveryStartupChecker.checkIfCanceled();
-                        lastTransaction = transactionsToRecover.get();
-                        long txId = lastTransaction.getCommitEntry().getTxId();
-                        recoveryVisitor.visit( lastTransaction );
-                        monitor.transactionRecovered( txId );
-                        numberOfRecoveredTransactions++;
-                        lastTransactionPosition = transactionsToRecover.position();
-                        recoveryToPosition = lastTransactionPosition;
-                        reportProgress();
+                        while ( transactionsToRecover.next() )
+                        {
+                            recoveryStartupChecker.checkIfCanceled();
+                            CommittedTransactionRepresentation transaction = transactionsToRecover.get();
+                            recoveryVisitor.visit( transaction );
+                            visitedTransactions.addLast( new VisitedTransaction( transaction, transactionsToRecover.position() ) );
+                            VisitedTransaction recovered = recoverAppliedTransactions( visitedTransactions, recoveryVisitor );
+                            if ( recovered != null )
+                            {
+                                lastTransaction = recovered.transaction;
+                                lastTransactionPosition = recovered.positionAfter;
+                                recoveryToPosition = recovered.positionAfter;
+                            }
+                        }
+                        endPosition = transactionsToRecover.position();
+                    }
+                    finally
+                    {
+                        try
+                        {
+                            // Waits for the transactions that are still being applied, and fails if any of them failed
+                            recoveryVisitor.close();
+                        }
+                        finally
+                        {
+                            VisitedTransaction recovered = recoverAppliedTransactions( visitedTransactions, recoveryVisitor );
+                            if ( recovered != null )
+                            {
+                                lastTransaction = recovered.transaction;
+                                lastTransactionPosition = recovered.positionAfter;
+                                recoveryToPosition = recovered.positionAfter;
+                            }
+                        }
                     }
-                    recoveryToPosition = transactionsToRecover.position();
+                    recoveryToPosition = endPosition;
                 }
+                monitor.recoveryPhaseCompleted( RECOVERY_PHASE, numberOfRecoveredTransactions, phaseStartTime.elapsed( MILLISECONDS ) );
             }
             catch ( Error | ClosedByInterruptException | DatabaseStartAbortedException e )
             {
@@ -177,6 +215,24 @@ public class TransactionLogsRecovery extends LifecycleAdapter
         monitor.recoveryCompleted( numberOfRecoveredTransactions, recoveryStartTime.elapsed( MILLISECONDS ) );
     }
 
+    /**
+     * Takes the transactions that have been applied, along with all transactions before them, off the head of {@code visitedTransactions}.
+     *
+     * @return the last of the transactions taken, or {@code null} if none were.
+     */
+    private VisitedTransaction recoverAppliedTransactions( Deque<VisitedTransaction> visitedTransactions, RecoveryApplier recoveryVisitor )
+    {
+        VisitedTransaction recovered = null;
+        while ( !visitedTransactions.isEmpty() && recoveryVisitor.isApplied( visitedTransactions.peekFirst().transaction.getCommitEntry().getTxId() ) )
+        {
+            recovered = visitedTransactions.pollFirst();
+            monitor.transactionRecovered( recovered.transaction.getCommitEntry().getTxId() );
+            numberOfRecoveredTransactions++;
+            reportProgress();
+        }
+        return recovered;
+    }
+
     private void initProgressReporter( RecoveryStartInformation recoveryStartInformation,
             CommittedTransactionRepresentation lastReversedTransaction )
     {
@@ -199,6 +255,18 @@ public class TransactionLogsRecovery extends LifecycleAdapter
                 recoveryStartInformation.getFirstTxIdAfterLastCheckPoint() + 1;
     }
 
+    private static class VisitedTransaction
+    {
+        private final CommittedTransactionRepresentation transaction;
+        private final LogPosition positionAfter;
+
+        VisitedTransaction( CommittedTransactionRepresentation transaction, LogPosition positionAfter )
+        {
+            this.transaction = transaction;
+            this.positionAfter = positionAfter;
+        }
+    }
+
     @Override
     public void start() throws Exception
     {
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.lock.ResourceTypes.NODE;
+
+class StripedLockTest
+{
+    private final StripedLockClient clientA = mock( StripedLockClient.class );
+    private final StripedLockClient clientB = mock( StripedLockClient.class );
+
+    @Test
+    void sharedLockShouldBeSharedButBlockExclusive()
+    {
+        StripedLock lock = new StripedLock( NODE, 1, clientA, false );
+
+        assertEquals( StripedLock.ACQUIRED, lock.tryAcquireShared( clientB, false ) );
+        assertEquals( StripedLock.BUSY, lock.tryAcquireExclusive( clientB, true ) );
+        assertThat( lock.holders() ).containsExactlyInAnyOrder( clientA, clientB );
+    }
+
+    @Test
+    void exclusiveLockShouldBlockOthers()
+    {
+        StripedLock lock = new StripedLock( NODE, 1, clientA, true );
+
+        assertEquals( StripedLock.BUSY, lock.tryAcquireShared( clientB, false ) );
+        assertEquals( StripedLock.BUSY, lock.tryAcquireExclusive( clientB, false ) );
+        assertThat( lock.holders() ).containsExactly( clientA );
+    }
+
+    @Test
+    void soleSharedHolderShouldBeAbleToUpgradeAndDowngrade()
+    {
+        StripedLock lock = new StripedLock( NODE, 1, clientA, false );
+
+        assertEquals( StripedLock.ACQUIRED, lock.tryAcquireExclusive( clientA, true ) );
+        assertFalse( lock.releaseExclusive() );
+        assertTrue( lock.isHeld() );
+        assertEquals( StripedLock.BUSY, lock.tryAcquireExclusive( clientB, false ) );
+        assertEquals( StripedLock.ACQUIRED, lock.tryAcquireShared( clientB, false ) );
+    }
+
+    @Test
+    void lastReleaseShouldRetireLock()
+    {
+        StripedLock lock = new StripedLock( NODE, 1, clientA, false );
+        assertEquals( StripedLock.ACQUIRED, lock.tryAcquireShared( clientB, false ) );
+
+        assertFalse( lock.releaseShared( clientA ) );
+        assertTrue( lock.releaseShared( clientB ) );
+
+        assertFalse( lock.isHeld() );
+        assertEquals( StripedLock.DEAD_LOCK_OBJECT, lock.tryAcquireShared( clientA, false ) );
+        assertEquals( StripedLock.DEAD_LOCK_OBJECT, lock.tryAcquireExclusive( clientA, false ) );
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.io.pagecache.PageCursor.UNBOUND_PAGE_ID;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+@TestDirectoryExtension
+class PageCacheWarmerTest
+{
+    private static final int PAGE_SIZE = 4096;
+    private static final int PAGES = 20;
+
+    @Inject
+    private TestDirectory testDirectory;
+
+    private FileSystemAbstraction fs;
+    private JobScheduler scheduler;
+    private File databaseDirectory;
+    private File storeFile;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        fs = new DefaultFileSystemAbstraction();
+        scheduler = JobSchedulerFactory.createInitialisedScheduler();
+        databaseDirectory = testDirectory.directory( "db" ).getCanonicalFile();
+        storeFile = new File( databaseDirectory, "store" );
+        try ( StoreChannel channel = fs.write( storeFile ) )
+        {
+            channel.writeAll( ByteBuffer.allocate( PAGES * PAGE_SIZE ) );
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        scheduler.close();
+        fs.close();
+    }
+
+    @Test
+    void warmupMustLoadPagesRecordedInProfile() throws Exception
+    {
+        Config config = Config.defaults();
+        try ( PageCache pageCache = createPageCache();
+              PagedFile pagedFile = pageCache.map( storeFile, PAGE_SIZE ) )
+        {
+            touch( pagedFile, 3, 7, 11 );
+            assertThat( warmer( pageCache, config, PageCacheWarmerMonitorAdapter.EMPTY ).profile() ).isEqualTo( 3 );
+        }
+        assertThat( fs.fileExists( new File( new File( databaseDirectory, PageCacheWarmer.PROFILES_DIRECTORY ),
+                "store" + PageCacheWarmer.SUFFIX_CACHEPROF ) ) ).isTrue();
+
+        try ( PageCache pageCache = createPageCache();
+              PagedFile pagedFile = pageCache.map( storeFile, PAGE_SIZE ) )
+        {
+            assertThat( residentPages( pagedFile ) ).isZero();
+            assertThat( warmer( pageCache, config, PageCacheWarmerMonitorAdapter.EMPTY ).warmUp() ).isEqualTo( 3 );
+            assertThat( residentPages( pagedFile ) ).isEqualTo( 3 );
+            assertResident( pagedFile, 3, 7, 11 );
+        }
+    }
+
+    @Test
+    void preloadMustLoadWholeWhitelistedFiles() throws Exception
+    {
+        Config config = Config.newBuilder()
+                .set( GraphDatabaseSettings.pagecache_warmup_prefetch, true )
+                .set( GraphDatabaseSettings.pagecache_warmup_prefetch_whitelist, "st.*" )
+                .build();
+        File otherFile = new File( databaseDirectory, "other" );
+        try ( StoreChannel channel = fs.write( otherFile ) )
+        {
+            channel.writeAll( ByteBuffer.allocate( PAGES * PAGE_SIZE ) );
+        }
+        try ( PageCache pageCache = createPageCache();
+              PagedFile pagedFile = pageCache.map( storeFile, PAGE_SIZE );
+              PagedFile otherPagedFile = pageCache.map( otherFile, PAGE_SIZE ) )
+        {
+            assertThat( warmer( pageCache, config, PageCacheWarmerMonitorAdapter.EMPTY ).warmUp() ).isEqualTo( PAGES );
+            assertThat( residentPages( pagedFile ) ).isEqualTo( PAGES );
+            assertThat( residentPages( otherPagedFile ) ).isZero();
+        }
+    }
+
+    @Test
+    void mustReportWarmupAndRecordProfileOnStop() throws Exception
+    {
+        CountDownLatch warmupCompleted = new CountDownLatch( 1 );
+        CountDownLatch profileCompleted = new CountDownLatch( 1 );
+        PageCacheWarmerMonitor monitor = new PageCacheWarmerMonitorAdapter()
+        {
+            @Override
+            public void warmupCompleted( long elapsedMillis, long pagesLoaded )
+            {
+                warmupCompleted.countDown();
+            }
+
+            @Override
+            public void profileCompleted( long elapsedMillis, long pagesInMemory )
+            {
+                profileCompleted.countDown();
+            }
+        };
+        try ( PageCache pageCache = createPageCache();
+              PagedFile pagedFile = pageCache.map( storeFile, PAGE_SIZE ) )
+        {
+            PageCacheWarmer warmer = warmer( pageCache, Config.defaults(), monitor );
+            warmer.start();
+            assertThat( warmupCompleted.await( 1, TimeUnit.MINUTES ) ).isTrue();
+            touch( pagedFile, 1 );
+            warmer.stop();
+            assertThat( profileCompleted.getCount() ).isZero();
+        }
+    }
+
+    @Test
+    void mustNotDoAnythingWhenDisabled() throws Exception
+    {
+        Config config = Config.defaults( GraphDatabaseSettings.pagecache_warmup_enabled, false );
+        try ( PageCache pageCache = createPageCache();
+              PagedFile ignore = pageCache.map( storeFile, PAGE_SIZE ) )
+        {
+            PageCacheWarmer warmer = warmer( pageCache, config, PageCacheWarmerMonitorAdapter.EMPTY );
+            warmer.start();
+            warmer.stop();
+        }
+        assertThat( fs.fileExists( new File( databaseDirectory, PageCacheWarmer.PROFILES_DIRECTORY ) ) ).isFalse();
+    }
+
+    private PageCache createPageCache()
+    {
+        return ConfigurableStandalonePageCacheFactory.createPageCache( fs, scheduler, PageCacheTracer.NULL );
+    }
+
+    private PageCacheWarmer warmer( PageCache pageCache, Config config, PageCacheWarmerMonitor monitor )
+    {
+        return new PageCacheWarmer( fs, pageCache, scheduler, databaseDirectory, config, NullLogProvider.getInstance(), PageCacheTracer.NULL, monitor );
+    }
+
+    private static void touch( PagedFile pagedFile, long... pageIds ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+        {
+            for ( long pageId : pageIds )
+            {
+                assertThat( cursor.next( pageId ) ).isTrue();
+            }
+        }
+    }
+
+    private static long residentPages( PagedFile pagedFile ) throws IOException
+    {
+        long resident = 0;
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT, NULL ) )
+        {
+            while ( cursor.next() )
+            {
+                if ( cursor.getCurrentPageId() != UNBOUND_PAGE_ID )
+                {
+                    resident++;
+                }
+            }
+        }
+        return resident;
+    }
+
+    private static void assertResident( PagedFile pagedFile, long... pageIds ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT, NULL ) )
+        {
+            for ( long pageId : pageIds )
+            {
+                assertThat( cursor.next( pageId ) ).isTrue();
+                assertThat( cursor.getCurrentPageId() ).isEqualTo( pageId );
+            }
+        }
+    }
+}
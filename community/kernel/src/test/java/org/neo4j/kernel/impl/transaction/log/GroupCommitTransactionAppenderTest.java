@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.io.ByteUnit;
+import org.neo4j.kernel.impl.api.TestCommand;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.files.LogFile;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.log.files.TransactionLogFiles;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.monitoring.DatabaseHealth;
+import org.neo4j.monitoring.Health;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.TransactionId;
+import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.LifeExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
+import static org.neo4j.kernel.impl.transaction.log.TestLogEntryReader.logEntryReader;
+import static org.neo4j.kernel.impl.transaction.log.rotation.LogRotation.NO_ROTATION;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_COMMIT_TIMESTAMP;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_ID;
+
+@ExtendWith( LifeExtension.class )
+class GroupCommitTransactionAppenderTest
+{
+    @Inject
+    private LifeSupport life;
+
+    private final InMemoryClosableChannel channel = new InMemoryClosableChannel( (int) ByteUnit.mebiBytes( 1 ) );
+    private final Health databaseHealth = mock( DatabaseHealth.class );
+    private final LogFile logFile = mock( LogFile.class );
+    private final LogFiles logFiles = mock( TransactionLogFiles.class );
+    private final TransactionIdStore transactionIdStore = mock( TransactionIdStore.class );
+    private final AtomicLong nextTransactionId = new AtomicLong( BASE_TX_ID + 1 );
+    private JobScheduler scheduler;
+
+    @BeforeEach
+    void setUp()
+    {
+        scheduler = life.add( createInitialisedScheduler() );
+        when( logFiles.getLogFile() ).thenReturn( logFile );
+        when( logFile.getWriter() ).thenReturn( channel );
+        when( transactionIdStore.getLastCommittedTransaction() )
+                .thenReturn( new TransactionId( BASE_TX_ID, BASE_TX_CHECKSUM, BASE_TX_COMMIT_TIMESTAMP ) );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenAnswer( invocation -> nextTransactionId.getAndIncrement() );
+    }
+
+    @Test
+    void shouldAppendTransactionOnLogWriterThread() throws Exception
+    {
+        TransactionAppender appender = life.add( createTransactionAppender( 1024, 0 ) );
+
+        TransactionToApply tx = new TransactionToApply( transaction(), NULL );
+        long lastTransactionId = appender.append( tx, LogAppendEvent.NULL );
+
+        assertEquals( BASE_TX_ID + 1, lastTransactionId );
+        assertEquals( BASE_TX_ID + 1, tx.transactionId() );
+        verify( transactionIdStore ).transactionCommitted( eq( BASE_TX_ID + 1 ), anyInt(), anyLong(), any() );
+        assertEquals( 1, countTransactionsInLog() );
+    }
+
+    @Test
+    void shouldAppendAllTransactionsFromConcurrentCommitters() throws Exception
+    {
+        TransactionAppender appender = life.add( createTransactionAppender( 16, TimeUnit.MILLISECONDS.toNanos( 1 ) ) );
+        int committers = 8;
+        int transactionsPerCommitter = 100;
+
+        ExecutorService executor = Executors.newFixedThreadPool( committers );
+        try
+        {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for ( int i = 0; i < committers; i++ )
+            {
+                futures.add( executor.submit( (Callable<List<Long>>) () ->
+                {
+                    List<Long> ids = new ArrayList<>();
+                    for ( int j = 0; j < transactionsPerCommitter; j++ )
+                    {
+                        ids.add( appender.append( new TransactionToApply( transaction(), NULL ), LogAppendEvent.NULL ) );
+                    }
+                    return ids;
+                } ) );
+            }
+            List<Long> allIds = new ArrayList<>();
+            for ( Future<List<Long>> future : futures )
+            {
+                allIds.addAll( future.get() );
+            }
+
+            assertThat( allIds ).doesNotHaveDuplicates().hasSize( committers * transactionsPerCommitter );
+            assertEquals( committers * transactionsPerCommitter, countTransactionsInLog() );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldAppendEveryTransactionWhenStoppedWhileCommitting() throws Exception
+    {
+        GroupCommitTransactionAppender appender = createTransactionAppender( 16, 0 );
+        appender.start();
+        int committers = 8;
+        int transactionsPerCommitter = 200;
+
+        ExecutorService executor = Executors.newFixedThreadPool( committers );
+        try
+        {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for ( int i = 0; i < committers; i++ )
+            {
+                futures.add( executor.submit( (Callable<List<Long>>) () ->
+                {
+                    List<Long> ids = new ArrayList<>();
+                    for ( int j = 0; j < transactionsPerCommitter; j++ )
+                    {
+                        ids.add( appender.append( new TransactionToApply( transaction(), NULL ), LogAppendEvent.NULL ) );
+                    }
+                    return ids;
+                } ) );
+            }
+            while ( nextTransactionId.get() < BASE_TX_ID + committers * transactionsPerCommitter / 2 )
+            {
+                Thread.onSpinWait();
+            }
+            appender.stop();
+
+            List<Long> allIds = new ArrayList<>();
+            for ( Future<List<Long>> future : futures )
+            {
+                // A committer whose batch was neither taken by the writer nor appended by itself would block here
+                allIds.addAll( future.get( 1, TimeUnit.MINUTES ) );
+            }
+
+            assertThat( allIds ).doesNotHaveDuplicates().hasSize( committers * transactionsPerCommitter );
+            assertEquals( committers * transactionsPerCommitter, countTransactionsInLog() );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldFailCommitterAndPanicWhenTransactionIdsMismatch()
+    {
+        TransactionAppender appender = life.add( createTransactionAppender( 1024, 0 ) );
+        TransactionToApply tx = new TransactionToApply( transaction(), BASE_TX_ID + 10, NULL );
+
+        var e = assertThrows( IllegalStateException.class, () -> appender.append( tx, LogAppendEvent.NULL ) );
+        assertThat( e.getMessage() ).contains( "to be applied, but appending it ended up generating an" );
+        verify( databaseHealth ).panic( e );
+    }
+
+    private GroupCommitTransactionAppender createTransactionAppender( int maxBatchSize, long maxLatencyNanos )
+    {
+        return new GroupCommitTransactionAppender( logFiles, NO_ROTATION, new TransactionMetadataCache(), transactionIdStore, databaseHealth,
+                scheduler, maxBatchSize, maxLatencyNanos );
+    }
+
+    private int countTransactionsInLog() throws Exception
+    {
+        int count = 0;
+        try ( PhysicalTransactionCursor reader = new PhysicalTransactionCursor( channel, logEntryReader() ) )
+        {
+            while ( reader.next() )
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static TransactionRepresentation transaction()
+    {
+        PhysicalTransactionRepresentation tx = new PhysicalTransactionRepresentation( Collections.singletonList( new TestCommand() ) );
+        tx.setHeader( new byte[0], 0, 1, 0, -1 );
+        return tx;
+    }
+}
@@ -82,6 +82,18 @@ class LongProbeTableTest
         assertFalse( iterator3.hasNext() );
     }
 
+    @Test
+    void keySetShouldContainAllKeys()
+    {
+        table.put( 2, Values.longValue( 1L ) );
+        table.put( 2, Values.longValue( 2L ) );
+        table.put( 3, Values.longValue( 3L ) );
+
+        assertEquals( 2, table.keySet().size() );
+        assertTrue( table.keySet().containsAll( 2, 3 ) );
+        assertFalse( table.keySet().contains( 4 ) );
+    }
+
     @Test
     void closeShouldReleaseEverything()
     {
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.neo4j.kernel.impl.api.TestCommand;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
+import org.neo4j.logging.NullLog;
+import org.neo4j.storageengine.api.CommandsToApply;
+import org.neo4j.storageengine.api.StorageEngine;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.neo4j.io.pagecache.tracing.PageCacheTracer.NULL;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
+
+class ParallelRecoveryVisitorTest
+{
+    private static final long SHARED_KEY = 1;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool( 4 );
+    private final StorageEngine storageEngine = mock( StorageEngine.class );
+    private final List<Long> appliedTransactions = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown()
+    {
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldReportTransactionsAsAppliedInLogOrder() throws Exception
+    {
+        failApplying( -1 );
+        ParallelRecoveryVisitor visitor = newVisitor();
+
+        visitor.visit( transaction( 2, 10 ) );
+        visitor.visit( transaction( 3, 11 ) );
+        visitor.visit( transaction( 4, 10 ) );
+        visitor.close();
+
+        assertThat( appliedTransactions ).containsExactlyInAnyOrder( 2L, 3L, 4L );
+        assertTrue( visitor.isApplied( 2 ) );
+        assertTrue( visitor.isApplied( 4 ) );
+    }
+
+    @Test
+    void shouldNotApplyTransactionsDependingOnFailedTransaction() throws Exception
+    {
+        failApplying( 3 );
+        ParallelRecoveryVisitor visitor = newVisitor();
+
+        assertThrows( IOException.class, () ->
+        {
+            try
+            {
+                visitor.visit( transaction( 2, SHARED_KEY ) );
+                visitor.visit( transaction( 3, SHARED_KEY ) );
+                visitor.visit( transaction( 4, SHARED_KEY ) );
+            }
+            finally
+            {
+                visitor.close();
+            }
+        } );
+
+        assertThat( appliedTransactions ).containsExactly( 2L );
+        assertTrue( visitor.isApplied( 2 ) );
+        assertFalse( visitor.isApplied( 3 ) );
+        assertFalse( visitor.isApplied( 4 ) );
+    }
+
+    private void failApplying( long failingTxId ) throws Exception
+    {
+        // Each transaction is keyed by its header's latest committed tx id, standing in for the entity it changes
+        when( storageEngine.commandPartitioner() ).thenReturn( ( commands, keys ) ->
+        {
+            keys.accept( ((TransactionToApply) commands).transactionRepresentation().getLatestCommittedTxWhenStarted() );
+            return true;
+        } );
+        doAnswer( invocation ->
+        {
+            long txId = invocation.getArgument( 0, CommandsToApply.class ).transactionId();
+            if ( txId == failingTxId )
+            {
+                throw new IOException( "Failed to apply transaction " + txId );
+            }
+            appliedTransactions.add( txId );
+            return null;
+        } ).when( storageEngine ).apply( any(), eq( RECOVERY ) );
+    }
+
+    private ParallelRecoveryVisitor newVisitor()
+    {
+        return new ParallelRecoveryVisitor( storageEngine, executor, 16, NULL, NULL.createPageCursorTracer( "test" ), NullLog.getInstance() );
+    }
+
+    private static CommittedTransactionRepresentation transaction( long txId, long key )
+    {
+        PhysicalTransactionRepresentation tx = new PhysicalTransactionRepresentation( singletonList( new TestCommand() ) );
+        tx.setHeader( new byte[0], 0, key, 0, -1 );
+        return new CommittedTransactionRepresentation( new LogEntryStart( 0, key, BASE_TX_CHECKSUM, new byte[0], LogPosition.UNSPECIFIED ), tx,
+                new LogEntryCommit( txId, 0, BASE_TX_CHECKSUM ) );
+    }
+}
@@ -26,6 +26,8 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
@@ -253,6 +255,114 @@ class TransactionLogsRecoveryTest
         }
     }
 
+    @Test
+    void shouldOnlyRecoverAndKeepTransactionsAppliedBeforeAnAsynchronousFailure() throws Exception
+    {
+        File file = logFiles.getLogFileForVersion( logVersion );
+        LogPositionMarker afterFirstTransaction = new LogPositionMarker();
+
+        writeSomeData( file, pair ->
+        {
+            LogEntryWriter writer = pair.first();
+            Consumer<LogPositionMarker> consumer = pair.other();
+            LogPositionMarker marker = new LogPositionMarker();
+
+            int previousChecksum = BASE_TX_CHECKSUM;
+            consumer.accept( marker );
+            LogPosition firstTransactionPosition = marker.newPosition();
+            writer.writeStartEntry( 2L, 3L, previousChecksum, new byte[0] );
+            previousChecksum = writer.writeCommitEntry( 4L, 5L );
+            consumer.accept( afterFirstTransaction );
+            writer.writeCheckPointEntry( firstTransactionPosition );
+
+            writer.writeStartEntry( 6L, 4L, previousChecksum, new byte[0] );
+            previousChecksum = writer.writeCommitEntry( 5L, 7L );
+            writer.writeStartEntry( 8L, 5L, previousChecksum, new byte[0] );
+            writer.writeCommitEntry( 6L, 9L );
+
+            return true;
+        } );
+
+        LifeSupport life = new LifeSupport();
+        List<Long> recoveredTransactions = new ArrayList<>();
+        List<LogEntryCommit> failedAfter = new ArrayList<>();
+        RecoveryMonitor monitor = new RecoveryMonitor()
+        {
+            @Override
+            public void transactionRecovered( long txId )
+            {
+                recoveredTransactions.add( txId );
+            }
+
+            @Override
+            public void failToRecoverTransactionsAfterCommit( Throwable t, LogEntryCommit commitEntry, LogPosition recoveryToPosition )
+            {
+                failedAfter.add( commitEntry );
+            }
+        };
+        try
+        {
+            StorageEngine storageEngine = mock( StorageEngine.class );
+            final LogEntryReader reader = logEntryReader();
+            LogTailScanner tailScanner = getTailScanner( logFiles, reader );
+
+            TransactionMetadataCache metadataCache = new TransactionMetadataCache();
+            LogicalTransactionStore txStore = new PhysicalLogicalTransactionStore( logFiles, metadataCache, reader, monitors, false );
+            CorruptedLogsTruncator logPruner = new CorruptedLogsTruncator( storeDir, logFiles, fileSystem );
+            life.add( new TransactionLogsRecovery( new DefaultRecoveryService( storageEngine, tailScanner, transactionIdStore,
+                    txStore, versionRepository, logFiles, NO_MONITOR, mock( Log.class ) )
+            {
+                @Override
+                public RecoveryApplier getRecoveryApplier( TransactionApplicationMode mode, PageCursorTracer cursorTracer )
+                {
+                    RecoveryApplier actual = super.getRecoveryApplier( mode, cursorTracer );
+                    if ( mode == TransactionApplicationMode.REVERSE_RECOVERY )
+                    {
+                        return actual;
+                    }
+
+                    // Like a concurrent applier, where transaction 5 fails after all transactions have been visited
+                    return new RecoveryApplier()
+                    {
+                        @Override
+                        public boolean visit( CommittedTransactionRepresentation tx ) throws Exception
+                        {
+                            if ( tx.getCommitEntry().getTxId() != 5L )
+                            {
+                                actual.visit( tx );
+                            }
+                            return false;
+                        }
+
+                        @Override
+                        public boolean isApplied( long txId )
+                        {
+                            return txId < 5L;
+                        }
+
+                        @Override
+                        public void close() throws Exception
+                        {
+                            actual.close();
+                            throw new IOException( "Failed to apply transaction 5" );
+                        }
+                    };
+                }
+            }, logPruner, schemaLife, monitor, ProgressReporter.SILENT, false, EMPTY_CHECKER, NULL ) );
+
+            life.start();
+
+            assertThat( recoveredTransactions ).containsExactly( 4L );
+            assertThat( failedAfter ).hasSize( 1 );
+            assertEquals( 4L, failedAfter.get( 0 ).getTxId() );
+            assertEquals( afterFirstTransaction.getByteOffset(), file.length() );
+        }
+        finally
+        {
+            life.shutdown();
+        }
+    }
+
     @Test
     void shouldSeeThatACleanDatabaseShouldNotRequireRecovery() throws Exception
     {
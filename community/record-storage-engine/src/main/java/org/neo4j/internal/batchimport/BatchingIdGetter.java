@@ -43,6 +43,7 @@ public class BatchingIdGetter implements IdSequence
     private final IdSequence source;
     private IdRangeIterator batch;
     private final int batchSize;
+    private final long lowestId;
 
     BatchingIdGetter( RecordStore<? extends AbstractBaseRecord> source )
     {
@@ -50,13 +51,35 @@ public class BatchingIdGetter implements IdSequence
     }
 
     BatchingIdGetter( RecordStore<? extends AbstractBaseRecord> source, int batchSize )
+    {
+        this( source, batchSize, 0 );
+    }
+
+    /**
+     * @param source store to get ids from.
+     * @param batchSize number of ids to get from the store at a time.
+     * @param lowestId ids lower than this are never handed out, e.g. free ids amongst records which existed before the import.
+     */
+    BatchingIdGetter( RecordStore<? extends AbstractBaseRecord> source, int batchSize, long lowestId )
     {
         this.source = source;
         this.batchSize = batchSize;
+        this.lowestId = lowestId;
     }
 
     @Override
     public long nextId( PageCursorTracer cursorTracer )
+    {
+        long id;
+        do
+        {
+            id = nextIdFromBatch( cursorTracer );
+        }
+        while ( id < lowestId );
+        return id;
+    }
+
+    private long nextIdFromBatch( PageCursorTracer cursorTracer )
     {
         long id;
         if ( batch == null || (id = batch.nextId( cursorTracer )) == VALUE_REPRESENTING_NULL )
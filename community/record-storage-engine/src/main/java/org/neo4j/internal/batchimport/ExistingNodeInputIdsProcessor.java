@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.batchimport;
+
+import org.eclipse.collections.api.map.primitive.IntObjectMap;
+
+import org.neo4j.internal.batchimport.cache.idmapping.IdMapper;
+import org.neo4j.internal.batchimport.input.Group;
+import org.neo4j.internal.batchimport.input.IdType;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.values.storable.IntegralValue;
+import org.neo4j.values.storable.TextValue;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.neo4j.kernel.impl.store.IdUpdateListener.IGNORE;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.NORMAL;
+
+/**
+ * Finds the input id of an existing node by looking for one of the id properties of its {@link Group} in its property chain.
+ * The input id is put into the {@link IdMapper} and stored in the temporary property store, just like {@link NodeImporter} does
+ * for imported nodes, so that {@link NodeInputIdPropertyLookup} can find it when the {@link IdMapper} is prepared.
+ */
+public class ExistingNodeInputIdsProcessor implements RecordProcessor<NodeRecord>
+{
+    private final PropertyStore propertyStore;
+    private final PropertyStore idPropertyStore;
+    private final IdMapper idMapper;
+    private final IdType idType;
+    private final IntObjectMap<Group> groupsByPropertyKey;
+    private final PropertyRecord propertyRecord;
+    private final PropertyRecord idPropertyRecord;
+    private final PropertyBlock idPropertyBlock = new PropertyBlock();
+
+    ExistingNodeInputIdsProcessor( PropertyStore propertyStore, PropertyStore idPropertyStore, IdMapper idMapper, IdType idType,
+            IntObjectMap<Group> groupsByPropertyKey )
+    {
+        this.propertyStore = propertyStore;
+        this.idPropertyStore = idPropertyStore;
+        this.idMapper = idMapper;
+        this.idType = idType;
+        this.groupsByPropertyKey = groupsByPropertyKey;
+        this.propertyRecord = propertyStore.newRecord();
+        this.idPropertyRecord = idPropertyStore.newRecord();
+    }
+
+    @Override
+    public boolean process( NodeRecord node, PageCursorTracer cursorTracer )
+    {
+        long nextProp = node.getNextProp();
+        while ( !Record.NULL_REFERENCE.is( nextProp ) )
+        {
+            propertyStore.getRecord( nextProp, propertyRecord, NORMAL, cursorTracer );
+            for ( PropertyBlock block : propertyRecord )
+            {
+                Group group = groupsByPropertyKey.get( block.getKeyIndexId() );
+                if ( group != null )
+                {
+                    Object inputId = inputId( block.newPropertyValue( propertyStore, cursorTracer ) );
+                    if ( inputId != null )
+                    {
+                        // A node can only have one input id, the first id property found is the one used
+                        put( node.getId(), inputId, group, cursorTracer );
+                        return false;
+                    }
+                }
+            }
+            nextProp = propertyRecord.getNextProp();
+        }
+
+        // No need to update the node, we're just reading it here
+        return false;
+    }
+
+    private Object inputId( Value value )
+    {
+        switch ( idType )
+        {
+        case STRING:
+            return value instanceof TextValue ? ((TextValue) value).stringValue() : null;
+        case INTEGER:
+            return value instanceof IntegralValue ? ((IntegralValue) value).longValue() : null;
+        default:
+            throw new IllegalArgumentException( "Unsupported id type " + idType );
+        }
+    }
+
+    private void put( long nodeId, Object inputId, Group group, PageCursorTracer cursorTracer )
+    {
+        idMapper.put( inputId, nodeId, group );
+        idPropertyStore.encodeValue( idPropertyBlock, 0, Values.of( inputId ), cursorTracer );
+        idPropertyRecord.addPropertyBlock( idPropertyBlock );
+        idPropertyRecord.setId( nodeId ); // yes nodeId
+        idPropertyRecord.setInUse( true );
+        idPropertyStore.updateRecord( idPropertyRecord, IGNORE, cursorTracer );
+        idPropertyRecord.clear();
+    }
+
+    @Override
+    public void done()
+    {
+    }
+
+    @Override
+    public void close()
+    {
+    }
+}
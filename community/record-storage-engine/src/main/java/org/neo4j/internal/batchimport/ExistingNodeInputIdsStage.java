@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.batchimport;
+
+import org.eclipse.collections.api.map.primitive.IntObjectMap;
+
+import org.neo4j.internal.batchimport.cache.idmapping.IdMapper;
+import org.neo4j.internal.batchimport.input.Group;
+import org.neo4j.internal.batchimport.input.IdType;
+import org.neo4j.internal.batchimport.staging.BatchFeedStep;
+import org.neo4j.internal.batchimport.staging.ReadRecordsStep;
+import org.neo4j.internal.batchimport.staging.Stage;
+import org.neo4j.internal.batchimport.staging.Step;
+import org.neo4j.internal.batchimport.store.BatchingNeoStores;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.store.NodeStore;
+
+import static org.neo4j.internal.batchimport.RecordIdIterator.forwards;
+
+/**
+ * Reads the nodes which existed in the database before an incremental import and puts their input ids, i.e. the values of
+ * their id properties, into the {@link IdMapper}, so that nodes in the input can be matched against them.
+ */
+public class ExistingNodeInputIdsStage extends Stage
+{
+    public static final String NAME = "Existing node ids";
+
+    public ExistingNodeInputIdsStage( Configuration config, BatchingNeoStores neoStores, IdMapper idMapper, IdType idType,
+            IntObjectMap<Group> groupsByPropertyKey, PageCacheTracer pageCacheTracer )
+    {
+        super( NAME, null, config, Step.RECYCLE_BATCHES );
+        NodeStore nodeStore = neoStores.getNodeStore();
+        add( new BatchFeedStep( control(), config, forwards( 0, neoStores.getLowestNewNodeId(), config ), nodeStore.getRecordSize() ) );
+        add( new ReadRecordsStep<>( control(), config, false, nodeStore, pageCacheTracer ) );
+        add( new RecordProcessorStep<>( control(), "ID", config, new ExistingNodeInputIdsProcessor( neoStores.getPropertyStore(),
+                neoStores.getTemporaryPropertyStore(), idMapper, idType, groupsByPropertyKey ), true, pageCacheTracer ) );
+    }
+}
@@ -20,7 +20,9 @@
 package org.neo4j.internal.batchimport;
 
 import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
 import org.eclipse.collections.api.set.primitive.IntSet;
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
 
 import java.io.Closeable;
 import java.io.File;
@@ -28,6 +30,7 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Predicate;
 
 import org.neo4j.collection.Dependencies;
@@ -45,7 +48,10 @@ import org.neo4j.internal.batchimport.cache.idmapping.IdMapper;
 import org.neo4j.internal.batchimport.cache.idmapping.IdMappers;
 import org.neo4j.internal.batchimport.input.Collector;
 import org.neo4j.internal.batchimport.input.EstimationSanityChecker;
+import org.neo4j.internal.batchimport.input.Group;
+import org.neo4j.internal.batchimport.input.IdType;
 import org.neo4j.internal.batchimport.input.Input;
+import org.neo4j.internal.batchimport.input.InputException;
 import org.neo4j.internal.batchimport.staging.ExecutionMonitor;
 import org.neo4j.internal.batchimport.staging.ExecutionSupervisors;
 import org.neo4j.internal.batchimport.staging.Stage;
@@ -68,6 +74,7 @@ import org.neo4j.storageengine.migration.MigrationProgressMonitor;
 import static java.lang.Long.max;
 import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
+import static org.neo4j.collection.PrimitiveLongCollections.filter;
 import static org.neo4j.function.Predicates.alwaysTrue;
 import static org.neo4j.internal.batchimport.cache.NumberArrayFactory.auto;
 import static org.neo4j.internal.helpers.Format.duration;
@@ -261,6 +268,42 @@ public class ImportLogic implements Closeable
         dependencies.satisfyDependency( state );
     }
 
+    /**
+     * Puts the input ids of the nodes which existed before an incremental import into the {@link IdMapper}, so that input nodes
+     * having the same id as an existing node are treated as duplicates of it. The input id of an existing node is the value of
+     * its id property, see {@link Input#nodeIdPropertyKeys()}. Must be called before {@link #importNodes()}.
+     *
+     * @throws InputException if the same id property is used by more than one id space, since the id space of an existing node
+     * then can't be told from its properties.
+     */
+    public void resolveExistingNodeIds()
+    {
+        MutableIntObjectMap<Group> groupsByPropertyKey = new IntObjectHashMap<>();
+        for ( Map.Entry<Group,Set<String>> entry : input.nodeIdPropertyKeys().entrySet() )
+        {
+            Group group = entry.getKey();
+            if ( entry.getValue().isEmpty() )
+            {
+                log.warn( "Nodes in id space %s have no id property, they will not be matched against existing nodes", group );
+            }
+            for ( String key : entry.getValue() )
+            {
+                Group otherGroup = groupsByPropertyKey.getIfAbsentPut( neoStore.getPropertyKeyRepository().getOrCreateId( key ), group );
+                if ( otherGroup != group )
+                {
+                    throw new InputException( format( "Id property '%s' is used by both id space %s and %s, which means that existing " +
+                            "nodes can't be matched against input nodes by it", key, otherGroup, group ) );
+                }
+            }
+        }
+
+        if ( input.idType() != IdType.ACTUAL && !groupsByPropertyKey.isEmpty() && neoStore.getLowestNewNodeId() > 0 )
+        {
+            executeStage( new ExistingNodeInputIdsStage( config, neoStore, idMapper, input.idType(), groupsByPropertyKey, pageCacheTracer ) );
+            updatePeakMemoryUsage();
+        }
+    }
+
     /**
      * Imports nodes w/ their properties and labels from {@link Input#nodes(Collector)}. This will as a side-effect populate the {@link IdMapper},
      * to later be used for looking up ID --> nodeId in {@link #importRelationships()}. After a completed node import,
@@ -288,7 +331,9 @@ public class ImportLogic implements Closeable
             MemoryUsageStatsProvider memoryUsageStats = new MemoryUsageStatsProvider( neoStore, idMapper );
             PropertyValueLookup inputIdLookup = new NodeInputIdPropertyLookup( neoStore.getTemporaryPropertyStore() );
             executeStage( new IdMapperPreparationStage( config, idMapper, inputIdLookup, badCollector, memoryUsageStats ) );
-            final LongIterator duplicateNodeIds = idMapper.leftOverDuplicateNodesIds();
+            // Nodes which existed before an incremental import are kept, even if some of them share input id
+            final LongIterator duplicateNodeIds = filter( idMapper.leftOverDuplicateNodesIds(),
+                    nodeId -> nodeId >= neoStore.getLowestNewNodeId() );
             if ( duplicateNodeIds.hasNext() )
             {
                 executeStage( new DeleteDuplicateNodesStage( config, duplicateNodeIds, neoStore, storeUpdateMonitor, pageCacheTracer ) );
@@ -69,7 +69,7 @@ public class NodeImporter extends EntityImporter
         this.idMapper = idMapper;
         this.nodeStore = stores.getNodeStore();
         this.nodeRecord = nodeStore.newRecord();
-        this.nodeIds = new BatchingIdGetter( nodeStore );
+        this.nodeIds = new BatchingIdGetter( nodeStore, nodeStore.getRecordsPerPage(), stores.getLowestNewNodeId() );
         this.idPropertyStore = stores.getTemporaryPropertyStore();
         this.idPropertyRecord = idPropertyStore.newRecord();
         nodeRecord.setInUse( true );
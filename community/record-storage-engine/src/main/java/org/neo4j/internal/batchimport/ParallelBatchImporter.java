@@ -23,6 +23,7 @@ import java.io.IOException;
 
 import org.neo4j.configuration.Config;
 import org.neo4j.internal.batchimport.input.Collector;
+import org.neo4j.internal.batchimport.input.IdType;
 import org.neo4j.internal.batchimport.input.Input;
 import org.neo4j.internal.batchimport.staging.ExecutionMonitor;
 import org.neo4j.internal.batchimport.store.BatchingNeoStores;
@@ -105,4 +106,41 @@ public class ParallelBatchImporter implements BatchImporter
             logic.success();
         }
     }
+
+    @Override
+    public void doIncrementalImport( Input input ) throws IOException
+    {
+        if ( input.idType() == IdType.ACTUAL )
+        {
+            throw new IllegalArgumentException( "Can't import into an existing database with id type " + IdType.ACTUAL +
+                    " since input nodes could overwrite existing nodes" );
+        }
+
+        // The import is done into a copy of the store files, which replaces them only once the import has succeeded
+        DatabaseLayout importLayout = BatchingNeoStores.copyForIncrementalImport( fileSystem, databaseLayout );
+        try
+        {
+            try ( BatchingNeoStores store = ImportLogic.instantiateNeoStores( fileSystem, importLayout, externalPageCache, pageCacheTracer, recordFormats,
+                          config, logService, additionalInitialIds, dbConfig, jobScheduler );
+                  ImportLogic logic = new ImportLogic( importLayout, store, config, dbConfig, logService,
+                          executionMonitor, recordFormats, badCollector, monitor, pageCacheTracer ) )
+            {
+                store.openExisting();
+                logic.initialize( input );
+
+                logic.resolveExistingNodeIds();
+                logic.importNodes();
+                logic.prepareIdMapper();
+                logic.buildCountsStore();
+                // The transaction logs of the existing database are kept as they are
+
+                logic.success();
+            }
+            BatchingNeoStores.replaceWithIncrementalImport( fileSystem, databaseLayout, importLayout );
+        }
+        finally
+        {
+            fileSystem.deleteRecursively( importLayout.databaseDirectory() );
+        }
+    }
 }
@@ -56,6 +56,7 @@ import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.kernel.api.index.IndexDirectoryStructure;
 import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.PropertyStore;
@@ -64,6 +65,7 @@ import org.neo4j.kernel.impl.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.kernel.impl.store.StoreFactory;
 import org.neo4j.kernel.impl.store.StoreType;
+import org.neo4j.kernel.impl.store.format.RecordFormatSelector;
 import org.neo4j.kernel.impl.store.format.RecordFormats;
 import org.neo4j.kernel.impl.store.format.RecordStorageCapability;
 import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
@@ -76,6 +78,7 @@ import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.time.Clocks;
 
 import static java.lang.String.valueOf;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static java.nio.file.StandardOpenOption.READ;
 import static org.eclipse.collections.impl.factory.Sets.immutable;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
@@ -100,6 +103,7 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
     private static final String BATCHING_STORE_SHUTDOWN_TAG = "batchingStoreShutdown";
 
     private static final String TEMP_STORE_NAME = "temp";
+    private static final String INCREMENTAL_IMPORT_STORE_NAME = "incremental-import";
     // Empirical and slightly defensive threshold where relationship records seem to start requiring double record units.
     // Basically decided by picking a maxId of pointer (as well as node ids) in the relationship record and randomizing its data,
     // seeing which is a maxId where records starts to require a secondary unit.
@@ -132,6 +136,7 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
     private LabelScanStore labelScanStore;
     private PageCacheFlusher flusher;
     private boolean doubleRelationshipRecordUnits;
+    private long lowestNewNodeId;
 
     private boolean successful;
 
@@ -179,7 +184,7 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
      * Called when expecting a clean {@code storeDir} folder and where a new store will be created.
      * This happens on an initial attempt to import.
      *
-     * @throws IllegalStateException if {@code storeDir} already contains a database.
+     * @throws DatabaseNotEmptyException if {@code storeDir} already contains a database.
      */
     public void createNew() throws IOException
     {
@@ -189,14 +194,108 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
         // be in a semi-initialized state. Better to be on the safe side and deleted it. We get her after determining that
         // the db is either completely empty or non-existent anyway, so deleting this file is OK.
         fileSystem.deleteFile( databaseLayout.labelScanStore() );
-        instantiateStores();
+        instantiateStores( true );
+    }
+
+    /**
+     * Copies the store files of a database which already exists and which has been shut down cleanly, for
+     * {@link org.neo4j.internal.batchimport.BatchImporter#doIncrementalImport(Input)} to import into. The import works on the copy,
+     * see {@link #openExisting()}, so that the database is left as it was if the import fails. Files which can't be updated by
+     * the import, and instead are rebuilt, aren't copied:
+     * <ul>
+     * <li>the counts store, which is built again when the import completes</li>
+     * <li>the id files, which are built again from the store when the database starts</li>
+     * <li>the schema indexes, which are populated again when the database starts</li>
+     * </ul>
+     *
+     * @param fileSystem {@link FileSystemAbstraction} the database is on.
+     * @param databaseLayout layout of the existing database.
+     * @return layout of the copy, which is located in the database directory and replaces any copy left behind by an earlier import.
+     * @throws IOException on I/O error.
+     */
+    public static DatabaseLayout copyForIncrementalImport( FileSystemAbstraction fileSystem, DatabaseLayout databaseLayout ) throws IOException
+    {
+        DatabaseLayout importLayout = DatabaseLayout.ofFlat( databaseLayout.file( INCREMENTAL_IMPORT_STORE_NAME ) );
+        fileSystem.deleteRecursively( importLayout.databaseDirectory() );
+        fileSystem.mkdirs( importLayout.databaseDirectory() );
+        for ( DatabaseFile databaseFile : DatabaseFile.values() )
+        {
+            File file = databaseLayout.file( databaseFile );
+            if ( databaseFile != DatabaseFile.COUNTS_STORE && fileSystem.fileExists( file ) )
+            {
+                fileSystem.copyFile( file, importLayout.file( databaseFile ) );
+            }
+        }
+        return importLayout;
+    }
+
+    /**
+     * Replaces the store files of an existing database with the copy which an incremental import has completed successfully, see
+     * {@link #copyForIncrementalImport(FileSystemAbstraction, DatabaseLayout)}. The id files and schema indexes of the database are
+     * deleted, to be rebuilt when the database starts, and the copy is removed.
+     *
+     * @param fileSystem {@link FileSystemAbstraction} the database is on.
+     * @param databaseLayout layout of the existing database.
+     * @param importLayout layout of the copy, which must have been closed.
+     * @throws IOException on I/O error.
+     */
+    public static void replaceWithIncrementalImport( FileSystemAbstraction fileSystem, DatabaseLayout databaseLayout, DatabaseLayout importLayout )
+            throws IOException
+    {
+        // The import doesn't mark the ids it uses in the id files, so these are built from the store instead
+        databaseLayout.idFiles().forEach( fileSystem::deleteFile );
+        fileSystem.deleteRecursively( IndexDirectoryStructure.baseSchemaIndexFolder( databaseLayout.databaseDirectory() ) );
+        for ( DatabaseFile databaseFile : DatabaseFile.values() )
+        {
+            File file = importLayout.file( databaseFile );
+            if ( fileSystem.fileExists( file ) )
+            {
+                fileSystem.renameFile( file, databaseLayout.file( databaseFile ), REPLACE_EXISTING );
+            }
+        }
+        fileSystem.deleteRecursively( importLayout.databaseDirectory() );
+    }
+
+    /**
+     * Called when importing into a copy of an existing database, made by {@link #copyForIncrementalImport(FileSystemAbstraction, DatabaseLayout)}.
+     * The existing tokens are kept and nodes created by the import get ids from {@link #getLowestNewNodeId()} and upwards.
+     *
+     * @throws IllegalStateException if {@code storeDir} doesn't contain a database in the configured record format, or if it
+     * contains a counts store, which then wouldn't be rebuilt.
+     */
+    public void openExisting() throws IOException
+    {
+        RecordFormats storeFormat = RecordFormatSelector.selectForStore( databaseLayout, fileSystem, pageCache, logProvider, pageCacheTracer );
+        if ( storeFormat == null )
+        {
+            throw new IllegalStateException( databaseLayout.databaseDirectory() + " doesn't contain a database to import into" );
+        }
+        if ( !storeFormat.storeVersion().equals( recordFormats.storeVersion() ) )
+        {
+            throw new IllegalStateException( databaseLayout.databaseDirectory() + " uses the " + storeFormat + " record format, but the import is configured " +
+                    "to use the " + recordFormats + " record format" );
+        }
+        if ( fileSystem.fileExists( databaseLayout.countStore() ) )
+        {
+            throw new IllegalStateException( databaseLayout.databaseDirectory() + " contains a counts store, imports can only be done into " +
+                    "a copy of an existing database" );
+        }
+
+        instantiateStores( false );
+        try ( var cursorTracer = pageCacheTracer.createPageCursorTracer( BATCHING_STORE_CREATION_TAG ) )
+        {
+            propertyKeyRepository.loadExistingTokens( cursorTracer );
+            labelRepository.loadExistingTokens( cursorTracer );
+            relationshipTypeRepository.loadExistingTokens( cursorTracer );
+        }
+        lowestNewNodeId = neoStores.getNodeStore().getHighId();
     }
 
     public void assertDatabaseIsEmptyOrNonExistent()
     {
         if ( databaseExistsAndContainsData() )
         {
-            throw new IllegalStateException( databaseLayout.databaseDirectory() + " already contains data, cannot do import here" );
+            throw new DatabaseNotEmptyException( databaseLayout.databaseDirectory() + " already contains data, cannot do import here" );
         }
     }
 
@@ -211,7 +310,7 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
     {
         deleteStoreFiles( temporaryDatabaseLayout, tempStoresToKeep );
         deleteStoreFiles( databaseLayout, mainStoresToKeep );
-        instantiateStores();
+        instantiateStores( true );
     }
 
     private void deleteStoreFiles( DatabaseLayout databaseLayout, Predicate<StoreType> storesToKeep )
@@ -235,7 +334,7 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
         life.add( labelScanStore );
     }
 
-    private void instantiateStores() throws IOException
+    private void instantiateStores( boolean initializeLastCommittedTransaction ) throws IOException
     {
         neoStores = newStoreFactory( databaseLayout, idGeneratorFactory, pageCacheTracer, immutable.empty() ).openAllNeoStores( true );
         propertyKeyRepository = new BatchingPropertyKeyTokenRepository( neoStores.getPropertyKeyTokenStore() );
@@ -248,10 +347,13 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
         {
             neoStores.start( cursorTracer );
             temporaryNeoStores.start( cursorTracer );
-            neoStores.getMetaDataStore().setLastCommittedAndClosedTransactionId(
-                    initialIds.lastCommittedTransactionId(), initialIds.lastCommittedTransactionChecksum(),
-                    BASE_TX_COMMIT_TIMESTAMP, initialIds.lastCommittedTransactionLogByteOffset(),
-                    initialIds.lastCommittedTransactionLogVersion(), cursorTracer );
+            if ( initializeLastCommittedTransaction )
+            {
+                neoStores.getMetaDataStore().setLastCommittedAndClosedTransactionId(
+                        initialIds.lastCommittedTransactionId(), initialIds.lastCommittedTransactionChecksum(),
+                        BASE_TX_COMMIT_TIMESTAMP, initialIds.lastCommittedTransactionLogByteOffset(),
+                        initialIds.lastCommittedTransactionLogVersion(), cursorTracer );
+            }
         }
     }
 
@@ -424,6 +526,14 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
         return neoStores.getMetaDataStore().getLastCommittedTransactionId();
     }
 
+    /**
+     * @return the lowest id that nodes created by this import can get. All nodes which existed before the import have lower ids.
+     */
+    public long getLowestNewNodeId()
+    {
+        return lowestNewNodeId;
+    }
+
     public LabelScanStore getLabelScanStore()
     {
         return labelScanStore;
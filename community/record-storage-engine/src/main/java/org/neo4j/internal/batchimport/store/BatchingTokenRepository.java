@@ -35,6 +35,7 @@ import org.neo4j.kernel.impl.store.record.LabelTokenRecord;
 import org.neo4j.kernel.impl.store.record.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.store.record.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.store.record.TokenRecord;
+import org.neo4j.token.api.NamedToken;
 
 import static java.lang.Math.max;
 import static java.lang.Math.toIntExact;
@@ -61,6 +62,26 @@ public abstract class BatchingTokenRepository<RECORD extends TokenRecord> implem
         this.highestCreatedId = highId - 1;
     }
 
+    /**
+     * Makes the tokens already in the store known to this repository, so that importing into an existing database
+     * uses the existing token for a name instead of creating another one.
+     *
+     * @param cursorTracer underlying page cursor tracer.
+     */
+    void loadExistingTokens( PageCursorTracer cursorTracer )
+    {
+        synchronized ( tokens )
+        {
+            for ( NamedToken token : store.getAllReadableTokens( cursorTracer ) )
+            {
+                if ( !token.isInternal() )
+                {
+                    tokens.putIfAbsent( token.name(), token.id() );
+                }
+            }
+        }
+    }
+
     /**
      * Returns the id for token with the specified {@code name}, potentially creating that token and
      * assigning a new id as part of this call.
@@ -19,8 +19,12 @@
  */
 package org.neo4j.internal.recordstorage;
 
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 
@@ -31,13 +35,42 @@ import org.neo4j.internal.schema.IndexDescriptor;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.storageengine.api.IndexEntryUpdate;
 import org.neo4j.storageengine.api.IndexUpdateListener;
+import org.neo4j.storageengine.api.UpdateMode;
+import org.neo4j.util.FeatureToggles;
 import org.neo4j.util.concurrent.Work;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
 
 /**
  * Combines {@link IndexUpdates} from multiple transactions into one bigger job.
+ * <p>
+ * Before the combined updates are handed over, they are grouped by index, and the updates of each non-unique index are
+ * sorted by value and entity id. This way each index sees its updates in key order, which keeps the page accesses
+ * of tree based indexes local, instead of jumping back and forth between leaves for every update.
+ * Multiple updates of the same entity in the same index are first collapsed into one net update, because the updates
+ * of one entity must not be reordered relative to each other. Updates of unique indexes are left in commit order,
+ * since reordering them could make an index see two entities with the same value at the same time.
  */
 public class IndexUpdatesWork implements Work<IndexUpdateListener,IndexUpdatesWork>
 {
+    private static final boolean SORT_UPDATES = FeatureToggles.flag( IndexUpdatesWork.class, "sortUpdates", true );
+    private static final Comparator<IndexEntryUpdate<IndexDescriptor>> KEY_ORDER = ( left, right ) ->
+    {
+        Value[] leftValues = left.values();
+        Value[] rightValues = right.values();
+        int length = Math.min( leftValues.length, rightValues.length );
+        for ( int i = 0; i < length; i++ )
+        {
+            int compare = Values.COMPARATOR.compare( leftValues[i], rightValues[i] );
+            if ( compare != 0 )
+            {
+                return compare;
+            }
+        }
+        int compare = Integer.compare( leftValues.length, rightValues.length );
+        return compare != 0 ? compare : Long.compare( left.getEntityId(), right.getEntityId() );
+    };
+
     private final List<IndexUpdates> updates = new ArrayList<>();
     private final PageCursorTracer cursorTracer;
 
@@ -68,6 +101,11 @@ public class IndexUpdatesWork implements Work<IndexUpdateListener,IndexUpdatesWo
     }
 
     private Iterable<IndexEntryUpdate<IndexDescriptor>> combinedUpdates()
+    {
+        return SORT_UPDATES ? sortedUpdates() : nestedUpdates();
+    }
+
+    private Iterable<IndexEntryUpdate<IndexDescriptor>> nestedUpdates()
     {
         return () -> new NestingIterator<>( updates.iterator() )
         {
@@ -78,4 +116,93 @@ public class IndexUpdatesWork implements Work<IndexUpdateListener,IndexUpdatesWo
             }
         };
     }
+
+    private Iterable<IndexEntryUpdate<IndexDescriptor>> sortedUpdates()
+    {
+        List<List<IndexEntryUpdate<IndexDescriptor>>> indexes = new ArrayList<>();
+        MutableLongObjectMap<List<IndexEntryUpdate<IndexDescriptor>>> updatesByIndex = new LongObjectHashMap<>();
+        int count = 0;
+        for ( IndexEntryUpdate<IndexDescriptor> update : nestedUpdates() )
+        {
+            updatesByIndex.getIfAbsentPut( update.indexKey().getId(), () ->
+            {
+                List<IndexEntryUpdate<IndexDescriptor>> list = new ArrayList<>();
+                indexes.add( list );
+                return list;
+            } ).add( update );
+            count++;
+        }
+
+        List<IndexEntryUpdate<IndexDescriptor>> sorted = new ArrayList<>( count );
+        for ( List<IndexEntryUpdate<IndexDescriptor>> indexUpdates : indexes )
+        {
+            if ( indexUpdates.size() > 1 && !indexUpdates.get( 0 ).indexKey().isUnique() )
+            {
+                indexUpdates = collapsePerEntity( indexUpdates );
+                indexUpdates.sort( KEY_ORDER );
+            }
+            sorted.addAll( indexUpdates );
+        }
+        return sorted;
+    }
+
+    /**
+     * Collapses all updates of the same entity, in the updates of one index, into one update that takes the index
+     * from the state before the first of those updates to the state after the last of them.
+     */
+    private static List<IndexEntryUpdate<IndexDescriptor>> collapsePerEntity( List<IndexEntryUpdate<IndexDescriptor>> indexUpdates )
+    {
+        MutableLongObjectMap<IndexEntryUpdate<IndexDescriptor>> firstUpdates = new LongObjectHashMap<>();
+        MutableLongObjectMap<IndexEntryUpdate<IndexDescriptor>> lastUpdates = new LongObjectHashMap<>();
+        for ( IndexEntryUpdate<IndexDescriptor> update : indexUpdates )
+        {
+            firstUpdates.getIfAbsentPut( update.getEntityId(), update );
+            lastUpdates.put( update.getEntityId(), update );
+        }
+        if ( firstUpdates.size() == indexUpdates.size() )
+        {
+            return indexUpdates;
+        }
+
+        List<IndexEntryUpdate<IndexDescriptor>> collapsed = new ArrayList<>( firstUpdates.size() );
+        firstUpdates.forEachKeyValue( ( entityId, first ) ->
+        {
+            IndexEntryUpdate<IndexDescriptor> last = lastUpdates.get( entityId );
+            if ( first == last )
+            {
+                collapsed.add( first );
+                return;
+            }
+            Value[] before = valuesBefore( first );
+            Value[] after = last.updateMode() == UpdateMode.REMOVED ? null : last.values();
+            if ( before == null && after != null )
+            {
+                collapsed.add( IndexEntryUpdate.add( entityId, first.indexKey(), after ) );
+            }
+            else if ( before != null && after == null )
+            {
+                collapsed.add( IndexEntryUpdate.remove( entityId, first.indexKey(), before ) );
+            }
+            else if ( before != null )
+            {
+                collapsed.add( IndexEntryUpdate.change( entityId, first.indexKey(), before, after ) );
+            }
+        } );
+        return collapsed;
+    }
+
+    private static Value[] valuesBefore( IndexEntryUpdate<IndexDescriptor> update )
+    {
+        switch ( update.updateMode() )
+        {
+        case ADDED:
+            return null;
+        case CHANGED:
+            return update.beforeValues();
+        case REMOVED:
+            return update.values();
+        default:
+            throw new IllegalArgumentException( "Unknown update mode " + update.updateMode() );
+        }
+    }
 }
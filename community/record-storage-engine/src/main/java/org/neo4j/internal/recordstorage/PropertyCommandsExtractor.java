@@ -66,7 +66,7 @@ public class PropertyCommandsExtractor extends TransactionApplier.Adapter
         return false;
     }
 
-    private static boolean mayResultInIndexUpdates( NodeCommand command )
+    static boolean mayResultInIndexUpdates( NodeCommand command )
     {
         long before = command.getBefore().getLabelField();
         long after = command.getAfter().getLabelField();
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.impl.set.mutable.primitive.IntHashSet;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.function.LongConsumer;
+
+import org.neo4j.internal.recordstorage.Command.BaseCommand;
+import org.neo4j.internal.recordstorage.Command.LabelTokenCommand;
+import org.neo4j.internal.recordstorage.Command.NodeCommand;
+import org.neo4j.internal.recordstorage.Command.NodeCountsCommand;
+import org.neo4j.internal.recordstorage.Command.PropertyCommand;
+import org.neo4j.internal.recordstorage.Command.PropertyKeyTokenCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipCountsCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipGroupCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipTypeTokenCommand;
+import org.neo4j.internal.recordstorage.Command.SchemaRuleCommand;
+import org.neo4j.common.EntityType;
+import org.neo4j.internal.schema.ConstraintDescriptor;
+import org.neo4j.kernel.impl.store.PropertyType;
+import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.storageengine.api.CommandsToApply;
+import org.neo4j.storageengine.api.StorageCommandPartitioner;
+
+import static org.neo4j.kernel.impl.store.InlineNodeLabels.parseInlined;
+import static org.neo4j.kernel.impl.store.NodeLabelsField.fieldPointsToDynamicRecordOfLabels;
+
+/**
+ * Partitions record storage transactions by the records they change. Every node, relationship, relationship group, property and dynamic
+ * record that a command has a before or after image of gives a key, and so does the entity that owns a changed property record. The latter
+ * keeps the index updates of an entity in order, since they are computed from a mix of the commands and the records in the store.
+ * <p>
+ * Transactions that change tokens or schema, as well as transactions that may produce index updates for properties that have uniqueness
+ * constraints on them, are not partitioned. Applying the latter out of order could make one entity appear to take the indexed value of
+ * another before that other entity has let go of it.
+ */
+class RecordStorageCommandPartitioner implements StorageCommandPartitioner
+{
+    private static final int KIND_SHIFT = 56;
+    private static final long NODE = 1;
+    private static final long RELATIONSHIP = 2;
+    private static final long RELATIONSHIP_GROUP = 3;
+    private static final long PROPERTY = 4;
+    private static final long STRING = 5;
+    private static final long ARRAY = 6;
+    private static final long LABELS = 7;
+
+    private final SchemaCache schemaCache;
+
+    RecordStorageCommandPartitioner( SchemaCache schemaCache )
+    {
+        this.schemaCache = schemaCache;
+    }
+
+    @Override
+    public boolean partition( CommandsToApply commands, LongConsumer keys ) throws IOException
+    {
+        KeyExtractor extractor = new KeyExtractor( keys );
+        commands.accept( command -> ((Command) command).handle( extractor ) );
+        return extractor.partitionable;
+    }
+
+    static long key( long kind, long id )
+    {
+        return kind << KIND_SHIFT | id;
+    }
+
+    private class KeyExtractor extends CommandVisitor.Adapter
+    {
+        private final LongConsumer keys;
+        private MutableIntSet uniqueLabels;
+        private MutableIntSet uniquePropertyKeys;
+        private boolean partitionable = true;
+
+        KeyExtractor( LongConsumer keys )
+        {
+            this.keys = keys;
+        }
+
+        @Override
+        public boolean visitNodeCommand( NodeCommand command )
+        {
+            record( NODE, command );
+            dynamicRecords( LABELS, command.getBefore().getDynamicLabelRecords() );
+            dynamicRecords( LABELS, command.getAfter().getDynamicLabelRecords() );
+            if ( PropertyCommandsExtractor.mayResultInIndexUpdates( command ) || command.getBefore().inUse() != command.getAfter().inUse() )
+            {
+                if ( mayHaveUniqueLabel( command.getBefore() ) || mayHaveUniqueLabel( command.getAfter() ) )
+                {
+                    partitionable = false;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean visitRelationshipCommand( RelationshipCommand command )
+        {
+            record( RELATIONSHIP, command );
+            return false;
+        }
+
+        @Override
+        public boolean visitRelationshipGroupCommand( RelationshipGroupCommand command )
+        {
+            record( RELATIONSHIP_GROUP, command );
+            return false;
+        }
+
+        @Override
+        public boolean visitPropertyCommand( PropertyCommand command )
+        {
+            record( PROPERTY, command );
+            owner( command.getBefore() );
+            owner( command.getAfter() );
+            propertyBlocks( command.getBefore() );
+            propertyBlocks( command.getAfter() );
+            propertyValueRecords( command.getAfter().getDeletedRecords() );
+            return false;
+        }
+
+        @Override
+        public boolean visitNodeCountsCommand( NodeCountsCommand command )
+        {
+            // Counts are deltas, which can be applied in any order
+            return false;
+        }
+
+        @Override
+        public boolean visitRelationshipCountsCommand( RelationshipCountsCommand command )
+        {
+            // Counts are deltas, which can be applied in any order
+            return false;
+        }
+
+        @Override
+        public boolean visitRelationshipTypeTokenCommand( RelationshipTypeTokenCommand command )
+        {
+            partitionable = false;
+            return false;
+        }
+
+        @Override
+        public boolean visitLabelTokenCommand( LabelTokenCommand command )
+        {
+            partitionable = false;
+            return false;
+        }
+
+        @Override
+        public boolean visitPropertyKeyTokenCommand( PropertyKeyTokenCommand command )
+        {
+            partitionable = false;
+            return false;
+        }
+
+        @Override
+        public boolean visitSchemaRuleCommand( SchemaRuleCommand command )
+        {
+            partitionable = false;
+            return false;
+        }
+
+        private void owner( PropertyRecord record )
+        {
+            if ( record.isNodeSet() )
+            {
+                keys.accept( key( NODE, record.getNodeId() ) );
+            }
+            else if ( record.isRelSet() )
+            {
+                keys.accept( key( RELATIONSHIP, record.getRelId() ) );
+            }
+            else if ( record.isSchemaSet() )
+            {
+                partitionable = false;
+            }
+        }
+
+        private void propertyBlocks( PropertyRecord record )
+        {
+            for ( PropertyBlock block : record )
+            {
+                propertyValueRecords( block.getValueRecords() );
+                if ( hasUniqueProperty( block ) )
+                {
+                    partitionable = false;
+                }
+            }
+        }
+
+        private void propertyValueRecords( Collection<DynamicRecord> records )
+        {
+            for ( DynamicRecord record : records )
+            {
+                record( record.getType() == PropertyType.ARRAY ? ARRAY : STRING, record );
+            }
+        }
+
+        private void record( long kind, BaseCommand<?> command )
+        {
+            record( kind, command.getBefore() );
+            record( kind, command.getAfter() );
+        }
+
+        private void dynamicRecords( long kind, Collection<DynamicRecord> records )
+        {
+            for ( DynamicRecord record : records )
+            {
+                record( kind, record );
+            }
+        }
+
+        private void record( long kind, AbstractBaseRecord record )
+        {
+            keys.accept( key( kind, record.getId() ) );
+            if ( record.hasSecondaryUnitId() )
+            {
+                keys.accept( key( kind, record.getSecondaryUnitId() ) );
+            }
+        }
+
+        private boolean mayHaveUniqueLabel( NodeRecord record )
+        {
+            loadUniquenessConstraints();
+            long labelField = record.getLabelField();
+            if ( fieldPointsToDynamicRecordOfLabels( labelField ) )
+            {
+                // We can't tell which labels the node has without reading the dynamic label records, so be conservative
+                return !uniqueLabels.isEmpty();
+            }
+            for ( long labelId : parseInlined( labelField ) )
+            {
+                if ( uniqueLabels.contains( (int) labelId ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean hasUniqueProperty( PropertyBlock block )
+        {
+            loadUniquenessConstraints();
+            return uniquePropertyKeys.contains( block.getKeyIndexId() );
+        }
+
+        private void loadUniquenessConstraints()
+        {
+            if ( uniquePropertyKeys == null )
+            {
+                uniqueLabels = new IntHashSet();
+                uniquePropertyKeys = new IntHashSet();
+                for ( ConstraintDescriptor constraint : schemaCache.constraints() )
+                {
+                    if ( constraint.enforcesUniqueness() )
+                    {
+                        if ( constraint.schema().entityType() == EntityType.NODE )
+                        {
+                            uniqueLabels.addAll( constraint.schema().getEntityTokenIds() );
+                        }
+                        uniquePropertyKeys.addAll( constraint.schema().getPropertyIds() );
+                    }
+                }
+            }
+        }
+    }
+}
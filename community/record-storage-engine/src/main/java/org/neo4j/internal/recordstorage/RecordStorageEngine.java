@@ -78,6 +78,7 @@ import org.neo4j.storageengine.api.EntityTokenUpdateListener;
 import org.neo4j.storageengine.api.IndexUpdateListener;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.storageengine.api.StorageCommandPartitioner;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.StorageReader;
 import org.neo4j.storageengine.api.StoreFileMetadata;
@@ -364,6 +365,13 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         }
     }
 
+    @Override
+    public StorageCommandPartitioner commandPartitioner()
+    {
+        // Checking consistency on apply reads records surrounding the changed ones, which may be changed concurrently by other transactions
+        return consistencyCheckApply ? StorageCommandPartitioner.SERIAL : new RecordStorageCommandPartitioner( schemaCache );
+    }
+
     /**
      * Provides a {@link TransactionApplierFactoryChain} that is to be used for all transactions
      * in a batch. Each transaction is handled by a {@link TransactionApplierFacade} which wraps the
@@ -150,4 +150,32 @@ class BatchingTokenRepositoryTest
             }
         }
     }
+
+    @Test
+    void shouldUseExistingTokensAfterLoadingThem()
+    {
+        try ( NeoStores stores = new StoreFactory( databaseLayout, Config.defaults(),
+                new DefaultIdGeneratorFactory( fileSystem, immediate() ), pageCache, fileSystem, NullLogProvider.getInstance(), PageCacheTracer.NULL )
+                .openNeoStores( true, StoreType.PROPERTY_KEY_TOKEN, StoreType.PROPERTY_KEY_TOKEN_NAME ) )
+        {
+            // given some tokens in the store
+            TokenStore<PropertyKeyTokenRecord> tokenStore = stores.getPropertyKeyTokenStore();
+            BatchingPropertyKeyTokenRepository existingRepo = new BatchingPropertyKeyTokenRepository( tokenStore );
+            int nameId = existingRepo.getOrCreateId( "name" );
+            int ageId = existingRepo.getOrCreateId( "age" );
+            existingRepo.flush( NULL );
+
+            // when
+            BatchingPropertyKeyTokenRepository repo = new BatchingPropertyKeyTokenRepository( tokenStore );
+            repo.loadExistingTokens( NULL );
+
+            // then
+            assertEquals( ageId, repo.getOrCreateId( "age" ) );
+            assertEquals( nameId, repo.getOrCreateId( "name" ) );
+            int newId = repo.getOrCreateId( "new" );
+            assertEquals( 2, newId );
+            repo.flush( NULL );
+            assertEquals( 3, tokenStore.getTokens( NULL ).size() );
+        }
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.internal.schema.IndexDescriptor;
+import org.neo4j.internal.schema.IndexPrototype;
+import org.neo4j.internal.schema.SchemaDescriptor;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.storageengine.api.IndexEntryUpdate;
+import org.neo4j.storageengine.api.IndexUpdateListener;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.storageengine.api.IndexEntryUpdate.add;
+import static org.neo4j.storageengine.api.IndexEntryUpdate.change;
+import static org.neo4j.storageengine.api.IndexEntryUpdate.remove;
+import static org.neo4j.values.storable.Values.intValue;
+import static org.neo4j.values.storable.Values.stringValue;
+
+class IndexUpdatesWorkTest
+{
+    private final IndexDescriptor index = IndexPrototype.forSchema( SchemaDescriptor.forLabel( 1, 2 ) ).withName( "index" ).materialise( 1 );
+    private final IndexDescriptor otherIndex = IndexPrototype.forSchema( SchemaDescriptor.forLabel( 1, 3 ) ).withName( "other" ).materialise( 2 );
+    private final IndexDescriptor uniqueIndex =
+            IndexPrototype.uniqueForSchema( SchemaDescriptor.forLabel( 1, 4 ) ).withName( "unique" ).materialise( 3 );
+
+    @Test
+    void shouldGroupUpdatesByIndexAndSortThemByValueAndEntity()
+    {
+        IndexUpdatesWork work = new IndexUpdatesWork( updates(
+                add( 3, index, intValue( 30 ) ),
+                add( 1, otherIndex, stringValue( "b" ) ),
+                add( 2, index, intValue( 10 ) ) ), NULL );
+        work = work.combine( new IndexUpdatesWork( updates(
+                add( 5, index, intValue( 10 ) ),
+                remove( 4, index, intValue( 20 ) ),
+                add( 2, otherIndex, stringValue( "a" ) ) ), NULL ) );
+
+        assertThat( apply( work ) ).containsExactly(
+                add( 2, index, intValue( 10 ) ),
+                add( 5, index, intValue( 10 ) ),
+                remove( 4, index, intValue( 20 ) ),
+                add( 3, index, intValue( 30 ) ),
+                add( 2, otherIndex, stringValue( "a" ) ),
+                add( 1, otherIndex, stringValue( "b" ) ) );
+    }
+
+    @Test
+    void shouldCollapseMultipleUpdatesOfSameEntityIntoOne()
+    {
+        IndexUpdatesWork work = new IndexUpdatesWork( updates(
+                add( 1, index, intValue( 30 ) ),
+                change( 2, index, intValue( 5 ), intValue( 20 ) ),
+                add( 3, index, intValue( 1 ) ) ), NULL );
+        work = work.combine( new IndexUpdatesWork( updates(
+                change( 1, index, intValue( 30 ), intValue( 10 ) ),
+                remove( 2, index, intValue( 20 ) ),
+                remove( 3, index, intValue( 1 ) ) ), NULL ) );
+
+        assertThat( apply( work ) ).containsExactly(
+                remove( 2, index, intValue( 5 ) ),
+                add( 1, index, intValue( 10 ) ) );
+    }
+
+    @Test
+    void shouldKeepCommitOrderOfUniqueIndexUpdates()
+    {
+        IndexUpdatesWork work = new IndexUpdatesWork( updates(
+                remove( 2, uniqueIndex, intValue( 20 ) ),
+                add( 1, uniqueIndex, intValue( 20 ) ),
+                change( 1, uniqueIndex, intValue( 20 ), intValue( 10 ) ) ), NULL );
+
+        assertThat( apply( work ) ).containsExactly(
+                remove( 2, uniqueIndex, intValue( 20 ) ),
+                add( 1, uniqueIndex, intValue( 20 ) ),
+                change( 1, uniqueIndex, intValue( 20 ), intValue( 10 ) ) );
+    }
+
+    @SafeVarargs
+    private static IndexUpdates updates( IndexEntryUpdate<IndexDescriptor>... updates )
+    {
+        IndexUpdates indexUpdates = mock( IndexUpdates.class );
+        when( indexUpdates.iterator() ).thenAnswer( invocation -> asList( updates ).iterator() );
+        return indexUpdates;
+    }
+
+    private static List<IndexEntryUpdate<IndexDescriptor>> apply( IndexUpdatesWork work )
+    {
+        List<IndexEntryUpdate<IndexDescriptor>> applied = new ArrayList<>();
+        work.apply( new IndexUpdateListener.Adapter()
+        {
+            @Override
+            public void applyUpdates( Iterable<IndexEntryUpdate<IndexDescriptor>> updates, PageCursorTracer cursorTracer )
+            {
+                updates.forEach( applied::add );
+            }
+        } );
+        return applied;
+    }
+}
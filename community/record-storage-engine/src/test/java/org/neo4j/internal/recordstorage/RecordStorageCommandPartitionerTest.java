@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import org.neo4j.internal.recordstorage.Command.NodeCommand;
+import org.neo4j.internal.recordstorage.Command.PropertyCommand;
+import org.neo4j.kernel.impl.store.InlineNodeLabels;
+import org.neo4j.kernel.impl.store.PropertyType;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.storageengine.api.CommandsToApply;
+import org.neo4j.storageengine.api.StandardConstraintRuleAccessor;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.internal.recordstorage.Commands.createLabelToken;
+import static org.neo4j.internal.recordstorage.Commands.createNode;
+import static org.neo4j.internal.recordstorage.Commands.createProperty;
+import static org.neo4j.internal.recordstorage.Commands.createRelationship;
+import static org.neo4j.internal.recordstorage.Commands.transaction;
+import static org.neo4j.internal.schema.constraints.ConstraintDescriptorFactory.uniqueForLabel;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+class RecordStorageCommandPartitionerTest
+{
+    private final SchemaCache schemaCache = new SchemaCache( new StandardConstraintRuleAccessor(), index -> index );
+    private final RecordStorageCommandPartitioner partitioner = new RecordStorageCommandPartitioner( schemaCache );
+
+    @Test
+    void transactionsChangingDifferentRecordsShouldNotShareKeys() throws IOException
+    {
+        MutableLongSet first = partition( transaction( createNode( 1 ), createRelationship( 1, 1, 1, 0 ) ) );
+        MutableLongSet second = partition( transaction( createNode( 2 ), createRelationship( 2, 2, 2, 0 ) ) );
+
+        assertTrue( first.noneSatisfy( second::contains ) );
+    }
+
+    @Test
+    void transactionsChangingSameRecordShouldShareKeys() throws IOException
+    {
+        MutableLongSet first = partition( transaction( createNode( 1 ) ) );
+        MutableLongSet second = partition( transaction( createNode( 2 ), createNode( 1 ) ) );
+
+        assertTrue( first.anySatisfy( second::contains ) );
+    }
+
+    @Test
+    void propertyChangeShouldShareKeyWithOwningEntity() throws IOException
+    {
+        MutableLongSet node = partition( transaction( createNode( 5 ) ) );
+        MutableLongSet property = partition( transaction( nodeProperty( 10, 5, 1 ) ) );
+
+        assertTrue( node.anySatisfy( property::contains ) );
+    }
+
+    @Test
+    void dynamicPropertyRecordsShouldGiveKeys() throws IOException
+    {
+        MutableLongSet first = partition( transaction( createProperty( 1, PropertyType.STRING, 1, 20, 21 ) ) );
+        MutableLongSet second = partition( transaction( createProperty( 2, PropertyType.STRING, 1, 21 ) ) );
+
+        assertTrue( first.anySatisfy( second::contains ) );
+    }
+
+    @Test
+    void shouldNotPartitionTokenChanges() throws IOException
+    {
+        assertFalse( partitioner.partition( transaction( createNode( 1 ), createLabelToken( 1, 1 ) ), key -> {} ) );
+    }
+
+    @Test
+    void shouldNotPartitionChangesToUniquelyConstrainedProperties() throws IOException
+    {
+        schemaCache.addSchemaRule( uniqueForLabel( 3, 7 ).withId( 1 ).withOwnedIndexId( 2 ) );
+
+        assertFalse( partitioner.partition( transaction( nodeProperty( 10, 5, 7 ) ), key -> {} ) );
+        assertTrue( partitioner.partition( transaction( nodeProperty( 10, 5, 8 ) ), key -> {} ) );
+    }
+
+    @Test
+    void shouldNotPartitionLabelChangesOfUniquelyConstrainedLabels() throws IOException
+    {
+        schemaCache.addSchemaRule( uniqueForLabel( 3, 7 ).withId( 1 ).withOwnedIndexId( 2 ) );
+
+        assertFalse( partitioner.partition( transaction( labelledNode( 1, 3 ) ), key -> {} ) );
+        assertTrue( partitioner.partition( transaction( labelledNode( 1, 4 ) ), key -> {} ) );
+    }
+
+    private MutableLongSet partition( CommandsToApply transaction ) throws IOException
+    {
+        MutableLongSet keys = new LongHashSet();
+        assertTrue( partitioner.partition( transaction, keys::add ) );
+        return keys;
+    }
+
+    private static PropertyCommand nodeProperty( long id, long nodeId, int key )
+    {
+        PropertyCommand command = createProperty( id, PropertyType.INT, key );
+        command.getAfter().setNodeId( nodeId );
+        return command;
+    }
+
+    private static NodeCommand labelledNode( long id, long labelId )
+    {
+        NodeCommand command = createNode( id );
+        NodeRecord after = command.getAfter();
+        InlineNodeLabels.putSorted( after, new long[]{labelId}, null, null, NULL );
+        return command;
+    }
+}
@@ -73,14 +73,15 @@ class ExecutionResultSerializer
 
     private ResultDataContentWriter writer;
     private InputStatement inputStatement;
+    private TransactionStateChecker txStateChecker;
 
     ExecutionResultSerializer( OutputStream output, URI baseUri, TransactionHandle transactionHandle )
     {
         this.baseUri = baseUri;
         this.transactionHandle = transactionHandle;
         this.output = output;
-        JSON_FACTORY.setCodec( new Neo4jJsonCodec( transactionHandle ) );
         this.out = createGenerator( output );
+        this.out.setCodec( new Neo4jJsonCodec( transactionHandle ) );
     }
 
     private static JsonGenerator createGenerator( OutputStream output )
@@ -99,6 +100,7 @@ class ExecutionResultSerializer
     {
         this.inputStatement = inputStatement;
         this.writer = configureWriters( inputStatement.resultDataContents() );
+        this.txStateChecker = TransactionStateChecker.create( transactionHandle.getContext() );
         try
         {
             ensureResultsFieldOpen();
@@ -122,8 +124,6 @@ class ExecutionResultSerializer
     {
         try
         {
-            TransactionStateChecker txStateChecker = TransactionStateChecker.create( transactionHandle.getContext() );
-
             out.writeStartObject();
             try
             {
@@ -151,6 +151,13 @@ class ExecutionResultSerializer
         {
             return ResultDataContent.row.writer( baseUri ); // default
         }
+        if ( specifiers.contains( ResultDataContent.compact ) )
+        {
+            // compact writes the same "row" field as row, only without the meta
+            List<ResultDataContent> withoutRow = new ArrayList<>( specifiers );
+            withoutRow.removeIf( specifier -> specifier == ResultDataContent.row );
+            specifiers = withoutRow;
+        }
         if ( specifiers.size() == 1 )
         {
             return specifiers.get( 0 ).writer( baseUri );
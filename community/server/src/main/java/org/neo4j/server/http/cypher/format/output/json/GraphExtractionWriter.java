@@ -20,11 +20,11 @@
 package org.neo4j.server.http.cypher.format.output.json;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 
 import java.io.IOException;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 import org.neo4j.graphdb.Entity;
 import org.neo4j.graphdb.Label;
@@ -35,71 +35,122 @@ import org.neo4j.internal.helpers.collection.IterableWrapper;
 import org.neo4j.server.http.cypher.TransactionStateChecker;
 import org.neo4j.server.http.cypher.format.api.RecordEvent;
 
+/**
+ * Writes the nodes and relationships of a record as they are found in it, rather than collecting them first. The ids of the entities
+ * already written for the record are kept in primitive sets which are reused for all the records of the statement.
+ */
 class GraphExtractionWriter implements ResultDataContentWriter
 {
+    /**
+     * The sets are replaced rather than cleared when a record left more ids than this in them, so that one very large record does not
+     * keep their tables allocated for the remainder of the statement.
+     */
+    private static final int MAX_RETAINED_IDS = 1024;
+
+    private MutableLongSet nodeIds = new LongHashSet();
+    private MutableLongSet relationshipIds = new LongHashSet();
+
     @Override
     public void write( JsonGenerator out, RecordEvent recordEvent, TransactionStateChecker txStateChecker )
             throws IOException
     {
-        Set<Node> nodes = new HashSet<>();
-        Set<Relationship> relationships = new HashSet<>();
-        extract( nodes, relationships, map( recordEvent ) );
-
         out.writeObjectFieldStart( "graph" );
         try
         {
-            writeNodes( out, nodes, txStateChecker );
-            writeRelationships( out, relationships, txStateChecker );
+            out.writeArrayFieldStart( "nodes" );
+            try
+            {
+                writeNodes( out, map( recordEvent ), txStateChecker );
+            }
+            finally
+            {
+                out.writeEndArray();
+            }
+            out.writeArrayFieldStart( "relationships" );
+            try
+            {
+                writeRelationships( out, map( recordEvent ), txStateChecker );
+            }
+            finally
+            {
+                out.writeEndArray();
+            }
         }
         finally
         {
             out.writeEndObject();
+            nodeIds = reset( nodeIds );
+            relationshipIds = reset( relationshipIds );
         }
     }
 
-    private void writeNodes( JsonGenerator out, Iterable<Node> nodes, TransactionStateChecker txStateChecker )
-            throws IOException
+    private void writeNodes( JsonGenerator out, Iterable<?> source, TransactionStateChecker txStateChecker ) throws IOException
     {
-        out.writeArrayFieldStart( "nodes" );
+        for ( Object item : source )
+        {
+            if ( item instanceof Node )
+            {
+                writeNode( out, (Node) item, txStateChecker );
+            }
+            else if ( item instanceof Relationship )
+            {
+                Relationship relationship = (Relationship) item;
+                writeNode( out, relationship.getStartNode(), txStateChecker );
+                writeNode( out, relationship.getEndNode(), txStateChecker );
+            }
+            if ( item instanceof Path )
+            {
+                for ( Node node : ((Path) item).nodes() )
+                {
+                    writeNode( out, node, txStateChecker );
+                }
+            }
+            else if ( item instanceof Map<?,?> )
+            {
+                writeNodes( out, ((Map<?,?>) item).values(), txStateChecker );
+            }
+            else if ( item instanceof Iterable<?> )
+            {
+                writeNodes( out, (Iterable<?>) item, txStateChecker );
+            }
+        }
+    }
+
+    private void writeNode( JsonGenerator out, Node node, TransactionStateChecker txStateChecker ) throws IOException
+    {
+        long nodeId = node.getId();
+        if ( !nodeIds.add( nodeId ) )
+        {
+            return;
+        }
+        out.writeStartObject();
         try
         {
-            for ( Node node : nodes )
+            out.writeStringField( "id", Long.toString( nodeId ) );
+            if ( txStateChecker.isNodeDeletedInCurrentTx( nodeId ) )
+            {
+                markDeleted( out );
+            }
+            else
             {
-                out.writeStartObject();
+                out.writeArrayFieldStart( "labels" );
                 try
                 {
-                    long nodeId = node.getId();
-                    out.writeStringField( "id", Long.toString( nodeId ) );
-                    if ( txStateChecker.isNodeDeletedInCurrentTx( nodeId ) )
-                    {
-                        markDeleted( out );
-                    }
-                    else
+                    for ( Label label : node.getLabels() )
                     {
-                        out.writeArrayFieldStart( "labels" );
-                        try
-                        {
-                            for ( Label label : node.getLabels() )
-                            {
-                                out.writeString( label.name() );
-                            }
-                        }
-                        finally
-                        {
-                            out.writeEndArray();
-                        }
-                        writeProperties( out, node );
+                        out.writeString( label.name() );
                     }
                 }
                 finally
                 {
-                    out.writeEndObject();
+                    out.writeEndArray();
                 }
+                writeProperties( out, node );
             }
         }
         finally
         {
-            out.writeEndArray();
+            out.writeEndObject();
         }
     }
 
@@ -108,40 +159,58 @@ class GraphExtractionWriter implements ResultDataContentWriter
         out.writeBooleanField( "deleted", Boolean.TRUE );
     }
 
-    private void writeRelationships( JsonGenerator out, Iterable<Relationship> relationships,
-            TransactionStateChecker txStateChecker ) throws IOException
+    private void writeRelationships( JsonGenerator out, Iterable<?> source, TransactionStateChecker txStateChecker ) throws IOException
     {
-        out.writeArrayFieldStart( "relationships" );
-        try
+        for ( Object item : source )
         {
-            for ( Relationship relationship : relationships )
+            if ( item instanceof Relationship )
             {
-                out.writeStartObject();
-                try
-                {
-                    long relationshipId = relationship.getId();
-                    out.writeStringField( "id", Long.toString( relationshipId ) );
-                    if ( txStateChecker.isRelationshipDeletedInCurrentTx( relationshipId ) )
-                    {
-                        markDeleted( out );
-                    }
-                    else
-                    {
-                        out.writeStringField( "type", relationship.getType().name() );
-                        out.writeStringField( "startNode", Long.toString( relationship.getStartNode().getId() ) );
-                        out.writeStringField( "endNode", Long.toString( relationship.getEndNode().getId() ) );
-                        writeProperties( out, relationship );
-                    }
-                }
-                finally
+                writeRelationship( out, (Relationship) item, txStateChecker );
+            }
+            if ( item instanceof Path )
+            {
+                for ( Relationship relationship : ((Path) item).relationships() )
                 {
-                    out.writeEndObject();
+                    writeRelationship( out, relationship, txStateChecker );
                 }
             }
+            else if ( item instanceof Map<?,?> )
+            {
+                writeRelationships( out, ((Map<?,?>) item).values(), txStateChecker );
+            }
+            else if ( item instanceof Iterable<?> )
+            {
+                writeRelationships( out, (Iterable<?>) item, txStateChecker );
+            }
+        }
+    }
+
+    private void writeRelationship( JsonGenerator out, Relationship relationship, TransactionStateChecker txStateChecker ) throws IOException
+    {
+        long relationshipId = relationship.getId();
+        if ( !relationshipIds.add( relationshipId ) )
+        {
+            return;
+        }
+        out.writeStartObject();
+        try
+        {
+            out.writeStringField( "id", Long.toString( relationshipId ) );
+            if ( txStateChecker.isRelationshipDeletedInCurrentTx( relationshipId ) )
+            {
+                markDeleted( out );
+            }
+            else
+            {
+                out.writeStringField( "type", relationship.getType().name() );
+                out.writeStringField( "startNode", Long.toString( relationship.getStartNode().getId() ) );
+                out.writeStringField( "endNode", Long.toString( relationship.getEndNode().getId() ) );
+                writeProperties( out, relationship );
+            }
         }
         finally
         {
-            out.writeEndArray();
+            out.writeEndObject();
         }
     }
 
@@ -162,42 +231,14 @@ class GraphExtractionWriter implements ResultDataContentWriter
         }
     }
 
-    private void extract( Set<Node> nodes, Set<Relationship> relationships, Iterable<?> source )
+    private static MutableLongSet reset( MutableLongSet ids )
     {
-        for ( Object item : source )
+        if ( ids.size() > MAX_RETAINED_IDS )
         {
-            if ( item instanceof Node )
-            {
-                nodes.add( (Node) item );
-            }
-            else if ( item instanceof Relationship )
-            {
-                Relationship relationship = (Relationship) item;
-                relationships.add( relationship );
-                nodes.add( relationship.getStartNode() );
-                nodes.add( relationship.getEndNode() );
-            }
-            if ( item instanceof Path )
-            {
-                Path path = (Path) item;
-                for ( Node node : path.nodes() )
-                {
-                    nodes.add( node );
-                }
-                for ( Relationship relationship : path.relationships() )
-                {
-                    relationships.add( relationship );
-                }
-            }
-            else if ( item instanceof Map<?, ?> )
-            {
-                extract( nodes, relationships, ((Map<?, ?>) item).values() );
-            }
-            else if ( item instanceof Iterable<?> )
-            {
-                extract( nodes, relationships, (Iterable<?>) item );
-            }
+            return new LongHashSet();
         }
+        ids.clear();
+        return ids;
     }
 
     private static Iterable<?> map( RecordEvent recordEvent )
@@ -34,6 +34,14 @@ public enum ResultDataContent
             return new RowWriter();
         }
     },
+    compact
+    {
+        @Override
+        public ResultDataContentWriter writer( URI baseUri )
+        {
+            return new RowWriter( false );
+        }
+    },
     graph
     {
         @Override
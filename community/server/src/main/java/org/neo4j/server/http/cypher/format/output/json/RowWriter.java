@@ -29,6 +29,21 @@ import org.neo4j.server.http.cypher.format.common.Neo4jJsonCodec;
 
 class RowWriter implements ResultDataContentWriter
 {
+    private final boolean includeMeta;
+
+    RowWriter()
+    {
+        this( true );
+    }
+
+    /**
+     * @param includeMeta whether the type and id of the entities and temporal values in the row are written as {@code meta} after it.
+     */
+    RowWriter( boolean includeMeta )
+    {
+        this.includeMeta = includeMeta;
+    }
+
     @Override
     public void write( JsonGenerator out, RecordEvent recordEvent, TransactionStateChecker txStateChecker )
             throws IOException
@@ -44,7 +59,10 @@ class RowWriter implements ResultDataContentWriter
         finally
         {
             out.writeEndArray();
-            writeMeta( out, recordEvent );
+            if ( includeMeta )
+            {
+                writeMeta( out, recordEvent );
+            }
         }
     }
 
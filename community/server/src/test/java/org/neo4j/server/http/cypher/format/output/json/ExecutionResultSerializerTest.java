@@ -156,6 +156,26 @@ class ExecutionResultSerializerTest
                       "\"data\":[{\"row\":[\"value1\",\"value2\"],\"meta\":[null,null]}]}],\"errors\":[],\"commit\":\"commit/uri/1\"}", result );
     }
 
+    @Test
+    void shouldWriteRowOnlyOnceWhenCompactAndRowAreRequested() throws Exception
+    {
+        // given
+        Map<String, Object> row = new HashMap<>();
+        row.put( "column1", "value1" );
+        row.put( "column2", "value2" );
+
+        // when
+        writeStatementStart( Arrays.asList( ResultDataContent.row, ResultDataContent.compact ), "column1", "column2" );
+        writeRecord( row, "column1", "column2" );
+        writeStatementEnd();
+        writeTransactionInfo();
+
+        // then
+        String result = output.toString( UTF_8.name() );
+        assertEquals( "{\"results\":[{\"columns\":[\"column1\",\"column2\"]," +
+                      "\"data\":[{\"row\":[\"value1\",\"value2\"]}]}],\"errors\":[]}", result );
+    }
+
     @Test
     void shouldSerializeResponseWithResultsOnly() throws Exception
     {
@@ -187,9 +187,50 @@ class GraphExtractionWriterTest
         assertRelationships( result );
     }
 
+    @Test
+    void shouldWriteEntitiesFoundSeveralTimesInRowOnce() throws Exception
+    {
+        // given
+        Map<String, Object> row = new HashMap<>();
+        row.put( "n1", n1 );
+        row.put( "r1", r1 );
+        row.put( "p", path( n2, link( r1, n1 ), link( r2, n3 ) ) );
+        row.put( "list", asList( r2, n3 ) );
+
+        // when
+        JsonNode result = write( row );
+
+        // then
+        assertNodes( result );
+        assertRelationships( result );
+    }
+
+    @Test
+    void shouldWriteEntitiesOfEveryRecordWrittenBefore() throws Exception
+    {
+        // given
+        Map<String, Object> row = new HashMap<>();
+        row.put( "r1", r1 );
+        row.put( "r2", r2 );
+        GraphExtractionWriter writer = new GraphExtractionWriter();
+
+        // when
+        write( writer, row );
+        JsonNode result = write( writer, row );
+
+        // then
+        assertNodes( result );
+        assertRelationships( result );
+    }
+
     // The code under test
 
     private JsonNode write( Map<String, Object> row ) throws IOException, JsonParseException
+    {
+        return write( new GraphExtractionWriter(), row );
+    }
+
+    private JsonNode write( GraphExtractionWriter writer, Map<String, Object> row ) throws IOException, JsonParseException
     {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         JsonGenerator json = jsonFactory.createGenerator( out );
@@ -197,7 +238,7 @@ class GraphExtractionWriterTest
         try
         {
             RecordEvent recordEvent = new RecordEvent( new ArrayList<>( row.keySet() ), row::get );
-            new GraphExtractionWriter().write( json, recordEvent , checker );
+            writer.write( json, recordEvent , checker );
         }
         finally
         {
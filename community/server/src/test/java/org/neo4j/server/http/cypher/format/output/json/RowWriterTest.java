@@ -55,6 +55,18 @@ class RowWriterTest
         assertThat( firstCell.get( "one" ).get( "two" ).get( 1 ).get( "three" ).asInt() ).isEqualTo( 42 );
     }
 
+    @Test
+    void shouldNotWriteMetaInCompactRows() throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonGenerator json = new JsonFactory( new Neo4jJsonCodec() ).createGenerator( out );
+
+        JsonNode row = serialize( out, json, new RowWriter( false ) );
+
+        assertThat( row.size() ).isEqualTo( 1 );
+        assertThat( jsonNode( out.toString() ).has( "meta" ) ).isFalse();
+    }
+
     private JsonNode serialize( ByteArrayOutputStream out, JsonGenerator json, ResultDataContentWriter
             resultDataContentWriter ) throws IOException, JsonParseException
     {
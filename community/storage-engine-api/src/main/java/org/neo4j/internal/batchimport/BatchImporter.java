@@ -30,4 +30,20 @@ public interface BatchImporter
 {
     void doImport( Input input )
             throws IOException;
+
+    /**
+     * Imports the nodes of the given {@link Input} into a database which already exists, next to the data that is already there.
+     * Input ids are resolved against the ids stored on existing nodes, so that a node which already exists is treated like
+     * a duplicate in the input. This is a first stage of incremental import which only adds nodes: relationships can't be imported
+     * this way, and while the label index is added to and the counts store is rebuilt, schema indexes are only rebuilt when the
+     * database starts.
+     *
+     * @param input the nodes to add.
+     * @throws IOException on I/O error.
+     */
+    default void doIncrementalImport( Input input )
+            throws IOException
+    {
+        throw new UnsupportedOperationException( getClass().getSimpleName() + " can't import into an existing database" );
+    }
 }
@@ -20,6 +20,8 @@
 package org.neo4j.internal.batchimport.input;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.ToIntBiFunction;
 
 import org.neo4j.internal.batchimport.BatchImporter;
@@ -106,6 +108,16 @@ public interface Input
      */
     ReadableGroups groups();
 
+    /**
+     * @return for every id group that nodes of this input have ids in, the names of the properties which those ids are
+     * also stored in. The set of names is empty for groups whose ids aren't stored as properties. Used for resolving
+     * input ids against nodes that already exist in the database.
+     */
+    default Map<Group,Set<String>> nodeIdPropertyKeys()
+    {
+        return Map.of();
+    }
+
     /**
      * @param valueSizeCalculator for calculating property sizes on disk.
      * @return {@link Estimates} for this input w/o reading through it entirely.
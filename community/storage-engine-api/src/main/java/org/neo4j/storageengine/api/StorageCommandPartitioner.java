@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.storageengine.api;
+
+import java.io.IOException;
+import java.util.function.LongConsumer;
+
+/**
+ * Tells which parts of the storage the commands of a transaction change, so that transactions that change disjoint parts of the storage
+ * can be applied concurrently, for instance by recovery. Two transactions that change the same entity or record must produce at least
+ * one equal key, and must then be applied in commit order.
+ */
+public interface StorageCommandPartitioner
+{
+    /**
+     * A partitioner that does not know anything about the commands, and therefore requires that all transactions are applied in order.
+     */
+    StorageCommandPartitioner SERIAL = ( commands, keys ) -> false;
+
+    /**
+     * Gives the keys of the entities and records changed by the commands of a single transaction to the given consumer.
+     * This is called just before the transaction is applied, after all transactions that this method refused to partition have been applied.
+     *
+     * @param commands the commands of a single transaction.
+     * @param keys receives the keys of the parts of the storage that the commands change. The same key may be given more than once.
+     * @return {@code true} if the transaction can be applied concurrently with other transactions that do not share any keys with it,
+     * or {@code false} if the transaction must be applied while no other transactions are being applied, for instance because it changes
+     * tokens or schema. The keys given to the consumer are ignored when this method returns {@code false}.
+     * @throws IOException if the commands could not be visited.
+     */
+    boolean partition( CommandsToApply commands, LongConsumer keys ) throws IOException;
+}
@@ -109,6 +109,15 @@ public interface StorageEngine extends Lifecycle
      */
     void apply( CommandsToApply batch, TransactionApplicationMode mode ) throws Exception;
 
+    /**
+     * @return a {@link StorageCommandPartitioner} that tells which transactions can be {@link #apply(CommandsToApply, TransactionApplicationMode) applied}
+     * concurrently in {@link TransactionApplicationMode#RECOVERY} mode. By default all transactions are applied serially.
+     */
+    default StorageCommandPartitioner commandPartitioner()
+    {
+        return StorageCommandPartitioner.SERIAL;
+    }
+
     /**
      * Flushes and forces all changes down to underlying storage. This is a blocking call and when it returns
      * all changes applied to this storage engine will be durable.